@@ -0,0 +1,140 @@
+package com.rox.emu.mem;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Byte, word and block access for each {@link Memory} implementation.  {@link MultiSourceMemory} is mapped as the
+ * NES CPU sees memory: 2K of RAM mirrored four times from <code>0x0000</code> and 32K of {@link ReadOnlyMemory}
+ * program ROM from <code>0x8000</code>.
+ *
+ * @author Ross Drew
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemoryBenchmark {
+    private static final int ACCESSES = 1024;
+
+    private static final int RAM_SIZE = 0x800;
+    private static final int RAM_MIRRORED_SIZE = 0x2000;
+    private static final int PRG_ROM_START = 0x8000;
+    private static final int PRG_ROM_SIZE = 0x8000;
+
+    /** The {@link Memory} implementations benchmarked */
+    public enum Implementation {
+        SIMPLE {
+            @Override
+            Memory create() {
+                return new SimpleMemory();
+            }
+        },
+        MULTI_SOURCE {
+            @Override
+            Memory create() {
+                final int[] ramLogical = new int[RAM_MIRRORED_SIZE];
+                final int[] ramPhysical = new int[RAM_MIRRORED_SIZE];
+                for (int i = 0; i < RAM_MIRRORED_SIZE; i++) {
+                    ramLogical[i] = i;
+                    ramPhysical[i] = i % RAM_SIZE;
+                }
+
+                final int[] romLogical = new int[PRG_ROM_SIZE];
+                final int[] romPhysical = new int[PRG_ROM_SIZE];
+                for (int i = 0; i < PRG_ROM_SIZE; i++) {
+                    romLogical[i] = PRG_ROM_START + i;
+                    romPhysical[i] = i;
+                }
+
+                return new MultiSourceMemory().maintaining(new SimpleMemory())
+                                              .withMappingTo(ramLogical, ramPhysical, new SimpleMemory(RAM_SIZE))
+                                              .withMappingTo(romLogical, romPhysical, new ReadOnlyMemory(new byte[PRG_ROM_SIZE]));
+            }
+        },
+        READ_ONLY {
+            @Override
+            Memory create() {
+                return new ReadOnlyMemory(new byte[0x10000]);
+            }
+        };
+
+        abstract Memory create();
+    }
+
+    /**
+     * Any {@link Memory}, read from RAM and program ROM addresses
+     */
+    @State(Scope.Thread)
+    public static class ReadableMemory {
+        @Param
+        public Implementation implementation;
+
+        Memory memory;
+        final RoxWord[] addresses = new RoxWord[ACCESSES];
+
+        @Setup
+        public void setUp(){
+            memory = implementation.create();
+            for (int i = 0; i < ACCESSES; i++){
+                //Alternate between RAM and program ROM, as executing code does
+                final int address = (i % 2 == 0) ? (i * 7) % RAM_MIRRORED_SIZE : PRG_ROM_START + ((i * 13) % (PRG_ROM_SIZE - 1));
+                addresses[i] = RoxWord.fromLiteral(address);
+            }
+        }
+    }
+
+    /**
+     * Writable {@link Memory}, written to at RAM addresses
+     */
+    @State(Scope.Thread)
+    public static class WritableMemory {
+        @Param({"SIMPLE", "MULTI_SOURCE"})
+        public Implementation implementation;
+
+        Memory memory;
+        final RoxWord[] addresses = new RoxWord[ACCESSES];
+        final RoxByte[] values = new RoxByte[ACCESSES];
+
+        @Setup
+        public void setUp(){
+            memory = implementation.create();
+            for (int i = 0; i < ACCESSES; i++){
+                addresses[i] = RoxWord.fromLiteral((i * 7) % RAM_MIRRORED_SIZE);
+                values[i] = RoxByte.fromLiteral(i & 0xFF);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public RoxByte getByte(ReadableMemory state){
+        RoxByte result = null;
+        for (RoxWord address : state.addresses)
+            result = state.memory.getByte(address);
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public RoxWord getWord(ReadableMemory state){
+        RoxWord result = null;
+        for (RoxWord address : state.addresses)
+            result = state.memory.getWord(address);
+        return result;
+    }
+
+    @Benchmark
+    public RoxByte[] getBlock(ReadableMemory state){
+        return state.memory.getBlock(RoxWord.fromLiteral(PRG_ROM_START), RoxWord.fromLiteral(PRG_ROM_START + 0x100));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public Memory setByteAt(WritableMemory state){
+        for (int i = 0; i < ACCESSES; i++)
+            state.memory.setByteAt(state.addresses[i], state.values[i]);
+        return state.memory;
+    }
+}
@@ -0,0 +1,94 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.util.Program;
+import com.rox.emu.processor.ricoh2c02.Ricoh2C02;
+import com.rox.emu.rom.InesRom;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.*;
+
+/**
+ * Whole {@link NES} frame throughput, in frames per second, of a cartridge which shows the background and sprites and
+ * every frame writes the nametable, copies sprites in by OAM DMA and scrolls, with the picture drawn on the CPU thread
+ * or {@link NES#setPipelined(boolean) pipelined} onto another, and the PPU stepped after every instruction or only
+ * {@link NES#setPpuCatchUp(boolean) caught up} when needed
+ *
+ * @author Ross Drew
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NESBenchmark {
+    private static final int NMI_ADDRESS = 0x8100;
+
+    @Param({"false", "true"})
+    public boolean pipelined;
+
+    @Param({"false", "true"})
+    public boolean ppuCatchUp;
+
+    private NES nes;
+
+    @Setup
+    public void setUp(){
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom());
+        final Mos6502 processor = new Mos6502(memoryMap.getCpuMemory(), new Registers());
+        nes = new NES(processor, new Ricoh2C02(memoryMap.getPpuMemory(), new SimpleMemory(Ricoh2C02.OAM_SIZE)), memoryMap);
+        nes.reset();
+        processor.reset();
+        nes.setPpuCatchUp(ppuCatchUp);
+        nes.setPipelined(pipelined);
+    }
+
+    @TearDown
+    public void tearDown(){
+        nes.setPipelined(false);
+    }
+
+    @Benchmark
+    public long frame(){
+        nes.runFrame();
+        return nes.getFrames();
+    }
+
+    private static InesRom rom(){
+        final Program setUp = new Program().with(LDA_I, 0x3F, STA_ABS, 0x20, 0x06,
+                                                 LDA_I, 0x00, STA_ABS, 0x20, 0x06,
+                                                 LDA_I, 0x0F, STA_ABS, 0x20, 0x07,
+                                                 LDA_I, 0x21, STA_ABS, 0x20, 0x07,
+                                                 LDA_I, 0x80, STA_ABS, 0x20, 0x00,
+                                                 LDA_I, 0x1E, STA_ABS, 0x20, 0x01);
+        final int loop = 0x8000 + setUp.getLength();
+        final RoxByte[] main = setUp.with(INC_ABS, 0x02, 0x01,
+                                          JMP_ABS, loop >> 8, loop & 0xFF).getProgramAsByteArray();
+
+        final RoxByte[] nmi = new Program().with(INC_ABS, 0x00, 0x10,
+                                                 LDA_I, 0x20, STA_ABS, 0x20, 0x06,
+                                                 LDA_ABS, 0x00, 0x10, STA_ABS, 0x20, 0x06,
+                                                 STA_ABS, 0x20, 0x07,
+                                                 LDA_I, 0x02, STA_ABS, 0x40, 0x14,
+                                                 LDA_ABS, 0x20, 0x02,
+                                                 LDA_ABS, 0x00, 0x10, STA_ABS, 0x20, 0x05,
+                                                 STA_ABS, 0x20, 0x05,
+                                                 JMP_ABS, loop >> 8, loop & 0xFF).getProgramAsByteArray();
+
+        final byte[] image = new byte[16 + InesRom.PRG_ROM_BLOCK_SIZE + InesRom.CHR_ROM_BLOCK_SIZE];
+        System.arraycopy(new byte[] {'N', 'E', 'S', 0x1A, 0x1, 0x1}, 0, image, 0, 6);
+        for (int i = 0; i < main.length; i++)
+            image[16 + i] = (byte) main[i].getRawValue();
+        for (int i = 0; i < nmi.length; i++)
+            image[16 + (NMI_ADDRESS - 0x8000) + i] = (byte) nmi[i].getRawValue();
+        for (int i = 0; i < InesRom.CHR_ROM_BLOCK_SIZE; i++)
+            image[16 + InesRom.PRG_ROM_BLOCK_SIZE + i] = (byte) (i * 7);
+        image[16 + 0x3FFA] = (byte) (NMI_ADDRESS >> 8);
+        image[16 + 0x3FFC] = (byte) 0x80;
+
+        return InesRom.from(image);
+    }
+}
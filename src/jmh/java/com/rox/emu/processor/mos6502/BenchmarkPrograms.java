@@ -0,0 +1,65 @@
+package com.rox.emu.processor.mos6502;
+
+import com.rox.emu.processor.mos6502.util.Mos6502Compiler;
+import com.rox.emu.processor.mos6502.util.Program;
+
+/**
+ * Representative {@link Mos6502} programs, for benchmarking, which loop forever when loaded at address <code>0</code>.<br/>
+ * <br/>
+ * Loops jump back to hard coded addresses (noted alongside) because branches are only taken forward to labels.
+ *
+ * @author Ross Drew
+ */
+public enum BenchmarkPrograms {
+    /** Shift and add multiplication: zero page access, shifts, arithmetic and branches */
+    MULTIPLY("LDA #$07 STA $80 " +
+             "LDA #$04 STA $81 " +
+             "LDA #$00 STA $82 STA $83 " +
+             "LDX #$08 " +
+             "MULT: LSR $81 " +        //0x10
+             "BCC NOADD " +
+             "LDA $82 CLC ADC $80 STA $82 " +
+             "LDA $83 ADC #$00 STA $83 " +
+             "NOADD: ASL $80 " +
+             "DEX " +
+             "BEQ DONE " +
+             "JMP $0010 " +            //MULT
+             "DONE: JMP $0000"),
+
+    /** Copy a page of memory: absolute indexed loads and stores */
+    COPY("LDX #$00 " +
+         "COPY: LDA $0200,X " +        //0x02
+         "STA $0300,X " +
+         "INX " +
+         "BEQ DONE " +
+         "JMP $0002 " +                //COPY
+         "DONE: JMP $0000"),
+
+    /** Push and pull from the stack: transfers and stack operations */
+    STACK("LDX #$FF " +
+          "PUSH: TXA PHA PHP PLP PLA " + //0x02
+          "DEX " +
+          "BEQ DONE " +
+          "JMP $0002 " +                 //PUSH
+          "DONE: JMP $0000");
+
+    private final String source;
+
+    BenchmarkPrograms(String source){
+        this.source = source;
+    }
+
+    /**
+     * @return the program as source text, suitable for {@link Mos6502Compiler}
+     */
+    public String getSource(){
+        return source;
+    }
+
+    /**
+     * @return the program, compiled with {@link Mos6502Compiler}
+     */
+    public Program compile(){
+        return new Mos6502Compiler(source).compileProgram();
+    }
+}
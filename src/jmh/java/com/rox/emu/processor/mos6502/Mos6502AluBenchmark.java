@@ -0,0 +1,88 @@
+package com.rox.emu.processor.mos6502;
+
+import com.rox.emu.env.RoxByte;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Mos6502Alu} operations over every combination of byte values
+ *
+ * @author Ross Drew
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Mos6502AluBenchmark {
+    private static final int OPERATIONS = 256;
+
+    private final RoxByte[] values = new RoxByte[OPERATIONS];
+
+    private Registers registers;
+    private Mos6502Alu alu;
+    private int operand = 0;
+
+    @Setup
+    public void setUp(){
+        registers = new Registers();
+        alu = new Mos6502Alu(registers);
+        for (int i = 0; i < values.length; i++)
+            values[i] = RoxByte.fromLiteral(i);
+    }
+
+    /**
+     * Move the second operand on, so that over successive invocations every pair of values is used
+     */
+    private RoxByte nextOperand(){
+        operand = (operand + 1) & 0xFF;
+        return values[operand];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public RoxByte adc(){
+        final RoxByte operandB = nextOperand();
+        RoxByte result = null;
+        for (RoxByte value : values)
+            result = alu.adc(value, operandB);
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public RoxByte sbc(){
+        final RoxByte operandB = nextOperand();
+        RoxByte result = null;
+        for (RoxByte value : values)
+            result = alu.sbc(value, operandB);
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public RoxByte and(){
+        final RoxByte operandB = nextOperand();
+        RoxByte result = null;
+        for (RoxByte value : values)
+            result = alu.and(value, operandB);
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public RoxByte asl(){
+        RoxByte result = null;
+        for (RoxByte value : values)
+            result = alu.asl(value);
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public RoxByte rol(){
+        RoxByte result = null;
+        for (RoxByte value : values)
+            result = alu.rol(value);
+        return result;
+    }
+}
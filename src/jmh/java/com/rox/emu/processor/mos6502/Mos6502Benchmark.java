@@ -0,0 +1,81 @@
+package com.rox.emu.processor.mos6502;
+
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.dbg.Breakpoints;
+import com.rox.emu.processor.mos6502.dbg.InstructionProfiler;
+import com.rox.emu.processor.mos6502.dbg.InstructionTrace;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Mos6502} instruction throughput over {@link BenchmarkPrograms}, with and without the debugging
+ * instrumentation which can be attached to it.<br/>
+ * <br/>
+ * {@link Instrumentation#UNARMED_BREAKPOINTS} and {@link Instrumentation#ARMED_BREAKPOINTS} (with breakpoints and
+ * watchpoints which are never hit) show the cost of having breakpoints attached against {@link Instrumentation#NONE}.
+ *
+ * @author Ross Drew
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Mos6502Benchmark {
+    private static final int INSTRUCTIONS = 1000;
+
+    /** What is attached to the processor while it runs */
+    public enum Instrumentation {
+        NONE,
+        UNARMED_BREAKPOINTS,
+        ARMED_BREAKPOINTS,
+        PROFILER,
+        TRACE
+    }
+
+    @Param
+    public BenchmarkPrograms program;
+
+    @Param
+    public Instrumentation instrumentation;
+
+    private Mos6502 processor;
+
+    @Setup
+    public void setUp(){
+        final Breakpoints breakpoints = new Breakpoints();
+        final Memory memory = (instrumentation == Instrumentation.ARMED_BREAKPOINTS)
+                              ? breakpoints.watching(new SimpleMemory())
+                              : new SimpleMemory();
+
+        processor = new Mos6502(memory, new Registers());
+        processor.reset();
+        memory.setBlock(RoxWord.ZERO, program.compile().getProgramAsByteArray());
+
+        switch (instrumentation){
+            case UNARMED_BREAKPOINTS:
+                processor.setBreakpoints(breakpoints);
+                break;
+            case ARMED_BREAKPOINTS:
+                breakpoints.add(0xFFF0);
+                breakpoints.watchWrite(0x0400);
+                processor.setBreakpoints(breakpoints);
+                break;
+            case PROFILER:
+                processor.setProfiler(new InstructionProfiler());
+                break;
+            case TRACE:
+                processor.setTrace(new InstructionTrace(100_000));
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTRUCTIONS)
+    public int step(){
+        return processor.step(INSTRUCTIONS);
+    }
+}
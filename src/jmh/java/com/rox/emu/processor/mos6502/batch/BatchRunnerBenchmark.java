@@ -0,0 +1,52 @@
+package com.rox.emu.processor.mos6502.batch;
+
+import com.rox.emu.processor.mos6502.BenchmarkPrograms;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BatchRunner} job throughput against pool parallelism, which should scale linearly up to the number of cores
+ *
+ * @author Ross Drew
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchRunnerBenchmark {
+    private static final int JOBS = 256;
+    private static final long CYCLE_BUDGET = 10_000;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private BatchRunner runner;
+    private List<BatchJob> jobs;
+
+    @Setup
+    public void setUp(){
+        pool = new ForkJoinPool(parallelism);
+        runner = new BatchRunner(pool);
+
+        jobs = new ArrayList<>();
+        for (int i = 0; i < JOBS; i++) {
+            final BenchmarkPrograms program = BenchmarkPrograms.values()[i % BenchmarkPrograms.values().length];
+            jobs.add(BatchJob.of(program.name() + " " + i, program.compile()).withCycleBudget(CYCLE_BUDGET));
+        }
+    }
+
+    @TearDown
+    public void tearDown(){
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(JOBS)
+    public List<BatchResult> run(){
+        return runner.run(jobs);
+    }
+}
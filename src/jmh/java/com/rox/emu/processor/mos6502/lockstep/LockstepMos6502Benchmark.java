@@ -0,0 +1,64 @@
+package com.rox.emu.processor.mos6502.lockstep;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.BenchmarkPrograms;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LockstepMos6502} lane throughput against the same number of independent {@link Mos6502}s running the same
+ * program
+ *
+ * @author Ross Drew
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LockstepMos6502Benchmark {
+    private static final int STEPS = 1000;
+
+    @Param({"MULTIPLY", "COPY", "STACK"})
+    public BenchmarkPrograms program;
+
+    @Param({"16", "256"})
+    public int lanes;
+
+    private LockstepMos6502 lockstep;
+    private Mos6502[] processors;
+
+    @Setup
+    public void setUp(){
+        final RoxByte[] code = program.compile().getProgramAsByteArray();
+
+        lockstep = new LockstepMos6502(lanes);
+        processors = new Mos6502[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            lockstep.getMemory(lane).setBlock(RoxWord.ZERO, code);
+
+            final Memory memory = new SimpleMemory();
+            memory.setBlock(RoxWord.ZERO, code);
+            processors[lane] = new Mos6502(memory, new Registers());
+            processors[lane].reset();
+        }
+        lockstep.reset();
+    }
+
+    @Benchmark
+    public LockstepMos6502 lockstep(){
+        lockstep.step(STEPS);
+        return lockstep;
+    }
+
+    @Benchmark
+    public Mos6502[] scalar(){
+        for (Mos6502 processor : processors)
+            processor.step(STEPS);
+        return processors;
+    }
+}
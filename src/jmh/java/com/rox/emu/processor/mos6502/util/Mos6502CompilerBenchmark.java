@@ -0,0 +1,31 @@
+package com.rox.emu.processor.mos6502.util;
+
+import com.rox.emu.processor.mos6502.BenchmarkPrograms;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Mos6502Compiler#compileProgram()} of {@link BenchmarkPrograms}
+ *
+ * @author Ross Drew
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Mos6502CompilerBenchmark {
+    @Param
+    public BenchmarkPrograms program;
+
+    private String source;
+
+    @Setup
+    public void setUp(){
+        source = program.getSource();
+    }
+
+    @Benchmark
+    public Program compileProgram(){
+        return new Mos6502Compiler(source).compileProgram();
+    }
+}
@@ -0,0 +1,92 @@
+package com.rox.emu.processor.ricoh2c02;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.nes.NES;
+import com.rox.emu.nes.NESMemoryMap;
+import com.rox.emu.rom.InesRom;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless {@link Ricoh2C02} rendering throughput, in frames per second, of a busy screen drawn from the character
+ * ROM of a bundled ROM: every background tile in use and all 64 sprites spread over the screen, drawing every frame or,
+ * as a headless run would, none
+ *
+ * @author Ross Drew
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class Ricoh2C02Benchmark {
+    private static final int MASK = 0x2001;
+    private static final int ADDRESS = 0x2006;
+    private static final int DATA = 0x2007;
+
+    /** Which layers are shown, as a PPUMASK value */
+    @Param({"0x00", "0x0A", "0x1E"})
+    public String mask;
+
+    /** Frames between those drawn, 0 for none */
+    @Param({"1", "0"})
+    public int renderInterval;
+
+    private Ricoh2C02 ppu;
+    private int[] argb;
+    private long cycles;
+
+    @Setup
+    public void setUp() throws IOException {
+        final InesRom rom;
+        try (InputStream romStream = Ricoh2C02Benchmark.class.getResourceAsStream("/rom/Stars.NES")) {
+            if (romStream == null)
+                throw new IOException("ROM not found on classpath: Stars.NES");
+            rom = InesRom.from(romStream);
+        }
+
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom);
+        final Memory oam = new SimpleMemory(0x100);
+        ppu = new Ricoh2C02(memoryMap.getPpuMemory(), oam);
+        argb = new int[Ricoh2C02.SCREEN_WIDTH * Ricoh2C02.SCREEN_HEIGHT];
+
+        for (int sprite = 0; sprite < 64; sprite++) {
+            oam.setByteAt(RoxWord.fromLiteral(sprite * 4), RoxByte.fromLiteral((sprite * 29) % 232));
+            oam.setByteAt(RoxWord.fromLiteral(sprite * 4 + 1), RoxByte.fromLiteral(sprite));
+            oam.setByteAt(RoxWord.fromLiteral(sprite * 4 + 2), RoxByte.fromLiteral(sprite & 0xE3));
+            oam.setByteAt(RoxWord.fromLiteral(sprite * 4 + 3), RoxByte.fromLiteral(sprite * 37));
+        }
+
+        ppu.writeRegister(ADDRESS, 0x20);
+        ppu.writeRegister(ADDRESS, 0x00);
+        for (int tile = 0; tile < 0x800; tile++)
+            ppu.writeRegister(DATA, tile * 7);
+
+        ppu.writeRegister(ADDRESS, 0x3F);
+        ppu.writeRegister(ADDRESS, 0x00);
+        for (int entry = 0; entry < 0x20; entry++)
+            ppu.writeRegister(DATA, entry * 3);
+
+        ppu.writeRegister(ADDRESS, 0x00);
+        ppu.writeRegister(ADDRESS, 0x00);
+        ppu.writeRegister(MASK, Integer.decode(mask));
+        ppu.setRenderInterval(renderInterval);
+    }
+
+    @Benchmark
+    public int[] frame(){
+        cycles += NES.CPU_CYCLES_PER_FRAME;
+        ppu.runTo(cycles);
+        return ppu.getFramebuffer();
+    }
+
+    @Benchmark
+    public int[] argbFrame(){
+        Ricoh2C02Palette.toArgb(frame(), argb);
+        return argb;
+    }
+}
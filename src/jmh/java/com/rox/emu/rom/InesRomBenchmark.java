@@ -0,0 +1,43 @@
+package com.rox.emu.rom;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InesRom#from(byte[])} parsing of the bundled ROMs
+ *
+ * @author Ross Drew
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InesRomBenchmark {
+    @Param({"Stars.NES", "Stars_Field.NES", "Stars_Biology.nes"})
+    public String romName;
+
+    private byte[] romBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream romStream = InesRomBenchmark.class.getResourceAsStream("/rom/" + romName)){
+            if (romStream == null)
+                throw new IOException("ROM not found on classpath: " + romName);
+
+            final ByteArrayOutputStream romBuffer = new ByteArrayOutputStream();
+            final byte[] chunk = new byte[8192];
+            int read;
+            while ((read = romStream.read(chunk)) != -1)
+                romBuffer.write(chunk, 0, read);
+            romBytes = romBuffer.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public InesRom from(){
+        return InesRom.from(romBytes);
+    }
+}
@@ -0,0 +1,237 @@
+package com.rox.emu.mem;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * An address space split into fixed size pages, each of which can be mapped onto a region of some other {@link Memory}
+ * (a bank) through a page table.<br/>
+ * <br/>
+ * Mapping a bank replaces page table entries rather than copying bank contents, so switching a bank in or out costs
+ * one or two array stores per page, however large the bank.  Reads from unmapped pages return zero and writes to them
+ * are ignored.  Writes to pages can also be intercepted, i.e. by a cartridge mapper watching for writes to its
+ * registers, in which case they go to the {@link WriteHandler} instead of the bank.
+ *
+ * @author Ross Drew
+ */
+public class BankedMemory implements Memory {
+    /**
+     * Receives writes to intercepted pages
+     */
+    @FunctionalInterface
+    public interface WriteHandler {
+        /**
+         * @param address written to, in this address space
+         * @param value written
+         */
+        void write(int address, RoxByte value);
+    }
+
+    private final int size;
+    private final int pageSize;
+    private final int pageShift;
+    private final int pageMask;
+
+    private final Memory[] banks;
+    private final int[] bankOffsets;
+    private final WriteHandler[] writeHandlers;
+
+    /**
+     * @param size of the address space in bytes, a multiple of <code>pageSize</code>
+     * @param pageSize the granularity of mapping in bytes, a power of two
+     */
+    public BankedMemory(final int size, final int pageSize){
+        if (pageSize <= 0 || Integer.bitCount(pageSize) != 1)
+            throw new IllegalArgumentException("Page size must be a power of two, not " + pageSize);
+        if (size <= 0 || size % pageSize != 0)
+            throw new IllegalArgumentException("Size must be a multiple of the " + pageSize + " byte page size, not " + size);
+
+        this.size = size;
+        this.pageSize = pageSize;
+        this.pageShift = Integer.numberOfTrailingZeros(pageSize);
+        this.pageMask = pageSize - 1;
+
+        final int pages = size / pageSize;
+        this.banks = new Memory[pages];
+        this.bankOffsets = new int[pages];
+        this.writeHandlers = new WriteHandler[pages];
+    }
+
+    /**
+     * @return the granularity of mapping in bytes
+     */
+    public int getPageSize(){
+        return pageSize;
+    }
+
+    /**
+     * Map <code>length</code> bytes from <code>address</code> onto <code>bank</code>, from <code>bankOffset</code>
+     *
+     * @param address the page aligned start of the region to map
+     * @param length of the region in bytes, a multiple of the page size
+     * @param bank to map the region onto
+     * @param bankOffset of the start of the region in <code>bank</code>
+     */
+    public void map(final int address, final int length, final Memory bank, final int bankOffset){
+        final int firstPage = firstPage(address, length);
+        for (int page = firstPage, offset = bankOffset; page < firstPage + (length >> pageShift); page++, offset += pageSize) {
+            banks[page] = bank;
+            bankOffsets[page] = offset;
+        }
+    }
+
+    /**
+     * Remove the mapping of <code>length</code> bytes from <code>address</code>
+     *
+     * @param address the page aligned start of the region to unmap
+     * @param length of the region in bytes, a multiple of the page size
+     */
+    public void unmap(final int address, final int length){
+        map(address, length, null, 0);
+    }
+
+    /**
+     * Send writes to <code>length</code> bytes from <code>address</code> to <code>handler</code> rather than to the bank
+     * mapped there.  Reads are unaffected.
+     *
+     * @param address the page aligned start of the region to intercept
+     * @param length of the region in bytes, a multiple of the page size
+     * @param handler to receive writes, or <code>null</code> to stop intercepting them
+     */
+    public void intercept(final int address, final int length, final WriteHandler handler){
+        final int firstPage = firstPage(address, length);
+        for (int page = firstPage; page < firstPage + (length >> pageShift); page++)
+            writeHandlers[page] = handler;
+    }
+
+    private int firstPage(final int address, final int length){
+        if ((address & pageMask) != 0 || (length & pageMask) != 0 || address < 0 || address + length > size)
+            throw new MemoryMappingException("Cannot map " + length + " bytes at " + address + " in " + pageSize + " byte pages of a " + size + " byte address space");
+        return address >> pageShift;
+    }
+
+    /**
+     * @param address in this address space
+     * @return the handler writes to <code>address</code> are {@link #intercept(int, int, WriteHandler) intercepted} by
+     *         or <code>null</code> if they aren't
+     */
+    public WriteHandler getWriteHandlerAt(final int address){
+        return writeHandlers[address >> pageShift];
+    }
+
+    /**
+     * @param address in this address space
+     * @return the bank mapped at <code>address</code> or <code>null</code> if it's unmapped
+     */
+    public Memory getBankAt(final int address){
+        return banks[address >> pageShift];
+    }
+
+    /**
+     * @param address in this address space
+     * @return the location in the bank mapped at <code>address</code> which it maps onto
+     */
+    public int getBankOffsetAt(final int address){
+        return bankOffsets[address >> pageShift] + (address & pageMask);
+    }
+
+    @Override
+    public void setByteAt(RoxWord location, RoxByte byteValue) {
+        setByteAt(location.getRawValue(), byteValue);
+    }
+
+    @Override
+    public void setByteAt(int address, RoxByte byteValue) {
+        final int page = address >> pageShift;
+
+        final WriteHandler handler = writeHandlers[page];
+        if (handler != null) {
+            handler.write(address, byteValue);
+            return;
+        }
+
+        final Memory bank = banks[page];
+        if (bank != null)
+            bank.setByteAt(bankOffsets[page] + (address & pageMask), byteValue);
+    }
+
+    @Override
+    public void setBlock(RoxWord startLocation, RoxByte[] byteValues) {
+        //In case a block crosses several pages
+        int address = startLocation.getRawValue();
+        for (RoxByte byteValue : byteValues)
+            setByteAt(address++, byteValue);
+    }
+
+    @Override
+    public RoxByte getByte(RoxWord location) {
+        return ReadOnlyMemory.valueOf(getRawByte(location.getRawValue()));
+    }
+
+    @Override
+    public int getRawByte(int address) {
+        final int page = address >> pageShift;
+
+        final Memory bank = banks[page];
+        if (bank == null)
+            return 0;
+
+        return bank.getRawByte(bankOffsets[page] + (address & pageMask));
+    }
+
+    @Override
+    public RoxWord getWord(RoxWord location) {
+        return RoxWord.from(getByte(location), ReadOnlyMemory.valueOf(getRawByte(location.getRawValue() + 1)));
+    }
+
+    @Override
+    public RoxByte[] getBlock(RoxWord from, RoxWord to) {
+        final RoxByte[] block = new RoxByte[to.getRawValue() - from.getRawValue()];
+
+        //In case a block crosses several pages
+        for (int i = 0; i < block.length; i++)
+            block[i] = ReadOnlyMemory.valueOf(getRawByte(from.getRawValue() + i));
+        return block;
+    }
+
+    /**
+     * Copy a page at a time, from the bank mapped there, so bulk copies between banks stay bulk copies
+     */
+    @Override
+    public void copyTo(int address, Memory destination, int destinationAddress, int length) {
+        int copied = 0;
+        while (copied < length) {
+            final int from = address + copied;
+            final int page = from >> pageShift;
+            final int chunk = Math.min(length - copied, pageSize - (from & pageMask));
+
+            final Memory bank = banks[page];
+            if (bank == null)
+                Memory.super.copyTo(from, destination, destinationAddress + copied, chunk);
+            else
+                bank.copyTo(bankOffsets[page] + (from & pageMask), destination, destinationAddress + copied, chunk);
+            copied += chunk;
+        }
+    }
+
+    /**
+     * Reset every bank currently mapped, once each
+     */
+    @Override
+    public void reset() {
+        final Set<Memory> mappedBanks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Memory bank : banks) {
+            if (bank != null && mappedBanks.add(bank))
+                bank.reset();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,174 @@
+package com.rox.emu.mem;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Battery backed memory, i.e. cartridge save RAM, held in a memory mapped file so that it persists between runs.<br/>
+ * <br/>
+ * Writes go straight to the mapping and are left to the operating system to write back, so they survive the emulator
+ * crashing.  {@link #flush()} forces any writes out to the file, surviving the machine crashing too, and is expected to
+ * be called in batches, i.e. at the end of each frame or periodically via {@link #startFlushing(long, TimeUnit)},
+ * rather than on every write.  Being battery backed, {@link #reset()} has no effect.
+ *
+ * @author Ross Drew
+ */
+public class MappedSaveMemory implements Memory, Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer contents;
+    private final int size;
+
+    private volatile boolean dirty = false;
+    private ScheduledExecutorService flusher;
+
+    private MappedSaveMemory(final FileChannel channel, final MappedByteBuffer contents, final int size){
+        this.channel = channel;
+        this.contents = contents;
+        this.size = size;
+    }
+
+    /**
+     * Map <code>file</code> as save memory, creating it, or extending it with zeros, if it's smaller than
+     * <code>size</code>
+     *
+     * @param file to hold the save memory, conventionally named after the ROM with a <code>.sav</code> extension
+     * @param size of the save memory in bytes
+     * @return save memory backed by <code>file</code>
+     * @throws IOException if <code>file</code> cannot be created or mapped
+     */
+    public static MappedSaveMemory open(final Path file, final int size) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new MappedSaveMemory(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Force any writes since the last flush out to the file
+     */
+    public void flush(){
+        if (!dirty)
+            return;
+
+        dirty = false;
+        contents.force();
+    }
+
+    /**
+     * @return <code>true</code> if there have been writes since the last {@link #flush()}
+     */
+    public boolean isDirty(){
+        return dirty;
+    }
+
+    /**
+     * Periodically {@link #flush()} on a background thread
+     *
+     * @param period between flushes
+     * @param unit of <code>period</code>
+     */
+    public synchronized void startFlushing(final long period, final TimeUnit unit){
+        stopFlushing();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "MappedSaveMemory-Flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(this::flush, period, period, unit);
+    }
+
+    /**
+     * Stop any periodic flushing
+     */
+    public synchronized void stopFlushing(){
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+    }
+
+    /**
+     * Stop any periodic flushing, {@link #flush()} and close the file.  The memory must not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        stopFlushing();
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Set every byte to zero, erasing the save
+     */
+    public void clear(){
+        for (int address = 0; address < size; address++)
+            contents.put(address, (byte) 0);
+        dirty = true;
+    }
+
+    @Override
+    public void setByteAt(RoxWord location, RoxByte byteValue) {
+        contents.put(location.getRawValue(), (byte) byteValue.getRawValue());
+        dirty = true;
+    }
+
+    @Override
+    public void setByteAt(int address, RoxByte byteValue) {
+        contents.put(address, (byte) byteValue.getRawValue());
+        dirty = true;
+    }
+
+    @Override
+    public void setBlock(RoxWord startLocation, RoxByte[] byteValues) {
+        int address = startLocation.getRawValue();
+        for (RoxByte byteValue : byteValues)
+            contents.put(address++, (byte) byteValue.getRawValue());
+        dirty = true;
+    }
+
+    @Override
+    public RoxByte getByte(RoxWord location) {
+        return ReadOnlyMemory.valueOf(contents.get(location.getRawValue()));
+    }
+
+    @Override
+    public int getRawByte(int address) {
+        return contents.get(address) & 0xFF;
+    }
+
+    @Override
+    public RoxWord getWord(RoxWord location) {
+        return RoxWord.from(getByte(location), getByte(RoxWord.fromLiteral(location.getRawValue() + 1)));
+    }
+
+    @Override
+    public RoxByte[] getBlock(RoxWord from, RoxWord to) {
+        final RoxByte[] block = new RoxByte[to.getRawValue() - from.getRawValue()];
+        for (int i = 0; i < block.length; i++)
+            block[i] = ReadOnlyMemory.valueOf(contents.get(from.getRawValue() + i));
+        return block;
+    }
+
+    @Override
+    public void reset() {
+        //Does nothing as this is battery backed
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+}
@@ -16,6 +16,19 @@ public interface Memory {
      */
     void setByteAt(RoxWord location, RoxByte byteValue);
 
+    /**
+     * Write a byte at a primitive address, for hot paths (i.e. banked memory) which can't afford a {@link RoxWord} per
+     * access.<br/>
+     * <br/>
+     * Array backed implementations override this to write without allocating.
+     *
+     * @param address to write to
+     * @param byteValue to write
+     */
+    default void setByteAt(int address, RoxByte byteValue){
+        setByteAt(RoxWord.fromLiteral(address), byteValue);
+    }
+
     /**
      * @param startLocation to place byte array
      * @param byteValues byte array to place from <code>startLocation</code> to <code>startLocation + byteValues.size</code>
@@ -28,6 +41,18 @@ public interface Memory {
      */
     RoxByte getByte(RoxWord location);
 
+    /**
+     * Read a byte as a primitive, for hot paths (i.e. rendering) which can't afford a {@link RoxWord} per access.<br/>
+     * <br/>
+     * Array backed implementations override this to read without allocating.
+     *
+     * @param address to query
+     * @return the unsigned value of the byte at <code>address</code>
+     */
+    default int getRawByte(int address){
+        return getByte(RoxWord.fromLiteral(address)).getRawValue();
+    }
+
     /**
      * Return two bytes, as a word
      *
@@ -45,6 +70,22 @@ public interface Memory {
      */
     RoxByte[] getBlock(RoxWord from, RoxWord to);
 
+    /**
+     * Copy a block of this memory into <code>destination</code>.<br/>
+     * <br/>
+     * Implementations override this to copy in bulk, i.e. with {@link System#arraycopy} between array backed memories,
+     * rather than a byte at a time.
+     *
+     * @param address of the first byte to copy
+     * @param destination to copy into
+     * @param destinationAddress to copy the first byte to
+     * @param length of the block in bytes
+     */
+    default void copyTo(int address, Memory destination, int destinationAddress, int length){
+        for (int i = 0; i < length; i++)
+            destination.setByteAt(RoxWord.fromLiteral(destinationAddress + i), getByte(RoxWord.fromLiteral(address + i)));
+    }
+
     /**
      * Reset all memory to 0
      */
@@ -0,0 +1,106 @@
+package com.rox.emu.mem;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.metrics.EmulationMetrics;
+
+/**
+ * A {@link Memory} decorator which counts reads and writes into {@link EmulationMetrics}.<br/>
+ * <br/>
+ * Accesses are counted locally and published in batches of {@value #BATCH_SIZE}, or on {@link #flush()}, so the
+ * shared counters are not touched on every access.  Like the {@link Memory} it decorates, it is expected to be
+ * accessed by one thread at a time.  Block accesses count as one access per byte.
+ *
+ * @author Ross Drew
+ */
+public class MeteredMemory implements Memory {
+    /** The number of accesses counted before they are published */
+    public static final int BATCH_SIZE = 1024;
+
+    private final Memory memory;
+    private final EmulationMetrics metrics;
+
+    private int reads = 0;
+    private int writes = 0;
+
+    public MeteredMemory(final Memory memory, final EmulationMetrics metrics){
+        this.memory = memory;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Publish any accesses not yet published
+     */
+    public void flush(){
+        if (reads == 0 && writes == 0)
+            return;
+
+        metrics.recordMemoryAccesses(reads, writes);
+        reads = 0;
+        writes = 0;
+    }
+
+    private void read(final int count){
+        reads += count;
+        if (reads >= BATCH_SIZE)
+            flush();
+    }
+
+    private void written(final int count){
+        writes += count;
+        if (writes >= BATCH_SIZE)
+            flush();
+    }
+
+    @Override
+    public void setByteAt(RoxWord location, RoxByte byteValue) {
+        memory.setByteAt(location, byteValue);
+        written(1);
+    }
+
+    @Override
+    public void setByteAt(int address, RoxByte byteValue) {
+        memory.setByteAt(address, byteValue);
+        written(1);
+    }
+
+    @Override
+    public void setBlock(RoxWord startLocation, RoxByte[] byteValues) {
+        memory.setBlock(startLocation, byteValues);
+        written(byteValues.length);
+    }
+
+    @Override
+    public RoxByte getByte(RoxWord location) {
+        read(1);
+        return memory.getByte(location);
+    }
+
+    @Override
+    public int getRawByte(int address) {
+        read(1);
+        return memory.getRawByte(address);
+    }
+
+    @Override
+    public RoxWord getWord(RoxWord location) {
+        read(2);
+        return memory.getWord(location);
+    }
+
+    @Override
+    public RoxByte[] getBlock(RoxWord from, RoxWord to) {
+        read(Math.max(0, to.getRawValue() - from.getRawValue()));
+        return memory.getBlock(from, to);
+    }
+
+    @Override
+    public void reset() {
+        memory.reset();
+    }
+
+    @Override
+    public int getSize() {
+        return memory.getSize();
+    }
+}
@@ -3,24 +3,104 @@ package com.rox.emu.mem;
 import com.rox.emu.env.RoxByte;
 import com.rox.emu.env.RoxWord;
 
-import java.util.Arrays;
+import java.nio.ByteBuffer;
 
 /**
- * A block of read only memory, writes will throw a {@link MemoryMappingException} and resetting will have no effect.
+ * A block of read only memory, writes will throw a {@link MemoryMappingException} and resetting will have no effect.<br/>
+ * <br/>
+ * Contents are held in a {@link ByteBuffer}, only ever read with absolute gets, and never change, so one instance can
+ * be shared by any number of emulators on any number of threads.  {@link #wrapping(byte[], int, int)} and
+ * {@link #wrapping(ByteBuffer)} create a view of part of an array or buffer without copying it, so several views can
+ * share one image, i.e. the program and character ROM of a single, possibly memory mapped, ROM file.
  */
 public class ReadOnlyMemory implements Memory {
-    private final RoxByte[] memoryArray;
+    private static final RoxByte[] BYTE_VALUES = new RoxByte[256];
+    static {
+        for (int value = 0; value < BYTE_VALUES.length; value++)
+            BYTE_VALUES[value] = RoxByte.fromLiteral(value);
+    }
+
+    private final ByteBuffer contents;
+    private final int size;
 
     public ReadOnlyMemory(final int[] contents){
-        memoryArray = new RoxByte[contents.length];
-        for (int memoryIndex = 0; memoryIndex < memoryArray.length; memoryIndex++)
-            memoryArray[memoryIndex] = RoxByte.fromLiteral(contents[memoryIndex]);
+        this(ByteBuffer.wrap(toBytes(contents)));
     }
 
     public ReadOnlyMemory(final byte[] contents){
-        memoryArray = new RoxByte[contents.length];
-        for (int memoryIndex = 0; memoryIndex < memoryArray.length; memoryIndex++)
-            memoryArray[memoryIndex] = RoxByte.fromLiteral(contents[memoryIndex]);
+        this(ByteBuffer.wrap(contents.clone()));
+    }
+
+    private ReadOnlyMemory(final ByteBuffer contents){
+        this.contents = contents.slice().asReadOnlyBuffer();
+        this.size = this.contents.capacity();
+    }
+
+    /**
+     * Create read only memory backed directly by a region of <code>contents</code>, without copying it.
+     * <code>contents</code> must never be changed afterwards.
+     *
+     * @param contents to share
+     * @param offset of the first byte of the region in <code>contents</code>
+     * @param size of the region in bytes
+     * @return read only memory over the region
+     */
+    public static ReadOnlyMemory wrapping(final byte[] contents, final int offset, final int size){
+        if (offset < 0 || size < 0 || offset + size > contents.length)
+            throw new IllegalArgumentException("Region of " + size + " bytes at " + offset + " is outside of " + contents.length + " bytes");
+
+        return new ReadOnlyMemory(ByteBuffer.wrap(contents, offset, size));
+    }
+
+    /**
+     * Create read only memory backed directly by the bytes remaining in <code>contents</code>, i.e. a memory mapped
+     * file, without copying them.  Neither <code>contents</code> nor what backs it must be changed afterwards.
+     *
+     * @param contents to share, from its position to its limit, which are left untouched
+     * @return read only memory over the remaining bytes
+     */
+    public static ReadOnlyMemory wrapping(final ByteBuffer contents){
+        return new ReadOnlyMemory(contents);
+    }
+
+    /**
+     * Create read only memory over a region of this, without copying it, i.e. a single bank of a ROM too large to be
+     * addressed as a whole.
+     *
+     * @param offset of the first byte of the region
+     * @param size of the region in bytes
+     * @return read only memory over the region
+     */
+    public ReadOnlyMemory slice(final int offset, final int size){
+        if (offset < 0 || size < 0 || offset + size > this.size)
+            throw new IllegalArgumentException("Region of " + size + " bytes at " + offset + " is outside of " + this.size + " bytes");
+
+        final ByteBuffer region = contents.duplicate();
+        region.limit(offset + size);
+        region.position(offset);
+        return new ReadOnlyMemory(region);
+    }
+
+    private static byte[] toBytes(final int[] values){
+        final byte[] bytes = new byte[values.length];
+        for (int index = 0; index < values.length; index++)
+            bytes[index] = (byte) values[index];
+        return bytes;
+    }
+
+    private RoxByte valueAt(final int address){
+        if (address >= size)
+            throw new ArrayIndexOutOfBoundsException(address);
+        return valueOf(contents.get(address));
+    }
+
+    /**
+     * @param value of which only the low 8 bits are used
+     * @return a shared {@link RoxByte} for the unsigned value of <code>value</code>, so that reads from memory which
+     *         doesn't hold {@link RoxByte}s needn't allocate one per access
+     */
+    public static RoxByte valueOf(final int value){
+        return BYTE_VALUES[value & 0xFF];
     }
 
     @Override
@@ -38,7 +118,17 @@ public class ReadOnlyMemory implements Memory {
      */
     @Override
     public RoxByte getByte(RoxWord location) {
-        return memoryArray[location.getRawValue()];
+        return valueAt(location.getRawValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRawByte(int address) {
+        if (address >= size)
+            throw new ArrayIndexOutOfBoundsException(address);
+        return contents.get(address) & 0xFF;
     }
 
     /**
@@ -46,7 +136,7 @@ public class ReadOnlyMemory implements Memory {
      */
     @Override
     public RoxWord getWord(RoxWord location) {
-        return RoxWord.from(memoryArray[location.getRawValue()], memoryArray[location.getRawValue()+1]);
+        return RoxWord.from(valueAt(location.getRawValue()), valueAt(location.getRawValue()+1));
     }
 
     /**
@@ -54,7 +144,15 @@ public class ReadOnlyMemory implements Memory {
      */
     @Override
     public RoxByte[] getBlock(RoxWord from, RoxWord to) {
-        return Arrays.copyOfRange(memoryArray, from.getRawValue(), to.getRawValue());
+        final int start = from.getRawValue();
+        final int end = to.getRawValue();
+        if (start > end)
+            throw new IllegalArgumentException(start + " > " + end);
+
+        final RoxByte[] block = new RoxByte[end - start];
+        for (int address = start; address < Math.min(end, size); address++)
+            block[address - start] = valueAt(address);
+        return block;
     }
 
     @Override
@@ -64,6 +162,6 @@ public class ReadOnlyMemory implements Memory {
 
     @Override
     public int getSize() {
-        return memoryArray.length;
+        return size;
     }
 }
@@ -36,6 +36,14 @@ public class SimpleMemory implements Memory {
         memoryArray[location.getRawValue()] = byteValue;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setByteAt(int address, RoxByte byteValue) {
+        memoryArray[address] = byteValue;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -55,6 +63,14 @@ public class SimpleMemory implements Memory {
         return memoryArray[location.getRawValue()];
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRawByte(int address) {
+        return memoryArray[address].getRawValue();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -75,6 +91,17 @@ public class SimpleMemory implements Memory {
         return extractedData;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void copyTo(int address, Memory destination, int destinationAddress, int length) {
+        if (destination instanceof SimpleMemory)
+            System.arraycopy(memoryArray, address, ((SimpleMemory) destination).memoryArray, destinationAddress, length);
+        else
+            Memory.super.copyTo(address, destination, destinationAddress, length);
+    }
+
     /**
      * {@inheritDoc}
      */
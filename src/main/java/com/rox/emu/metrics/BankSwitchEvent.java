@@ -0,0 +1,66 @@
+package com.rox.emu.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event covering a cartridge mapper switching a bank of program or character memory into an
+ * address space
+ *
+ * @author Ross Drew
+ */
+@Name(BankSwitchEvent.NAME)
+@Label("Bank Switch")
+@Category({"Emulation", "Cartridge"})
+@Description("A bank of cartridge memory switched into an address space by the mapper")
+@StackTrace(false)
+public final class BankSwitchEvent extends Event {
+    /** The recorded event name */
+    public static final String NAME = "com.rox.emu.BankSwitch";
+
+    /** Program ROM, in the CPU address space */
+    public static final String PRG = "PRG";
+    /** Character ROM or RAM, in the PPU address space */
+    public static final String CHR = "CHR";
+
+    @Label("Memory")
+    @Description("PRG or CHR")
+    private String memory;
+
+    @Label("Address")
+    @Description("First address the bank is switched in at")
+    private int address;
+
+    @Label("Bank Size")
+    @DataAmount
+    private int bankSize;
+
+    @Label("Bank")
+    @Description("Number of the bank switched in, in units of the bank size")
+    private int bank;
+
+    /**
+     * End the bank switch and commit it, if it is being recorded
+     *
+     * @param memory switched, {@link #PRG} or {@link #CHR}
+     * @param address the bank is switched in at
+     * @param bankSize in bytes
+     * @param bank number switched in, in units of <code>bankSize</code>
+     */
+    public void complete(final String memory, final int address, final int bankSize, final int bank){
+        end();
+        if (!shouldCommit())
+            return;
+
+        this.memory = memory;
+        this.address = address;
+        this.bankSize = bankSize;
+        this.bank = bank;
+        commit();
+    }
+}
@@ -0,0 +1,388 @@
+package com.rox.emu.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Live counters of emulation throughput, shared between whatever is emulating and whatever is watching.<br/>
+ * <br/>
+ * Counters are {@link LongAdder}s so that updates from several emulation threads don't contend, and emulation code
+ * is expected to update them in batches, i.e. once per run slice or frame, rather than per instruction.  Rates are
+ * calculated by {@link #sample() sampling} the counters, either on demand or periodically via
+ * {@link #startReporting(long, TimeUnit, Consumer)}, and are available over JMX once {@link #register(String)
+ * registered}.  Reading a rate takes a new sample if the latest is older than the minimum sample period, so rates
+ * read over JMX are current without anything sampling in the background.
+ *
+ * @author Ross Drew
+ */
+public class EmulationMetrics implements EmulationMetricsMXBean {
+    /** The NTSC NES CPU clock rate, in Hz */
+    public static final double NTSC_CPU_CLOCK_RATE = 1_789_773;
+
+    /** The JMX domain metrics are registered under */
+    public static final String JMX_DOMAIN = "com.rox.emu";
+
+    /** The default minimum period over which rates are calculated when read, in milliseconds */
+    public static final long DEFAULT_MINIMUM_SAMPLE_PERIOD_MILLIS = 1000;
+
+    private final double clockRate;
+    private final long minimumSamplePeriodNanos;
+
+    private final LongAdder instructions = new LongAdder();
+    private final LongAdder cycles = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder irqs = new LongAdder();
+    private final LongAdder nmis = new LongAdder();
+    private final LongAdder memoryReads = new LongAdder();
+    private final LongAdder memoryWrites = new LongAdder();
+
+    private Sample previousSample;
+    private volatile Sample latestSample;
+
+    private ScheduledExecutorService reporter;
+    private ObjectName objectName;
+
+    /**
+     * Metrics for a processor clocked at {@link #NTSC_CPU_CLOCK_RATE}
+     */
+    public EmulationMetrics(){
+        this(NTSC_CPU_CLOCK_RATE);
+    }
+
+    /**
+     * @param clockRate the emulated processor clock rate in Hz, used to convert cycles to emulated time
+     */
+    public EmulationMetrics(final double clockRate){
+        this(clockRate, DEFAULT_MINIMUM_SAMPLE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param clockRate the emulated processor clock rate in Hz, used to convert cycles to emulated time
+     * @param minimumSamplePeriod the age at which the latest sample is replaced when a rate is read
+     * @param unit of <code>minimumSamplePeriod</code>
+     */
+    public EmulationMetrics(final double clockRate, final long minimumSamplePeriod, final TimeUnit unit){
+        this.clockRate = clockRate;
+        this.minimumSamplePeriodNanos = unit.toNanos(minimumSamplePeriod);
+        this.previousSample = Sample.first(System.nanoTime());
+        this.latestSample = previousSample;
+    }
+
+    /**
+     * @param instructionCount instructions executed in a run slice
+     * @param cycleCount cycles executed in a run slice
+     */
+    public void recordSlice(final long instructionCount, final long cycleCount){
+        instructions.add(instructionCount);
+        cycles.add(cycleCount);
+    }
+
+    /**
+     * Record a frame having been emulated
+     */
+    public void recordFrame(){
+        frames.increment();
+    }
+
+    /**
+     * Record a maskable interrupt request
+     */
+    public void recordIrq(){
+        irqs.increment();
+    }
+
+    /**
+     * Record a non maskable interrupt
+     */
+    public void recordNmi(){
+        nmis.increment();
+    }
+
+    /**
+     * @param reads number of memory reads since last recorded
+     * @param writes number of memory writes since last recorded
+     */
+    public void recordMemoryAccesses(final long reads, final long writes){
+        memoryReads.add(reads);
+        memoryWrites.add(writes);
+    }
+
+    @Override
+    public long getInstructions() {
+        return instructions.sum();
+    }
+
+    @Override
+    public long getCycles() {
+        return cycles.sum();
+    }
+
+    @Override
+    public long getFrames() {
+        return frames.sum();
+    }
+
+    @Override
+    public long getIrqs() {
+        return irqs.sum();
+    }
+
+    @Override
+    public long getNmis() {
+        return nmis.sum();
+    }
+
+    @Override
+    public long getMemoryReads() {
+        return memoryReads.sum();
+    }
+
+    @Override
+    public long getMemoryWrites() {
+        return memoryWrites.sum();
+    }
+
+    @Override
+    public double getMips() {
+        return currentSample().mips;
+    }
+
+    @Override
+    public double getCyclesPerSecond() {
+        return currentSample().cyclesPerSecond;
+    }
+
+    @Override
+    public double getFramesPerSecond() {
+        return currentSample().framesPerSecond;
+    }
+
+    @Override
+    public double getInterruptsPerSecond() {
+        return currentSample().interruptsPerSecond;
+    }
+
+    @Override
+    public double getEmulatedToHostTimeRatio() {
+        return currentSample().emulatedToHostTimeRatio;
+    }
+
+    @Override
+    public synchronized void reset() {
+        instructions.reset();
+        cycles.reset();
+        frames.reset();
+        irqs.reset();
+        nmis.reset();
+        memoryReads.reset();
+        memoryWrites.reset();
+
+        previousSample = Sample.first(System.nanoTime());
+        latestSample = previousSample;
+    }
+
+    /**
+     * Take a sample of the counters, calculating rates over the time since the previous sample
+     *
+     * @return the new sample
+     */
+    public synchronized Sample sample(){
+        final Sample sample = previousSample.next(System.nanoTime(), this);
+        previousSample = sample;
+        latestSample = sample;
+        return sample;
+    }
+
+    /**
+     * @return the latest sample, or a new one if it's older than the minimum sample period
+     */
+    private Sample currentSample(){
+        final Sample sample = latestSample;
+        if (System.nanoTime() - sample.timeNanos < minimumSamplePeriodNanos)
+            return sample;
+
+        synchronized (this) {
+            return (latestSample == sample) ? sample() : latestSample;
+        }
+    }
+
+    /**
+     * @return a single line textual report of a new {@link #sample()}
+     */
+    public String report(){
+        final Sample sample = sample();
+        return String.format(Locale.ROOT,
+                             "%.3f MIPS, %.0f cycles/s, %.2f fps, %.1f interrupts/s, %.2fx real time " +
+                             "[%d instructions, %d cycles, %d frames, %d IRQs, %d NMIs, %d reads, %d writes]",
+                             sample.mips, sample.cyclesPerSecond, sample.framesPerSecond, sample.interruptsPerSecond,
+                             sample.emulatedToHostTimeRatio,
+                             sample.instructions, sample.cycles, sample.frames, sample.irqs, sample.nmis,
+                             getMemoryReads(), getMemoryWrites());
+    }
+
+    /**
+     * Periodically sample and pass a {@link #report()} to <code>output</code>, on a background thread
+     *
+     * @param period between reports
+     * @param unit of <code>period</code>
+     * @param output to receive each report, i.e. a logger
+     */
+    public synchronized void startReporting(final long period, final TimeUnit unit, final Consumer<String> output){
+        stopReporting();
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "EmulationMetrics-Reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> output.accept(report()), period, period, unit);
+    }
+
+    /**
+     * Stop any periodic reporting
+     */
+    public synchronized void stopReporting(){
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    /**
+     * Register with the platform {@link MBeanServer} as <code>com.rox.emu:type=EmulationMetrics,name=<i>name</i></code>
+     *
+     * @param name distinguishing these metrics from any others registered
+     * @return the name registered under
+     * @throws IllegalStateException if registration fails, i.e. the name is already registered
+     */
+    public synchronized ObjectName register(final String name){
+        try {
+            final ObjectName newName = new ObjectName(JMX_DOMAIN + ":type=EmulationMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, newName);
+            objectName = newName;
+            return newName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register metrics '" + name + "'", e);
+        }
+    }
+
+    /**
+     * Remove from the platform {@link MBeanServer}, if registered
+     */
+    public synchronized void unregister(){
+        if (objectName == null)
+            return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to unregister metrics '" + objectName + "'", e);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    /**
+     * Counter totals at a point in time along with rates over the period since the sample before it
+     */
+    public static final class Sample {
+        private final long timeNanos;
+
+        private final long instructions;
+        private final long cycles;
+        private final long frames;
+        private final long irqs;
+        private final long nmis;
+
+        private final double mips;
+        private final double cyclesPerSecond;
+        private final double framesPerSecond;
+        private final double interruptsPerSecond;
+        private final double emulatedToHostTimeRatio;
+
+        private Sample(long timeNanos, long instructions, long cycles, long frames, long irqs, long nmis,
+                       double mips, double cyclesPerSecond, double framesPerSecond, double interruptsPerSecond,
+                       double emulatedToHostTimeRatio) {
+            this.timeNanos = timeNanos;
+            this.instructions = instructions;
+            this.cycles = cycles;
+            this.frames = frames;
+            this.irqs = irqs;
+            this.nmis = nmis;
+            this.mips = mips;
+            this.cyclesPerSecond = cyclesPerSecond;
+            this.framesPerSecond = framesPerSecond;
+            this.interruptsPerSecond = interruptsPerSecond;
+            this.emulatedToHostTimeRatio = emulatedToHostTimeRatio;
+        }
+
+        private static Sample first(long timeNanos){
+            return new Sample(timeNanos, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+
+        private Sample next(long nowNanos, EmulationMetrics metrics){
+            final long newInstructions = metrics.getInstructions();
+            final long newCycles = metrics.getCycles();
+            final long newFrames = metrics.getFrames();
+            final long newIrqs = metrics.getIrqs();
+            final long newNmis = metrics.getNmis();
+
+            final double seconds = Math.max(1, nowNanos - timeNanos) / 1e9;
+            final double cycleRate = (newCycles - cycles) / seconds;
+
+            return new Sample(nowNanos, newInstructions, newCycles, newFrames, newIrqs, newNmis,
+                              ((newInstructions - instructions) / seconds) / 1e6,
+                              cycleRate,
+                              (newFrames - frames) / seconds,
+                              ((newIrqs - irqs) + (newNmis - nmis)) / seconds,
+                              cycleRate / metrics.clockRate);
+        }
+
+        /** @return total instructions executed at the time of the sample */
+        public long getInstructions() {
+            return instructions;
+        }
+
+        /** @return total cycles executed at the time of the sample */
+        public long getCycles() {
+            return cycles;
+        }
+
+        /** @return total frames emulated at the time of the sample */
+        public long getFrames() {
+            return frames;
+        }
+
+        /** @return millions of instructions per second over the sample period */
+        public double getMips() {
+            return mips;
+        }
+
+        /** @return cycles per second over the sample period */
+        public double getCyclesPerSecond() {
+            return cyclesPerSecond;
+        }
+
+        /** @return frames per second over the sample period */
+        public double getFramesPerSecond() {
+            return framesPerSecond;
+        }
+
+        /** @return interrupts per second over the sample period */
+        public double getInterruptsPerSecond() {
+            return interruptsPerSecond;
+        }
+
+        /** @return emulated time per unit of host time over the sample period */
+        public double getEmulatedToHostTimeRatio() {
+            return emulatedToHostTimeRatio;
+        }
+    }
+}
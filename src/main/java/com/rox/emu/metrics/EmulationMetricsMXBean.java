@@ -0,0 +1,48 @@
+package com.rox.emu.metrics;
+
+/**
+ * The JMX view of {@link EmulationMetrics}.  Totals are live, rates are over the last sampling period,
+ * resampled when read if that period is older than the minimum sample period.
+ *
+ * @author Ross Drew
+ */
+public interface EmulationMetricsMXBean {
+    /** @return total instructions executed */
+    long getInstructions();
+
+    /** @return total CPU cycles executed */
+    long getCycles();
+
+    /** @return total frames emulated */
+    long getFrames();
+
+    /** @return total maskable interrupt requests */
+    long getIrqs();
+
+    /** @return total non maskable interrupts */
+    long getNmis();
+
+    /** @return total memory reads */
+    long getMemoryReads();
+
+    /** @return total memory writes */
+    long getMemoryWrites();
+
+    /** @return millions of emulated instructions per second */
+    double getMips();
+
+    /** @return emulated cycles per second */
+    double getCyclesPerSecond();
+
+    /** @return emulated frames per second */
+    double getFramesPerSecond();
+
+    /** @return interrupts, maskable or otherwise, per second */
+    double getInterruptsPerSecond();
+
+    /** @return emulated time per unit of host time, where <code>1.0</code> is full speed */
+    double getEmulatedToHostTimeRatio();
+
+    /** Zero all totals */
+    void reset();
+}
@@ -0,0 +1,53 @@
+package com.rox.emu.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event covering the emulation of a single frame, from its start to its end
+ *
+ * @author Ross Drew
+ */
+@Name(FrameEvent.NAME)
+@Label("Frame")
+@Category({"Emulation", "System"})
+@Description("A single frame of emulation")
+@StackTrace(false)
+public final class FrameEvent extends Event {
+    /** The recorded event name */
+    public static final String NAME = "com.rox.emu.Frame";
+
+    @Label("Frame")
+    @Description("Number of the frame, counting from zero")
+    private long frame;
+
+    @Label("Start Cycle")
+    @Description("Processor cycle count at the start of the frame")
+    private long startCycle;
+
+    @Label("Cycles")
+    @Description("Processor cycles executed during the frame")
+    private long cycles;
+
+    /**
+     * End the frame and commit it, if it is being recorded
+     *
+     * @param frame number of the frame
+     * @param startCycle processor cycle count at the start of the frame
+     * @param cycles executed during the frame
+     */
+    public void complete(final long frame, final long startCycle, final long cycles){
+        end();
+        if (!shouldCommit())
+            return;
+
+        this.frame = frame;
+        this.startCycle = startCycle;
+        this.cycles = cycles;
+        commit();
+    }
+}
@@ -0,0 +1,52 @@
+package com.rox.emu.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event covering an interrupt being taken by a processor
+ *
+ * @author Ross Drew
+ */
+@Name(InterruptEvent.NAME)
+@Label("Interrupt")
+@Category({"Emulation", "CPU"})
+@Description("An interrupt taken by the emulated processor")
+@StackTrace(false)
+public final class InterruptEvent extends Event {
+    /** The recorded event name */
+    public static final String NAME = "com.rox.emu.Interrupt";
+
+    /** A maskable interrupt request */
+    public static final String IRQ = "IRQ";
+    /** A non maskable interrupt */
+    public static final String NMI = "NMI";
+
+    @Label("Type")
+    @Description("IRQ or NMI")
+    private String type;
+
+    @Label("Cycle")
+    @Description("Processor cycle count when the interrupt was taken")
+    private long cycle;
+
+    /**
+     * End the interrupt handling and commit it, if it is being recorded
+     *
+     * @param type of interrupt, {@link #IRQ} or {@link #NMI}
+     * @param cycle processor cycle count when the interrupt was taken
+     */
+    public void complete(final String type, final long cycle){
+        end();
+        if (!shouldCommit())
+            return;
+
+        this.type = type;
+        this.cycle = cycle;
+        commit();
+    }
+}
@@ -0,0 +1,54 @@
+package com.rox.emu.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event covering one run slice of a processor, i.e. a single multiple instruction step.<br/>
+ * <br/>
+ * Created, {@link #begin() begun} and {@link #complete(long, int, long) completed} around each slice, it costs next
+ * to nothing unless a recording with the event enabled is in progress.
+ *
+ * @author Ross Drew
+ */
+@Name(RunSliceEvent.NAME)
+@Label("Run Slice")
+@Category({"Emulation", "CPU"})
+@Description("Instructions executed by the emulated processor in one run slice")
+@StackTrace(false)
+public final class RunSliceEvent extends Event {
+    /** The recorded event name */
+    public static final String NAME = "com.rox.emu.RunSlice";
+
+    @Label("Start Cycle")
+    @Description("Processor cycle count at the start of the slice")
+    private long startCycle;
+
+    @Label("Instructions")
+    private int instructions;
+
+    @Label("Cycles")
+    private long cycles;
+
+    /**
+     * End the slice and commit it, if it is being recorded
+     *
+     * @param startCycle processor cycle count at the start of the slice
+     * @param instructions executed in the slice
+     * @param cycles executed in the slice
+     */
+    public void complete(final long startCycle, final int instructions, final long cycles){
+        end();
+        if (!shouldCommit())
+            return;
+
+        this.startCycle = startCycle;
+        this.instructions = instructions;
+        this.cycles = cycles;
+        commit();
+    }
+}
@@ -0,0 +1,93 @@
+package com.rox.emu.nes;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock free queue of bus events, each a CPU cycle timestamp and an <code>int</code> describing the event,
+ * from exactly one producer thread to exactly one consumer thread.<br/>
+ * <br/>
+ * Events are held in two preallocated arrays indexed by ever increasing sequence numbers, so neither side allocates or
+ * locks.  Each side publishes how far it has got with an ordered write, and caches how far the other side had got
+ * when last looked, so it only reads the other side's volatile sequence when it seems to have caught up with it.
+ *
+ * @author Ross Drew
+ */
+final class BusEventQueue {
+    /**
+     * Receives events taken from the queue
+     */
+    interface Consumer {
+        void accept(long cycle, int event);
+    }
+
+    private final int mask;
+    private final long[] cycles;
+    private final int[] events;
+
+    private final AtomicLong produced = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private long consumedCache;
+    private long producedCache;
+
+    /**
+     * @param capacity the most events queued at once, a power of two
+     */
+    BusEventQueue(final int capacity){
+        if (Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity must be a power of two, not " + capacity);
+
+        this.mask = capacity - 1;
+        this.cycles = new long[capacity];
+        this.events = new int[capacity];
+    }
+
+    /**
+     * Add an event, waiting for space while the queue is full.  Producer thread only.
+     *
+     * @param cycle the event happened on
+     * @param event what happened
+     */
+    void offer(final long cycle, final int event){
+        final long sequence = produced.get();
+        if (sequence - consumedCache > mask) {
+            while (sequence - (consumedCache = consumed.get()) > mask)
+                Thread.yield();
+        }
+
+        final int index = (int) sequence & mask;
+        cycles[index] = cycle;
+        events[index] = event;
+        produced.lazySet(sequence + 1);
+    }
+
+    /**
+     * Pass queued events to <code>consumer</code> in the order they were offered.  Consumer thread only.
+     *
+     * @param consumer to receive the events
+     * @param limit the most events to take
+     * @return the number of events taken
+     */
+    int drain(final Consumer consumer, final int limit){
+        final long first = consumed.get();
+        if (first == producedCache) {
+            producedCache = produced.get();
+            if (first == producedCache)
+                return 0;
+        }
+
+        final long last = Math.min(producedCache, first + limit);
+        for (long sequence = first; sequence < last; sequence++) {
+            final int index = (int) sequence & mask;
+            consumer.accept(cycles[index], events[index]);
+        }
+        consumed.lazySet(last);
+        return (int) (last - first);
+    }
+
+    /**
+     * @return <code>true</code> if every event offered has been taken
+     */
+    boolean isEmpty(){
+        return consumed.get() == produced.get();
+    }
+}
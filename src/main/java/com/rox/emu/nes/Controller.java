@@ -0,0 +1,72 @@
+package com.rox.emu.nes;
+
+/**
+ * A standard NES controller, read a button at a time through <code>$4016</code> (or <code>$4017</code> for the
+ * second controller).<br/>
+ * <br/>
+ * Writing <code>1</code> to bit 0 of <code>$4016</code> holds the strobe, continually latching the buttons pressed into
+ * a shift register, and writing <code>0</code> releases it.  Each read then returns the next button in bit 0, in
+ * {@link Button} order, followed by <code>1</code>s once all 8 have been read.
+ *
+ * @author Ross Drew
+ */
+public class Controller {
+    /**
+     * The buttons, in the order they are read
+     */
+    public enum Button {
+        A, B, SELECT, START, UP, DOWN, LEFT, RIGHT;
+
+        /**
+         * @return the bit representing this button in a set of buttons pressed
+         */
+        public int getMask(){
+            return 1 << ordinal();
+        }
+    }
+
+    private int buttons;
+    private int shiftRegister;
+    private boolean strobe;
+
+    /**
+     * @param buttons pressed, as the {@link Button#getMask() masks} of each button pressed ORed together
+     */
+    public void setButtons(final int buttons){
+        this.buttons = buttons & 0xFF;
+        if (strobe)
+            shiftRegister = this.buttons;
+    }
+
+    /**
+     * @return the buttons pressed, as the {@link Button#getMask() masks} of each button pressed ORed together
+     */
+    public int getButtons(){
+        return buttons;
+    }
+
+    /**
+     * A CPU write to <code>$4016</code>
+     *
+     * @param value written, only bit 0 of which (the strobe) is significant
+     */
+    public void write(final int value){
+        strobe = (value & 0x01) != 0;
+        if (strobe)
+            shiftRegister = buttons;
+    }
+
+    /**
+     * A CPU read of this controller's register
+     *
+     * @return the next button in bit 0, <code>1</code> if it's pressed
+     */
+    public int read(){
+        if (strobe)
+            return buttons & 0x01;
+
+        final int bit = shiftRegister & 0x01;
+        shiftRegister = (shiftRegister >> 1) | 0x80;
+        return bit;
+    }
+}
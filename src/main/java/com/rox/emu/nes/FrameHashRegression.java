@@ -0,0 +1,281 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.ricoh2c02.Ricoh2C02;
+import com.rox.emu.processor.ricoh2c02.Ricoh2C02Palette;
+import com.rox.emu.rom.InesRom;
+import com.rox.emu.rom.RomArchives;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Visual regression testing of ROMs by the hash of every picture drawn.<br/>
+ * <br/>
+ * Each ROM is run headless on its own {@link NES} for a number of frames, with the buttons scripted by an
+ * {@link InputJournal}, and each picture is hashed to 64 bits as it's completed.  The hashes are compared against a
+ * golden file of the hashes from a known good run, one per line in hex, and only pictures which differ are written out
+ * as PNG images, so a passing run writes nothing.  A ROM without a golden file records one instead, so deleting a
+ * golden file re-records it on the next run.<br/>
+ * <br/>
+ * {@link #runAll(Collection)} runs many ROMs in parallel on a {@link ForkJoinPool}, nothing being shared between runs.
+ *
+ * @author Ross Drew
+ */
+public class FrameHashRegression {
+    private static final String GOLDEN_EXTENSION = ".hashes";
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String IMAGE_FORMAT = "png";
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+
+    private final Path goldenDirectory;
+    private final Path imageDirectory;
+    private final int frames;
+    private final ForkJoinPool pool;
+
+    /**
+     * A regression test using the common {@link ForkJoinPool}
+     *
+     * @param goldenDirectory holding a <code>&lt;rom file name&gt;.hashes</code> golden file for each ROM
+     * @param imageDirectory to write pictures which differ from the golden file to
+     * @param frames to run each ROM for
+     */
+    public FrameHashRegression(final Path goldenDirectory, final Path imageDirectory, final int frames){
+        this(goldenDirectory, imageDirectory, frames, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param goldenDirectory holding a <code>&lt;rom file name&gt;.hashes</code> golden file for each ROM
+     * @param imageDirectory to write pictures which differ from the golden file to
+     * @param frames to run each ROM for
+     * @param pool to run ROMs on
+     */
+    public FrameHashRegression(final Path goldenDirectory, final Path imageDirectory, final int frames, final ForkJoinPool pool){
+        if (frames <= 0)
+            throw new IllegalArgumentException("Frames must be positive, not " + frames);
+
+        this.goldenDirectory = goldenDirectory;
+        this.imageDirectory = imageDirectory;
+        this.frames = frames;
+        this.pool = pool;
+    }
+
+    /**
+     * A fast 64 bit hash of a picture, two pixels at a time with a final avalanche so that any single pixel changed
+     * changes around half the bits
+     *
+     * @param framebuffer NES colour indices
+     * @return the hash of <code>framebuffer</code>
+     */
+    public static long hash(final int[] framebuffer){
+        long hash = PRIME_3 ^ framebuffer.length;
+
+        final int pairs = framebuffer.length & ~1;
+        for (int pixel = 0; pixel < pairs; pixel += 2) {
+            final long pair = ((long) framebuffer[pixel] << 32) | (framebuffer[pixel + 1] & 0xFFFFFFFFL);
+            hash = Long.rotateLeft(hash ^ (pair * PRIME_2), 31) * PRIME_1;
+        }
+        if (pairs < framebuffer.length)
+            hash = Long.rotateLeft(hash ^ (framebuffer[pairs] * PRIME_2), 31) * PRIME_1;
+
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    /**
+     * Run every ROM in parallel, each with the journal alongside it (<code>&lt;rom file name&gt;.journal</code>) if
+     * there is one and no buttons pressed otherwise
+     *
+     * @param roms to run
+     * @return the result of each ROM, by ROM file
+     * @throws IOException if a ROM, journal or golden file cannot be read, or a golden file or image written
+     */
+    public Map<Path, Result> runAll(final Collection<Path> roms) throws IOException {
+        try {
+            return pool.submit(() -> roms.parallelStream()
+                                         .collect(Collectors.toMap(rom -> rom,
+                                                                   this::runUnchecked,
+                                                                   (a, b) -> a,
+                                                                   TreeMap::new)))
+                       .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted running " + roms.size() + " ROMs", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IOException("Unable to run " + roms.size() + " ROMs", e.getCause());
+        }
+    }
+
+    private Result runUnchecked(final Path rom){
+        try {
+            final Path journalFile = rom.resolveSibling(rom.getFileName() + JOURNAL_EXTENSION);
+            return run(rom, Files.exists(journalFile) ? InputJournal.load(journalFile) : InputJournal.EMPTY);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Run one ROM, recording its golden file if it has none
+     *
+     * @param rom file to run, see {@link RomArchives#load(Path)}
+     * @param journal of the buttons pressed
+     * @return the result of comparing the pictures drawn with the golden file
+     * @throws IOException if the ROM or golden file cannot be read, or the golden file or an image written
+     */
+    public Result run(final Path rom, final InputJournal journal) throws IOException {
+        final String name = rom.getFileName().toString();
+        final Path goldenFile = goldenDirectory.resolve(name + GOLDEN_EXTENSION);
+        final long[] golden = Files.exists(goldenFile) ? readHashes(goldenFile) : null;
+
+        final long[] hashes = new long[frames];
+        final List<Integer> differingFrames = new ArrayList<>();
+        try (NESMemoryMap memoryMap = new NESMemoryMap(RomArchives.load(rom))) {
+            final Ricoh2C02 ppu = new Ricoh2C02(memoryMap.getPpuMemory(), new SimpleMemory(Ricoh2C02.OAM_SIZE));
+            final Mos6502 processor = new Mos6502(memoryMap.getCpuMemory(), new Registers());
+            final NES nes = new NES(processor, ppu, memoryMap);
+            final int[] picturesDrawn = {0};
+            ppu.setFrameListener(() -> {
+                final int picture = picturesDrawn[0];
+                if (picture >= frames)
+                    return;
+
+                hashes[picture] = hash(ppu.getFramebuffer());
+                if (golden != null && (picture >= golden.length || golden[picture] != hashes[picture])) {
+                    differingFrames.add(picture);
+                    writeImage(imageDirectory.resolve(String.format("%s.%05d.%s", name, picture, IMAGE_FORMAT)),
+                               ppu.getFramebuffer());
+                }
+                picturesDrawn[0]++;
+            });
+
+            nes.reset();
+            processor.reset();
+            final Controller controller = memoryMap.getController(0);
+            for (int frame = 0; picturesDrawn[0] < frames; frame++) {
+                controller.setButtons(journal.buttonsAt(frame));
+                nes.runFrame();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (golden == null)
+            writeHashes(goldenFile, hashes);
+
+        return new Result(name, hashes, differingFrames.stream().mapToInt(Integer::intValue).toArray(), golden == null);
+    }
+
+    private static long[] readHashes(final Path file) throws IOException {
+        return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .mapToLong(line -> Long.parseUnsignedLong(line, 16))
+                    .toArray();
+    }
+
+    private static void writeHashes(final Path file, final long[] hashes) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(file, Arrays.stream(hashes)
+                                .mapToObj(hash -> String.format("%016x", hash))
+                                .collect(Collectors.toList()), StandardCharsets.UTF_8);
+    }
+
+    private static void writeImage(final Path file, final int[] framebuffer){
+        final int[] argb = new int[framebuffer.length];
+        Ricoh2C02Palette.toArgb(framebuffer, argb);
+        final BufferedImage image = new BufferedImage(Ricoh2C02.SCREEN_WIDTH, Ricoh2C02.SCREEN_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, Ricoh2C02.SCREEN_WIDTH, Ricoh2C02.SCREEN_HEIGHT, argb, 0, Ricoh2C02.SCREEN_WIDTH);
+
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            ImageIO.write(image, IMAGE_FORMAT, file.toFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The outcome of running one ROM
+     */
+    public static final class Result {
+        private final String name;
+        private final long[] hashes;
+        private final int[] differingFrames;
+        private final boolean recorded;
+
+        private Result(String name, long[] hashes, int[] differingFrames, boolean recorded) {
+            this.name = name;
+            this.hashes = hashes;
+            this.differingFrames = differingFrames;
+            this.recorded = recorded;
+        }
+
+        /**
+         * @return the file name of the ROM run
+         */
+        public String getName(){
+            return name;
+        }
+
+        /**
+         * @return the hash of each picture drawn, in order
+         */
+        public long[] getHashes(){
+            return hashes.clone();
+        }
+
+        /**
+         * @return the frames whose pictures differ from the golden file, each of which was written as an image
+         */
+        public int[] getDifferingFrames(){
+            return differingFrames.clone();
+        }
+
+        /**
+         * @return <code>true</code> if there was no golden file, so one was recorded from this run
+         */
+        public boolean isRecorded(){
+            return recorded;
+        }
+
+        /**
+         * @return <code>true</code> if every picture matched the golden file, or one was recorded
+         */
+        public boolean passed(){
+            return differingFrames.length == 0;
+        }
+
+        @Override
+        public String toString() {
+            return name + (recorded ? ": recorded" : passed() ? ": passed" : ": " + differingFrames.length + " frames differ");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.nes.Controller.Button;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A script of the buttons held on the first {@link Controller} through a run, as the frames on which they change.<br/>
+ * <br/>
+ * Written one change per line as the frame number followed by the buttons held from then on, joined with
+ * <code>+</code>, or <code>-</code> for none, e.g.
+ * <pre>
+ *     # Start the game then jump
+ *     60  START
+ *     62  -
+ *     120 RIGHT+A
+ *     130 RIGHT
+ * </pre>
+ * Blank lines and anything after a <code>#</code> are ignored.
+ *
+ * @author Ross Drew
+ */
+public final class InputJournal {
+    /** No buttons held at any point */
+    public static final InputJournal EMPTY = new InputJournal(new TreeMap<>());
+
+    private static final String COMMENT = "#";
+    private static final String NO_BUTTONS = "-";
+    private static final String BUTTON_SEPARATOR = "\\+";
+
+    private final TreeMap<Integer, Integer> changes;
+
+    private InputJournal(final TreeMap<Integer, Integer> changes){
+        this.changes = changes;
+    }
+
+    /**
+     * @param file containing a journal
+     * @return the journal in <code>file</code>
+     * @throws IOException if <code>file</code> cannot be read
+     * @throws IllegalArgumentException if a line of <code>file</code> is not a valid change
+     */
+    public static InputJournal load(final Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param lines of a journal
+     * @return the journal in <code>lines</code>
+     * @throws IllegalArgumentException if a line is not a valid change
+     */
+    public static InputJournal parse(final List<String> lines){
+        final TreeMap<Integer, Integer> changes = new TreeMap<>();
+        for (int line = 0; line < lines.size(); line++) {
+            String text = lines.get(line);
+            final int comment = text.indexOf(COMMENT);
+            if (comment >= 0)
+                text = text.substring(0, comment);
+            text = text.trim();
+            if (text.isEmpty())
+                continue;
+
+            final String[] fields = text.split("\\s+");
+            if (fields.length != 2)
+                throw new IllegalArgumentException("Line " + (line + 1) + " should be '<frame> <buttons>', not '" + text + "'");
+
+            final int frame;
+            try {
+                frame = Integer.parseInt(fields[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + (line + 1) + " has an invalid frame '" + fields[0] + "'", e);
+            }
+            if (frame < 0)
+                throw new IllegalArgumentException("Line " + (line + 1) + " has a negative frame " + frame);
+
+            try {
+                changes.put(frame, buttons(fields[1]));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + (line + 1) + " has invalid buttons '" + fields[1] + "'", e);
+            }
+        }
+        return new InputJournal(changes);
+    }
+
+    private static int buttons(final String field){
+        if (field.equals(NO_BUTTONS))
+            return 0;
+
+        int buttons = 0;
+        for (String name : field.split(BUTTON_SEPARATOR))
+            buttons |= Button.valueOf(name).getMask();
+        return buttons;
+    }
+
+    /**
+     * @param frame from which <code>buttons</code> are held
+     * @param buttons held from <code>frame</code> on, until the next change
+     * @return a copy of this journal with that change
+     */
+    public InputJournal with(final int frame, final Button... buttons){
+        int mask = 0;
+        for (Button button : buttons)
+            mask |= button.getMask();
+
+        final TreeMap<Integer, Integer> newChanges = new TreeMap<>(changes);
+        newChanges.put(frame, mask);
+        return new InputJournal(newChanges);
+    }
+
+    /**
+     * @param frame number, from <code>0</code>
+     * @return the buttons held during <code>frame</code>, as {@link Button#getMask() masks} ORed together
+     */
+    public int buttonsAt(final int frame){
+        final Map.Entry<Integer, Integer> change = changes.floorEntry(frame);
+        return (change != null) ? change.getValue() : 0;
+    }
+}
@@ -3,9 +3,17 @@ package com.rox.emu.nes;
 import com.rox.emu.env.RoxByte;
 import com.rox.emu.env.RoxWord;
 import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.MeteredMemory;
+import com.rox.emu.metrics.EmulationMetrics;
+import com.rox.emu.metrics.FrameEvent;
+import com.rox.emu.metrics.RunSliceEvent;
 import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers.Flag;
+import com.rox.emu.processor.mos6502.op.Mos6502OpCode;
 import com.rox.emu.processor.ricoh2c02.Ricoh2C02;
 
+import java.util.Arrays;
+
 /**
  * A representation of the generic functions of the Nintendo Entertainment System.
  *
@@ -15,9 +23,25 @@ import com.rox.emu.processor.ricoh2c02.Ricoh2C02;
  *     - Inject a mock memory, cpu and ppu and make sure their startup and, reset states do as they should and that any memory modifications map onto memory/cpu/ppu as they should
  */
 public class NES {
+    /** CPU cycles in an NTSC frame, 262 scanlines of 341 PPU dots at 3 dots per CPU cycle */
+    public static final int CPU_CYCLES_PER_FRAME = 29781;
+
+    private static final int MAX_INSTRUCTION_CYCLES = Arrays.stream(Mos6502OpCode.values())
+                                                            .mapToInt(Mos6502OpCode::getCycles)
+                                                            .max()
+                                                            .orElse(1);
+
     private final Mos6502 cpu;
     private final Ricoh2C02 ppu;
     private final Memory mainMemory;
+    private final NESMemoryMap memoryMap;
+
+    private PipelinedRenderer renderer;
+    private boolean ppuCatchUp;
+    private EmulationMetrics metrics;
+    private MeteredMemory meteredMemory;
+    private long frameOverrun = 0;
+    private long frames = 0;
 
     /**
      original front-loading design, RP2A03G CPU chip, NES-CPU-07 main board revision, manufactured in 1988
@@ -54,9 +78,180 @@ public class NES {
         this.cpu = cpu;
         this.ppu = ppu;
         this.mainMemory = mainMemory;
+        this.memoryMap = null;
+    }
+
+    /**
+     * A NES running a cartridge, whose CPU should be addressing {@link NESMemoryMap#getCpuMemory()} and PPU, if any,
+     * {@link NESMemoryMap#getPpuMemory()}
+     */
+    public NES(final Mos6502 cpu, final Ricoh2C02 ppu, final NESMemoryMap memoryMap){
+        this.cpu = cpu;
+        this.ppu = ppu;
+        this.mainMemory = memoryMap.getCpuMemory();
+        this.memoryMap = memoryMap;
+
+        if (ppu != null) {
+            memoryMap.connect(ppu);
+            setPpuCatchUp(true);
+        }
     }
 
     public void reset(){
-        mainMemory.setBlock(RoxWord.fromLiteral(0xFFFC), RoxByte.fromIntArray(new int[] {0x80, 0x00}));
+        if (memoryMap != null) {
+            if (ppu != null)
+                ppu.catchUp();
+            memoryMap.reset();
+            if (ppu != null)
+                ppu.reset();
+            if (renderer != null)
+                renderer.recordReset();
+        } else
+            mainMemory.setBlock(RoxWord.fromLiteral(0xFFFC), RoxByte.fromIntArray(new int[] {0x80, 0x00}));
+        frameOverrun = 0;
+        frames = 0;
+    }
+
+    /**
+     * Choose between running the PPU up to the CPU after every instruction, or only catching it up when the CPU accesses
+     * it, when it's due to raise an interrupt and at the end of each frame, which draws the same picture with far less
+     * switching between the two.  Catching up is the default.
+     *
+     * @param catchUp <code>false</code> to run the PPU after every instruction
+     * @throws IllegalStateException if there's no PPU
+     */
+    public void setPpuCatchUp(final boolean catchUp){
+        if (ppu == null)
+            throw new IllegalStateException("PPU catch up needs a PPU");
+
+        this.ppuCatchUp = catchUp;
+        ppu.setCatchUpClock(catchUp ? cpu::getCycles : null);
+    }
+
+    /**
+     * Draw the picture on another thread, up to a frame behind the CPU, with a {@link PipelinedRenderer}, or stop doing
+     * so.  Needs a cartridge and PPU, and must be started before the PPU first runs.  Stopping waits for the frames run
+     * so far to be drawn and leaves the last picture in the PPU framebuffer.
+     *
+     * @param pipelined <code>true</code> to draw the picture on another thread
+     * @throws IllegalStateException if there's no cartridge and PPU, or the PPU has already run
+     */
+    public void setPipelined(final boolean pipelined){
+        if (pipelined == (renderer != null))
+            return;
+
+        if (pipelined) {
+            if (ppu == null || memoryMap == null)
+                throw new IllegalStateException("Pipelined rendering needs a cartridge and PPU");
+            renderer = new PipelinedRenderer(ppu, memoryMap);
+        } else {
+            renderer.flush();
+            renderer.close();
+            final int[] picture = renderer.getFramebuffer();
+            System.arraycopy(picture, 0, ppu.getFramebuffer(), 0, picture.length);
+            renderer = null;
+        }
+    }
+
+    /**
+     * @return the picture, <code>256x240</code> NES colour indices by row, the last complete one if pipelined
+     */
+    public int[] getFramebuffer(){
+        return (renderer != null) ? renderer.getFramebuffer() : ppu.getFramebuffer();
+    }
+
+    /**
+     * Attach {@link EmulationMetrics} which will be updated with every frame, by the CPU and, by having the CPU address
+     * the main memory through a {@link MeteredMemory}, with every memory access the CPU makes
+     *
+     * @param metrics to update or <code>null</code> to stop updating
+     */
+    public void setMetrics(final EmulationMetrics metrics){
+        if (meteredMemory != null)
+            meteredMemory.flush();
+
+        this.metrics = metrics;
+        cpu.setMetrics(metrics);
+        meteredMemory = (metrics != null) ? new MeteredMemory(mainMemory, metrics) : null;
+        cpu.setMemory((meteredMemory != null) ? meteredMemory : mainMemory);
+    }
+
+    /**
+     * Run the CPU for one frame's worth of cycles.<br/>
+     * <br/>
+     * The CPU is run in slices no longer than the cycles remaining in the frame, so a frame overruns by at most one
+     * instruction and that overrun is taken from the next frame.  With a cartridge and PPU, the PPU is run up to the CPU
+     * whenever it could matter (see {@link #setPpuCatchUp(boolean)}) and by the end of the frame, and OAM DMA and
+     * interrupts happen between instructions, the whole frame being recorded as one run slice.  If {@link #setPipelined(boolean) pipelined}, the CPU then waits for the previous frame to be drawn.
+     */
+    public void runFrame(){
+        final FrameEvent event = new FrameEvent();
+        event.begin();
+
+        final long frameStart = cpu.getCycles();
+        final long frameEnd = frameStart + CPU_CYCLES_PER_FRAME - frameOverrun;
+
+        if (ppu != null && memoryMap != null) {
+            final RunSliceEvent slice = new RunSliceEvent();
+            slice.begin();
+
+            int instructions = 0;
+            while (cpu.getCycles() < frameEnd) {
+                stepWithPpu();
+                instructions++;
+            }
+            ppu.runTo(cpu.getCycles());
+
+            final long cycles = cpu.getCycles() - frameStart;
+            if (metrics != null)
+                metrics.recordSlice(instructions, cycles);
+            slice.complete(frameStart, instructions, cycles);
+        } else {
+            long remainingCycles;
+            while ((remainingCycles = frameEnd - cpu.getCycles()) > 0)
+                cpu.step((int)Math.max(1, remainingCycles / MAX_INSTRUCTION_CYCLES));
+        }
+
+        frameOverrun = cpu.getCycles() - frameEnd;
+
+        if (memoryMap != null)
+            memoryMap.endFrame();
+        if (renderer != null)
+            renderer.endFrame();
+
+        if (meteredMemory != null)
+            meteredMemory.flush();
+        if (metrics != null)
+            metrics.recordFrame();
+        event.complete(frames++, frameStart, cpu.getCycles() - frameStart);
+    }
+
+    private void stepWithPpu(){
+        final long instructionStart = cpu.getCycles();
+        cpu.step();
+
+        final int oamDmaPage = memoryMap.pollOamDma();
+        if (oamDmaPage >= 0) {
+            ppu.runTo(instructionStart);
+            if (renderer != null)
+                renderer.recordOamDma(mainMemory, oamDmaPage);
+            ppu.oamDma(mainMemory, oamDmaPage);
+            cpu.stall(Ricoh2C02.OAM_DMA_CYCLES + (int)(cpu.getCycles() & 1));
+        }
+
+        if (!ppuCatchUp || cpu.getCycles() >= ppu.getNextEventCycle())
+            ppu.runTo(cpu.getCycles());
+
+        if (ppu.pollNmi())
+            cpu.nmi();
+        else if (memoryMap.getMapper().isIrqAsserted() && !cpu.getRegisters().getFlag(Flag.IRQ_DISABLE))
+            cpu.irq();
+    }
+
+    /**
+     * @return the number of frames run since creation or {@link #reset()}
+     */
+    public long getFrames(){
+        return frames;
     }
 }
@@ -0,0 +1,287 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.BankedMemory;
+import com.rox.emu.mem.MappedSaveMemory;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.ReadOnlyMemory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.nes.mapper.Mapper;
+import com.rox.emu.processor.ricoh2c02.Ricoh2C02;
+import com.rox.emu.rom.InesRom;
+import com.rox.emu.rom.RomControlOptions.Mirroring;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * The CPU and PPU address spaces of a NES with a cartridge inserted.<br/>
+ * <br/>
+ * <h4>CPU</h4>
+ * <ul>
+ *     <li><code>$0000-$1FFF</code>: 2K of internal RAM, mirrored four times</li>
+ *     <li><code>$2000-$3FFF</code>: PPU registers, mirrored every 8 bytes, once a PPU is {@link #connect(Ricoh2C02) connected}</li>
+ *     <li><code>$4014</code>: OAM DMA, latching the page written for the console to {@link #pollOamDma() transfer}</li>
+ *     <li><code>$4016-$4017</code>: two standard {@link Controller}s</li>
+ *     <li><code>$4000-$5FFF</code>: other APU and I/O registers (not yet mapped)</li>
+ *     <li><code>$6000-$FFFF</code>: the cartridge, as mapped by its {@link Mapper}</li>
+ * </ul>
+ * <h4>PPU</h4>
+ * <ul>
+ *     <li><code>$0000-$1FFF</code>: character ROM or RAM, as mapped by the cartridge {@link Mapper}</li>
+ *     <li><code>$2000-$3FFF</code>: nametables, arranged by the cartridge {@link Mapper} and mirrored</li>
+ * </ul>
+ * If the ROM has battery backed RAM and a save file is given, the save file is mounted as program RAM at
+ * <code>$6000-$7FFF</code>, flushed at the end of each frame and on {@link #close()}.
+ *
+ * @author Ross Drew
+ */
+public class NESMemoryMap implements Closeable {
+    /** The granularity of CPU address space mapping in bytes */
+    public static final int CPU_PAGE_SIZE = 0x800;
+    /** The granularity of PPU address space mapping in bytes */
+    public static final int PPU_PAGE_SIZE = 0x400;
+    /** The size of internal RAM in bytes */
+    public static final int RAM_SIZE = 0x800;
+
+    private static final int RAM_MIRRORED_SIZE = 0x2000;
+    private static final int PPU_REGISTERS_MIRRORED_SIZE = 0x2000;
+    private static final int IO_REGISTERS_ADDRESS = 0x4000;
+    private static final int CONTROLLER_ADDRESS = 0x4016;
+    private static final int CONTROLLER_COUNT = 2;
+    private static final int NO_OAM_DMA = -1;
+    private static final int NAMETABLE_RAM_SIZE = 0x800;
+    private static final int FOUR_SCREEN_NAMETABLE_RAM_SIZE = 0x1000;
+
+    private final BankedMemory cpuMemory = new BankedMemory(0x10000, CPU_PAGE_SIZE);
+    private final BankedMemory ppuMemory = new BankedMemory(0x4000, PPU_PAGE_SIZE);
+    private final Memory ram = new SimpleMemory(RAM_SIZE);
+    private final Controller[] controllers = {new Controller(), new Controller()};
+    private final Memory nametableRam;
+    private final InesRom rom;
+    private final Mapper mapper;
+    private final BankedMemory.WriteHandler mapperWrites;
+    private final MappedSaveMemory saveMemory;
+    private int oamDmaPage = NO_OAM_DMA;
+    private BankedMemory.WriteHandler cartridgeListener;
+    private Ricoh2C02 ppu;
+
+    /**
+     * @param rom the cartridge inserted
+     * @throws com.rox.emu.nes.mapper.UnknownMapperException if the mapper <code>rom</code> requires isn't supported
+     */
+    public NESMemoryMap(final InesRom rom){
+        this(rom, (MappedSaveMemory) null);
+    }
+
+    /**
+     * @param rom the cartridge inserted
+     * @param saveFile to hold battery backed RAM, if <code>rom</code> has any, or <code>null</code> for none
+     * @throws IOException if <code>saveFile</code> is needed and cannot be opened
+     * @throws com.rox.emu.nes.mapper.UnknownMapperException if the mapper <code>rom</code> requires isn't supported
+     */
+    public NESMemoryMap(final InesRom rom, final Path saveFile) throws IOException {
+        this(rom, (saveFile != null && rom.getHeader().getRomControlOptions().isRamPresent()) ?
+                  MappedSaveMemory.open(saveFile, Mapper.PRG_RAM_SIZE) : null);
+    }
+
+    private NESMemoryMap(final InesRom rom, final MappedSaveMemory saveMemory){
+        this.rom = rom;
+        this.saveMemory = saveMemory;
+        mapper = Mapper.forRom(rom);
+        if (saveMemory != null)
+            mapper.mountPrgRam(saveMemory);
+
+        nametableRam = new SimpleMemory(rom.getHeader().getRomControlOptions().getMirroring() == Mirroring.FOUR_SCREEN ?
+                                        FOUR_SCREEN_NAMETABLE_RAM_SIZE : NAMETABLE_RAM_SIZE);
+
+        for (int mirror = 0; mirror < RAM_MIRRORED_SIZE; mirror += RAM_SIZE)
+            cpuMemory.map(mirror, RAM_SIZE, ram, 0);
+        cpuMemory.map(IO_REGISTERS_ADDRESS, CPU_PAGE_SIZE, new IoRegisterMemory(), 0);
+        cpuMemory.intercept(IO_REGISTERS_ADDRESS, CPU_PAGE_SIZE, this::writeIoRegister);
+
+        mapper.attach(cpuMemory, ppuMemory, nametableRam);
+        mapperWrites = cpuMemory.getWriteHandlerAt(Mapper.PRG_ROM_ADDRESS);
+        cpuMemory.intercept(Mapper.PRG_ROM_ADDRESS, Mapper.PRG_ROM_WINDOW_SIZE, this::writeCartridge);
+    }
+
+    /**
+     * Map the registers of <code>ppu</code> into the CPU address space, have it clock the cartridge mapper at the end of
+     * each rendered scanline if the mapper counts them and {@link Ricoh2C02#catchUp() catch up} before the mapper
+     * registers are written, as that can switch what the PPU draws
+     *
+     * @param ppu addressing {@link #getPpuMemory()}
+     */
+    public void connect(final Ricoh2C02 ppu){
+        this.ppu = ppu;
+        cpuMemory.map(Ricoh2C02.REGISTER_ADDRESS, PPU_REGISTERS_MIRRORED_SIZE, ppu.getRegisterMemory(), 0);
+        ppu.setScanlineClock(mapper.countsScanlines() ? mapper::clockScanline : null);
+    }
+
+    private void writeIoRegister(final int address, final RoxByte value){
+        if (address == Ricoh2C02.OAM_DMA_ADDRESS) {
+            oamDmaPage = value.getRawValue();
+        } else if (address == CONTROLLER_ADDRESS) {
+            for (Controller controller : controllers)
+                controller.write(value.getRawValue());
+        }
+    }
+
+    private int readIoRegister(final int address){
+        final int controller = address - CONTROLLER_ADDRESS;
+        return (controller >= 0 && controller < CONTROLLER_COUNT) ? controllers[controller].read() : 0;
+    }
+
+    /**
+     * @param port the controller is plugged into, <code>0</code> or <code>1</code>
+     * @return the controller read through <code>$4016 + port</code>
+     */
+    public Controller getController(final int port){
+        return controllers[port];
+    }
+
+    private void writeCartridge(final int address, final RoxByte value){
+        if (ppu != null)
+            ppu.catchUp();
+        if (cartridgeListener != null)
+            cartridgeListener.write(address, value);
+        mapperWrites.write(address, value);
+    }
+
+    /**
+     * @param listener to observe CPU writes to the cartridge mapper registers at <code>$8000-$FFFF</code> before the
+     *                 mapper sees them, i.e. to replay them on another cartridge, or <code>null</code>
+     */
+    public void setCartridgeListener(final BankedMemory.WriteHandler listener){
+        this.cartridgeListener = listener;
+    }
+
+    /**
+     * @return the page written to <code>$4014</code> since last asked, which should be copied into OAM, or
+     *         <code>-1</code> if there hasn't been an OAM DMA
+     */
+    public int pollOamDma(){
+        final int page = oamDmaPage;
+        oamDmaPage = NO_OAM_DMA;
+        return page;
+    }
+
+    /**
+     * @return the address space seen by the CPU
+     */
+    public Memory getCpuMemory(){
+        return cpuMemory;
+    }
+
+    /**
+     * @return the address space seen by the PPU
+     */
+    public Memory getPpuMemory(){
+        return ppuMemory;
+    }
+
+    /**
+     * @return the cartridge inserted
+     */
+    public InesRom getRom(){
+        return rom;
+    }
+
+    /**
+     * @return the cartridge mapper
+     */
+    public Mapper getMapper(){
+        return mapper;
+    }
+
+    /**
+     * @return the battery backed save memory mounted, if any
+     */
+    public Optional<MappedSaveMemory> getSaveMemory(){
+        return Optional.ofNullable(saveMemory);
+    }
+
+    /**
+     * Clear RAM and return the cartridge mapper to its power up state
+     */
+    public void reset(){
+        ram.reset();
+        nametableRam.reset();
+        mapper.reset();
+    }
+
+    /**
+     * Called at the end of each frame, to batch up anything which needn't happen more often
+     */
+    public void endFrame(){
+        if (saveMemory != null)
+            saveMemory.flush();
+    }
+
+    /**
+     * Flush and close any save memory
+     */
+    @Override
+    public void close() throws IOException {
+        if (saveMemory != null)
+            saveMemory.close();
+    }
+
+    /**
+     * Reads of the I/O registers page, writes to which are intercepted
+     */
+    private final class IoRegisterMemory implements Memory {
+        @Override
+        public void setByteAt(RoxWord location, RoxByte byteValue) {
+            writeIoRegister(IO_REGISTERS_ADDRESS + location.getRawValue(), byteValue);
+        }
+
+        @Override
+        public void setByteAt(int address, RoxByte byteValue) {
+            writeIoRegister(IO_REGISTERS_ADDRESS + address, byteValue);
+        }
+
+        @Override
+        public void setBlock(RoxWord startLocation, RoxByte[] byteValues) {
+            int address = startLocation.getRawValue();
+            for (RoxByte byteValue : byteValues)
+                setByteAt(RoxWord.fromLiteral(address++), byteValue);
+        }
+
+        @Override
+        public RoxByte getByte(RoxWord location) {
+            return ReadOnlyMemory.valueOf(getRawByte(location.getRawValue()));
+        }
+
+        @Override
+        public int getRawByte(int address) {
+            return readIoRegister(IO_REGISTERS_ADDRESS + address);
+        }
+
+        @Override
+        public RoxWord getWord(RoxWord location) {
+            return RoxWord.from(getByte(location), getByte(RoxWord.fromLiteral(location.getRawValue() + 1)));
+        }
+
+        @Override
+        public RoxByte[] getBlock(RoxWord from, RoxWord to) {
+            final RoxByte[] block = new RoxByte[to.getRawValue() - from.getRawValue()];
+            for (int i = 0; i < block.length; i++)
+                block[i] = getByte(RoxWord.fromLiteral(from.getRawValue() + i));
+            return block;
+        }
+
+        @Override
+        public void reset() {
+            //Registers aren't memory
+        }
+
+        @Override
+        public int getSize() {
+            return CPU_PAGE_SIZE;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.ricoh2c02.Ricoh2C02;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Draws the picture of a {@link Ricoh2C02} on another thread, up to a frame behind the CPU.<br/>
+ * <br/>
+ * The PPU on the CPU thread keeps running without drawing any frames (see {@link Ricoh2C02#setRenderInterval(int)}),
+ * so vertical blank, NMIs, PPUSTATUS reads, sprite overflow, sprite zero hits and scanline counting mappers all behave
+ * exactly as they would without this.  Everything
+ * which changes what's drawn, i.e. register accesses, OAM DMA, cartridge mapper writes and resets, is recorded with
+ * the cycle it happened on into a {@link BusEventQueue}.  The render thread replays those onto its own copy of the PPU
+ * and cartridge, running that PPU up to each event before applying it, so it draws exactly what the PPU on the CPU
+ * thread would have.<br/>
+ * <br/>
+ * Each completed picture is copied into the back of two framebuffers, which are then swapped.  {@link #endFrame()}
+ * lets the CPU run at most one frame ahead of the render thread.
+ *
+ * @author Ross Drew
+ */
+public class PipelinedRenderer implements Closeable {
+    private static final int QUEUE_CAPACITY = 1 << 16;
+    private static final int DRAIN_LIMIT = QUEUE_CAPACITY / 4;
+    private static final int IDLE_SPINS = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private static final int EVENT_SHIFT = 24;
+    private static final int REGISTER_READ = 1;
+    private static final int REGISTER_WRITE = 2;
+    private static final int CARTRIDGE_WRITE = 3;
+    private static final int FRAME_END = 4;
+    private static final int RESET = 5;
+
+    private static final int OAMDATA = 0x2004;
+
+    private final Ricoh2C02 ppu;
+    private final NESMemoryMap memoryMap;
+    private final NESMemoryMap replicaMemoryMap;
+    private final Ricoh2C02 replica;
+    private final int renderInterval;
+    private final BusEventQueue queue = new BusEventQueue(QUEUE_CAPACITY);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "Ricoh2C02-Renderer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private int[] backFramebuffer = new int[Ricoh2C02.SCREEN_WIDTH * Ricoh2C02.SCREEN_HEIGHT];
+    private volatile int[] frontFramebuffer = new int[Ricoh2C02.SCREEN_WIDTH * Ricoh2C02.SCREEN_HEIGHT];
+    private volatile long framesDrawn;
+    private volatile long frameEndsRendered;
+    private volatile Throwable failure;
+    private volatile boolean running = true;
+    private long frameEnds;
+
+    /**
+     * Start drawing the picture of <code>ppu</code> on another thread.  Its copy of the PPU and cartridge start from
+     * their power up state, so this must be created before <code>ppu</code> runs or its registers are accessed.
+     *
+     * @param ppu running on the CPU thread, {@link NESMemoryMap#connect(Ricoh2C02) connected} to <code>memoryMap</code>
+     * @param memoryMap the PPU and its cartridge are in
+     * @throws IllegalStateException if <code>ppu</code> has already run
+     */
+    public PipelinedRenderer(final Ricoh2C02 ppu, final NESMemoryMap memoryMap){
+        if (ppu.getCycles() != 0)
+            throw new IllegalStateException("Pipelined rendering must start before the PPU runs, it has run " + ppu.getCycles() + " cycles");
+
+        this.ppu = ppu;
+        this.memoryMap = memoryMap;
+        this.replicaMemoryMap = new NESMemoryMap(memoryMap.getRom());
+        this.replica = new Ricoh2C02(replicaMemoryMap.getPpuMemory(), new SimpleMemory(Ricoh2C02.OAM_SIZE));
+        replicaMemoryMap.connect(replica);
+        replica.setFrameListener(this::publishFrame);
+
+        renderInterval = ppu.getRenderInterval();
+        ppu.setRenderInterval(0);
+        ppu.setRegisterListener(new Ricoh2C02.RegisterListener() {
+            @Override
+            public void registerRead(int address) {
+                record(REGISTER_READ, address, 0);
+            }
+
+            @Override
+            public void registerWritten(int address, int value) {
+                record(REGISTER_WRITE, address, value);
+            }
+        });
+        memoryMap.setCartridgeListener((address, value) -> record(CARTRIDGE_WRITE, address, value.getRawValue()));
+
+        executor.submit(this::render);
+    }
+
+    private void record(final int type, final int address, final int value){
+        queue.offer(ppu.getCycles(), (type << EVENT_SHIFT) | ((address & 0xFFFF) << 8) | (value & 0xFF));
+    }
+
+    /**
+     * Record an OAM DMA transfer, before <code>ppu</code> makes it
+     *
+     * @param cpuMemory being copied from
+     * @param page number, the high byte of the address copied from
+     */
+    public void recordOamDma(final Memory cpuMemory, final int page){
+        final int address = (page & 0xFF) << 8;
+        for (int offset = 0; offset < Ricoh2C02.OAM_SIZE; offset++)
+            record(REGISTER_WRITE, OAMDATA, cpuMemory.getRawByte(address + offset));
+    }
+
+    /**
+     * Record a reset of the PPU and cartridge
+     */
+    public void recordReset(){
+        record(RESET, 0, 0);
+    }
+
+    /**
+     * Mark the end of a frame on the CPU thread and wait for the render thread to finish the frame before, so the CPU
+     * runs at most one frame ahead
+     *
+     * @throws IllegalStateException if the render thread has failed
+     */
+    public void endFrame(){
+        record(FRAME_END, 0, 0);
+        awaitFrameEnds(++frameEnds - 1);
+    }
+
+    /**
+     * Wait for the render thread to catch up with every frame {@link #endFrame() ended}
+     *
+     * @throws IllegalStateException if the render thread has failed
+     */
+    public void flush(){
+        awaitFrameEnds(frameEnds);
+    }
+
+    private void awaitFrameEnds(final long count){
+        while (frameEndsRendered < count) {
+            if (failure != null)
+                throw new IllegalStateException("Pipelined rendering failed", failure);
+            if (!running)
+                throw new IllegalStateException("Pipelined rendering has stopped");
+            Thread.yield();
+        }
+    }
+
+    /**
+     * @return the last complete picture, <code>256x240</code> NES colour indices by row, valid until the next is drawn
+     */
+    public int[] getFramebuffer(){
+        return frontFramebuffer;
+    }
+
+    /**
+     * @return the number of complete pictures drawn
+     */
+    public long getFramesDrawn(){
+        return framesDrawn;
+    }
+
+    private void render(){
+        try {
+            int idle = 0;
+            while (running) {
+                if (queue.drain(this::replay, DRAIN_LIMIT) > 0)
+                    idle = 0;
+                else if (++idle < IDLE_SPINS)
+                    Thread.yield();
+                else
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        } catch (Throwable t) {
+            failure = t;
+            running = false;
+        }
+    }
+
+    private void replay(final long cycle, final int event){
+        replica.runTo(cycle);
+
+        final int address = (event >> 8) & 0xFFFF;
+        final int value = event & 0xFF;
+        switch (event >>> EVENT_SHIFT) {
+            case REGISTER_READ:
+                replica.readRegister(address);
+                break;
+            case REGISTER_WRITE:
+                replica.writeRegister(address, value);
+                break;
+            case CARTRIDGE_WRITE:
+                replicaMemoryMap.getCpuMemory().setByteAt(RoxWord.fromLiteral(address), RoxByte.fromLiteral(value));
+                break;
+            case RESET:
+                replicaMemoryMap.reset();
+                replica.reset();
+                break;
+            case FRAME_END:
+                frameEndsRendered = frameEndsRendered + 1;
+                break;
+            default:
+                throw new IllegalStateException("Unknown bus event " + Integer.toHexString(event));
+        }
+    }
+
+    private void publishFrame(){
+        final int[] framebuffer = backFramebuffer;
+        System.arraycopy(replica.getFramebuffer(), 0, framebuffer, 0, framebuffer.length);
+        backFramebuffer = frontFramebuffer;
+        frontFramebuffer = framebuffer;
+        framesDrawn = framesDrawn + 1;
+    }
+
+    /**
+     * Stop the render thread, leaving the PPU on the CPU thread to draw the picture itself again
+     */
+    @Override
+    public void close(){
+        running = false;
+        executor.shutdown();
+        ppu.setRegisterListener(null);
+        memoryMap.setCartridgeListener(null);
+        ppu.setRenderInterval(renderInterval);
+    }
+}
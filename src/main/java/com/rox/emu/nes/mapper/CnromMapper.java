@@ -0,0 +1,30 @@
+package com.rox.emu.nes.mapper;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.rom.InesRom;
+
+/**
+ * Mapper 3, CNROM: program ROM is fixed as with {@link NromMapper} and an 8K character ROM bank is selected by writing
+ * its number anywhere in <code>$8000-$FFFF</code>.
+ *
+ * @author Ross Drew
+ */
+public class CnromMapper extends Mapper {
+    public static final int NUMBER = 3;
+
+    public CnromMapper(final InesRom rom) {
+        super(rom);
+    }
+
+    @Override
+    protected void resetRegisters() {
+        mapPrg(0x8000, 0x4000, 0);
+        mapPrg(0xC000, 0x4000, 1);
+        mapChr(0x0000, 0x2000, 0);
+    }
+
+    @Override
+    protected void writeRegister(int address, RoxByte value) {
+        mapChr(0x0000, 0x2000, value.getRawValue());
+    }
+}
@@ -0,0 +1,265 @@
+package com.rox.emu.nes.mapper;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.mem.BankedMemory;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.ReadOnlyMemory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.metrics.BankSwitchEvent;
+import com.rox.emu.rom.InesRom;
+import com.rox.emu.rom.RomControlOptions.Mirroring;
+
+/**
+ * A cartridge mapper, which decides which banks of a ROM's program and character memory the CPU and PPU see.<br/>
+ * <br/>
+ * Once {@link #attach(BankedMemory, BankedMemory, Memory) attached}, a mapper maps program ROM and RAM into the CPU
+ * address space from <code>$6000</code>, character ROM (or RAM) and nametables into the PPU address space, and
+ * intercepts CPU writes to <code>$8000-$FFFF</code> as writes to its registers.  Switching a bank only replaces page
+ * table entries in those address spaces, bank contents are never copied.<br/>
+ * <br/>
+ * Since {@link Memory} is only word addressable, ROMs are split into zero copy slices of the smallest bank size any
+ * mapper uses, 8K of program ROM and 1K of character ROM, and banks are mapped a slice at a time.
+ *
+ * @author Ross Drew
+ */
+public abstract class Mapper {
+    /** The start of program RAM in the CPU address space */
+    public static final int PRG_RAM_ADDRESS = 0x6000;
+    /** The size of program RAM in bytes */
+    public static final int PRG_RAM_SIZE = 0x2000;
+    /** The start of program ROM, and mapper registers, in the CPU address space */
+    public static final int PRG_ROM_ADDRESS = 0x8000;
+    /** The size of the program ROM window in the CPU address space */
+    public static final int PRG_ROM_WINDOW_SIZE = 0x8000;
+    /** The size of the character memory window in the PPU address space, from <code>$0000</code> */
+    public static final int CHR_WINDOW_SIZE = 0x2000;
+    /** The start of nametables in the PPU address space */
+    public static final int NAMETABLE_ADDRESS = 0x2000;
+    /** The size of a nametable in bytes */
+    public static final int NAMETABLE_SIZE = 0x400;
+
+    private static final int CHR_RAM_SIZE = 0x2000;
+    private static final int PRG_SLICE_SIZE = 0x2000;
+    private static final int CHR_SLICE_SIZE = 0x400;
+    private static final int NAMETABLE_MIRROR_ADDRESS = 0x3000;
+
+    private static final int[] HORIZONTAL_NAMETABLES = {0, 0, 1, 1};
+    private static final int[] VERTICAL_NAMETABLES = {0, 1, 0, 1};
+    private static final int[] LOWER_NAMETABLES = {0, 0, 0, 0};
+    private static final int[] UPPER_NAMETABLES = {1, 1, 1, 1};
+    private static final int[] FOUR_SCREEN_NAMETABLES = {0, 1, 2, 3};
+
+    private final Mirroring headerMirroring;
+    private final Memory[] prgSlices;
+    private final int[] prgSliceOffsets;
+    private final Memory[] chrSlices;
+    private final int[] chrSliceOffsets;
+    private final boolean chrRam;
+    private Memory prgRam = new SimpleMemory(PRG_RAM_SIZE);
+
+    private BankedMemory cpuMemory;
+    private BankedMemory ppuMemory;
+    private Memory nametables;
+
+    protected Mapper(final InesRom rom){
+        this.headerMirroring = rom.getHeader().getRomControlOptions().getMirroring();
+        this.chrRam = rom.getCharacterRom().getSize() == 0;
+
+        this.prgSlices = slices(rom.getProgramRom(), PRG_SLICE_SIZE);
+        this.prgSliceOffsets = new int[prgSlices.length];
+
+        if (chrRam) {
+            final Memory chrMemory = new SimpleMemory(CHR_RAM_SIZE);
+            this.chrSlices = new Memory[CHR_RAM_SIZE / CHR_SLICE_SIZE];
+            this.chrSliceOffsets = new int[chrSlices.length];
+            for (int slice = 0; slice < chrSlices.length; slice++) {
+                chrSlices[slice] = chrMemory;
+                chrSliceOffsets[slice] = slice * CHR_SLICE_SIZE;
+            }
+        } else {
+            this.chrSlices = slices(rom.getCharacterRom(), CHR_SLICE_SIZE);
+            this.chrSliceOffsets = new int[chrSlices.length];
+        }
+    }
+
+    private static Memory[] slices(final ReadOnlyMemory rom, final int sliceSize){
+        final Memory[] slices = new Memory[rom.getSize() / sliceSize];
+        for (int slice = 0; slice < slices.length; slice++)
+            slices[slice] = rom.slice(slice * sliceSize, sliceSize);
+        return slices;
+    }
+
+    /**
+     * @param rom to map
+     * @return the mapper <code>rom</code> declares in its header
+     * @throws UnknownMapperException if the mapper isn't supported
+     */
+    public static Mapper forRom(final InesRom rom){
+        final int mapperNumber = rom.getHeader().getRomControlOptions().getMapperNumber();
+        switch (mapperNumber) {
+            case NromMapper.NUMBER: return new NromMapper(rom);
+            case Mmc1Mapper.NUMBER: return new Mmc1Mapper(rom);
+            case UxromMapper.NUMBER: return new UxromMapper(rom);
+            case CnromMapper.NUMBER: return new CnromMapper(rom);
+            case Mmc3Mapper.NUMBER: return new Mmc3Mapper(rom);
+            default: throw new UnknownMapperException("Mapper " + mapperNumber + " is not supported", mapperNumber);
+        }
+    }
+
+    /**
+     * Map this cartridge into the CPU and PPU address spaces, then {@link #reset()}
+     *
+     * @param cpuMemory the CPU address space, with pages no larger than 8K
+     * @param ppuMemory the PPU address space, with pages no larger than 1K
+     * @param nametables the console nametable RAM, at least 4K if the ROM asks for four screen mirroring
+     */
+    public void attach(final BankedMemory cpuMemory, final BankedMemory ppuMemory, final Memory nametables){
+        this.cpuMemory = cpuMemory;
+        this.ppuMemory = ppuMemory;
+        this.nametables = nametables;
+
+        cpuMemory.map(PRG_RAM_ADDRESS, PRG_RAM_SIZE, prgRam, 0);
+        cpuMemory.intercept(PRG_ROM_ADDRESS, PRG_ROM_WINDOW_SIZE, this::writeRegister);
+        if (!chrRam)
+            ppuMemory.intercept(0, CHR_WINDOW_SIZE, (address, value) -> {/*Writes to ROM have no effect*/});
+
+        reset();
+    }
+
+    /**
+     * Return registers to their power up state and map the banks they select
+     */
+    public void reset(){
+        setMirroring(headerMirroring);
+        resetRegisters();
+    }
+
+    /**
+     * Return registers to their power up state and map the banks they select
+     */
+    protected abstract void resetRegisters();
+
+    /**
+     * A CPU write to <code>$8000-$FFFF</code>
+     *
+     * @param address written to
+     * @param value written
+     */
+    protected abstract void writeRegister(int address, RoxByte value);
+
+    /**
+     * Called at the end of each rendered scanline, for mappers which count them
+     */
+    public void clockScanline(){
+        //Most mappers don't count scanlines
+    }
+
+    /**
+     * @return <code>true</code> if this mapper needs {@link #clockScanline()} called
+     */
+    public boolean countsScanlines(){
+        return false;
+    }
+
+    /**
+     * @return <code>true</code> while the mapper is asserting an IRQ
+     */
+    public boolean isIrqAsserted(){
+        return false;
+    }
+
+    /**
+     * Replace the program RAM mapped at <code>$6000-$7FFF</code>, i.e. with battery backed save memory
+     *
+     * @param ram of {@link #PRG_RAM_SIZE} bytes
+     */
+    public void mountPrgRam(final Memory ram){
+        if (ram.getSize() != PRG_RAM_SIZE)
+            throw new IllegalArgumentException("Program RAM must be " + PRG_RAM_SIZE + " bytes, not " + ram.getSize());
+
+        prgRam = ram;
+        if (cpuMemory != null)
+            cpuMemory.map(PRG_RAM_ADDRESS, PRG_RAM_SIZE, prgRam, 0);
+    }
+
+    /**
+     * @return the program RAM mapped at <code>$6000-$7FFF</code>
+     */
+    public Memory getPrgRam(){
+        return prgRam;
+    }
+
+    /**
+     * Map a bank of program ROM into the CPU address space
+     *
+     * @param address in the CPU address space, from <code>$8000</code>
+     * @param bankSize in bytes
+     * @param bank number, in units of <code>bankSize</code>, wrapping around the ROM size; negative from the last bank
+     */
+    protected void mapPrg(final int address, final int bankSize, final int bank){
+        map(BankSwitchEvent.PRG, cpuMemory, address, bankSize, bank, prgSlices, prgSliceOffsets, PRG_SLICE_SIZE);
+    }
+
+    /**
+     * Map a bank of character ROM or RAM into the PPU address space
+     *
+     * @param address in the PPU address space, from <code>$0000</code>
+     * @param bankSize in bytes
+     * @param bank number, in units of <code>bankSize</code>, wrapping around the ROM size; negative from the last bank
+     */
+    protected void mapChr(final int address, final int bankSize, final int bank){
+        map(BankSwitchEvent.CHR, ppuMemory, address, bankSize, bank, chrSlices, chrSliceOffsets, CHR_SLICE_SIZE);
+    }
+
+    private static void map(final String memory, final BankedMemory addressSpace, final int address, final int bankSize,
+                            final int bank, final Memory[] slices, final int[] sliceOffsets, final int sliceSize){
+        if (slices.length == 0) {
+            addressSpace.unmap(address, bankSize);
+            return;
+        }
+
+        final BankSwitchEvent event = new BankSwitchEvent();
+        event.begin();
+
+        final int slicesPerBank = bankSize / sliceSize;
+        final int bankCount = Math.max(1, slices.length / slicesPerBank);
+        final int mappedBank = Math.floorMod(bank, bankCount);
+        final int firstSlice = mappedBank * slicesPerBank;
+        for (int slice = 0; slice < slicesPerBank; slice++) {
+            final int mappedSlice = (firstSlice + slice) % slices.length;
+            addressSpace.map(address + (slice * sliceSize), sliceSize, slices[mappedSlice], sliceOffsets[mappedSlice]);
+        }
+
+        event.complete(memory, address, bankSize, mappedBank);
+    }
+
+    /**
+     * @return <code>true</code> if the ROM asked for four screen mirroring, which mappers cannot override
+     */
+    protected boolean isFourScreen(){
+        return headerMirroring == Mirroring.FOUR_SCREEN;
+    }
+
+    /**
+     * Map the nametables into the PPU address space, at <code>$2000-$2FFF</code> and mirrored at
+     * <code>$3000-$3FFF</code>, arranged as <code>mirroring</code> dictates
+     *
+     * @param mirroring arrangement of nametables
+     */
+    protected void setMirroring(final Mirroring mirroring){
+        final int[] arrangement;
+        switch (mirroring) {
+            case HORIZONTAL: arrangement = HORIZONTAL_NAMETABLES; break;
+            case VERTICAL: arrangement = VERTICAL_NAMETABLES; break;
+            case SINGLE_SCREEN_LOWER: arrangement = LOWER_NAMETABLES; break;
+            case SINGLE_SCREEN_UPPER: arrangement = UPPER_NAMETABLES; break;
+            default: arrangement = FOUR_SCREEN_NAMETABLES; break;
+        }
+
+        for (int table = 0; table < arrangement.length; table++) {
+            final int offset = arrangement[table] * NAMETABLE_SIZE;
+            ppuMemory.map(NAMETABLE_ADDRESS + (table * NAMETABLE_SIZE), NAMETABLE_SIZE, nametables, offset);
+            ppuMemory.map(NAMETABLE_MIRROR_ADDRESS + (table * NAMETABLE_SIZE), NAMETABLE_SIZE, nametables, offset);
+        }
+    }
+}
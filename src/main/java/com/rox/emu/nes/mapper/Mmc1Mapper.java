@@ -0,0 +1,100 @@
+package com.rox.emu.nes.mapper;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.rom.InesRom;
+import com.rox.emu.rom.RomControlOptions.Mirroring;
+
+/**
+ * Mapper 1, MMC1: registers are loaded serially, one bit per write to <code>$8000-$FFFF</code>, least significant bit
+ * first.  The fifth write loads the register selected by bits 13 and 14 of its address:
+ * <ul>
+ *     <li><code>$8000-$9FFF</code>: Control; mirroring (bits 0-1), program ROM bank mode (bits 2-3) and character
+ *         bank mode (bit 4)</li>
+ *     <li><code>$A000-$BFFF</code>: Character bank 0, a 4K bank at <code>$0000</code> or an 8K bank at
+ *         <code>$0000</code> ignoring the low bit</li>
+ *     <li><code>$C000-$DFFF</code>: Character bank 1, a 4K bank at <code>$1000</code>, ignored in 8K mode</li>
+ *     <li><code>$E000-$FFFF</code>: Program ROM bank, a 16K bank at <code>$8000</code> or <code>$C000</code>, or a
+ *         32K bank at <code>$8000</code> ignoring the low bit</li>
+ * </ul>
+ * Writing a value with bit 7 set clears the shift register and selects program ROM bank mode 3.
+ *
+ * @author Ross Drew
+ */
+public class Mmc1Mapper extends Mapper {
+    public static final int NUMBER = 1;
+
+    private static final int SHIFT_REGISTER_RESET = 0b10000;
+    private static final Mirroring[] MIRRORING = {Mirroring.SINGLE_SCREEN_LOWER, Mirroring.SINGLE_SCREEN_UPPER,
+                                                  Mirroring.VERTICAL, Mirroring.HORIZONTAL};
+
+    private int shiftRegister;
+    private int control;
+    private int chrBank0;
+    private int chrBank1;
+    private int prgBank;
+
+    public Mmc1Mapper(final InesRom rom) {
+        super(rom);
+    }
+
+    @Override
+    protected void resetRegisters() {
+        shiftRegister = SHIFT_REGISTER_RESET;
+        control = 0x0C;
+        chrBank0 = 0;
+        chrBank1 = 0;
+        prgBank = 0;
+        updateBanks();
+    }
+
+    @Override
+    protected void writeRegister(int address, RoxByte value) {
+        final int rawValue = value.getRawValue();
+        if ((rawValue & 0x80) != 0) {
+            shiftRegister = SHIFT_REGISTER_RESET;
+            control |= 0x0C;
+            updateBanks();
+            return;
+        }
+
+        final boolean complete = (shiftRegister & 1) != 0;
+        shiftRegister = (shiftRegister >> 1) | ((rawValue & 1) << 4);
+        if (!complete)
+            return;
+
+        switch (address & 0x6000) {
+            case 0x0000: control = shiftRegister; break;
+            case 0x2000: chrBank0 = shiftRegister; break;
+            case 0x4000: chrBank1 = shiftRegister; break;
+            default: prgBank = shiftRegister & 0x0F; break;
+        }
+        shiftRegister = SHIFT_REGISTER_RESET;
+        updateBanks();
+    }
+
+    private void updateBanks(){
+        if (!isFourScreen())
+            setMirroring(MIRRORING[control & 0b11]);
+
+        switch ((control >> 2) & 0b11) {
+            case 0: case 1:
+                mapPrg(0x8000, 0x8000, prgBank >> 1);
+                break;
+            case 2:
+                mapPrg(0x8000, 0x4000, 0);
+                mapPrg(0xC000, 0x4000, prgBank);
+                break;
+            default:
+                mapPrg(0x8000, 0x4000, prgBank);
+                mapPrg(0xC000, 0x4000, -1);
+                break;
+        }
+
+        if ((control & 0b10000) == 0) {
+            mapChr(0x0000, 0x2000, chrBank0 >> 1);
+        } else {
+            mapChr(0x0000, 0x1000, chrBank0);
+            mapChr(0x1000, 0x1000, chrBank1);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.rox.emu.nes.mapper;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.rom.InesRom;
+import com.rox.emu.rom.RomControlOptions.Mirroring;
+
+/**
+ * Mapper 4, MMC3: eight bank registers, selected by even writes to <code>$8000-$9FFF</code> and loaded by odd writes,
+ * map 8K program ROM banks and 2K or 1K character banks.  Even writes to <code>$A000-$BFFF</code> select mirroring,
+ * and <code>$C000-$FFFF</code> controls a scanline counter which asserts an IRQ when it reaches zero.
+ * <br/>
+ * The scanline counter is clocked by {@link #clockScanline()} rather than by watching the PPU address bus.
+ *
+ * @author Ross Drew
+ */
+public class Mmc3Mapper extends Mapper {
+    public static final int NUMBER = 4;
+
+    private final int[] bankRegisters = new int[8];
+    private int bankSelect;
+
+    private int irqLatch;
+    private int irqCounter;
+    private boolean irqReload;
+    private boolean irqEnabled;
+    private boolean irqAsserted;
+
+    public Mmc3Mapper(final InesRom rom) {
+        super(rom);
+    }
+
+    @Override
+    protected void resetRegisters() {
+        for (int register = 0; register < bankRegisters.length; register++)
+            bankRegisters[register] = 0;
+        bankRegisters[7] = 1;
+        bankSelect = 0;
+
+        irqLatch = 0;
+        irqCounter = 0;
+        irqReload = false;
+        irqEnabled = false;
+        irqAsserted = false;
+
+        updateBanks();
+    }
+
+    @Override
+    protected void writeRegister(int address, RoxByte value) {
+        final int rawValue = value.getRawValue();
+        final boolean even = (address & 1) == 0;
+
+        switch (address & 0x6000) {
+            case 0x0000:
+                if (even)
+                    bankSelect = rawValue;
+                else
+                    bankRegisters[bankSelect & 0b111] = rawValue;
+                updateBanks();
+                break;
+            case 0x2000:
+                if (even && !isFourScreen())
+                    setMirroring((rawValue & 1) == 0 ? Mirroring.VERTICAL : Mirroring.HORIZONTAL);
+                break;
+            case 0x4000:
+                if (even)
+                    irqLatch = rawValue;
+                else
+                    irqReload = true;
+                break;
+            default:
+                irqEnabled = !even;
+                if (even)
+                    irqAsserted = false;
+                break;
+        }
+    }
+
+    private void updateBanks(){
+        if ((bankSelect & 0x40) == 0) {
+            mapPrg(0x8000, 0x2000, bankRegisters[6]);
+            mapPrg(0xC000, 0x2000, -2);
+        } else {
+            mapPrg(0x8000, 0x2000, -2);
+            mapPrg(0xC000, 0x2000, bankRegisters[6]);
+        }
+        mapPrg(0xA000, 0x2000, bankRegisters[7]);
+        mapPrg(0xE000, 0x2000, -1);
+
+        final int twoKilobyteBanks = (bankSelect & 0x80) == 0 ? 0x0000 : 0x1000;
+        final int oneKilobyteBanks = twoKilobyteBanks ^ 0x1000;
+        mapChr(twoKilobyteBanks, 0x0800, bankRegisters[0] >> 1);
+        mapChr(twoKilobyteBanks + 0x0800, 0x0800, bankRegisters[1] >> 1);
+        for (int bank = 0; bank < 4; bank++)
+            mapChr(oneKilobyteBanks + (bank * 0x0400), 0x0400, bankRegisters[2 + bank]);
+    }
+
+    @Override
+    public void clockScanline() {
+        if (irqCounter == 0 || irqReload) {
+            irqCounter = irqLatch;
+            irqReload = false;
+        } else {
+            irqCounter--;
+        }
+
+        if (irqCounter == 0 && irqEnabled)
+            irqAsserted = true;
+    }
+
+    @Override
+    public boolean countsScanlines() {
+        return true;
+    }
+
+    @Override
+    public boolean isIrqAsserted() {
+        return irqAsserted;
+    }
+}
@@ -0,0 +1,30 @@
+package com.rox.emu.nes.mapper;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.rom.InesRom;
+
+/**
+ * Mapper 0, NROM: no bank switching.  16K of program ROM is mirrored at <code>$8000</code> and <code>$C000</code>,
+ * 32K fills both, and 8K of character memory is fixed.
+ *
+ * @author Ross Drew
+ */
+public class NromMapper extends Mapper {
+    public static final int NUMBER = 0;
+
+    public NromMapper(final InesRom rom) {
+        super(rom);
+    }
+
+    @Override
+    protected void resetRegisters() {
+        mapPrg(0x8000, 0x4000, 0);
+        mapPrg(0xC000, 0x4000, 1);
+        mapChr(0x0000, 0x2000, 0);
+    }
+
+    @Override
+    protected void writeRegister(int address, RoxByte value) {
+        //No registers, writes to ROM have no effect
+    }
+}
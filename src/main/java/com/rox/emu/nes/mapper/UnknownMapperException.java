@@ -0,0 +1,19 @@
+package com.rox.emu.nes.mapper;
+
+/**
+ * Exception for when a ROM requires a mapper which isn't supported
+ *
+ * @author Ross Drew
+ */
+public class UnknownMapperException extends RuntimeException {
+    private final int mapperNumber;
+
+    public UnknownMapperException(String message, int mapperNumber) {
+        super(message);
+        this.mapperNumber = mapperNumber;
+    }
+
+    public int getMapperNumber() {
+        return mapperNumber;
+    }
+}
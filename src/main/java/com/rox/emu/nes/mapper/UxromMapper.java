@@ -0,0 +1,30 @@
+package com.rox.emu.nes.mapper;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.rom.InesRom;
+
+/**
+ * Mapper 2, UxROM: a switchable 16K program ROM bank at <code>$8000</code>, selected by writing its number anywhere
+ * in <code>$8000-$FFFF</code>, and the last 16K bank fixed at <code>$C000</code>.  Character memory is fixed.
+ *
+ * @author Ross Drew
+ */
+public class UxromMapper extends Mapper {
+    public static final int NUMBER = 2;
+
+    public UxromMapper(final InesRom rom) {
+        super(rom);
+    }
+
+    @Override
+    protected void resetRegisters() {
+        mapPrg(0x8000, 0x4000, 0);
+        mapPrg(0xC000, 0x4000, -1);
+        mapChr(0x0000, 0x2000, 0);
+    }
+
+    @Override
+    protected void writeRegister(int address, RoxByte value) {
+        mapPrg(0x8000, 0x4000, value.getRawValue());
+    }
+}
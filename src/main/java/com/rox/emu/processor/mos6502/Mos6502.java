@@ -3,6 +3,12 @@ package com.rox.emu.processor.mos6502;
 import com.rox.emu.env.RoxByte;
 import com.rox.emu.env.RoxWord;
 import com.rox.emu.mem.Memory;
+import com.rox.emu.metrics.EmulationMetrics;
+import com.rox.emu.metrics.InterruptEvent;
+import com.rox.emu.metrics.RunSliceEvent;
+import com.rox.emu.processor.mos6502.dbg.Breakpoints;
+import com.rox.emu.processor.mos6502.dbg.InstructionProfiler;
+import com.rox.emu.processor.mos6502.dbg.InstructionTrace;
 import com.rox.emu.processor.mos6502.op.Mos6502OpCode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,12 +26,21 @@ import static com.rox.emu.processor.mos6502.Registers.*;
 public class Mos6502 {
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
-    private final Memory memory;
+    private Memory memory;
+    /** The memory as constructed, without any decorator added by {@link #setMemory(Memory)}, for peeking into */
+    private final Memory peekMemory;
     private final Registers registers;
     private final Mos6502Alu alu;
 
+    private long cycles = 0;
+    private InstructionProfiler profiler;
+    private InstructionTrace trace;
+    private Breakpoints breakpoints;
+    private EmulationMetrics metrics;
+
     public Mos6502(final Memory memory, final Registers registers) {
         this.memory = memory;
+        this.peekMemory = memory;
         this.registers = registers;
         this.alu = new Mos6502Alu(registers);
     }
@@ -65,6 +80,10 @@ public class Mos6502 {
      */
     public void irq() {
         log.debug("IRQ!");
+        final InterruptEvent event = new InterruptEvent();
+        event.begin();
+        if (metrics != null)
+            metrics.recordIrq();
         registers.setFlag(Flag.IRQ_DISABLE);
 
         pushRegister(Register.PROGRAM_COUNTER_HI);
@@ -73,6 +92,7 @@ public class Mos6502 {
 
         registers.setRegister(Register.PROGRAM_COUNTER_HI, getByteOfMemoryAt(RoxWord.fromLiteral(0xFFFe)));
         registers.setRegister(Register.PROGRAM_COUNTER_LOW, getByteOfMemoryAt(RoxWord.fromLiteral(0xFFFF)));
+        event.complete(InterruptEvent.IRQ, cycles);
     }
 
     /**
@@ -83,6 +103,10 @@ public class Mos6502 {
      */
     public void nmi() {
         log.debug("NMI!");
+        final InterruptEvent event = new InterruptEvent();
+        event.begin();
+        if (metrics != null)
+            metrics.recordNmi();
         registers.setFlag(Flag.IRQ_DISABLE);
 
         pushRegister(Register.PROGRAM_COUNTER_HI);
@@ -91,6 +115,7 @@ public class Mos6502 {
 
         registers.setRegister(Register.PROGRAM_COUNTER_HI, getByteOfMemoryAt(RoxWord.fromLiteral(0xFFFA)));
         registers.setRegister(Register.PROGRAM_COUNTER_LOW, getByteOfMemoryAt(RoxWord.fromLiteral(0xFFFB)));
+        event.complete(InterruptEvent.NMI, cycles);
     }
 
     /**
@@ -101,13 +126,105 @@ public class Mos6502 {
     }
 
     /**
-     * Execute the next program instruction as per {@link Registers#getNextProgramCounter()}
+     * @return the number of CPU cycles executed so far
+     */
+    public long getCycles(){
+        return cycles;
+    }
+
+    /**
+     * Hold the CPU for <code>stallCycles</code> cycles, i.e. while a DMA transfer has the bus, between instructions
+     *
+     * @param stallCycles to add to the cycle count
+     */
+    public void stall(final int stallCycles){
+        cycles += stallCycles;
+    }
+
+    /**
+     * Attach an {@link InstructionProfiler} which will record every subsequent instruction executed.
+     *
+     * @param profiler to record with or <code>null</code> to stop profiling
+     */
+    public void setProfiler(final InstructionProfiler profiler){
+        this.profiler = profiler;
+    }
+
+    /**
+     * Attach an {@link InstructionTrace} which will record every subsequent instruction executed.
+     *
+     * @param trace to record to or <code>null</code> to stop tracing
+     */
+    public void setTrace(final InstructionTrace trace){
+        this.trace = trace;
+    }
+
+    /**
+     * Attach {@link EmulationMetrics} which will be updated after every {@link #step(int) run of steps} and interrupt.
+     *
+     * @param metrics to update or <code>null</code> to stop updating
+     */
+    public void setMetrics(final EmulationMetrics metrics){
+        this.metrics = metrics;
+    }
+
+    /**
+     * Address <code>memory</code> from the next instruction on, i.e. the same memory with a decorator such as
+     * {@link com.rox.emu.mem.MeteredMemory} added or removed.  Peeks for tracing still read the memory this was
+     * constructed with, so they aren't counted as accesses.
+     *
+     * @param memory to address
+     */
+    public void setMemory(final Memory memory){
+        this.memory = memory;
+    }
+
+    /**
+     * Attach {@link Breakpoints} which will stop multiple {@link #step(int) steps} early when hit.
+     *
+     * @param breakpoints to check or <code>null</code> to run without breakpoints
+     */
+    public void setBreakpoints(final Breakpoints breakpoints){
+        this.breakpoints = breakpoints;
+    }
+
+    /**
+     * Execute the next program instructions as per {@link Registers#getNextProgramCounter()}, stopping early before
+     * any instruction at which a {@link Breakpoints breakpoint} is hit.  A breakpoint at the Program Counter is only
+     * passed over after {@link Breakpoints#resume()}, and one reached by the last instruction is left
+     * {@link Breakpoints#isHit() hit} for the next call.
      *
      * @param steps number of instructions to execute
+     * @return the number of instructions executed
      */
-    public void step(int steps){
-        for (int i=0; i<steps; i++)
+    public int step(int steps){
+        final RunSliceEvent event = new RunSliceEvent();
+        event.begin();
+
+        final long cyclesBefore = cycles;
+        final int executed = execute(steps);
+        final long cyclesExecuted = cycles - cyclesBefore;
+
+        if (metrics != null)
+            metrics.recordSlice(executed, cyclesExecuted);
+        event.complete(cyclesBefore, executed, cyclesExecuted);
+        return executed;
+    }
+
+    private int execute(int steps){
+        if (breakpoints == null || !breakpoints.isArmed()) {
+            for (int i=0; i<steps; i++)
+                step();
+            return steps;
+        }
+
+        for (int i=0; i<steps; i++) {
+            if (breakpoints.shouldBreak(registers))
+                return i;
             step();
+        }
+        breakpoints.shouldBreak(registers);
+        return steps;
     }
 
     /**
@@ -116,7 +233,10 @@ public class Mos6502 {
     public void step() {
         log.debug("STEP >>>");
 
+        final int instructionAddress = (profiler != null || trace != null) ? registers.getPC().getRawValue() : 0;
         final Mos6502OpCode opCode = Mos6502OpCode.from(nextProgramByte().getRawValue());
+        if (trace != null)
+            trace.record(instructionAddress, opCode, peekArguments(opCode));
 
         //Execute the opcode
         log.debug("Instruction: {}...", opCode.getOpCodeName());
@@ -133,6 +253,23 @@ public class Mos6502 {
                 opCode.perform(alu, registers, memory);
                 break;
         }
+
+        cycles += opCode.getCycles();
+        if (profiler != null)
+            profiler.record(instructionAddress, opCode, opCode.getCycles());
+    }
+
+    /**
+     * @return the arguments of <code>opCode</code>, which follow the Program Counter, first argument in the lowest byte
+     */
+    private int peekArguments(Mos6502OpCode opCode){
+        final int argumentCount = opCode.getAddressingMode().getInstructionBytes() - 1;
+        final int pc = registers.getPC().getRawValue();
+
+        int arguments = 0;
+        for (int i=0; i<argumentCount; i++)
+            arguments |= peekMemory.getRawByte((pc + i) & 0xFFFF) << (i * 8);
+        return arguments;
     }
 
     private RoxByte getRegisterValue(Register registerID){
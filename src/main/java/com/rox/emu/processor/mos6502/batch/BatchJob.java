@@ -0,0 +1,180 @@
+package com.rox.emu.processor.mos6502.batch;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.processor.mos6502.Registers.Register;
+import com.rox.emu.processor.mos6502.util.Program;
+import com.rox.emu.rom.InesRom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A headless unit of work for a {@link BatchRunner}: memory contents to load, an initial processor state, a
+ * {@link StopCondition} and a cycle budget.<br/>
+ * <br/>
+ * Jobs are built fluently, i.e.
+ * <pre>
+ *     BatchJob.of("multiply", program).withRegister(Register.X_INDEX, RoxByte.fromLiteral(8))
+ *                                     .until(StopCondition.nextOpCodeIs(BRK))
+ *                                     .withCycleBudget(10_000);
+ * </pre>
+ * and shouldn't be changed once submitted.  Before a job runs memory is cleared, its contents loaded and the processor
+ * reset, so execution starts at the reset vector unless a start address is given.
+ *
+ * @author Ross Drew
+ */
+public final class BatchJob {
+    /** The cycle budget of a job which doesn't set one */
+    public static final long DEFAULT_CYCLE_BUDGET = 1_000_000;
+
+    private final String name;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Register, RoxByte> registers = new EnumMap<>(Register.class);
+    private RoxWord startAddress;
+    private StopCondition stopCondition = StopCondition.NEVER;
+    private long cycleBudget = DEFAULT_CYCLE_BUDGET;
+
+    private BatchJob(final String name){
+        this.name = name;
+    }
+
+    /**
+     * @param name identifying the job in its {@link BatchResult}
+     * @return a job with empty memory
+     */
+    public static BatchJob named(final String name){
+        return new BatchJob(name);
+    }
+
+    /**
+     * @param name identifying the job in its {@link BatchResult}
+     * @param program to load and start at address <code>0</code>
+     * @return a job running <code>program</code>
+     */
+    public static BatchJob of(final String name, final Program program){
+        return named(name).withMemory(RoxWord.ZERO, program.getProgramAsByteArray());
+    }
+
+    /**
+     * The first 32K of program ROM is loaded at <code>0x8000</code>, mirrored at <code>0xC000</code> when there is a
+     * single block, and the job started from the reset vector.
+     *
+     * @param name identifying the job in its {@link BatchResult}
+     * @param rom to load the program ROM of
+     * @return a job running <code>rom</code>
+     */
+    public static BatchJob of(final String name, final InesRom rom){
+        final Memory programRom = rom.getProgramRom();
+        final RoxByte[] program = programRom.getBlock(RoxWord.ZERO,
+                                                        RoxWord.fromLiteral(Math.min(programRom.getSize(), 0x8000)));
+
+        final BatchJob job = named(name).withMemory(RoxWord.fromLiteral(0x8000), program);
+        if (program.length == InesRom.PRG_ROM_BLOCK_SIZE)
+            job.withMemory(RoxWord.fromLiteral(0xC000), program);
+        return job;
+    }
+
+    /**
+     * @param address to load <code>contents</code> at
+     * @param contents to load, in order, after any previously added
+     * @return this job
+     */
+    public BatchJob withMemory(final RoxWord address, final RoxByte[] contents){
+        segments.add(new Segment(address, contents));
+        return this;
+    }
+
+    /**
+     * @param register to set after the processor is reset
+     * @param value to set it to
+     * @return this job
+     */
+    public BatchJob withRegister(final Register register, final RoxByte value){
+        registers.put(register, value);
+        return this;
+    }
+
+    /**
+     * @param address to start execution at, rather than the reset vector
+     * @return this job
+     */
+    public BatchJob startingAt(final RoxWord address){
+        this.startAddress = address;
+        return this;
+    }
+
+    /**
+     * @param stopCondition to stop the job when met
+     * @return this job
+     */
+    public BatchJob until(final StopCondition stopCondition){
+        this.stopCondition = stopCondition;
+        return this;
+    }
+
+    /**
+     * @param cycleBudget the maximum number of cycles to run before the job is stopped
+     * @return this job
+     */
+    public BatchJob withCycleBudget(final long cycleBudget){
+        if (cycleBudget <= 0)
+            throw new IllegalArgumentException("Cycle budget must be positive, got " + cycleBudget);
+        this.cycleBudget = cycleBudget;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    List<Segment> getSegments() {
+        return Collections.unmodifiableList(segments);
+    }
+
+    Map<Register, RoxByte> getRegisters() {
+        return Collections.unmodifiableMap(registers);
+    }
+
+    RoxWord getStartAddress() {
+        return startAddress;
+    }
+
+    StopCondition getStopCondition() {
+        return stopCondition;
+    }
+
+    long getCycleBudget() {
+        return cycleBudget;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchJob{" + name + "}";
+    }
+
+    /**
+     * Contents to load into memory at a given address
+     */
+    static final class Segment {
+        private final RoxWord address;
+        private final RoxByte[] contents;
+
+        private Segment(RoxWord address, RoxByte[] contents) {
+            this.address = address;
+            this.contents = contents;
+        }
+
+        RoxWord getAddress() {
+            return address;
+        }
+
+        RoxByte[] getContents() {
+            return contents;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.rox.emu.processor.mos6502.batch;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.Registers.Register;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of a {@link BatchJob}: how it stopped, the work done and the final state of the processor, with memory
+ * reduced to a digest for comparison.
+ *
+ * @author Ross Drew
+ */
+public final class BatchResult {
+    /**
+     * How a job ended
+     */
+    public enum Outcome {
+        /** The job's {@link StopCondition} was met */
+        STOPPED,
+        /** The job's cycle budget was exhausted before its {@link StopCondition} was met */
+        BUDGET_EXHAUSTED,
+        /** Execution failed with an exception, see {@link #getFailure()} */
+        FAILED
+    }
+
+    private final String name;
+    private final Outcome outcome;
+    private final RoxByte[] registers;
+    private final long instructions;
+    private final long cycles;
+    private final long memoryDigest;
+    private final RuntimeException failure;
+
+    BatchResult(String name,
+                Outcome outcome,
+                Registers registers,
+                long instructions,
+                long cycles,
+                long memoryDigest,
+                RuntimeException failure) {
+        this.name = name;
+        this.outcome = outcome;
+        this.registers = new RoxByte[Register.values().length];
+        for (Register register : Register.values())
+            this.registers[register.ordinal()] = registers.getRegister(register);
+        this.instructions = instructions;
+        this.cycles = cycles;
+        this.memoryDigest = memoryDigest;
+        this.failure = failure;
+    }
+
+    /** @return the name of the job */
+    public String getName() {
+        return name;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @param register to get
+     * @return the value of <code>register</code> when the job ended
+     */
+    public RoxByte getRegister(Register register) {
+        return registers[register.ordinal()];
+    }
+
+    /** @return the number of instructions executed */
+    public long getInstructions() {
+        return instructions;
+    }
+
+    /** @return the number of cycles executed */
+    public long getCycles() {
+        return cycles;
+    }
+
+    /** @return a CRC32 of the whole of memory when the job ended */
+    public long getMemoryDigest() {
+        return memoryDigest;
+    }
+
+    /** @return the exception execution failed with, if {@link Outcome#FAILED}, otherwise <code>null</code> */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" + name + ": " + outcome +
+               ", instructions=" + instructions +
+               ", cycles=" + cycles +
+               ", registers=" + Arrays.toString(registers) +
+               ", memoryDigest=" + Long.toHexString(memoryDigest) + "}";
+    }
+}
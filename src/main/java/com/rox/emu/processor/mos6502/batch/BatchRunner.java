@@ -0,0 +1,182 @@
+package com.rox.emu.processor.mos6502.batch;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.Registers.Register;
+import com.rox.emu.processor.mos6502.batch.BatchResult.Outcome;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Runs {@link BatchJob}s headless and in parallel on a work stealing {@link ForkJoinPool}.<br/>
+ * <br/>
+ * Each job runs start to finish on one thread, on a processor and memory taken from a pool and reset between jobs,
+ * so nothing is shared between running jobs and throughput scales with the threads available to the pool.
+ *
+ * @author Ross Drew
+ */
+public class BatchRunner {
+    private final ForkJoinPool pool;
+    private final Queue<Machine> machines = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A runner using the common {@link ForkJoinPool}
+     */
+    public BatchRunner(){
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool to run jobs on
+     */
+    public BatchRunner(final ForkJoinPool pool){
+        this.pool = pool;
+    }
+
+    /**
+     * Run <code>jobs</code> in parallel, passing each result to <code>results</code> as soon as its job completes.
+     * Returns once all jobs have completed.
+     *
+     * @param jobs to run
+     * @param results to receive each result, which may be called from several threads at once
+     */
+    public void run(final List<BatchJob> jobs, final Consumer<BatchResult> results){
+        if (!jobs.isEmpty())
+            pool.invoke(new JobsTask(jobs, 0, jobs.size(), (index, result) -> results.accept(result)));
+    }
+
+    /**
+     * Run <code>jobs</code> in parallel
+     *
+     * @param jobs to run
+     * @return the results, in the same order as <code>jobs</code>
+     */
+    public List<BatchResult> run(final List<BatchJob> jobs){
+        final BatchResult[] results = new BatchResult[jobs.size()];
+        if (!jobs.isEmpty())
+            pool.invoke(new JobsTask(jobs, 0, jobs.size(), (index, result) -> results[index] = result));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Run a single job on the calling thread
+     *
+     * @param job to run
+     * @return its result
+     */
+    public BatchResult run(final BatchJob job){
+        Machine machine = machines.poll();
+        if (machine == null)
+            machine = new Machine();
+
+        try {
+            return machine.run(job);
+        } finally {
+            machines.offer(machine);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultSink {
+        void accept(int index, BatchResult result);
+    }
+
+    /**
+     * Splits a range of jobs in half until a single job remains, which is then run
+     */
+    private final class JobsTask extends RecursiveAction {
+        private final List<BatchJob> jobs;
+        private final int from;
+        private final int to;
+        private final ResultSink results;
+
+        private JobsTask(List<BatchJob> jobs, int from, int to, ResultSink results) {
+            this.jobs = jobs;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results.accept(from, run(jobs.get(from)));
+                return;
+            }
+
+            final int middle = (from + to) >>> 1;
+            invokeAll(new JobsTask(jobs, from, middle, results), new JobsTask(jobs, middle, to, results));
+        }
+    }
+
+    /**
+     * A processor and its memory, reused from job to job
+     */
+    private static final class Machine {
+        private final Memory memory = new SimpleMemory();
+        private final Registers registers = new Registers();
+        private final Mos6502 processor = new Mos6502(memory, registers);
+        private final CRC32 digest = new CRC32();
+        private final byte[] memoryContents = new byte[memory.getSize()];
+
+        private BatchResult run(final BatchJob job){
+            memory.reset();
+            for (BatchJob.Segment segment : job.getSegments())
+                memory.setBlock(segment.getAddress(), segment.getContents());
+
+            processor.reset();
+            for (Map.Entry<Register, RoxByte> register : job.getRegisters().entrySet())
+                registers.setRegister(register.getKey(), register.getValue());
+            if (job.getStartAddress() != null)
+                registers.setPC(job.getStartAddress());
+
+            final StopCondition stopCondition = job.getStopCondition();
+            final long startCycle = processor.getCycles();
+            final long endCycle = startCycle + job.getCycleBudget();
+            long instructions = 0;
+            Outcome outcome = Outcome.BUDGET_EXHAUSTED;
+            RuntimeException failure = null;
+
+            try {
+                while (processor.getCycles() < endCycle) {
+                    if (stopCondition.isMet(registers, memory)) {
+                        outcome = Outcome.STOPPED;
+                        break;
+                    }
+                    processor.step();
+                    instructions++;
+                }
+            } catch (RuntimeException e) {
+                outcome = Outcome.FAILED;
+                failure = e;
+            }
+
+            return new BatchResult(job.getName(), outcome, registers, instructions,
+                                   processor.getCycles() - startCycle, digestOfMemory(), failure);
+        }
+
+        private long digestOfMemory(){
+            final int lastAddress = memoryContents.length - 1;
+            final RoxByte[] contents = memory.getBlock(RoxWord.ZERO, RoxWord.fromLiteral(lastAddress));
+            for (int i = 0; i < contents.length; i++)
+                memoryContents[i] = (byte) contents[i].getRawValue();
+            memoryContents[lastAddress] = (byte) memory.getByte(RoxWord.fromLiteral(lastAddress)).getRawValue();
+
+            digest.reset();
+            digest.update(memoryContents, 0, memoryContents.length);
+            return digest.getValue();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.rox.emu.processor.mos6502.batch;
+
+import com.rox.emu.mem.Memory;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.op.Mos6502OpCode;
+
+/**
+ * A condition, checked before each instruction of a {@link BatchJob}, which when met stops the job.
+ *
+ * @author Ross Drew
+ */
+@FunctionalInterface
+public interface StopCondition {
+    /** Never stop, so a job runs until its cycle budget is exhausted */
+    StopCondition NEVER = (registers, memory) -> false;
+
+    /**
+     * @param registers of the processor, before the next instruction is executed
+     * @param memory of the processor
+     * @return <code>true</code> if the job should stop now
+     */
+    boolean isMet(Registers registers, Memory memory);
+
+    /**
+     * @param other condition
+     * @return a condition met when either this or <code>other</code> is met
+     */
+    default StopCondition or(final StopCondition other){
+        return (registers, memory) -> isMet(registers, memory) || other.isMet(registers, memory);
+    }
+
+    /**
+     * @param address of the next instruction to stop at
+     * @return a condition met when the program counter reaches <code>address</code>
+     */
+    static StopCondition programCounterAt(final int address){
+        return (registers, memory) -> registers.getPC().getRawValue() == address;
+    }
+
+    /**
+     * @param opCode to stop at
+     * @return a condition met when the next instruction is <code>opCode</code>, i.e. {@link Mos6502OpCode#BRK}
+     */
+    static StopCondition nextOpCodeIs(final Mos6502OpCode opCode){
+        return (registers, memory) -> memory.getByte(registers.getPC()).getRawValue() == opCode.getByteValue();
+    }
+}
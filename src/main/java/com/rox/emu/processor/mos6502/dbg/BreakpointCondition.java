@@ -0,0 +1,106 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.UnknownTokenException;
+import com.rox.emu.processor.mos6502.Registers;
+
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A compiler for conditional breakpoint expressions, turning them into a {@link Predicate} over {@link Registers}
+ * once, so that the condition is never re-parsed while the program is running, e.g.<br/>
+ * <br/>
+ * <code>A == $10 &amp;&amp; X &gt; 3 &amp;&amp; Z == 1</code><br/>
+ * <br/>
+ * <table>
+ *     <tr><th>Operand</th><th>Value</th></tr>
+ *     <tr><td><code>A</code>, <code>X</code>, <code>Y</code></td><td>Accumulator, X Index &amp; Y Index registers</td></tr>
+ *     <tr><td><code>SP</code></td><td>Stack Pointer (Low)</td></tr>
+ *     <tr><td><code>P</code></td><td>Status register</td></tr>
+ *     <tr><td><code>PC</code></td><td>Program Counter</td></tr>
+ *     <tr><td><code>C</code>, <code>Z</code>, <code>I</code>, <code>D</code>, <code>B</code>, <code>V</code>, <code>N</code></td><td>Status flags, <code>1</code> when set</td></tr>
+ * </table>
+ * Comparisons are <code>==</code>, <code>!=</code>, <code>&lt;</code>, <code>&lt;=</code>, <code>&gt;</code> and
+ * <code>&gt;=</code> against a decimal or <code>$</code> prefixed hex value.
+ *
+ * @author Ross Drew
+ */
+public final class BreakpointCondition {
+    /** Separates clauses, all of which must be true for the condition to be true */
+    public static final String CLAUSE_SEPARATOR = "&&";
+
+    private static final Pattern CLAUSE_REGEX = Pattern.compile("^\\s*([A-Za-z]{1,2})\\s*(==|!=|<=|>=|<|>)\\s*(\\$[0-9a-fA-F]+|[0-9]+)\\s*$");
+
+    private BreakpointCondition(){}
+
+    /**
+     * @param condition textual condition to compile
+     * @return a {@link Predicate} which is <code>true</code> when the given {@link Registers} meet the condition
+     * @throws UnknownTokenException if the condition cannot be parsed
+     */
+    public static Predicate<Registers> compile(final String condition){
+        Predicate<Registers> compiled = null;
+        for (String clause : condition.split(Pattern.quote(CLAUSE_SEPARATOR))) {
+            final Predicate<Registers> compiledClause = compileClause(clause);
+            compiled = (compiled == null) ? compiledClause : compiled.and(compiledClause);
+        }
+        return compiled;
+    }
+
+    private static Predicate<Registers> compileClause(final String clause){
+        final Matcher matcher = CLAUSE_REGEX.matcher(clause);
+        if (!matcher.matches())
+            throw new UnknownTokenException("Invalid breakpoint condition ('" + clause.trim() + "')", clause.trim());
+
+        final ToIntFunction<Registers> operand = operandFrom(matcher.group(1).toUpperCase());
+        final IntPredicate comparison = comparisonFrom(matcher.group(2), valueFrom(matcher.group(3)));
+
+        return registers -> comparison.test(operand.applyAsInt(registers));
+    }
+
+    private static ToIntFunction<Registers> operandFrom(final String token){
+        switch (token){
+            case "A": return r -> r.getRegister(Registers.Register.ACCUMULATOR).getRawValue();
+            case "X": return r -> r.getRegister(Registers.Register.X_INDEX).getRawValue();
+            case "Y": return r -> r.getRegister(Registers.Register.Y_INDEX).getRawValue();
+            case "SP": return r -> r.getRegister(Registers.Register.STACK_POINTER_LOW).getRawValue();
+            case "P": return r -> r.getRegister(Registers.Register.STATUS_FLAGS).getRawValue();
+            case "PC": return r -> r.getPC().getRawValue();
+            case "C": return flag(Registers.Flag.CARRY);
+            case "Z": return flag(Registers.Flag.ZERO);
+            case "I": return flag(Registers.Flag.IRQ_DISABLE);
+            case "D": return flag(Registers.Flag.DECIMAL_MODE);
+            case "B": return flag(Registers.Flag.BREAK);
+            case "V": return flag(Registers.Flag.OVERFLOW);
+            case "N": return flag(Registers.Flag.NEGATIVE);
+            default:
+                throw new UnknownTokenException("Unknown breakpoint condition operand ('" + token + "')", token);
+        }
+    }
+
+    private static ToIntFunction<Registers> flag(final Registers.Flag flag){
+        return r -> r.getFlag(flag) ? 1 : 0;
+    }
+
+    private static IntPredicate comparisonFrom(final String token, final int value){
+        switch (token){
+            case "==": return v -> v == value;
+            case "!=": return v -> v != value;
+            case "<": return v -> v < value;
+            case "<=": return v -> v <= value;
+            case ">": return v -> v > value;
+            case ">=": return v -> v >= value;
+            default:
+                throw new UnknownTokenException("Unknown breakpoint condition comparison ('" + token + "')", token);
+        }
+    }
+
+    private static int valueFrom(final String token){
+        if (token.startsWith("$"))
+            return Integer.parseInt(token.substring(1), 16);
+        return Integer.parseInt(token);
+    }
+}
@@ -0,0 +1,252 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.mem.Memory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Execution breakpoints and memory watchpoints for a {@link Mos6502}, attached via
+ * {@link Mos6502#setBreakpoints(Breakpoints)}.<br/>
+ * <br/>
+ * Execution breakpoints are held in a 64K bitset so checking an address is a single array lookup and the check
+ * itself is skipped entirely while nothing {@link #isArmed() is armed}.  Conditional breakpoints are compiled
+ * once, via {@link BreakpointCondition}, and only evaluated when their address is reached.<br/>
+ * <br/>
+ * Watchpoints are only seen by memory accessed through the decorator returned from {@link #watching(Memory)}, which
+ * passes accesses to pages without watchpoints straight through.
+ *
+ * @author Ross Drew
+ */
+public class Breakpoints {
+    /** The number of addressable locations breakpoints can be set on */
+    public static final int ADDRESS_SPACE = 0x10000;
+    /** The number of addresses in a memory page */
+    public static final int PAGE_SIZE = 0x100;
+
+    /** Indicates no watchpoint has been triggered */
+    public static final int NONE = -1;
+
+    private final long[] executionBreakpoints = new long[ADDRESS_SPACE / Long.SIZE];
+    private final Map<Integer, Predicate<Registers>> conditions = new HashMap<>();
+    private int executionBreakpointCount = 0;
+
+    private final long[] readWatchpoints = new long[ADDRESS_SPACE / Long.SIZE];
+    private final long[] writeWatchpoints = new long[ADDRESS_SPACE / Long.SIZE];
+    private final int[] pageWatchpointCount = new int[ADDRESS_SPACE / PAGE_SIZE];
+    private int watchpointCount = 0;
+
+    private int triggeredWatchpoint = NONE;
+    private boolean resuming = false;
+    private boolean hit = false;
+
+    /**
+     * @param address at which execution should break
+     */
+    public void add(final int address){
+        conditions.remove(address & 0xFFFF);
+        if (setBit(executionBreakpoints, address))
+            executionBreakpointCount++;
+    }
+
+    /**
+     * @param address at which execution should break
+     * @param condition which must be met, as per {@link BreakpointCondition}, for execution to break at <code>address</code>
+     */
+    public void add(final int address, final String condition){
+        final Predicate<Registers> compiledCondition = BreakpointCondition.compile(condition);
+        add(address);
+        conditions.put(address & 0xFFFF, compiledCondition);
+    }
+
+    /**
+     * @param address from which to remove any breakpoint
+     */
+    public void remove(final int address){
+        conditions.remove(address & 0xFFFF);
+        if (clearBit(executionBreakpoints, address))
+            executionBreakpointCount--;
+    }
+
+    /**
+     * @return if there is a breakpoint, conditional or otherwise, at <code>address</code>
+     */
+    public boolean isSet(final int address){
+        return isBitSet(executionBreakpoints, address);
+    }
+
+    /**
+     * @param address to break after reading from
+     */
+    public void watchRead(final int address){
+        if (setBit(readWatchpoints, address))
+            watchpointAdded(address);
+    }
+
+    /**
+     * @param address to break after writing to
+     */
+    public void watchWrite(final int address){
+        if (setBit(writeWatchpoints, address))
+            watchpointAdded(address);
+    }
+
+    /**
+     * @param address from which to remove any read and write watchpoints
+     */
+    public void unwatch(final int address){
+        if (clearBit(readWatchpoints, address))
+            watchpointRemoved(address);
+
+        if (clearBit(writeWatchpoints, address))
+            watchpointRemoved(address);
+    }
+
+    /**
+     * Remove all breakpoints and watchpoints
+     */
+    public void clear(){
+        Arrays.fill(executionBreakpoints, 0);
+        Arrays.fill(readWatchpoints, 0);
+        Arrays.fill(writeWatchpoints, 0);
+        Arrays.fill(pageWatchpointCount, 0);
+        conditions.clear();
+
+        executionBreakpointCount = 0;
+        watchpointCount = 0;
+        triggeredWatchpoint = NONE;
+        resuming = false;
+        hit = false;
+    }
+
+    /**
+     * @return if there are any breakpoints or watchpoints set
+     */
+    public boolean isArmed(){
+        return (executionBreakpointCount + watchpointCount) > 0;
+    }
+
+    /**
+     * @param memory to watch
+     * @return a {@link Memory} decorator which triggers watchpoints set here on <code>memory</code>
+     */
+    public Memory watching(final Memory memory){
+        return new WatchpointMemory(memory, this);
+    }
+
+    /**
+     * Should execution stop before the next instruction?  Either because a watchpoint has been triggered and not yet
+     * {@link #resume() resumed} from, or a breakpoint is set at the Program Counter and its condition, if any, is met.
+     * <br/>
+     * A breakpoint at the Program Counter is passed over by the first check after {@link #resume()}, so that
+     * execution can continue from where it stopped.
+     *
+     * @param registers the current {@link Registers} state
+     * @return <code>true</code> if execution should stop
+     */
+    public boolean shouldBreak(final Registers registers){
+        if (triggeredWatchpoint != NONE)
+            return hit = true;
+
+        if (resuming) {
+            resuming = false;
+            return false;
+        }
+
+        if (executionBreakpointCount == 0)
+            return false;
+
+        final int pc = registers.getPC().getRawValue();
+        if (!isBitSet(executionBreakpoints, pc))
+            return false;
+
+        final Predicate<Registers> condition = conditions.get(pc);
+        return hit = (condition == null || condition.test(registers));
+    }
+
+    /**
+     * @return <code>true</code> if execution has stopped at a breakpoint or watchpoint which has not yet been
+     *         {@link #resume() resumed} from
+     */
+    public boolean isHit(){
+        return hit;
+    }
+
+    /**
+     * Continue from a stop, acknowledging any triggered watchpoint and passing over a breakpoint at the Program
+     * Counter on the next check
+     */
+    public void resume(){
+        triggeredWatchpoint = NONE;
+        resuming = true;
+        hit = false;
+    }
+
+    /**
+     * @return the address of the last triggered watchpoint or {@link #NONE}
+     */
+    public int getTriggeredWatchpoint(){
+        return triggeredWatchpoint;
+    }
+
+    /**
+     * Acknowledge a triggered watchpoint, so that execution can continue
+     */
+    public void clearTriggeredWatchpoint(){
+        triggeredWatchpoint = NONE;
+    }
+
+    boolean isPageWatched(final int address){
+        return pageWatchpointCount[(address & 0xFFFF) >> 8] > 0;
+    }
+
+    void read(final int address){
+        if (isBitSet(readWatchpoints, address))
+            triggeredWatchpoint = address & 0xFFFF;
+    }
+
+    void written(final int address){
+        if (isBitSet(writeWatchpoints, address))
+            triggeredWatchpoint = address & 0xFFFF;
+    }
+
+    private void watchpointAdded(final int address){
+        pageWatchpointCount[(address & 0xFFFF) >> 8]++;
+        watchpointCount++;
+    }
+
+    private void watchpointRemoved(final int address){
+        pageWatchpointCount[(address & 0xFFFF) >> 8]--;
+        watchpointCount--;
+    }
+
+    /**
+     * @return <code>true</code> if the bit was not already set
+     */
+    private static boolean setBit(final long[] bits, final int address){
+        if (isBitSet(bits, address))
+            return false;
+
+        bits[(address & 0xFFFF) >> 6] |= (1L << address);
+        return true;
+    }
+
+    /**
+     * @return <code>true</code> if the bit was previously set
+     */
+    private static boolean clearBit(final long[] bits, final int address){
+        if (!isBitSet(bits, address))
+            return false;
+
+        bits[(address & 0xFFFF) >> 6] &= ~(1L << address);
+        return true;
+    }
+
+    private static boolean isBitSet(final long[] bits, final int address){
+        return (bits[(address & 0xFFFF) >> 6] & (1L << address)) != 0;
+    }
+}
@@ -0,0 +1,171 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.mem.Memory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a {@link Mos6502} on its own thread so that a UI thread is never blocked by it.<br/>
+ * <br/>
+ * The processor, its {@link Memory} and its {@link Breakpoints} are only ever touched on the controller thread.
+ * Continuous running is done in time slices which resubmit themselves, so {@link #step()}, {@link #pause()} and
+ * any {@link #execute(Runnable) task} are picked up between slices.  A consistent {@link ExecutionSnapshot} is
+ * published to the {@link SnapshotWatcher} after every slice, throttled to the refresh rate, and whenever execution
+ * stops.
+ *
+ * @author Ross Drew
+ */
+public class ExecutionController {
+    private static final Logger log = LoggerFactory.getLogger(ExecutionController.class);
+
+    /** The number of instructions executed between checks of the refresh interval */
+    private static final int INSTRUCTIONS_PER_CHECK = 1000;
+
+    /** Something that wants to be told when a new {@link ExecutionSnapshot} is available */
+    public interface SnapshotWatcher {
+        /**
+         * Called on the controller thread, implementations should hand off to their own thread rather than block
+         */
+        void snapshotTaken(final ExecutionSnapshot snapshot);
+    }
+
+    private final Mos6502 processor;
+    private final Memory memory;
+    private final Breakpoints breakpoints;
+    private final SnapshotWatcher watcher;
+    private final long refreshIntervalNanos;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "Mos6502-Execution");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running = false;
+
+    /**
+     * @param processor to run
+     * @param memory used by <code>processor</code>
+     * @param breakpoints to attach to <code>processor</code>, may be <code>null</code>
+     * @param refreshRate maximum number of snapshots published per second while running
+     * @param watcher to publish {@link ExecutionSnapshot}s to
+     */
+    public ExecutionController(final Mos6502 processor,
+                               final Memory memory,
+                               final Breakpoints breakpoints,
+                               final int refreshRate,
+                               final SnapshotWatcher watcher){
+        this.processor = processor;
+        this.memory = memory;
+        this.breakpoints = breakpoints;
+        this.watcher = watcher;
+        this.refreshIntervalNanos = TimeUnit.SECONDS.toNanos(1) / refreshRate;
+        processor.setBreakpoints(breakpoints);
+    }
+
+    /**
+     * Execute a single instruction, ignored while running
+     */
+    public void step(){
+        executor.submit(() -> {
+            if (running)
+                return;
+
+            resume();
+            processor.step();
+            publish();
+        });
+    }
+
+    /**
+     * Run continuously until {@link #pause() paused} or a breakpoint is hit
+     */
+    public void run(){
+        executor.submit(() -> {
+            if (running)
+                return;
+
+            resume();
+            running = true;
+            runSlice();
+        });
+    }
+
+    /**
+     * Stop running after the current slice
+     */
+    public void pause(){
+        running = false;
+        if (!executor.isShutdown())
+            executor.submit(this::publish);
+    }
+
+    /**
+     * @return <code>true</code> if running continuously
+     */
+    public boolean isRunning(){
+        return running;
+    }
+
+    /**
+     * Perform a task on the controller thread, i.e. one which changes the processor, its memory or breakpoints,
+     * then publish a new snapshot
+     *
+     * @param task to perform
+     */
+    public void execute(final Runnable task){
+        executor.submit(() -> {
+            task.run();
+            publish();
+        });
+    }
+
+    /**
+     * Stop running and release the controller thread
+     */
+    public void shutdown(){
+        running = false;
+        executor.shutdown();
+    }
+
+    private void runSlice(){
+        if (!running)
+            return;
+
+        try {
+            final long sliceEnd = System.nanoTime() + refreshIntervalNanos;
+            do {
+                if (processor.step(INSTRUCTIONS_PER_CHECK) < INSTRUCTIONS_PER_CHECK || isBreakpointHit()) {
+                    log.debug("Breakpoint hit");
+                    running = false;
+                }
+            } while (running && System.nanoTime() < sliceEnd);
+        }catch (RuntimeException e){
+            log.error("Execution stopped", e);
+            running = false;
+        }
+
+        publish();
+
+        if (running && !executor.isShutdown())
+            executor.submit(this::runSlice);
+    }
+
+    private void resume(){
+        if (breakpoints != null)
+            breakpoints.resume();
+    }
+
+    private boolean isBreakpointHit(){
+        return breakpoints != null && breakpoints.isHit();
+    }
+
+    private void publish(){
+        watcher.snapshotTaken(ExecutionSnapshot.of(processor, memory, running));
+    }
+}
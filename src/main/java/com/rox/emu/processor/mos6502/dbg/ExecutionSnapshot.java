@@ -0,0 +1,109 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+
+/**
+ * An immutable, consistent copy of {@link Mos6502} state taken between instructions, safe to hand to another thread.
+ *
+ * @author Ross Drew
+ */
+public final class ExecutionSnapshot {
+    private final Registers registers;
+    private final RoxByte[] memory;
+    private final long cycles;
+    private final boolean running;
+
+    private ExecutionSnapshot(final Registers registers, final RoxByte[] memory, final long cycles, final boolean running){
+        this.registers = registers;
+        this.memory = memory;
+        this.cycles = cycles;
+        this.running = running;
+    }
+
+    /**
+     * Take a snapshot, this must be called on the thread executing <code>processor</code>
+     *
+     * @param processor the {@link Mos6502} to snapshot
+     * @param memory the {@link Memory} used by <code>processor</code>
+     * @param running if <code>processor</code> is being run continuously
+     * @return a snapshot of the current state
+     */
+    static ExecutionSnapshot of(final Mos6502 processor, final Memory memory, final boolean running){
+        return new ExecutionSnapshot(copyOf(processor.getRegisters()), copyOf(memory), processor.getCycles(), running);
+    }
+
+    /**
+     * {@link Registers#copy()} resets the stack pointer, so copy every register explicitly
+     */
+    private static Registers copyOf(final Registers registers){
+        final Registers copy = new Registers();
+        for (Registers.Register register : Registers.Register.values())
+            copy.setRegister(register, registers.getRegister(register));
+        return copy;
+    }
+
+    private static RoxByte[] copyOf(final Memory memory){
+        final int size = Math.min(memory.getSize(), 0x10000);
+        final RoxByte[] copy = new RoxByte[size];
+        if (size == 0)
+            return copy;
+
+        //The end of a block is exclusive and can't address past 0xFFFF so the last byte is fetched separately, neither
+        //of which is a CPU access that could trigger a watchpoint
+        final RoxByte[] block = memory.getBlock(RoxWord.ZERO, RoxWord.fromLiteral(size - 1));
+        System.arraycopy(block, 0, copy, 0, block.length);
+        copy[size - 1] = RoxByte.fromLiteral(memory.getRawByte(size - 1));
+        return copy;
+    }
+
+    /**
+     * @return a copy of the {@link Registers} at the time of the snapshot
+     */
+    public Registers getRegisters() {
+        return copyOf(registers);
+    }
+
+    /**
+     * @param address of the byte required
+     * @return the byte at <code>address</code> at the time of the snapshot
+     */
+    public RoxByte getByte(final int address){
+        return memory[address];
+    }
+
+    /**
+     * @param from the first address of the block
+     * @param to the address after the last address of the block
+     * @return the block [<code>from</code> ... <code>to</code>) at the time of the snapshot
+     */
+    public RoxByte[] getBlock(final int from, final int to){
+        final RoxByte[] block = new RoxByte[to - from];
+        System.arraycopy(memory, from, block, 0, block.length);
+        return block;
+    }
+
+    /**
+     * @return the number of addressable bytes captured
+     */
+    public int getMemorySize(){
+        return memory.length;
+    }
+
+    /**
+     * @return the number of CPU cycles executed at the time of the snapshot
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    /**
+     * @return if the processor was being run continuously when the snapshot was taken
+     */
+    public boolean isRunning() {
+        return running;
+    }
+}
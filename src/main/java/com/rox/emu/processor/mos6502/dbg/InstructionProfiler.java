@@ -0,0 +1,310 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.op.Mos6502AddressingMode;
+import com.rox.emu.processor.mos6502.op.Mos6502OpCode;
+import com.rox.emu.processor.mos6502.util.Program;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An opt-in profiler for a {@link Mos6502} which, when attached via {@link Mos6502#setProfiler(InstructionProfiler)},
+ * counts executions and cycles for every instruction address along with totals per {@link Mos6502OpCode} and
+ * per {@link Mos6502AddressingMode}.<br/>
+ * <br/>
+ * Counters are flat primitive arrays indexed by address/op-code so that recording an instruction is a handful of
+ * array increments with no boxing or map lookups.
+ *
+ * @author Ross Drew
+ */
+public class InstructionProfiler {
+    /** The number of addressable locations profiled */
+    public static final int ADDRESS_SPACE = 0x10000;
+
+    /** Identifies a binary profile dump, "R6PF" */
+    private static final int DUMP_MAGIC = 0x52365046;
+    private static final int DUMP_VERSION = 1;
+
+    private final long[] addressExecutions = new long[ADDRESS_SPACE];
+    private final long[] addressCycles = new long[ADDRESS_SPACE];
+
+    private final long[] opCodeExecutions = new long[0x100];
+    private final long[] opCodeCycles = new long[0x100];
+
+    private final long[] addressingModeExecutions = new long[Mos6502AddressingMode.values().length];
+    private final long[] addressingModeCycles = new long[Mos6502AddressingMode.values().length];
+
+    /**
+     * A profiled instruction address with the totals recorded against it
+     */
+    public static final class HotSpot {
+        private final int address;
+        private final long executions;
+        private final long cycles;
+        private final String label;
+
+        private HotSpot(final int address, final long executions, final long cycles, final String label){
+            this.address = address;
+            this.executions = executions;
+            this.cycles = cycles;
+            this.label = label;
+        }
+
+        public int getAddress() {
+            return address;
+        }
+
+        public long getExecutions() {
+            return executions;
+        }
+
+        public long getCycles() {
+            return cycles;
+        }
+
+        /**
+         * @return the nearest {@link Program} label at or before this address or an empty {@link String} if there is none
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Record the execution of an instruction
+     *
+     * @param address the address the instruction was fetched from
+     * @param opCode the executed {@link Mos6502OpCode}
+     * @param cycles the number of cycles the instruction took
+     */
+    public void record(final int address, final Mos6502OpCode opCode, final int cycles){
+        final int location = address & 0xFFFF;
+        addressExecutions[location]++;
+        addressCycles[location] += cycles;
+
+        opCodeExecutions[opCode.getByteValue()]++;
+        opCodeCycles[opCode.getByteValue()] += cycles;
+
+        final int mode = opCode.getAddressingMode().ordinal();
+        addressingModeExecutions[mode]++;
+        addressingModeCycles[mode] += cycles;
+    }
+
+    /**
+     * Clear all recorded counts
+     */
+    public void reset(){
+        Arrays.fill(addressExecutions, 0);
+        Arrays.fill(addressCycles, 0);
+        Arrays.fill(opCodeExecutions, 0);
+        Arrays.fill(opCodeCycles, 0);
+        Arrays.fill(addressingModeExecutions, 0);
+        Arrays.fill(addressingModeCycles, 0);
+    }
+
+    public long getExecutions(final int address){
+        return addressExecutions[address & 0xFFFF];
+    }
+
+    public long getCycles(final int address){
+        return addressCycles[address & 0xFFFF];
+    }
+
+    public long getExecutions(final Mos6502OpCode opCode){
+        return opCodeExecutions[opCode.getByteValue()];
+    }
+
+    public long getCycles(final Mos6502OpCode opCode){
+        return opCodeCycles[opCode.getByteValue()];
+    }
+
+    public long getExecutions(final Mos6502AddressingMode addressingMode){
+        return addressingModeExecutions[addressingMode.ordinal()];
+    }
+
+    public long getCycles(final Mos6502AddressingMode addressingMode){
+        return addressingModeCycles[addressingMode.ordinal()];
+    }
+
+    /**
+     * @return the total number of instructions recorded
+     */
+    public long getTotalExecutions(){
+        return Arrays.stream(opCodeExecutions).sum();
+    }
+
+    /**
+     * @return the total number of cycles recorded
+     */
+    public long getTotalCycles(){
+        return Arrays.stream(opCodeCycles).sum();
+    }
+
+    /**
+     * @param limit the maximum number of {@link HotSpot}s to return
+     * @return the most expensive instruction addresses, by cycles, most expensive first
+     */
+    public List<HotSpot> getHotSpots(final int limit){
+        return getHotSpots(limit, null, 0);
+    }
+
+    /**
+     * @param limit the maximum number of {@link HotSpot}s to return
+     * @param program the {@link Program} whose labels should be attached to each {@link HotSpot}, may be <code>null</code>
+     * @param programOffset the address at which <code>program</code> was loaded
+     * @return the most expensive instruction addresses, by cycles, most expensive first
+     */
+    public List<HotSpot> getHotSpots(final int limit, final Program program, final int programOffset){
+        final List<HotSpot> hotSpots = new ArrayList<>();
+        for (int address=0; address<ADDRESS_SPACE; address++){
+            if (addressExecutions[address] > 0)
+                hotSpots.add(new HotSpot(address, addressExecutions[address], addressCycles[address], labelFor(address, program, programOffset)));
+        }
+
+        hotSpots.sort(Comparator.comparingLong(HotSpot::getCycles).reversed().thenComparingInt(HotSpot::getAddress));
+        return hotSpots.subList(0, Math.min(limit, hotSpots.size()));
+    }
+
+    /**
+     * Find the nearest label at or before the given address, i.e. the routine the address is most likely part of
+     */
+    private String labelFor(final int address, final Program program, final int programOffset){
+        if (program == null)
+            return "";
+
+        String nearestLabel = "";
+        int nearestLocation = -1;
+        for (String label : program.getLabels()) {
+            final int location = programOffset + program.getLocationOf(label);
+            if (location <= address && location > nearestLocation){
+                nearestLabel = label;
+                nearestLocation = location;
+            }
+        }
+        return nearestLabel;
+    }
+
+    /**
+     * @param limit the maximum number of addresses to report
+     * @param program the {@link Program} whose labels should be used to annotate the report, may be <code>null</code>
+     * @param programOffset the address at which <code>program</code> was loaded
+     * @return a human readable report of the most expensive addresses, op-codes and addressing modes
+     */
+    public String getReport(final int limit, final Program program, final int programOffset){
+        final long totalCycles = Math.max(1, getTotalCycles());
+        final StringBuilder report = new StringBuilder();
+
+        report.append(String.format("Instructions: %d, Cycles: %d%n", getTotalExecutions(), getTotalCycles()));
+
+        report.append(String.format("%n%-8s %-16s %12s %12s %7s%n", "Address", "Label", "Executions", "Cycles", "%"));
+        for (HotSpot hotSpot : getHotSpots(limit, program, programOffset)) {
+            report.append(String.format("0x%04X   %-16s %12d %12d %6.2f%%%n",
+                                        hotSpot.getAddress(),
+                                        hotSpot.getLabel(),
+                                        hotSpot.getExecutions(),
+                                        hotSpot.getCycles(),
+                                        (100.0 * hotSpot.getCycles()) / totalCycles));
+        }
+
+        report.append(String.format("%n%-28s %12s %12s%n", "Op-Code", "Executions", "Cycles"));
+        for (Mos6502OpCode opCode : Mos6502OpCode.values()) {
+            if (getExecutions(opCode) > 0)
+                report.append(String.format("%-28s %12d %12d%n", opCode.name(), getExecutions(opCode), getCycles(opCode)));
+        }
+
+        report.append(String.format("%n%-28s %12s %12s%n", "Addressing Mode", "Executions", "Cycles"));
+        for (Mos6502AddressingMode addressingMode : Mos6502AddressingMode.values()) {
+            if (getExecutions(addressingMode) > 0)
+                report.append(String.format("%-28s %12d %12d%n", addressingMode.getDescription(), getExecutions(addressingMode), getCycles(addressingMode)));
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Write a compact binary dump of this profile, only addresses that were executed are included.
+     *
+     * @param outputStream to write the dump to
+     * @throws IOException if the dump could not be written
+     */
+    public void dump(final OutputStream outputStream) throws IOException {
+        final DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(DUMP_MAGIC);
+        out.writeInt(DUMP_VERSION);
+
+        int executedAddresses = 0;
+        for (long executions : addressExecutions) {
+            if (executions > 0)
+                executedAddresses++;
+        }
+
+        out.writeInt(executedAddresses);
+        for (int address=0; address<ADDRESS_SPACE; address++){
+            if (addressExecutions[address] > 0){
+                out.writeShort(address);
+                out.writeLong(addressExecutions[address]);
+                out.writeLong(addressCycles[address]);
+            }
+        }
+
+        writeCounters(out, opCodeExecutions, opCodeCycles);
+        writeCounters(out, addressingModeExecutions, addressingModeCycles);
+        out.flush();
+    }
+
+    private void writeCounters(final DataOutputStream out, final long[] executions, final long[] cycles) throws IOException {
+        out.writeInt(executions.length);
+        for (int i=0; i<executions.length; i++){
+            out.writeLong(executions[i]);
+            out.writeLong(cycles[i]);
+        }
+    }
+
+    /**
+     * Load a profile previously written with {@link #dump(OutputStream)}
+     *
+     * @param inputStream from which to read the dump
+     * @return the {@link InstructionProfiler} that was dumped
+     * @throws IOException if the dump could not be read or is not a profile dump
+     */
+    public static InstructionProfiler from(final InputStream inputStream) throws IOException {
+        final DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != DUMP_MAGIC)
+            throw new IOException("Not an instruction profile dump");
+        final int version = in.readInt();
+        if (version != DUMP_VERSION)
+            throw new IOException("Unsupported instruction profile dump version " + version);
+
+        final InstructionProfiler profiler = new InstructionProfiler();
+        final int executedAddresses = in.readInt();
+        for (int i=0; i<executedAddresses; i++){
+            final int address = in.readUnsignedShort();
+            profiler.addressExecutions[address] = in.readLong();
+            profiler.addressCycles[address] = in.readLong();
+        }
+
+        readCounters(in, profiler.opCodeExecutions, profiler.opCodeCycles);
+        readCounters(in, profiler.addressingModeExecutions, profiler.addressingModeCycles);
+        return profiler;
+    }
+
+    private static void readCounters(final DataInputStream in, final long[] executions, final long[] cycles) throws IOException {
+        final int count = in.readInt();
+        for (int i=0; i<count; i++){
+            final long executionCount = in.readLong();
+            final long cycleCount = in.readLong();
+            if (i < executions.length) {
+                executions[i] = executionCount;
+                cycles[i] = cycleCount;
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.op.Mos6502OpCode;
+
+/**
+ * A fixed capacity history of the instructions executed by a {@link Mos6502}, attached via
+ * {@link Mos6502#setTrace(InstructionTrace)}.<br/>
+ * <br/>
+ * Each instruction is recorded as raw values in a ring buffer, so recording is constant time, allocates nothing and
+ * the history never grows past its capacity.  Records are only formatted when {@link #describe(long) described}.<br/>
+ * <br/>
+ * One thread, the one executing the processor, records while any other thread may describe.  A record which has been
+ * overwritten, or is being overwritten, while it is described is reported as no longer held.
+ *
+ * @author Ross Drew
+ */
+public class InstructionTrace {
+    private final int capacity;
+
+    //One more slot than the capacity so that the slot being written is never one which is held
+    private final int[] addresses;
+    private final Mos6502OpCode[] opCodes;
+    private final int[] arguments;
+
+    private volatile long recorded = 0;
+
+    /**
+     * @param capacity the number of most recent instructions to hold
+     */
+    public InstructionTrace(final int capacity){
+        if (capacity < 1)
+            throw new IllegalArgumentException("Trace capacity must be positive, was " + capacity);
+
+        this.capacity = capacity;
+        this.addresses = new int[capacity + 1];
+        this.opCodes = new Mos6502OpCode[capacity + 1];
+        this.arguments = new int[capacity + 1];
+    }
+
+    /**
+     * @param address of the instruction
+     * @param opCode of the instruction
+     * @param argumentBytes the instruction arguments, first argument byte in the lowest byte
+     */
+    public void record(final int address, final Mos6502OpCode opCode, final int argumentBytes){
+        final long sequence = recorded;
+        final int slot = (int)(sequence % addresses.length);
+
+        addresses[slot] = address;
+        opCodes[slot] = opCode;
+        arguments[slot] = argumentBytes;
+
+        recorded = sequence + 1;
+    }
+
+    /**
+     * Forget all recorded instructions, only to be called by the recording thread
+     */
+    public void clear(){
+        recorded = 0;
+    }
+
+    /**
+     * @return the number of instructions which can be held
+     */
+    public int getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * @return the total number of instructions recorded since creation or the last {@link #clear()}
+     */
+    public long getRecorded(){
+        return recorded;
+    }
+
+    /**
+     * @return the number of instructions currently held
+     */
+    public int getSize(){
+        return (int)Math.min(recorded, capacity);
+    }
+
+    /**
+     * @param sequence of the record, where the first instruction recorded is <code>0</code>
+     * @return a description of the instruction, i.e. <code>[0x10] (0xA9 0x07) :LDA (Immediate)[0xa9]</code>, or
+     *         <code>null</code> if it is not held
+     */
+    public String describe(final long sequence){
+        if (!isHeld(sequence, recorded))
+            return null;
+
+        final int slot = (int)(sequence % addresses.length);
+        final int address = addresses[slot];
+        final Mos6502OpCode opCode = opCodes[slot];
+        final int argumentBytes = arguments[slot];
+
+        //The record may have been overwritten while being read
+        if (!isHeld(sequence, recorded) || opCode == null)
+            return null;
+
+        return describe(address, opCode, argumentBytes);
+    }
+
+    private boolean isHeld(final long sequence, final long recordedCount){
+        return sequence >= 0 && sequence < recordedCount && sequence >= (recordedCount - capacity);
+    }
+
+    private static String describe(final int address, final Mos6502OpCode opCode, final int argumentBytes){
+        final StringBuilder description = new StringBuilder("[").append(asHex(address)).append("] (")
+                                                                .append(asHex(opCode.getByteValue()));
+
+        final int argumentCount = opCode.getAddressingMode().getInstructionBytes() - 1;
+        for (int i = 0; i < argumentCount; i++)
+            description.append(' ').append(asHex((argumentBytes >> (i * 8)) & 0xFF));
+
+        return description.append(") :").append(opCode).toString();
+    }
+
+    private static String asHex(final int value){
+        final String hex = Integer.toHexString(value).toUpperCase();
+        return "0x" + (hex.length() % 2 == 1 ? "0" : "") + hex;
+    }
+}
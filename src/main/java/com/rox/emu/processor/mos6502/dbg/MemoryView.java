@@ -0,0 +1,123 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A primitive copy of memory, and the Program Counter, for display.  It is updated from successive
+ * {@link ExecutionSnapshot}s and tells each {@link PageWatcher} exactly which cells on its page have changed, so
+ * that displays only redraw what has changed.<br/>
+ * <br/>
+ * It is not thread safe and is intended to be used only on the thread doing the displaying.
+ *
+ * @author Ross Drew
+ */
+public class MemoryView {
+    /** The number of addresses displayed */
+    public static final int ADDRESS_SPACE = 0x10000;
+    /** The number of addresses in a memory page */
+    public static final int PAGE_SIZE = 0x100;
+    /** The number of memory pages */
+    public static final int PAGES = ADDRESS_SPACE / PAGE_SIZE;
+
+    /** Something that wants to be told when cells on a memory page have changed */
+    public interface PageWatcher {
+        /**
+         * @param page that has changed
+         * @param changedCells a bitset of the page offsets which have changed, only valid for the duration of the call
+         */
+        void pageChanged(final int page, final long[] changedCells);
+    }
+
+    private final byte[] values = new byte[ADDRESS_SPACE];
+    private final long[] changedCells = new long[PAGE_SIZE / Long.SIZE];
+    private final List<List<PageWatcher>> watchers = new ArrayList<>(PAGES);
+
+    private int programCounter = 0;
+
+    public MemoryView(){
+        for (int page = 0; page < PAGES; page++)
+            watchers.add(new ArrayList<>(1));
+    }
+
+    /**
+     * @param page to watch for changes
+     * @param watcher to be notified
+     */
+    public void addWatcher(final int page, final PageWatcher watcher){
+        watchers.get(page & 0xFF).add(watcher);
+    }
+
+    /**
+     * @param page no longer to watch for changes
+     * @param watcher to stop notifying
+     */
+    public void removeWatcher(final int page, final PageWatcher watcher){
+        watchers.get(page & 0xFF).remove(watcher);
+    }
+
+    /**
+     * @param address of the required value
+     * @return the unsigned value at <code>address</code>
+     */
+    public int getValue(final int address){
+        return values[address & 0xFFFF] & 0xFF;
+    }
+
+    /**
+     * @return the address of the next instruction
+     */
+    public int getProgramCounter(){
+        return programCounter;
+    }
+
+    /**
+     * Update to the state captured in <code>snapshot</code>, notifying watchers of changed pages.  A change in Program
+     * Counter is reported as a change to the cells at both the old and new Program Counter.
+     *
+     * @param snapshot to update from
+     */
+    public void update(final ExecutionSnapshot snapshot){
+        final int previousProgramCounter = programCounter;
+        programCounter = snapshot.getRegisters().getPC().getRawValue();
+
+        final int size = Math.min(snapshot.getMemorySize(), ADDRESS_SPACE);
+        for (int pageStart = 0; pageStart < size; pageStart += PAGE_SIZE) {
+            final int pageEnd = Math.min(pageStart + PAGE_SIZE, size);
+            boolean changed = false;
+
+            for (int address = pageStart; address < pageEnd; address++){
+                final byte value = (byte) snapshot.getByte(address).getRawValue();
+                if (values[address] != value){
+                    values[address] = value;
+                    changed |= markChanged(address);
+                }
+            }
+
+            if (previousProgramCounter != programCounter){
+                changed |= isOnPage(previousProgramCounter, pageStart) && markChanged(previousProgramCounter);
+                changed |= isOnPage(programCounter, pageStart) && markChanged(programCounter);
+            }
+
+            if (changed)
+                notifyWatchers(pageStart / PAGE_SIZE);
+        }
+    }
+
+    private boolean markChanged(final int address){
+        final int cell = address & 0xFF;
+        changedCells[cell >> 6] |= (1L << cell);
+        return true;
+    }
+
+    private static boolean isOnPage(final int address, final int pageStart){
+        return (address & 0xFF00) == pageStart;
+    }
+
+    private void notifyWatchers(final int page){
+        for (PageWatcher watcher : watchers.get(page))
+            watcher.pageChanged(page, changedCells);
+        Arrays.fill(changedCells, 0);
+    }
+}
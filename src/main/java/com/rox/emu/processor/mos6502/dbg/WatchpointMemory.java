@@ -0,0 +1,84 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+
+/**
+ * A {@link Memory} decorator which reports accesses to watched addresses to its {@link Breakpoints}.  Accesses to
+ * pages with no watchpoints go straight to the decorated {@link Memory} after a single page lookup.<br/>
+ * <br/>
+ * Block transfers and raw reads are never made by the CPU (they are used for loading programs, displaying memory
+ * and snapshots) so they do not trigger watchpoints.
+ *
+ * @author Ross Drew
+ */
+class WatchpointMemory implements Memory {
+    private final Memory memory;
+    private final Breakpoints breakpoints;
+
+    WatchpointMemory(final Memory memory, final Breakpoints breakpoints){
+        this.memory = memory;
+        this.breakpoints = breakpoints;
+    }
+
+    @Override
+    public void setByteAt(RoxWord location, RoxByte byteValue) {
+        memory.setByteAt(location, byteValue);
+        written(location.getRawValue());
+    }
+
+    @Override
+    public void setByteAt(int address, RoxByte byteValue) {
+        memory.setByteAt(address, byteValue);
+        written(address);
+    }
+
+    @Override
+    public void setBlock(RoxWord startLocation, RoxByte[] byteValues) {
+        memory.setBlock(startLocation, byteValues);
+    }
+
+    @Override
+    public RoxByte getByte(RoxWord location) {
+        read(location.getRawValue());
+        return memory.getByte(location);
+    }
+
+    @Override
+    public int getRawByte(int address) {
+        return memory.getRawByte(address);
+    }
+
+    @Override
+    public RoxWord getWord(RoxWord location) {
+        read(location.getRawValue());
+        read(location.getRawValue() + 1);
+        return memory.getWord(location);
+    }
+
+    @Override
+    public RoxByte[] getBlock(RoxWord from, RoxWord to) {
+        return memory.getBlock(from, to);
+    }
+
+    @Override
+    public void reset() {
+        memory.reset();
+    }
+
+    @Override
+    public int getSize() {
+        return memory.getSize();
+    }
+
+    private void read(final int address){
+        if (breakpoints.isPageWatched(address))
+            breakpoints.read(address);
+    }
+
+    private void written(final int address){
+        if (breakpoints.isPageWatched(address))
+            breakpoints.written(address);
+    }
+}
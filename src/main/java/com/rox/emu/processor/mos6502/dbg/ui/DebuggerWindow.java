@@ -7,9 +7,14 @@ import com.rox.emu.mem.Memory;
 import com.rox.emu.mem.SimpleMemory;
 import com.rox.emu.processor.mos6502.Mos6502;
 import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.dbg.Breakpoints;
+import com.rox.emu.processor.mos6502.dbg.ExecutionController;
+import com.rox.emu.processor.mos6502.dbg.ExecutionSnapshot;
+import com.rox.emu.processor.mos6502.dbg.InstructionTrace;
+import com.rox.emu.processor.mos6502.dbg.MemoryView;
+import com.rox.emu.processor.mos6502.dbg.ui.component.InstructionHistoryModel;
 import com.rox.emu.processor.mos6502.dbg.ui.component.MemoryPanel;
 import com.rox.emu.processor.mos6502.dbg.ui.component.Registers6502;
-import com.rox.emu.processor.mos6502.op.Mos6502AddressingMode;
 import com.rox.emu.processor.mos6502.op.Mos6502OpCode;
 import com.rox.emu.processor.mos6502.util.Mos6502Compiler;
 import com.rox.emu.processor.mos6502.util.Program;
@@ -22,8 +27,8 @@ import javax.swing.text.StyleConstants;
 import javax.swing.text.StyleContext;
 import java.awt.*;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -33,16 +38,31 @@ import java.util.Map;
  * @author Ross Drew
  */
 final class DebuggerWindow extends JFrame {
+    /** Maximum number of times per second the display is refreshed while running */
+    private static final int REFRESH_RATE = 30;
+    /** Number of executed instructions held in the instruction history */
+    private static final int HISTORY_SIZE = 100_000;
+
     private Mos6502 processor;
     private Memory memory;
     private Registers registers;
+    private Breakpoints breakpoints;
+    private ExecutionController controller;
+    private InstructionTrace trace;
+
+    //What is displayed, only accessed on the EDT and updated from snapshots of the processor
+    private MemoryView displayMemory;
+    private Registers displayRegisters;
 
     private Registers6502 newRegisterPanel;
 
-    private String instructionName = "...";
-    private final JLabel instruction = new JLabel(instructionName);
+    private final JButton stepButton = new JButton("Step >>");
+    private final JButton runButton = new JButton("Run");
+    private final JButton pauseButton = new JButton("Pause");
 
-    private final DefaultListModel<String> listModel;
+    private final JLabel instruction = new JLabel("...");
+
+    private InstructionHistoryModel historyModel;
 
     private DebuggerWindow() {
         super("6502 Debugger");
@@ -50,7 +70,6 @@ final class DebuggerWindow extends JFrame {
 
         init();
 
-        listModel = new DefaultListModel<>();
         instruction.setHorizontalAlignment(JLabel.CENTER);
 
         setLayout(new BorderLayout());
@@ -125,7 +144,7 @@ final class DebuggerWindow extends JFrame {
 //
 //        return memoryPanel;
 
-        JTabbedPane memoryTabs = new JTabbedPane();
+        JTabbedPane memoryTabs = new JTabbedPane(JTabbedPane.TOP, JTabbedPane.SCROLL_TAB_LAYOUT);
 
         final Map<String, Component> memoryComponentBlocks = getMemoryComponents();
         for (String memoryKey : memoryComponentBlocks.keySet()) {
@@ -138,14 +157,13 @@ final class DebuggerWindow extends JFrame {
     private Map<String, Component> getMemoryComponents(){
         final Map<String, Component> memoryBlocks = new LinkedHashMap<>();
 
-        final String[] blocks2 = new String[260];
-        for (int i=0; i<260; i++){
+        final String[] blocks2 = new String[MemoryView.PAGES];
+        for (int i=0; i<MemoryView.PAGES; i++){
             int start = i * 256;
             blocks2[i] = ""+ i;//(i + " (" + start + "-" + (start + 255) + ")");
         }
 
-        for (int i=0; i<7; i++)
-//        for (int i=0; i<blocks2.length; i++)
+        for (int i=0; i<blocks2.length; i++)
             memoryBlocks.put(blocks2[i], getMemoryComponent(i * 256));
 
         return memoryBlocks;
@@ -155,8 +173,7 @@ final class DebuggerWindow extends JFrame {
         final MemoryPanel memoryPanel = new MemoryPanel();
         final JScrollPane scrollPane = new JScrollPane();
 
-        memoryPanel.setMemory(memory, fromMemoryAddress);
-        memoryPanel.linkTo(processor.getRegisters());
+        memoryPanel.setMemory(displayMemory, fromMemoryAddress);
 
         scrollPane.setViewportView(memoryPanel);
         scrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
@@ -165,23 +182,35 @@ final class DebuggerWindow extends JFrame {
     }
 
     private JComponent getInstructionScroller(){
-        final JList<String> instructionList = new JList<>(listModel);
+        final JList<String> instructionList = new JList<>(historyModel);
+        //Fixed cell sizes stop the list formatting every row to measure them
+        instructionList.setPrototypeCellValue("[0xFFFF] (0xFF 0xFF 0xFF) :XXX_XXX_X");
         final JScrollPane scrollPane = new JScrollPane(instructionList);
         scrollPane.setPreferredSize(new Dimension(300, 200));
         return scrollPane;
     }
 
     private JPanel getControlPanel() {
-        JButton stepButton = new JButton("Step >>");
         stepButton.addActionListener(e -> step());
+        runButton.addActionListener(e -> run());
+        pauseButton.addActionListener(e -> pause());
+        pauseButton.setEnabled(false);
 
         JButton resetButton = new JButton("Reset!");
         resetButton.addActionListener(e -> loadProgram(getProgramFromFile()));
 
+        final JTextField breakpointAddress = new JTextField(6);
+        JButton breakpointButton = new JButton("Toggle Breakpoint");
+        breakpointButton.addActionListener(e -> toggleBreakpoint(breakpointAddress.getText()));
+
         JPanel controls = new JPanel();
         controls.setLayout(new FlowLayout());
         controls.add(resetButton);
         controls.add(stepButton);
+        controls.add(runButton);
+        controls.add(pauseButton);
+        controls.add(breakpointAddress);
+        controls.add(breakpointButton);
 
         return controls;
     }
@@ -191,23 +220,13 @@ final class DebuggerWindow extends JFrame {
 
         System.out.println("Loading '" + file.getAbsolutePath() + "'...");
 
-        byte[] fileContent = {};
-        try (FileInputStream fis = new FileInputStream(file)) {
-            if (!file.exists()) {
-                throw new IOException("File not found: " + file.getAbsolutePath());
-            }
-            fileContent = new byte[(int) file.length()];
-            int read = fis.read(fileContent);
-            if (read != fileContent.length) {
-                throw new IOException("Could not read the entire file: " + file.getAbsolutePath());
-            }
-            System.out.println("Read " + read + " bytes from file: " + file.getAbsolutePath());
+        final InesRom rom;
+        try {
+            rom = InesRom.from(file.toPath());
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new UncheckedIOException("Could not read " + file.getAbsolutePath(), e);
         }
 
-        final InesRom rom = InesRom.from(fileContent);
-
         Memory prgRom = rom.getProgramRom();
         return prgRom.getBlock(RoxWord.ZERO, RoxWord.fromLiteral(prgRom.getSize()-1));
     }
@@ -263,33 +282,86 @@ final class DebuggerWindow extends JFrame {
 
     private void init(){
         registers = new Registers();
-        memory = new SimpleMemory();
+        breakpoints = new Breakpoints();
+        memory = breakpoints.watching(new SimpleMemory());
         processor = new Mos6502(memory, registers);
-
-        newRegisterPanel = new Registers6502(registers);
+        trace = new InstructionTrace(HISTORY_SIZE);
+        processor.setTrace(trace);
+        historyModel = new InstructionHistoryModel(trace);
+        controller = new ExecutionController(processor, memory, breakpoints, REFRESH_RATE,
+                                             snapshot -> SwingUtilities.invokeLater(() -> showSnapshot(snapshot)));
+
+        displayRegisters = new Registers();
+        displayMemory = new MemoryView();
+        newRegisterPanel = new Registers6502(displayRegisters);
     }
 
     public void loadProgram(RoxByte[] program){
-        reset();
-        memory.setBlock(RoxWord.ZERO, program);
+        controller.pause();
+        controller.execute(() -> {
+            trace.clear();
+            processor.reset();
+            memory.reset();
+            memory.setBlock(RoxWord.ZERO, program);
+        });
     }
 
-    public void reset(){
-        processor.reset();
-        memory.reset();
-        listModel.clear();
+    public void step(){
+        controller.step();
+    }
 
-        invalidate();
-        revalidate();
-        repaint();
+    public void run(){
+        setRunning(true);
+        controller.run();
     }
 
-    public void step(){
-        upDateWithNextInstruction();
+    public void pause(){
+        controller.pause();
+    }
+
+    private void toggleBreakpoint(String addressText){
+        final int address;
+        try {
+            address = Integer.parseInt(addressText.trim().replaceFirst("^(0x|\\$)", ""), 16) & 0xFFFF;
+        }catch (NumberFormatException e){
+            JOptionPane.showMessageDialog(this, "Invalid breakpoint address '" + addressText + "'");
+            return;
+        }
 
-        processor.step();
-        invalidate();
-        repaint();
+        controller.execute(() -> {
+            if (breakpoints.isSet(address))
+                breakpoints.remove(address);
+            else
+                breakpoints.add(address);
+        });
+    }
+
+    private void setRunning(boolean running){
+        stepButton.setEnabled(!running);
+        runButton.setEnabled(!running);
+        pauseButton.setEnabled(running);
+    }
+
+    /**
+     * Update what is displayed from a consistent snapshot of the processor, must be called on the EDT
+     */
+    private void showSnapshot(ExecutionSnapshot snapshot){
+        final Registers snapshotRegisters = snapshot.getRegisters();
+        for (Registers.Register register : Registers.Register.values())
+            displayRegisters.setRegister(register, snapshotRegisters.getRegister(register));
+        displayMemory.update(snapshot);
+
+        historyModel.refresh();
+
+        setRunning(snapshot.isRunning());
+        if (snapshot.isRunning()) {
+            instruction.setText("Running... (" + snapshot.getCycles() + " cycles)");
+        }else {
+            final String latest = historyModel.getLatest();
+            instruction.setText(latest != null ? latest : "...");
+        }
+
+        newRegisterPanel.repaint();
     }
 
     public void compile(String programText){
@@ -303,32 +375,6 @@ final class DebuggerWindow extends JFrame {
         }
     }
 
-    private void upDateWithNextInstruction() {
-        final Registers registers = processor.getRegisters();
-        final RoxWord pointer = registers.getPC();
-        final RoxByte instr = memory.getByte(pointer);
-
-        StringBuilder arguments = new StringBuilder();
-        for (int i=0; i<getArgumentCount(instr.getRawValue()); i++ ){
-            RoxWord n = RoxWord.fromLiteral(pointer.getRawValue() + (i+1));
-            arguments.append(" " + MemoryPanel.asHex(memory.getByte(n).getRawValue()));
-        }
-
-        instructionName = Mos6502OpCode.from(instr.getRawValue()).toString();
-        final String instructionLocation = MemoryPanel.asHex(pointer.getRawValue());
-        final String instructionCode = MemoryPanel.asHex(instr.getRawValue());
-        final String completeInstructionInfo = "[" + instructionLocation + "] (" + instructionCode + arguments.toString() + ") :" + instructionName;
-
-        instruction.setText(completeInstructionInfo);
-        listModel.add(0, completeInstructionInfo);
-    }
-
-    private int getArgumentCount(int instr) {
-        final Mos6502OpCode opCode = Mos6502OpCode.from(instr);
-        final Mos6502AddressingMode addressingMode = opCode.getAddressingMode();
-        return addressingMode.getInstructionBytes() - 1;
-    }
-
     public static void main(String[] args){
         new DebuggerWindow();
     }
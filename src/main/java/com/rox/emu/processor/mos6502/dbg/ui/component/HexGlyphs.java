@@ -0,0 +1,94 @@
+package com.rox.emu.processor.mos6502.dbg.ui.component;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * A cache of pre-rendered hex byte values so that drawing a memory cell is a single image copy rather than a font
+ * and colour switch followed by text layout.  Only to be used on the EDT.
+ *
+ * @author Ross Drew
+ */
+final class HexGlyphs {
+    /** The ways in which a value can be displayed */
+    enum Style {
+        STANDARD(Font.PLAIN, Color.GRAY),
+        EMPHASIS(Font.BOLD, Color.BLACK),
+        CURRENT_INSTRUCTION(Font.BOLD, new Color(9, 178, 0)),
+        ADDRESS(Font.BOLD, new Color(201, 0, 12));
+
+        private final int fontStyle;
+        private final Color color;
+
+        Style(int fontStyle, Color color){
+            this.fontStyle = fontStyle;
+            this.color = color;
+        }
+    }
+
+    private final Font[] fonts = new Font[Style.values().length];
+    private final Image[][] glyphs = new Image[Style.values().length][256];
+    private final int ascent;
+    private final int height;
+
+    HexGlyphs(int fontSize){
+        for (Style style : Style.values())
+            fonts[style.ordinal()] = new Font("Monospaced", style.fontStyle, fontSize);
+
+        final FontMetrics metrics = scratchGraphics().getFontMetrics(fonts[Style.EMPHASIS.ordinal()]);
+        ascent = metrics.getAscent();
+        height = metrics.getHeight();
+    }
+
+    /**
+     * @return the distance from the top of a glyph to its text baseline
+     */
+    int getAscent(){
+        return ascent;
+    }
+
+    /**
+     * @return the height of every glyph
+     */
+    int getHeight(){
+        return height;
+    }
+
+    /**
+     * @param style to render in
+     * @param value byte value to render, as per {@link MemoryPanel#asHex(Integer)} or, for {@link Style#ADDRESS}, as
+     *              an address label
+     * @return an image of the rendered value
+     */
+    Image get(Style style, int value){
+        final Image[] styleGlyphs = glyphs[style.ordinal()];
+        Image glyph = styleGlyphs[value & 0xFF];
+        if (glyph == null){
+            glyph = render(style, value & 0xFF);
+            styleGlyphs[value & 0xFF] = glyph;
+        }
+        return glyph;
+    }
+
+    private Image render(Style style, int value){
+        final String text = (style == Style.ADDRESS) ? "[" + MemoryPanel.asHex(value) + "]" : MemoryPanel.asHex(value);
+        final Font font = fonts[style.ordinal()];
+        final int width = Math.max(1, scratchGraphics().getFontMetrics(font).stringWidth(text));
+
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(font);
+            g.setColor(style.color);
+            g.drawString(text, 0, ascent);
+        }finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static Graphics2D scratchGraphics(){
+        return new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    }
+}
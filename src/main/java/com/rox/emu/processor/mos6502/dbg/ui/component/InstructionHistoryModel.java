@@ -0,0 +1,74 @@
+package com.rox.emu.processor.mos6502.dbg.ui.component;
+
+import com.rox.emu.processor.mos6502.dbg.InstructionTrace;
+
+import javax.swing.*;
+
+/**
+ * A {@link ListModel} of the instructions held by an {@link InstructionTrace}, most recent first.<br/>
+ * <br/>
+ * Nothing is copied out of the trace, rows are formatted only when the list asks for them, i.e. when they are
+ * visible, so the cost of a {@link #refresh()} does not depend on how much history is held.
+ *
+ * @author Ross Drew
+ */
+public class InstructionHistoryModel extends AbstractListModel<String> {
+    private static final String NOT_HELD = "...";
+
+    private final InstructionTrace trace;
+
+    private long shownRecorded = 0;
+    private int shownSize = 0;
+
+    public InstructionHistoryModel(InstructionTrace trace){
+        this.trace = trace;
+    }
+
+    /**
+     * Show any instructions recorded since the last refresh, must be called on the EDT
+     */
+    public void refresh(){
+        final long recorded = trace.getRecorded();
+        final int size = (int)Math.min(recorded, trace.getCapacity());
+        final long added = recorded - shownRecorded;
+
+        final int previousSize = shownSize;
+        shownRecorded = recorded;
+        shownSize = size;
+
+        if (added == 0)
+            return;
+
+        if (added < 0 || added >= size){
+            //Cleared or every row replaced
+            if (previousSize > 0)
+                fireIntervalRemoved(this, 0, previousSize - 1);
+            if (size > 0)
+                fireIntervalAdded(this, 0, size - 1);
+            return;
+        }
+
+        final int dropped = previousSize + (int)added - size;
+        if (dropped > 0)
+            fireIntervalRemoved(this, previousSize - dropped, previousSize - 1);
+        fireIntervalAdded(this, 0, (int)added - 1);
+    }
+
+    /**
+     * @return a description of the most recent instruction shown, or <code>null</code> if there is none
+     */
+    public String getLatest(){
+        return (shownSize > 0) ? getElementAt(0) : null;
+    }
+
+    @Override
+    public int getSize() {
+        return shownSize;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        final String description = trace.describe(shownRecorded - 1 - index);
+        return (description != null) ? description : NOT_HELD;
+    }
+}
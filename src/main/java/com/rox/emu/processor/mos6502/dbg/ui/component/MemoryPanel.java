@@ -1,107 +1,103 @@
 package com.rox.emu.processor.mos6502.dbg.ui.component;
 
-import com.rox.emu.env.RoxByte;
-import com.rox.emu.env.RoxWord;
-import com.rox.emu.mem.Memory;
-import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.dbg.MemoryView;
 
 import javax.swing.*;
 import java.awt.*;
 
 /**
- * A UI panel intended to display a block of memory
+ * A UI panel intended to display a page of memory.<br/>
+ * <br/>
+ * The panel watches its page of a {@link MemoryView} and only repaints the cells which have changed, painting is
+ * clipped to those cells and each cell is drawn from a pre-rendered {@link HexGlyphs glyph}.
  *
  * @author Ross Drew
  */
-public class MemoryPanel extends JPanel {
-    private Memory memory;
-    private Registers registers;
+public class MemoryPanel extends JPanel implements MemoryView.PageWatcher {
+    private static final int BLOCK_SIZE = MemoryView.PAGE_SIZE;
+    private static final int COLUMNS = 4;
 
-    private final int blockSize = 256;
+    private static final int FONT_SIZE = 12;
+    private static final HexGlyphs glyphs = new HexGlyphs(FONT_SIZE);
 
-    private final int fontSize = 12;
-
-    private final int rowSize = fontSize;
-    private final int columnSize = fontSize * 4;
+    private final int rowSize = FONT_SIZE;
+    private final int columnSize = FONT_SIZE * 4;
     private final int verticalPadding = 10;
 
-    private final int componentHeight = rowSize * (256 / 4);
-    private final int componentWidth = columnSize * 5;
-
-    private final Font emphasisFont = new Font("Monospaced", Font.BOLD, fontSize);
-    private final Color emphasisColor = Color.BLACK;
-    private final Font standardFont = new Font("Monospaced", Font.PLAIN, fontSize);
-    private final Color standardColor = Color.GRAY;
-    private final Color currentInstructionColor = new Color(9, 178, 0);
-    private final Color addressColor = new Color(201, 0, 12);
+    private final int componentHeight = rowSize * (BLOCK_SIZE / COLUMNS);
+    private final int componentWidth = columnSize * (COLUMNS + 1);
 
+    private MemoryView memory;
     private int memoryStart;
 
-    public void setMemory(Memory memory, int from){
+    /**
+     * @param memory to display
+     * @param from the start address of the page to display
+     */
+    public void setMemory(MemoryView memory, int from){
+        if (this.memory != null)
+            this.memory.removeWatcher(memoryStart >> 8, this);
+
         this.memory = memory;
-        this.memoryStart = from;
+        this.memoryStart = from & 0xFF00;
+        memory.addWatcher(memoryStart >> 8, this);
+        repaint();
     }
 
-    public void linkTo(Registers registers){
-        this.registers = registers;
+    @Override
+    public void pageChanged(int page, long[] changedCells) {
+        for (int word = 0; word < changedCells.length; word++){
+            long bits = changedCells[word];
+            while (bits != 0){
+                final int cell = (word * Long.SIZE) + Long.numberOfTrailingZeros(bits);
+                repaintCell(cell);
+                bits &= bits - 1;
+            }
+        }
     }
 
-    private void drawMemory(Graphics g, int from) {
-        setTextFormatting(g, standardFont, standardColor);
+    private void repaintCell(int cell){
+        repaint(columnX(cell % COLUMNS), cellY(cell / COLUMNS), columnSize, glyphs.getHeight());
+    }
 
-        final RoxByte[] memoryBlock = memory.getBlock(RoxWord.fromLiteral(from), RoxWord.fromLiteral(from + blockSize));
+    private int columnX(int column){
+        return (column + 1) * columnSize;
+    }
 
-        drawIndexedBlock(g, memoryBlock, from, 4);
+    private int cellY(int row){
+        return verticalPadding + (row * rowSize) - glyphs.getAscent();
     }
 
-    private void drawIndexedBlock(Graphics g, RoxByte[] memoryBlock, int memoryOffset, int columns) {
-        int pcLoLocation = -1;
-        if (registers != null)
-            pcLoLocation = registers.getRegister(Registers.Register.PROGRAM_COUNTER_LOW).getRawValue();
+    private void drawMemory(Graphics g, Rectangle clip) {
+        final int firstRow = Math.max(0, (clip.y - verticalPadding) / rowSize);
+        final int lastRow = Math.min((BLOCK_SIZE / COLUMNS) - 1, (clip.y + clip.height + glyphs.getAscent() - verticalPadding) / rowSize);
+        final int programCounter = memory.getProgramCounter();
 
-        for (int i=0; i<memoryBlock.length; i++){
-            final int column = i % columns;
-            final int row = i / columns;
-            final int rowLoc = verticalPadding + (row * rowSize);
-            final int colLoc = ((column + 1) * columnSize);
+        for (int row = firstRow; row <= lastRow; row++){
+            final int y = cellY(row);
 
-            if (column == 0){
-                drawIndex(g, i, rowLoc);
-            }
+            if (clip.x < columnSize)
+                g.drawImage(glyphs.get(HexGlyphs.Style.ADDRESS, row * COLUMNS), 0, y, null);
+
+            for (int column = 0; column < COLUMNS; column++){
+                final int x = columnX(column);
+                if (x + columnSize <= clip.x || x >= clip.x + clip.width)
+                    continue;
 
-            if ((memoryOffset + i) == pcLoLocation){
-                setTextFormatting(g, emphasisFont, currentInstructionColor);
-                drawValue(g, colLoc, rowLoc, asHex(memoryBlock[i].getRawValue()));
-                setTextFormatting(g, standardFont, standardColor);
-            }else if (memoryBlock[i] != RoxByte.ZERO){
-                drawEmphasisedValue(g, rowLoc, colLoc, asHex(memoryBlock[i].getRawValue()));
-            }else {
-                drawValue(g, colLoc, rowLoc, asHex(memoryBlock[i].getRawValue()));
+                final int address = memoryStart + (row * COLUMNS) + column;
+                final int value = memory.getValue(address);
+                g.drawImage(glyphs.get(styleOf(address, value, programCounter), value), x, y, null);
             }
         }
     }
 
-    private void drawIndex(Graphics g, int i, int rowLoc) {
-        final String memAddressDisplay = "[" + asHex(i) + "]";
-
-        setTextFormatting(g, emphasisFont, addressColor);
-        drawValue(g, 0, rowLoc, memAddressDisplay);
-        setTextFormatting(g, standardFont, standardColor);
-    }
-
-    private void drawEmphasisedValue(Graphics g, int rowLoc, int colLoc, String memValueDisplay) {
-        setTextFormatting(g, emphasisFont, emphasisColor);
-        drawValue(g, colLoc, rowLoc, memValueDisplay);
-        setTextFormatting(g, standardFont, standardColor);
-    }
-
-    private void drawValue(Graphics g, int x, int y, String memValueDisplay) {
-        g.drawString(memValueDisplay, x, y);
-    }
-
-    private void setTextFormatting(Graphics g, Font font, Color color){
-        g.setColor(color);
-        g.setFont(font);
+    private HexGlyphs.Style styleOf(int address, int value, int programCounter){
+        if (address == programCounter)
+            return HexGlyphs.Style.CURRENT_INSTRUCTION;
+        else if (value != 0)
+            return HexGlyphs.Style.EMPHASIS;
+        else
+            return HexGlyphs.Style.STANDARD;
     }
 
     public static String asHex(Integer val){
@@ -119,17 +115,14 @@ public class MemoryPanel extends JPanel {
     public void paint(Graphics g) {
         super.paint(g);
 
-        if (g instanceof Graphics2D){
-            Graphics2D g2d = (Graphics2D)g;
-            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-        }
-
-        final Font previousFont = g.getFont();
-        final Color previousColor = g.getColor();
+        if (memory == null)
+            return;
 
-        drawMemory(g, memoryStart);
+        Rectangle clip = g.getClipBounds();
+        if (clip == null)
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
 
-        setTextFormatting(g, previousFont, previousColor);
+        drawMemory(g, clip);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,652 @@
+package com.rox.emu.processor.mos6502.lockstep;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Mos6502Alu;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.Registers.Flag;
+import com.rox.emu.processor.mos6502.Registers.Register;
+import com.rox.emu.processor.mos6502.op.Mos6502AddressingMode;
+import com.rox.emu.processor.mos6502.op.Mos6502OpCode;
+import com.rox.emu.processor.mos6502.op.Mos6502Operation;
+
+/**
+ * Many {@link Mos6502}s, or lanes, running the same program in lockstep, for differential testing and fuzzing where
+ * only the inputs differ from lane to lane.<br/>
+ * <br/>
+ * All lanes' memory is held in a single primitive array, interleaved so that the same address in every lane is
+ * contiguous, and registers likewise, one register of every lane after another.  While their Program Counters agree,
+ * lanes step together: each instruction is fetched and decoded once and then executed for every lane in turn, which
+ * is far cheaper than stepping as many separate {@link Mos6502}s.  Where a lane's next instruction or Program Counter
+ * differs from the others, i.e. after a branch only some lanes take, it is split off to a {@link Mos6502} of its own,
+ * over the same memory, and continues independently.<br/>
+ * <br/>
+ * Every lane behaves exactly as a {@link Mos6502} would given the same memory and registers.
+ *
+ * @author Ross Drew
+ */
+public class LockstepMos6502 {
+    /** The most lanes one instance can run */
+    public static final int MAX_LANES = 1024;
+
+    private static final int ADDRESS_SPACE = 0x10000;
+
+    private static final Mos6502OpCode[] OPCODES = new Mos6502OpCode[256];
+    private static final RoxByte[] BYTE_VALUES = new RoxByte[256];
+    static {
+        for (Mos6502OpCode opCode : Mos6502OpCode.values())
+            OPCODES[opCode.getByteValue()] = opCode;
+        for (int value = 0; value < BYTE_VALUES.length; value++)
+            BYTE_VALUES[value] = RoxByte.fromLiteral(value);
+    }
+
+    private static final Register[] REGISTERS = Register.values();
+    private static final int A = Register.ACCUMULATOR.getIndex();
+    private static final int X = Register.X_INDEX.getIndex();
+    private static final int Y = Register.Y_INDEX.getIndex();
+    private static final int SP = Register.STACK_POINTER_LOW.getIndex();
+    private static final int P = Register.STATUS_FLAGS.getIndex();
+
+    private static final int CARRY = Flag.CARRY.getPlaceValue();
+    private static final int ZERO = Flag.ZERO.getPlaceValue();
+    private static final int IRQ_DISABLE = Flag.IRQ_DISABLE.getPlaceValue();
+    private static final int DECIMAL_MODE = Flag.DECIMAL_MODE.getPlaceValue();
+    private static final int OVERFLOW = Flag.OVERFLOW.getPlaceValue();
+    private static final int NEGATIVE = Flag.NEGATIVE.getPlaceValue();
+
+    private final int lanes;
+    private final byte[] memory;
+    private final int[] registerFile;
+    private final LaneMemory[] laneMemory;
+
+    private final int[] group;
+    private int groupSize;
+    private int groupPc = 0;
+    private long groupCycles = 0;
+    private final long[] cycleOffset;
+
+    private final Mos6502[] scalar;
+    private final long[] cycleBase;
+
+    private final int[] laneValues;
+    private final Registers scratchRegisters = new Registers();
+    private final Mos6502Alu scratchAlu = new Mos6502Alu(scratchRegisters);
+
+    /**
+     * @param lanes the number of processors to run, each with its own memory and registers, initially as
+     *              {@link Mos6502} would have them before {@link #reset()}
+     */
+    public LockstepMos6502(final int lanes){
+        if (lanes < 1 || lanes > MAX_LANES)
+            throw new IllegalArgumentException("Lanes must be between 1 and " + MAX_LANES + ", got " + lanes);
+
+        this.lanes = lanes;
+        this.memory = new byte[ADDRESS_SPACE * lanes];
+        this.registerFile = new int[REGISTERS.length * lanes];
+        this.laneMemory = new LaneMemory[lanes];
+        this.group = new int[lanes];
+        this.cycleOffset = new long[lanes];
+        this.scalar = new Mos6502[lanes];
+        this.cycleBase = new long[lanes];
+        this.laneValues = new int[lanes];
+
+        for (int lane = 0; lane < lanes; lane++) {
+            laneMemory[lane] = new LaneMemory(lane);
+            group[lane] = lane;
+            registerFile[SP * lanes + lane] = 0xFF;
+        }
+        groupSize = lanes;
+    }
+
+    /**
+     * @return the number of lanes
+     */
+    public int getLanes(){
+        return lanes;
+    }
+
+    /**
+     * @return the number of lanes still running in lockstep
+     */
+    public int getLockstepLanes(){
+        return groupSize;
+    }
+
+    /**
+     * @param lane to check
+     * @return <code>true</code> if <code>lane</code> is still running in lockstep, <code>false</code> if it has been
+     *         split off to run on its own
+     */
+    public boolean isLockstep(final int lane){
+        return scalar[lane] == null;
+    }
+
+    /**
+     * @param lane to get the memory of
+     * @return a live view of the memory of <code>lane</code>
+     */
+    public Memory getMemory(final int lane){
+        return laneMemory[lane];
+    }
+
+    /**
+     * @param lane to get the register of
+     * @param register to get
+     * @return the value of <code>register</code> in <code>lane</code>
+     */
+    public RoxByte getRegister(final int lane, final Register register){
+        if (scalar[lane] != null)
+            return scalar[lane].getRegisters().getRegister(register);
+
+        if (register == Register.PROGRAM_COUNTER_HI)
+            return BYTE_VALUES[(groupPc >> 8) & 0xFF];
+        if (register == Register.PROGRAM_COUNTER_LOW)
+            return BYTE_VALUES[groupPc & 0xFF];
+        return BYTE_VALUES[registerFile[register.getIndex() * lanes + lane]];
+    }
+
+    /**
+     * Set a register of a single lane.  Setting the Program Counter of a lane running in lockstep splits it off to run
+     * on its own.
+     *
+     * @param lane to set the register of
+     * @param register to set
+     * @param value to set it to
+     */
+    public void setRegister(final int lane, final Register register, final RoxByte value){
+        if (scalar[lane] == null && (register == Register.PROGRAM_COUNTER_HI || register == Register.PROGRAM_COUNTER_LOW)) {
+            split(lane, groupPc);
+            compactGroup();
+        }
+
+        if (scalar[lane] != null)
+            scalar[lane].getRegisters().setRegister(register, value);
+        else
+            registerFile[register.getIndex() * lanes + lane] = value.getRawValue();
+    }
+
+    /**
+     * @param lane to get the cycle count of
+     * @return the number of cycles <code>lane</code> has executed
+     */
+    public long getCycles(final int lane){
+        return (scalar[lane] != null) ? cycleBase[lane] + scalar[lane].getCycles()
+                                       : groupCycles + cycleOffset[lane];
+    }
+
+    /**
+     * Reset every lane, as per {@link Mos6502#reset()}, bringing any which had been split off back into lockstep where
+     * their reset vectors agree.
+     */
+    public void reset(){
+        for (int lane = 0; lane < lanes; lane++) {
+            final long cycles = getCycles(lane);
+            scalar[lane] = null;
+            cycleOffset[lane] = cycles - groupCycles;
+
+            registerFile[A * lanes + lane] = 0;
+            registerFile[X * lanes + lane] = 0;
+            registerFile[Y * lanes + lane] = 0;
+            registerFile[P * lanes + lane] = 0x34;
+            registerFile[SP * lanes + lane] = 0xFF;
+            group[lane] = lane;
+            laneValues[lane] = (read(0xFFFC, lane) << 8) | read(0xFFFD, lane);
+        }
+        groupSize = lanes;
+
+        groupPc = majority(laneValues, groupSize);
+        for (int i = 0; i < groupSize; i++) {
+            if (laneValues[i] != groupPc)
+                split(group[i], laneValues[i]);
+        }
+        compactGroup();
+    }
+
+    /**
+     * Execute the next instruction of every lane
+     *
+     * @param steps number of instructions to execute
+     */
+    public void step(final int steps){
+        for (int i = 0; i < steps; i++)
+            step();
+    }
+
+    /**
+     * Execute the next instruction of every lane
+     */
+    public void step(){
+        for (Mos6502 processor : scalar) {
+            if (processor != null)
+                processor.step();
+        }
+
+        if (groupSize > 0)
+            stepLockstep();
+    }
+
+    private void stepLockstep(){
+        final int pc = groupPc;
+
+        //Lanes about to execute a different instruction leave lockstep, and execute it on their own
+        for (int i = 0; i < groupSize; i++)
+            laneValues[i] = read(pc, group[i]);
+        final int opCodeByte = majority(laneValues, groupSize);
+        boolean diverged = false;
+        for (int i = 0; i < groupSize; i++) {
+            if (laneValues[i] != opCodeByte) {
+                split(group[i], pc);
+                scalar[group[i]].step();
+                diverged = true;
+            }
+        }
+        if (diverged)
+            compactGroup();
+
+        final Mos6502OpCode opCode = decode(opCodeByte);
+        final Mos6502AddressingMode mode = opCode.getAddressingMode();
+        final Mos6502Operation operation = opCode.getOperation();
+        final int firstArgument = (pc + 1) & 0xFFFF;
+        final int secondArgument = (pc + 2) & 0xFFFF;
+        final int nextPc = (pc + mode.getInstructionBytes()) & 0xFFFF;
+
+        if (opCode == Mos6502OpCode.JMP_ABS) {
+            for (int i = 0; i < groupSize; i++)
+                laneValues[i] = readWord(firstArgument, group[i]);
+        } else if (opCode == Mos6502OpCode.JMP_IND) {
+            for (int i = 0; i < groupSize; i++)
+                laneValues[i] = readWord(readWord(firstArgument, group[i]), group[i]);
+        } else if (mode == Mos6502AddressingMode.INDIRECT || !isLockstepOperation(operation)) {
+            for (int i = 0; i < groupSize; i++)
+                laneValues[i] = performScalar(opCode, group[i], firstArgument);
+        } else {
+            for (int i = 0; i < groupSize; i++) {
+                final int lane = group[i];
+
+                int address = -1;
+                final int value;
+                switch (mode) {
+                    case IMPLIED:
+                        value = 0;
+                        break;
+                    case IMMEDIATE:
+                    case RELATIVE:
+                        value = read(firstArgument, lane);
+                        break;
+                    case ACCUMULATOR:
+                        value = registerFile[A * lanes + lane];
+                        break;
+                    default:
+                        address = addressOf(mode, lane, firstArgument, secondArgument);
+                        value = read(address, lane);
+                        break;
+                }
+
+                final int result = perform(operation, lane, value);
+
+                if (address >= 0)
+                    write(address, lane, result);
+                else if (mode == Mos6502AddressingMode.ACCUMULATOR)
+                    registerFile[A * lanes + lane] = result;
+
+                laneValues[i] = (mode == Mos6502AddressingMode.RELATIVE && isBranchTaken(operation, lane))
+                                ? branchTarget(nextPc, value)
+                                : nextPc;
+            }
+        }
+
+        groupCycles += opCode.getCycles();
+
+        //Lanes whose Program Counter now differs from the others leave lockstep
+        groupPc = majority(laneValues, groupSize);
+        diverged = false;
+        for (int i = 0; i < groupSize; i++) {
+            if (laneValues[i] != groupPc) {
+                split(group[i], laneValues[i]);
+                diverged = true;
+            }
+        }
+        if (diverged)
+            compactGroup();
+    }
+
+    private static Mos6502OpCode decode(final int opCodeByte){
+        final Mos6502OpCode opCode = OPCODES[opCodeByte];
+        return (opCode != null) ? opCode : Mos6502OpCode.from(opCodeByte);
+    }
+
+    private static boolean isLockstepOperation(final Mos6502Operation operation){
+        switch (operation) {
+            case BRK:
+            case JSR:
+            case RTS:
+            case RTI:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private int addressOf(final Mos6502AddressingMode mode, final int lane, final int firstArgument, final int secondArgument){
+        switch (mode) {
+            case ZERO_PAGE:
+                return read(firstArgument, lane);
+            case ZERO_PAGE_X:
+                return (read(firstArgument, lane) + registerFile[X * lanes + lane]) & 0xFFFF;
+            case ZERO_PAGE_Y:
+                return (read(firstArgument, lane) + registerFile[Y * lanes + lane]) & 0xFFFF;
+            case ABSOLUTE:
+                return (read(firstArgument, lane) << 8) | read(secondArgument, lane);
+            case ABSOLUTE_X:
+                return (((read(firstArgument, lane) << 8) | read(secondArgument, lane)) + registerFile[X * lanes + lane]) & 0xFFFF;
+            case ABSOLUTE_Y:
+                return (((read(firstArgument, lane) << 8) | read(secondArgument, lane)) + registerFile[Y * lanes + lane]) & 0xFFFF;
+            case INDIRECT_X:
+                return readWord((read(firstArgument, lane) + registerFile[X * lanes + lane]) & 0xFFFF, lane);
+            case INDIRECT_Y:
+                return (readWord(read(firstArgument, lane), lane) + registerFile[Y * lanes + lane]) & 0xFFFF;
+            default:
+                throw new IllegalStateException("No address for " + mode);
+        }
+    }
+
+    /**
+     * Perform <code>operation</code> on <code>value</code> for <code>lane</code>, as per {@link Mos6502Operation}
+     *
+     * @return the value to be written back to where <code>value</code> came from
+     */
+    private int perform(final Mos6502Operation operation, final int lane, final int value){
+        final int a = A * lanes + lane;
+        final int x = X * lanes + lane;
+        final int y = Y * lanes + lane;
+        final int sp = SP * lanes + lane;
+        final int p = P * lanes + lane;
+
+        switch (operation) {
+            case LDA: registerFile[a] = value; setZeroAndNegative(p, value); return value;
+            case LDX: registerFile[x] = value; setZeroAndNegative(p, value); return value;
+            case LDY: registerFile[y] = value; setZeroAndNegative(p, value); return value;
+            case STA: return registerFile[a];
+            case STX: return registerFile[x];
+            case STY: return registerFile[y];
+
+            case ADC: registerFile[a] = adc(p, registerFile[a], value); setZeroAndNegative(p, registerFile[a]); return value;
+            case SBC: registerFile[a] = adc(p, registerFile[a], ~value & 0xFF); setZeroAndNegative(p, registerFile[a]); return value;
+            case AND: registerFile[a] &= value; setZeroAndNegative(p, registerFile[a]); return value;
+            case ORA: registerFile[a] |= value; setZeroAndNegative(p, registerFile[a]); return value;
+            case EOR: registerFile[a] ^= value; setZeroAndNegative(p, registerFile[a]); return value;
+
+            case CMP: compare(p, registerFile[a], value); return value;
+            case CPX: compare(p, registerFile[x], value); return value;
+            case CPY: compare(p, registerFile[y], value); return value;
+            case BIT: {
+                int status = registerFile[p] & ~(ZERO | OVERFLOW | NEGATIVE);
+                if ((registerFile[a] & value) == registerFile[a])
+                    status |= ZERO;
+                registerFile[p] = status | (value & (OVERFLOW | NEGATIVE));
+                return value;
+            }
+
+            case INX: registerFile[x] = adc(p, registerFile[x], 1); setZeroAndNegative(p, registerFile[x]); return value;
+            case INY: registerFile[y] = adc(p, registerFile[y], 1); setZeroAndNegative(p, registerFile[y]); return value;
+            case DEX: registerFile[x] = decrement(p, registerFile[x]); return value;
+            case DEY: registerFile[y] = decrement(p, registerFile[y]); return value;
+            case INC: {
+                final int carry = registerFile[p] & CARRY;
+                final int result = adc(p, value, 1);
+                setZeroAndNegative(p, result);
+                registerFile[p] = (registerFile[p] & ~CARRY) | carry;
+                return result;
+            }
+            case DEC: return decrement(p, value);
+
+            case ASL: {
+                final int result = (value << 1) & 0xFF;
+                registerFile[p] = (registerFile[p] & ~CARRY) | (value >> 7);
+                setZeroAndNegative(p, result);
+                return result;
+            }
+            case LSR: {
+                final int result = value >> 1;
+                registerFile[p] = (registerFile[p] & ~CARRY) | (value & 1);
+                setZeroAndNegative(p, result);
+                return result;
+            }
+            case ROL: {
+                final int result = ((value << 1) | (registerFile[p] & CARRY)) & 0xFF;
+                registerFile[p] = (registerFile[p] & ~CARRY) | (value >> 7);
+                setZeroAndNegative(p, result);
+                return result;
+            }
+            case ROR: {
+                final int result = (value >> 1) | ((registerFile[p] & CARRY) << 7);
+                registerFile[p] = (registerFile[p] & ~CARRY) | (value & 1);
+                setZeroAndNegative(p, result);
+                return result;
+            }
+
+            case TAX: registerFile[x] = registerFile[a]; return value;
+            case TAY: registerFile[y] = registerFile[a]; return value;
+            case TXA: registerFile[a] = registerFile[x]; return value;
+            case TYA: registerFile[a] = registerFile[y]; return value;
+            case TXS: registerFile[sp] = registerFile[x]; return value;
+            case TSX: registerFile[x] = registerFile[sp]; setZeroAndNegative(p, registerFile[x]); return value;
+
+            case PHA: push(sp, lane, registerFile[a]); return value;
+            case PHP: push(sp, lane, registerFile[p]); return value;
+            case PLA: registerFile[a] = pull(sp, lane); return value;
+            case PLP: registerFile[p] = pull(sp, lane); return value;
+
+            case CLC: registerFile[p] &= ~CARRY; return value;
+            case SEC: registerFile[p] |= CARRY; return value;
+            case CLI: registerFile[p] &= ~IRQ_DISABLE; return value;
+            case SEI: registerFile[p] |= IRQ_DISABLE; return value;
+            case CLD: registerFile[p] &= ~DECIMAL_MODE; return value;
+            case SED: registerFile[p] |= DECIMAL_MODE; return value;
+            case CLV: registerFile[p] &= ~OVERFLOW; return value;
+
+            default:
+                //NOP, JMP and branches, which are dealt with by the Program Counter
+                return value;
+        }
+    }
+
+    private boolean isBranchTaken(final Mos6502Operation operation, final int lane){
+        final int status = registerFile[P * lanes + lane];
+        switch (operation) {
+            case BPL: return (status & NEGATIVE) == 0;
+            case BMI: return (status & NEGATIVE) != 0;
+            case BVC: return (status & OVERFLOW) == 0;
+            case BVS: return (status & OVERFLOW) != 0;
+            case BCC: return (status & CARRY) == 0;
+            case BCS: return (status & CARRY) != 0;
+            case BNE: return (status & ZERO) == 0;
+            case BEQ: return (status & ZERO) != 0;
+            default: return false;
+        }
+    }
+
+    /**
+     * As per {@link Mos6502Operation}, the offset (and a carry for negative offsets) is added to the low byte of the
+     * Program Counter only
+     */
+    private static int branchTarget(final int nextPc, final int offset){
+        return ((nextPc & 0xFF) + offset + (offset >> 7)) & 0xFF;
+    }
+
+    /**
+     * As per {@link Mos6502Alu#adc(RoxByte, RoxByte)}, which sets carry and can set, but never clears, overflow
+     */
+    private int adc(final int p, final int byteA, final int byteB){
+        final int result = byteA + byteB + (registerFile[p] & CARRY);
+        int status = (registerFile[p] & ~CARRY) | ((result >> 8) & CARRY);
+        if (((byteA ^ result) & (byteB ^ result) & 0x80) != 0)
+            status |= OVERFLOW;
+        registerFile[p] = status;
+        return result & 0xFF;
+    }
+
+    private void compare(final int p, final int register, final int value){
+        registerFile[p] |= CARRY;
+        setZeroAndNegative(p, adc(p, register, ~value & 0xFF));
+    }
+
+    private int decrement(final int p, final int value){
+        final int carry = registerFile[p] & CARRY;
+        registerFile[p] |= CARRY;
+        final int result = adc(p, value, 0xFE);
+        registerFile[p] = (registerFile[p] & ~CARRY) | carry;
+        setZeroAndNegative(p, result);
+        return result;
+    }
+
+    private void setZeroAndNegative(final int p, final int value){
+        registerFile[p] = (registerFile[p] & ~(ZERO | NEGATIVE)) | (value == 0 ? ZERO : 0) | (value & NEGATIVE);
+    }
+
+    private void push(final int sp, final int lane, final int value){
+        write(0x100 | registerFile[sp], lane, value);
+        registerFile[sp] = (registerFile[sp] - 1) & 0xFF;
+    }
+
+    private int pull(final int sp, final int lane){
+        registerFile[sp] = (registerFile[sp] + 1) & 0xFF;
+        return read(0x100 | registerFile[sp], lane);
+    }
+
+    /**
+     * Perform <code>opCode</code> for <code>lane</code> through {@link Mos6502OpCode#perform}, for operations with no
+     * lockstep implementation
+     *
+     * @return the Program Counter of <code>lane</code> afterwards
+     */
+    private int performScalar(final Mos6502OpCode opCode, final int lane, final int firstArgument){
+        loadRegisters(scratchRegisters, lane, firstArgument);
+        opCode.perform(scratchAlu, scratchRegisters, laneMemory[lane]);
+        for (Register register : REGISTERS)
+            registerFile[register.getIndex() * lanes + lane] = scratchRegisters.getRegister(register).getRawValue();
+        return scratchRegisters.getPC().getRawValue();
+    }
+
+    private void loadRegisters(final Registers registers, final int lane, final int pc){
+        for (Register register : REGISTERS)
+            registers.setRegister(register, BYTE_VALUES[registerFile[register.getIndex() * lanes + lane]]);
+        registers.setPC(RoxWord.fromLiteral(pc));
+    }
+
+    /**
+     * Split <code>lane</code> off to run on its own from <code>pc</code>.  {@link #compactGroup()} must follow.
+     */
+    private void split(final int lane, final int pc){
+        final long cycles = getCycles(lane);
+        final Registers registers = new Registers();
+        loadRegisters(registers, lane, pc);
+
+        scalar[lane] = new Mos6502(laneMemory[lane], registers);
+        cycleBase[lane] = cycles;
+    }
+
+    private void compactGroup(){
+        int size = 0;
+        for (int i = 0; i < groupSize; i++) {
+            if (scalar[group[i]] == null)
+                group[size++] = group[i];
+        }
+        groupSize = size;
+    }
+
+    /**
+     * @return the value held by more than half of the first <code>count</code> <code>values</code> if there is one,
+     *         otherwise the first
+     */
+    private static int majority(final int[] values, final int count){
+        int candidate = values[0];
+        int votes = 0;
+        for (int i = 0; i < count; i++) {
+            if (votes == 0) {
+                candidate = values[i];
+                votes = 1;
+            } else {
+                votes += (values[i] == candidate) ? 1 : -1;
+            }
+        }
+
+        int matches = 0;
+        for (int i = 0; i < count; i++) {
+            if (values[i] == candidate)
+                matches++;
+        }
+        return (matches * 2 > count) ? candidate : values[0];
+    }
+
+    private int read(final int address, final int lane){
+        return memory[address * lanes + lane] & 0xFF;
+    }
+
+    /**
+     * As per {@link Memory#getWord(RoxWord)}, high byte first
+     */
+    private int readWord(final int address, final int lane){
+        return (read(address, lane) << 8) | read(address + 1, lane);
+    }
+
+    private void write(final int address, final int lane, final int value){
+        memory[address * lanes + lane] = (byte) value;
+    }
+
+    /**
+     * The {@link Memory} of a single lane
+     */
+    private final class LaneMemory implements Memory {
+        private final int lane;
+
+        private LaneMemory(int lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void setByteAt(RoxWord location, RoxByte byteValue) {
+            write(location.getRawValue(), lane, byteValue.getRawValue());
+        }
+
+        @Override
+        public void setBlock(RoxWord startLocation, RoxByte[] byteValues) {
+            if (startLocation.getRawValue() + byteValues.length > ADDRESS_SPACE)
+                throw new ArrayIndexOutOfBoundsException(startLocation.getRawValue() + byteValues.length - 1);
+
+            for (int i = 0; i < byteValues.length; i++)
+                write(startLocation.getRawValue() + i, lane, byteValues[i].getRawValue());
+        }
+
+        @Override
+        public RoxByte getByte(RoxWord location) {
+            return BYTE_VALUES[read(location.getRawValue(), lane)];
+        }
+
+        @Override
+        public RoxWord getWord(RoxWord location) {
+            return RoxWord.fromLiteral(readWord(location.getRawValue(), lane));
+        }
+
+        @Override
+        public RoxByte[] getBlock(RoxWord from, RoxWord to) {
+            final RoxByte[] block = new RoxByte[to.getRawValue() - from.getRawValue()];
+            for (int i = 0; i < block.length; i++)
+                block[i] = BYTE_VALUES[read(from.getRawValue() + i, lane)];
+            return block;
+        }
+
+        @Override
+        public void reset() {
+            for (int address = 0; address < ADDRESS_SPACE; address++)
+                write(address, lane, 0);
+        }
+
+        @Override
+        public int getSize() {
+            return ADDRESS_SPACE;
+        }
+    }
+}
@@ -21,185 +21,185 @@ import java.util.stream.Stream;
  * @author Ross Drew
  */
 public enum Mos6502OpCode implements Mos6502Instruction {
-    BRK(0x00),
-
-    ASL_A(0x0A),
-    ASL_Z(0x06),
-    ASL_ABS(0x0E),
-    ASL_Z_IX(0x16),
-    ASL_ABS_IX(0x1E),
-
-    LSR_A(0x4A),
-    LSR_Z(0x46),
-    LSR_Z_IX(0x56),
-    LSR_ABS(0x4E),
-    LSR_ABS_IX(0x5E),
-
-    ADC_Z(0x65),
-    ADC_I(0x69),
-    ADC_ABS(0x6D),
-    ADC_ABS_IX(0x7D),
-    ADC_ABS_IY(0x79),
-    ADC_Z_IX(0x75),
-    ADC_IND_IX(0x61),
-    ADC_IND_IY(0x71),
-
-    LDA_Z(0xA5),
-    LDA_I(0xA9),
-    LDA_ABS(0xAD),
-    LDA_Z_IX(0xB5),
-    LDA_ABS_IY(0xB9),
-    LDA_IND_IX(0xA1),
-    LDA_IND_IY(0xB1),
-    LDA_ABS_IX(0xBD),
-
-    CLV(0xB8),
-
-    AND_Z(0x25),
-    AND_Z_IX(0x35),
-    AND_ABS_IX(0x3D),
-    AND_ABS_IY(0x39),
-    AND_ABS(0x2D),
-    AND_I(0x29),
-    AND_IND_IX(0x21),
-    AND_IND_IY(0x31),
-
-    ORA_I(0x09),
-    ORA_Z(0x05),
-    ORA_Z_IX(0x15),
-    ORA_ABS(0x0D),
-    ORA_ABS_IX(0x1D),
-    ORA_ABS_IY(0x19),
-    ORA_IND_IX(0x01),
-    ORA_IND_IY(0x11),
-
-    EOR_I(0x49),
-    EOR_Z(0x45),
-    EOR_Z_IX(0x55),
-    EOR_ABS(0x4D),
-    EOR_ABS_IX(0x5D),
-    EOR_ABS_IY(0x59),
-    EOR_IND_IX(0x41),
-    EOR_IND_IY(0x51),
-
-    SBC_I(0xE9),
-    SBC_Z(0xE5),
-    SBC_Z_IX(0xF5),
-    SBC_ABS(0xED),
-    SBC_ABS_IX(0xFD),
-    SBC_ABS_IY(0xF9),
-    SBC_IND_IX(0xE1),
-    SBC_IND_IY(0xF1),
-
-    CLC(0x18),
-    SEC(0x38),
-
-    LDY_I(0xA0),
-    LDY_Z(0xA4),
-    LDY_Z_IX(0xB4),
-    LDY_ABS(0xAC),
-    LDY_ABS_IX(0xBC),
-
-    LDX_I(0xA2),
-    LDX_ABS(0xAE),
-    LDX_ABS_IY(0xBE),
-    LDX_Z(0xA6),
-    LDX_Z_IY(0xB6),
-
-    STY_Z(0x84),
-    STY_ABS(0x8C),
-    STY_Z_IX(0x94),
-
-    STA_Z(0x85),
-    STA_ABS(0x8D),
-    STA_Z_IX(0x95),
-    STA_ABS_IX(0x9D),
-    STA_ABS_IY(0x99),
-    STA_IND_IX(0x81),
-    STA_IND_IY(0x91),
-
-    STX_Z(0x86),
-    STX_Z_IY(0x96),
-    STX_ABS(0x8E),
-
-    INY(0xC8),
-    INX(0xE8),
-    DEX(0xCA),
-
-    INC_Z(0xE6),
-    INC_Z_IX(0xF6),
-    INC_ABS(0xEE),
-    INC_ABS_IX(0xFE),
-
-    DEC_Z(0xC6),
-    DEC_Z_IX(0xD6),
-    DEC_ABS(0xCE),
-    DEC_ABS_IX(0xDE),
-    DEY(0x88),
-
-    PHA(0x48),
-    PLA(0x68),
-    PHP(0x08),
-    PLP(0x28),
-
-    NOP(0xEA),
-
-    JMP_ABS(0x4C),
-    JMP_IND(0x6C),
-
-    TAX(0xAA),
-    TAY(0xA8),
-    TYA(0x98),
-    TXA(0x8A),
-    TXS(0x9A),
-    TSX(0xBA),
-
-    BIT_Z(0x24),
-    BIT_ABS(0x2C),
-
-    CMP_I(0xC9),
-    CMP_Z(0xC5),
-    CMP_Z_IX(0xD5),
-    CMP_ABS(0xCD),
-    CMP_ABS_IX(0xDD),
-    CMP_ABS_IY(0xD9),
-    CMP_IND_IX(0xC1),
-    CMP_IND_IY(0xD1),
-
-    CPX_I(0xE0),
-    CPX_Z(0xE4),
-    CPX_ABS(0xEC),
-
-    CPY_I(0xC0),
-    CPY_Z(0xC4),
-    CPY_ABS(0xCC),
-
-    JSR(0x20),
-    BPL(0x10),
-    BMI(0x30),
-    BVC(0x50),
-    BVS(0x70),
-    BCC(0x90),
-    BCS(0xB0),
-    BNE(0xD0),
-    BEQ(0xF0),
-
-    ROL_A(0x2A),
-    ROL_Z(0x26),
-    ROL_Z_IX(0x36),
-    ROL_ABS(0x2E),
-    ROL_ABS_IX(0x3E),
+    BRK(0x00, 7),
+
+    ASL_A(0x0A, 2),
+    ASL_Z(0x06, 5),
+    ASL_ABS(0x0E, 6),
+    ASL_Z_IX(0x16, 6),
+    ASL_ABS_IX(0x1E, 7),
+
+    LSR_A(0x4A, 2),
+    LSR_Z(0x46, 5),
+    LSR_Z_IX(0x56, 6),
+    LSR_ABS(0x4E, 6),
+    LSR_ABS_IX(0x5E, 7),
+
+    ADC_Z(0x65, 3),
+    ADC_I(0x69, 2),
+    ADC_ABS(0x6D, 4),
+    ADC_ABS_IX(0x7D, 4),
+    ADC_ABS_IY(0x79, 4),
+    ADC_Z_IX(0x75, 4),
+    ADC_IND_IX(0x61, 6),
+    ADC_IND_IY(0x71, 5),
+
+    LDA_Z(0xA5, 3),
+    LDA_I(0xA9, 2),
+    LDA_ABS(0xAD, 4),
+    LDA_Z_IX(0xB5, 4),
+    LDA_ABS_IY(0xB9, 4),
+    LDA_IND_IX(0xA1, 6),
+    LDA_IND_IY(0xB1, 5),
+    LDA_ABS_IX(0xBD, 4),
+
+    CLV(0xB8, 2),
+
+    AND_Z(0x25, 3),
+    AND_Z_IX(0x35, 4),
+    AND_ABS_IX(0x3D, 4),
+    AND_ABS_IY(0x39, 4),
+    AND_ABS(0x2D, 4),
+    AND_I(0x29, 2),
+    AND_IND_IX(0x21, 6),
+    AND_IND_IY(0x31, 5),
+
+    ORA_I(0x09, 2),
+    ORA_Z(0x05, 3),
+    ORA_Z_IX(0x15, 4),
+    ORA_ABS(0x0D, 4),
+    ORA_ABS_IX(0x1D, 4),
+    ORA_ABS_IY(0x19, 4),
+    ORA_IND_IX(0x01, 6),
+    ORA_IND_IY(0x11, 5),
+
+    EOR_I(0x49, 2),
+    EOR_Z(0x45, 3),
+    EOR_Z_IX(0x55, 4),
+    EOR_ABS(0x4D, 4),
+    EOR_ABS_IX(0x5D, 4),
+    EOR_ABS_IY(0x59, 4),
+    EOR_IND_IX(0x41, 6),
+    EOR_IND_IY(0x51, 5),
+
+    SBC_I(0xE9, 2),
+    SBC_Z(0xE5, 3),
+    SBC_Z_IX(0xF5, 4),
+    SBC_ABS(0xED, 4),
+    SBC_ABS_IX(0xFD, 4),
+    SBC_ABS_IY(0xF9, 4),
+    SBC_IND_IX(0xE1, 6),
+    SBC_IND_IY(0xF1, 5),
+
+    CLC(0x18, 2),
+    SEC(0x38, 2),
+
+    LDY_I(0xA0, 2),
+    LDY_Z(0xA4, 3),
+    LDY_Z_IX(0xB4, 4),
+    LDY_ABS(0xAC, 4),
+    LDY_ABS_IX(0xBC, 4),
+
+    LDX_I(0xA2, 2),
+    LDX_ABS(0xAE, 4),
+    LDX_ABS_IY(0xBE, 4),
+    LDX_Z(0xA6, 3),
+    LDX_Z_IY(0xB6, 4),
+
+    STY_Z(0x84, 3),
+    STY_ABS(0x8C, 4),
+    STY_Z_IX(0x94, 4),
+
+    STA_Z(0x85, 3),
+    STA_ABS(0x8D, 4),
+    STA_Z_IX(0x95, 4),
+    STA_ABS_IX(0x9D, 5),
+    STA_ABS_IY(0x99, 5),
+    STA_IND_IX(0x81, 6),
+    STA_IND_IY(0x91, 6),
+
+    STX_Z(0x86, 3),
+    STX_Z_IY(0x96, 4),
+    STX_ABS(0x8E, 4),
+
+    INY(0xC8, 2),
+    INX(0xE8, 2),
+    DEX(0xCA, 2),
+
+    INC_Z(0xE6, 5),
+    INC_Z_IX(0xF6, 6),
+    INC_ABS(0xEE, 6),
+    INC_ABS_IX(0xFE, 7),
+
+    DEC_Z(0xC6, 5),
+    DEC_Z_IX(0xD6, 6),
+    DEC_ABS(0xCE, 6),
+    DEC_ABS_IX(0xDE, 7),
+    DEY(0x88, 2),
+
+    PHA(0x48, 3),
+    PLA(0x68, 4),
+    PHP(0x08, 3),
+    PLP(0x28, 4),
+
+    NOP(0xEA, 2),
+
+    JMP_ABS(0x4C, 3),
+    JMP_IND(0x6C, 5),
+
+    TAX(0xAA, 2),
+    TAY(0xA8, 2),
+    TYA(0x98, 2),
+    TXA(0x8A, 2),
+    TXS(0x9A, 2),
+    TSX(0xBA, 2),
+
+    BIT_Z(0x24, 3),
+    BIT_ABS(0x2C, 4),
+
+    CMP_I(0xC9, 2),
+    CMP_Z(0xC5, 3),
+    CMP_Z_IX(0xD5, 4),
+    CMP_ABS(0xCD, 4),
+    CMP_ABS_IX(0xDD, 4),
+    CMP_ABS_IY(0xD9, 4),
+    CMP_IND_IX(0xC1, 6),
+    CMP_IND_IY(0xD1, 5),
+
+    CPX_I(0xE0, 2),
+    CPX_Z(0xE4, 3),
+    CPX_ABS(0xEC, 4),
+
+    CPY_I(0xC0, 2),
+    CPY_Z(0xC4, 3),
+    CPY_ABS(0xCC, 4),
+
+    JSR(0x20, 6),
+    BPL(0x10, 2),
+    BMI(0x30, 2),
+    BVC(0x50, 2),
+    BVS(0x70, 2),
+    BCC(0x90, 2),
+    BCS(0xB0, 2),
+    BNE(0xD0, 2),
+    BEQ(0xF0, 2),
+
+    ROL_A(0x2A, 2),
+    ROL_Z(0x26, 5),
+    ROL_Z_IX(0x36, 6),
+    ROL_ABS(0x2E, 6),
+    ROL_ABS_IX(0x3E, 7),
 
     /** Not implemented and/or not published on older 6502s */
-    ROR_A(0x6A),
+    ROR_A(0x6A, 2),
 
-    CLI(0x58),
-    SEI(0x78),
-    SED(0xF8),
-    CLD(0xD8),
+    CLI(0x58, 2),
+    SEI(0x78, 2),
+    SED(0xF8, 2),
+    CLD(0xD8, 2),
 
-    RTS(0x60),
-    RTI(0x40);
+    RTS(0x60, 6),
+    RTI(0x40, 6);
 
     @Override
     public void perform(Mos6502Alu alu, Registers registers, Memory memory) {
@@ -208,11 +208,13 @@ public enum Mos6502OpCode implements Mos6502Instruction {
 
     private final Mos6502Operation operation;
     private final int byteValue;
+    private final int cycles;
     private final String opCodeName;
     private final Mos6502AddressingMode addressingMode;
 
-    Mos6502OpCode(int byteValue){
+    Mos6502OpCode(int byteValue, int cycles){
         this.byteValue = byteValue;
+        this.cycles = cycles;
         //XXX Should I keep doing this or just pass them in explicitly?
         this.addressingMode = OpCodeConverter.getAddressingMode(this.name());
         this.opCodeName = OpCodeConverter.getOpCode(this.name());
@@ -288,6 +290,14 @@ public enum Mos6502OpCode implements Mos6502Instruction {
         return byteValue;
     }
 
+    /**
+     * @return the base number of CPU cycles taken to execute this {@link Mos6502OpCode}, not including additional
+     *         cycles taken for crossing page boundaries or taking branches
+     */
+    public int getCycles(){
+        return cycles;
+    }
+
     /**
      * @return the human readable {@link String} representing this {@link Mos6502OpCode}
      */
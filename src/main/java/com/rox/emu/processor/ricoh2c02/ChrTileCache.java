@@ -0,0 +1,129 @@
+package com.rox.emu.processor.ricoh2c02;
+
+import com.rox.emu.mem.BankedMemory;
+import com.rox.emu.mem.Memory;
+
+import java.util.Arrays;
+
+/**
+ * The 512 tiles of the two pattern tables at <code>$0000-$1FFF</code> of the PPU address space, decoded from their two
+ * bit planes into one byte per pixel, as is and horizontally flipped, so rendering copies rows of pixel values rather
+ * than decoding bit planes for every tile of every scanline.<br/>
+ * <br/>
+ * Tiles are decoded when first used and then reused until invalidated, which happens per tile when the PPU writes
+ * to character RAM and per bank when the pattern tables are {@link BankedMemory} and a cartridge mapper switches the
+ * bank mapped there, so only the tiles which change are decoded again.
+ *
+ * @author Ross Drew
+ */
+final class ChrTileCache {
+    /** Tiles in both pattern tables */
+    static final int TILE_COUNT = 512;
+    /** Bytes of pattern data per tile */
+    static final int TILE_BYTES = 16;
+    /** The size of both pattern tables in bytes */
+    static final int PATTERN_TABLES_SIZE = TILE_COUNT * TILE_BYTES;
+
+    private static final int TILE_SIZE = 8;
+    private static final int TILE_PIXELS = TILE_SIZE * TILE_SIZE;
+    private static final int FLIPPED_OFFSET = TILE_COUNT * TILE_PIXELS;
+
+    private final Memory patterns;
+    private final BankedMemory bankedPatterns;
+    private final int pageSize;
+    private final Memory[] pageBanks;
+    private final int[] pageBankOffsets;
+
+    private final byte[] pixels = new byte[FLIPPED_OFFSET * 2];
+    private final boolean[] decoded = new boolean[TILE_COUNT];
+
+    /**
+     * @param patterns memory with the pattern tables at <code>$0000-$1FFF</code>
+     */
+    ChrTileCache(final Memory patterns){
+        this.patterns = patterns;
+        this.bankedPatterns = (patterns instanceof BankedMemory) ? (BankedMemory) patterns : null;
+        this.pageSize = (bankedPatterns != null) ? Math.min(bankedPatterns.getPageSize(), PATTERN_TABLES_SIZE) : PATTERN_TABLES_SIZE;
+
+        final int pages = PATTERN_TABLES_SIZE / pageSize;
+        this.pageBanks = new Memory[pages];
+        this.pageBankOffsets = new int[pages];
+    }
+
+    /**
+     * Invalidate the tiles of any page of the pattern tables which has had a different bank mapped onto it since last
+     * checked.  Cheap enough to call before every scanline, as a mapper can switch banks mid frame.
+     */
+    void checkBanks(){
+        if (bankedPatterns == null)
+            return;
+
+        for (int page = 0; page < pageBanks.length; page++) {
+            final int address = page * pageSize;
+            final Memory bank = bankedPatterns.getBankAt(address);
+            final int bankOffset = bankedPatterns.getBankOffsetAt(address);
+            if (bank != pageBanks[page] || bankOffset != pageBankOffsets[page]) {
+                pageBanks[page] = bank;
+                pageBankOffsets[page] = bankOffset;
+                invalidate(address, pageSize);
+            }
+        }
+    }
+
+    /**
+     * @param address in the pattern tables which has been written to
+     */
+    void invalidate(final int address){
+        decoded[(address & (PATTERN_TABLES_SIZE - 1)) / TILE_BYTES] = false;
+    }
+
+    /**
+     * @param address the start of a region of the pattern tables which has changed
+     * @param length of the region in bytes
+     */
+    void invalidate(final int address, final int length){
+        Arrays.fill(decoded, address / TILE_BYTES, (address + length + TILE_BYTES - 1) / TILE_BYTES, false);
+    }
+
+    /**
+     * Invalidate every tile
+     */
+    void invalidateAll(){
+        Arrays.fill(decoded, false);
+    }
+
+    /**
+     * @return decoded pixel values, <code>0-3</code>, indexed by {@link #rowOffset(int, int, boolean)}
+     */
+    byte[] getPixels(){
+        return pixels;
+    }
+
+    /**
+     * @param tile number, <code>0-511</code> across both pattern tables
+     * @param row of the tile, <code>0-7</code>
+     * @param flipped <code>true</code> for the horizontally flipped row
+     * @return the index in {@link #getPixels()} of the first of the 8 pixels of the row, leftmost first
+     */
+    int rowOffset(final int tile, final int row, final boolean flipped){
+        if (!decoded[tile])
+            decode(tile);
+        return (flipped ? FLIPPED_OFFSET : 0) + (tile * TILE_PIXELS) + (row * TILE_SIZE);
+    }
+
+    private void decode(final int tile){
+        final int address = tile * TILE_BYTES;
+        int pixel = tile * TILE_PIXELS;
+        for (int row = 0; row < TILE_SIZE; row++) {
+            final int low = patterns.getRawByte(address + row);
+            final int high = patterns.getRawByte(address + row + TILE_SIZE);
+            for (int column = 0; column < TILE_SIZE; column++, pixel++) {
+                final int bit = 7 - column;
+                final byte value = (byte) (((low >> bit) & 0x01) | (((high >> bit) & 0x01) << 1));
+                pixels[pixel] = value;
+                pixels[FLIPPED_OFFSET + pixel - column + (TILE_SIZE - 1 - column)] = value;
+            }
+        }
+        decoded[tile] = true;
+    }
+}
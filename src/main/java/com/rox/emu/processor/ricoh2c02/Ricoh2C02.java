@@ -1,7 +1,12 @@
 package com.rox.emu.processor.ricoh2c02;
 
 import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
 import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.ReadOnlyMemory;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
 
 /**
  * Emulation of a NES (Nintendo Entertainment System) PPU (Picture Processing Unit) processor, a Ricoh 2C02.<br/>
@@ -13,25 +18,916 @@ import com.rox.emu.mem.Memory;
  *   Two separate, smaller address spaces (These are internal to the PPU itself) hold:
  *   - a palette [static mem], which controls which colors are associated to various indices
  *   - OAM (Object Attribute Memory) [dynamic mem], which stores the position, orientation, shape, and color of the sprites, or independent moving objects.
+ *
+ * <h4>Rendering</h4>
+ * The PPU is {@link #runTo(long) run up to} a CPU cycle count, at 3 PPU dots per CPU cycle, through frames of 262
+ * scanlines of 341 dots.  Rather than fetching a pixel per dot, each visible scanline is rendered whole at dot 257,
+ * from the scroll position, control and mask registers as they are at that point, into a framebuffer of
+ * <code>256x240</code> NES colour indices (see {@link Ricoh2C02Palette} for ARGB).  Background tiles, attributes,
+ * fine scrolling, 8x8 and 8x16 sprites, sprite priority, sprite zero hits and sprite overflow are all rendered;
+ * colour emphasis is not.<br/>
+ * <br/>
+ * Rendering reads memory through {@link Memory#getRawByte(int)} into preallocated line buffers, so running frames
+ * allocates nothing.  Pattern tiles are decoded once into a {@link ChrTileCache} and copied from there a row at a time.
+ * Sprites are evaluated into per scanline lists of up to 8 sprites once each time OAM or the sprite size changes, rather
+ * than evaluating all 64 sprites for every scanline, so OAM written other than through the PPU (i.e.
+ * <code>$2004</code>) needs {@link #invalidateSprites()}.<br/>
+ * <br/>
+ * Frames needn't all be drawn: a {@link #setRenderInterval(int) render interval} draws only every Nth frame, or none,
+ * with others {@link #requestFrame() requested} as needed.  Everything but drawing the picture still happens in frames
+ * which aren't drawn, i.e. for headless runs or a PPU whose picture is drawn elsewhere, with sprite zero hits found
+ * from the rows of sprite zero and the background tiles under it rather than by composing scanlines.<br/>
+ * <br/>
+ * Given a {@link #setCatchUpClock(LongSupplier) catch up clock}, the PPU runs itself up to the CPU before every
+ * register access, so the CPU need only run it when it could otherwise miss something, at the
+ * {@link #getNextEventCycle() next event} it would raise unasked, and at the end of a frame.
  */
 public class Ricoh2C02 {
+    /**
+     * Observes CPU accesses to the memory mapped registers, i.e. to replay them on another PPU
+     */
+    public interface RegisterListener {
+        /**
+         * Called before the read takes effect
+         *
+         * @param address of the register
+         */
+        void registerRead(int address);
+
+        /**
+         * Called before the write takes effect
+         *
+         * @param address of the register
+         * @param value written
+         */
+        void registerWritten(int address, int value);
+    }
+
+    /** Width of the picture in pixels */
+    public static final int SCREEN_WIDTH = 256;
+    /** Height of the picture in pixels */
+    public static final int SCREEN_HEIGHT = 240;
+    /** PPU dots run for every CPU cycle */
+    public static final int DOTS_PER_CPU_CYCLE = 3;
+    /** PPU dots in a scanline */
+    public static final int DOTS_PER_SCANLINE = 341;
+    /** Scanlines in a frame, including vertical blank and the pre-render scanline */
+    public static final int SCANLINES_PER_FRAME = 262;
+    /** The scanline on which vertical blank begins */
+    public static final int VBLANK_SCANLINE = 241;
+    /** The scanline before the first visible scanline, on which vertical blank ends */
+    public static final int PRE_RENDER_SCANLINE = 261;
+
+    /** The first CPU address of the memory mapped registers, mirrored every 8 bytes up to <code>$3FFF</code> */
+    public static final int REGISTER_ADDRESS = 0x2000;
+    /** The number of memory mapped registers */
+    public static final int REGISTER_COUNT = 8;
+    /** The CPU address which starts an OAM DMA transfer from the page written to it */
+    public static final int OAM_DMA_ADDRESS = 0x4014;
+    /** CPU cycles an OAM DMA transfer stalls the CPU for, plus one when it starts on an odd cycle */
+    public static final int OAM_DMA_CYCLES = 513;
+    /** The size of OAM in bytes */
+    public static final int OAM_SIZE = 0x100;
+
+    private static final int PPUCTRL = 0;
+    private static final int PPUMASK = 1;
+    private static final int PPUSTATUS = 2;
+    private static final int OAMADDR = 3;
+    private static final int OAMDATA = 4;
+    private static final int PPUSCROLL = 5;
+    private static final int PPUADDR = 6;
+    private static final int PPUDATA = 7;
+
+    private static final int CTRL_INCREMENT_32 = 0x04;
+    private static final int CTRL_SPRITE_TABLE = 0x08;
+    private static final int CTRL_BACKGROUND_TABLE = 0x10;
+    private static final int CTRL_SPRITE_8X16 = 0x20;
+    private static final int CTRL_NMI_ENABLE = 0x80;
+
+    private static final int MASK_GREYSCALE = 0x01;
+    private static final int MASK_BACKGROUND_LEFT = 0x02;
+    private static final int MASK_SPRITES_LEFT = 0x04;
+    private static final int MASK_BACKGROUND = 0x08;
+    private static final int MASK_SPRITES = 0x10;
+
+    private static final int STATUS_SPRITE_OVERFLOW = 0x20;
+    private static final int STATUS_SPRITE_ZERO_HIT = 0x40;
+    private static final int STATUS_VBLANK = 0x80;
+
+    private static final int SPRITE_FLIP_VERTICAL = 0x80;
+    private static final int SPRITE_FLIP_HORIZONTAL = 0x40;
+    private static final int SPRITE_BEHIND_BACKGROUND = 0x20;
+
+    private static final int ADDRESS_MASK = 0x3FFF;
+    private static final int NAMETABLE_ADDRESS = 0x2000;
+    private static final int ATTRIBUTE_ADDRESS = 0x23C0;
+    private static final int PALETTE_ADDRESS = 0x3F00;
+    private static final int PALETTE_SIZE = 0x20;
+    private static final int PATTERN_TABLE_TILES = 0x100;
+
+    private static final int TILE_SIZE = 8;
+    private static final int TILES_PER_LINE = (SCREEN_WIDTH / TILE_SIZE) + 1;
+    private static final int SPRITE_COUNT = 64;
+    private static final int MAX_SPRITES_PER_LINE = 8;
+
+    private static final int RENDER_DOT = 257;
+    private static final int SCANLINE_CLOCK_DOT = 260;
+    private static final int VERTICAL_COPY_DOT = 305;
+
+    /** Line buffer flags above the 5 bit palette entry of a sprite pixel */
+    private static final int PIXEL_PALETTE_MASK = 0x1F;
+    private static final int PIXEL_BEHIND_BACKGROUND = 0x20;
+    private static final int PIXEL_SPRITE_ZERO = 0x40;
+
     private final Memory vRam;
     private final Memory oam;
-    private final Ricoh2C02Registers registers;
+    private final ChrTileCache tiles;
+
+    private final int[] framebuffer = new int[SCREEN_WIDTH * SCREEN_HEIGHT];
+    private final int[] palette = new int[PALETTE_SIZE];
+    private final int[] backgroundLine = new int[TILES_PER_LINE * TILE_SIZE];
+    private final int[] spriteLine = new int[SCREEN_WIDTH];
+    private final int[] lineSprites = new int[SCREEN_HEIGHT * MAX_SPRITES_PER_LINE];
+    private final int[] lineSpriteCounts = new int[SCREEN_HEIGHT];
+    private final boolean[] lineOverflows = new boolean[SCREEN_HEIGHT];
+    private final boolean[] spriteZeroLines = new boolean[SCREEN_HEIGHT];
+    private final Memory registerMemory = new RegisterMemory();
+
+    private int control;
+    private int mask;
+    private int status;
+    private int oamAddress;
+    private int vramAddress;
+    private int tempAddress;
+    private int fineX;
+    private boolean writeToggle;
+    private int readBuffer;
+    private int openBus;
 
-    public Ricoh2C02(final Memory vRam,
-                     final Memory oam,
-                     final Ricoh2C02Registers registers) {
+    private long dots;
+    private int scanline;
+    private int dot;
+    private long frame;
+    private boolean nmiPending;
+    private boolean spritesEvaluated;
+    private Runnable scanlineClock;
+    private Runnable frameListener;
+    private LongSupplier catchUpClock;
+    private long nextEventCycle;
+    private boolean nextEventKnown;
+    private RegisterListener registerListener;
+    private int renderInterval = 1;
+    private boolean frameRequested;
+    private boolean drawingFrame = true;
+
+    /**
+     * A PPU whose registers are accessed through {@link #getRegisterMemory()}
+     *
+     * @param vRam the PPU address space, pattern tables from <code>$0000</code> and nametables from <code>$2000</code>
+     * @param oam 256 bytes of object attribute memory
+     */
+    public Ricoh2C02(final Memory vRam, final Memory oam) {
         this.vRam = vRam;
         this.oam = oam;
-        this.registers = registers;
+        this.tiles = new ChrTileCache(vRam);
+    }
+
+    /**
+     * Return the registers to their power up state and forget any decoded tiles, in case memory was reset too.  Timing,
+     * memory and the framebuffer are unaffected.
+     */
+    public void reset(){
+        control = 0;
+        mask = 0;
+        tempAddress = 0;
+        fineX = 0;
+        writeToggle = false;
+        readBuffer = 0;
+        nmiPending = false;
+        nextEventKnown = false;
+        tiles.invalidateAll();
+        invalidateSprites();
+    }
+
+    /**
+     * Have sprites evaluated again before the next scanline is rendered, after OAM has been written other than through
+     * the PPU
+     */
+    public void invalidateSprites(){
+        spritesEvaluated = false;
+    }
+
+    /**
+     * @return the registers as seen by the CPU, 8 bytes to be mapped (and mirrored) from {@link #REGISTER_ADDRESS}
+     */
+    public Memory getRegisterMemory(){
+        return registerMemory;
+    }
+
+    /**
+     * A CPU read of a memory mapped register, with any side effects that has, i.e. clearing vertical blank
+     *
+     * @param address of the register, only the lowest 3 bits of which are significant
+     * @return the value read
+     */
+    public int readRegister(final int address){
+        catchUp();
+        if (registerListener != null)
+            registerListener.registerRead(address);
+
+        switch (address & (REGISTER_COUNT - 1)) {
+            case PPUSTATUS:
+                openBus = (status & 0xE0) | (openBus & 0x1F);
+                status &= ~STATUS_VBLANK;
+                writeToggle = false;
+                break;
+            case OAMDATA:
+                openBus = oam.getRawByte(oamAddress);
+                break;
+            case PPUDATA:
+                openBus = readData();
+                break;
+            default:
+                //Write only registers read back whatever was last on the bus
+                break;
+        }
+        return openBus;
+    }
+
+    /**
+     * A CPU write to a memory mapped register
+     *
+     * @param address of the register, only the lowest 3 bits of which are significant
+     * @param value written
+     */
+    public void writeRegister(final int address, final int value){
+        catchUp();
+        if (registerListener != null)
+            registerListener.registerWritten(address, value);
+
+        nextEventKnown = false;
+        openBus = value & 0xFF;
+        switch (address & (REGISTER_COUNT - 1)) {
+            case PPUCTRL:
+                if ((control & CTRL_NMI_ENABLE) == 0 && (value & CTRL_NMI_ENABLE) != 0 && (status & STATUS_VBLANK) != 0)
+                    nmiPending = true;
+                if (((control ^ value) & CTRL_SPRITE_8X16) != 0)
+                    invalidateSprites();
+                control = openBus;
+                tempAddress = (tempAddress & ~0x0C00) | ((value & 0x03) << 10);
+                break;
+            case PPUMASK:
+                mask = openBus;
+                break;
+            case OAMADDR:
+                oamAddress = openBus;
+                break;
+            case OAMDATA:
+                oam.setByteAt(RoxWord.fromLiteral(oamAddress), RoxByte.fromLiteral(value));
+                oamAddress = (oamAddress + 1) & 0xFF;
+                invalidateSprites();
+                break;
+            case PPUSCROLL:
+                if (writeToggle) {
+                    tempAddress = (tempAddress & ~0x73E0) | ((value & 0x07) << 12) | ((value & 0xF8) << 2);
+                } else {
+                    tempAddress = (tempAddress & ~0x001F) | ((value & 0xFF) >> 3);
+                    fineX = value & 0x07;
+                }
+                writeToggle = !writeToggle;
+                break;
+            case PPUADDR:
+                if (writeToggle) {
+                    tempAddress = (tempAddress & 0x7F00) | (value & 0xFF);
+                    vramAddress = tempAddress;
+                } else {
+                    tempAddress = (tempAddress & 0x00FF) | ((value & 0x3F) << 8);
+                }
+                writeToggle = !writeToggle;
+                break;
+            case PPUDATA:
+                writeData(openBus);
+                break;
+            default:
+                //PPUSTATUS is read only
+                break;
+        }
+    }
+
+    private int readData(){
+        final int address = vramAddress & ADDRESS_MASK;
+        final int value;
+        if (address >= PALETTE_ADDRESS) {
+            //Palette reads aren't buffered, but the nametable byte "underneath" is
+            value = palette[paletteIndex(address)];
+            readBuffer = vRam.getRawByte(address - 0x1000);
+        } else {
+            value = readBuffer;
+            readBuffer = vRam.getRawByte(address);
+        }
+        incrementAddress();
+        return value;
+    }
+
+    private void writeData(final int value){
+        final int address = vramAddress & ADDRESS_MASK;
+        if (address >= PALETTE_ADDRESS) {
+            palette[paletteIndex(address)] = value & 0x3F;
+        } else {
+            vRam.setByteAt(RoxWord.fromLiteral(address), RoxByte.fromLiteral(value));
+            if (address < ChrTileCache.PATTERN_TABLES_SIZE)
+                tiles.invalidate(address);
+        }
+        incrementAddress();
+    }
+
+    private void incrementAddress(){
+        vramAddress = (vramAddress + (((control & CTRL_INCREMENT_32) != 0) ? 32 : 1)) & 0x7FFF;
+    }
+
+    private static int paletteIndex(final int address){
+        final int index = address & (PALETTE_SIZE - 1);
+        //Sprite backdrop entries mirror the background ones
+        return ((index & 0x13) == 0x10) ? index & 0x0F : index;
+    }
+
+    /**
+     * Fill OAM from a 256 byte page of CPU memory, as writing each byte to <code>$2004</code> would, in bulk
+     *
+     * @param cpuMemory to copy from
+     * @param page number, the high byte of the address to copy from
+     */
+    public void oamDma(final Memory cpuMemory, final int page){
+        final int address = (page & 0xFF) << 8;
+        final int untilWrap = OAM_SIZE - oamAddress;
+
+        cpuMemory.copyTo(address, oam, oamAddress, untilWrap);
+        if (oamAddress != 0)
+            cpuMemory.copyTo(address + untilWrap, oam, 0, oamAddress);
+        invalidateSprites();
+    }
+
+    /**
+     * @param clock called at the end of each rendered scanline, i.e. for a mapper counting scanlines, or <code>null</code>
+     */
+    public void setScanlineClock(final Runnable clock){
+        this.scanlineClock = clock;
+        this.nextEventKnown = false;
+    }
+
+    /**
+     * @param clock giving the CPU cycle to run up to before each register access, i.e. the cycle the accessing
+     *              instruction started on, or <code>null</code> to leave all running to {@link #runTo(long)}
+     */
+    public void setCatchUpClock(final LongSupplier clock){
+        this.catchUpClock = clock;
+    }
+
+    /**
+     * Run up to the {@link #setCatchUpClock(LongSupplier) catch up clock}, if there is one, i.e. before something
+     * outside the PPU changes what it draws
+     */
+    public void catchUp(){
+        if (catchUpClock != null)
+            runTo(catchUpClock.getAsLong());
+    }
+
+    /**
+     * The first CPU cycle which running up to would raise an NMI or clock the scanline clock, as things stand.  Anything
+     * which could change that is a register write, which recalculates it.
+     *
+     * @return the CPU cycle of the next event the CPU could see without accessing the registers, or
+     *         {@link Long#MAX_VALUE} if there won't be one
+     */
+    public long getNextEventCycle(){
+        if (!nextEventKnown) {
+            long untilEvent = Long.MAX_VALUE;
+            if ((control & CTRL_NMI_ENABLE) != 0)
+                untilEvent = dotsUntil(VBLANK_SCANLINE, 1);
+            if (scanlineClock != null && isRendering())
+                untilEvent = Math.min(untilEvent, dotsUntilScanlineClock());
+
+            nextEventCycle = (untilEvent == Long.MAX_VALUE) ? Long.MAX_VALUE :
+                             (dots + untilEvent + DOTS_PER_CPU_CYCLE - 1) / DOTS_PER_CPU_CYCLE;
+            nextEventKnown = true;
+        }
+        return nextEventCycle;
+    }
+
+    private long dotsUntilScanlineClock(){
+        final boolean renderedScanline = scanline < SCREEN_HEIGHT || scanline == PRE_RENDER_SCANLINE;
+        if (renderedScanline && dot < SCANLINE_CLOCK_DOT)
+            return dotsUntil(scanline, SCANLINE_CLOCK_DOT);
+        if (scanline < SCREEN_HEIGHT - 1)
+            return dotsUntil(scanline + 1, SCANLINE_CLOCK_DOT);
+        if (scanline < PRE_RENDER_SCANLINE)
+            return dotsUntil(PRE_RENDER_SCANLINE, SCANLINE_CLOCK_DOT);
+        return dotsUntil(0, SCANLINE_CLOCK_DOT);
+    }
+
+    /**
+     * @return the dots from now until <code>targetDot</code> of <code>targetScanline</code>, in the next frame if this
+     *         one is already past it, if rendering doesn't change in between
+     */
+    private long dotsUntil(final int targetScanline, final int targetDot){
+        long untilFrameEnd = 0;
+        int fromScanline = scanline;
+        int fromDot = dot;
+        if (fromScanline > targetScanline || (fromScanline == targetScanline && fromDot >= targetDot)) {
+            untilFrameEnd = ((long) (PRE_RENDER_SCANLINE - fromScanline) * DOTS_PER_SCANLINE) + preRenderScanlineLength() - fromDot;
+            fromScanline = 0;
+            fromDot = 0;
+        }
+        return untilFrameEnd + ((long) (targetScanline - fromScanline) * DOTS_PER_SCANLINE) + targetDot - fromDot;
+    }
+
+    /**
+     * @return the dots in the pre-render scanline of this frame, a dot short on odd frames when rendering
+     */
+    private int preRenderScanlineLength(){
+        return ((frame & 1) != 0 && isRendering()) ? DOTS_PER_SCANLINE - 1 : DOTS_PER_SCANLINE;
+    }
+
+    /**
+     * @param listener called at the start of vertical blank, once the picture of each frame is complete, or
+     *                 <code>null</code>
+     */
+    public void setFrameListener(final Runnable listener){
+        this.frameListener = listener;
+    }
+
+    /**
+     * @param listener to observe CPU accesses to the registers, or <code>null</code>
+     */
+    public void setRegisterListener(final RegisterListener listener){
+        this.registerListener = listener;
+    }
+
+    /**
+     * Draw only every <code>interval</code>th frame into the framebuffer, keeping all timing, register and flag
+     * behaviour of the others.  Takes effect immediately, so is best set between frames.
+     *
+     * @param interval between frames drawn, <code>1</code> (the default) to draw every frame or <code>0</code> to draw
+     *                 only frames {@link #requestFrame() requested}
+     */
+    public void setRenderInterval(final int interval){
+        if (interval < 0)
+            throw new IllegalArgumentException("Render interval cannot be negative, not " + interval);
+
+        this.renderInterval = interval;
+        this.drawingFrame = isFrameDrawn();
+    }
+
+    /**
+     * @return the interval between frames drawn, <code>0</code> for only those requested
+     */
+    public int getRenderInterval(){
+        return renderInterval;
+    }
+
+    /**
+     * Draw the next frame whatever the {@link #setRenderInterval(int) render interval}, i.e. for a screenshot, which is
+     * complete when vertical blank next starts
+     */
+    public void requestFrame(){
+        frameRequested = true;
+    }
+
+    /**
+     * @return <code>true</code> if this frame is being drawn into the framebuffer
+     */
+    public boolean isDrawingFrame(){
+        return drawingFrame;
+    }
+
+    private boolean isFrameDrawn(){
+        return (renderInterval > 0 && (frame % renderInterval) == 0);
+    }
+
+    /**
+     * @return <code>true</code> if a non maskable interrupt has been raised since last asked, clearing it
+     */
+    public boolean pollNmi(){
+        final boolean raised = nmiPending;
+        nmiPending = false;
+        return raised;
+    }
+
+    /**
+     * Run until the PPU has caught up with <code>cpuCycle</code> CPU cycles since creation
+     *
+     * @param cpuCycle to run up to
+     */
+    public void runTo(final long cpuCycle){
+        final long targetDots = cpuCycle * DOTS_PER_CPU_CYCLE;
+        if (dots < targetDots)
+            nextEventKnown = false;
+
+        while (dots < targetDots) {
+            final int eventDot = nextEventDot();
+            final long remaining = targetDots - dots;
+            if (remaining < eventDot - dot) {
+                dot += (int) remaining;
+                dots = targetDots;
+                return;
+            }
+
+            dots += eventDot - dot;
+            dot = eventDot;
+            runEvent();
+        }
+    }
+
+    private int nextEventDot(){
+        if (dot < 1)
+            return 1;
+        if (dot < RENDER_DOT)
+            return RENDER_DOT;
+        if (dot < SCANLINE_CLOCK_DOT)
+            return SCANLINE_CLOCK_DOT;
+        if (dot < VERTICAL_COPY_DOT)
+            return VERTICAL_COPY_DOT;
+
+        return (scanline == PRE_RENDER_SCANLINE) ? preRenderScanlineLength() : DOTS_PER_SCANLINE;
+    }
+
+    private void runEvent(){
+        final boolean renderedScanline = scanline < SCREEN_HEIGHT || scanline == PRE_RENDER_SCANLINE;
+        switch (dot) {
+            case 1:
+                if (scanline == VBLANK_SCANLINE) {
+                    status |= STATUS_VBLANK;
+                    if ((control & CTRL_NMI_ENABLE) != 0)
+                        nmiPending = true;
+                    if (frameListener != null)
+                        frameListener.run();
+                } else if (scanline == PRE_RENDER_SCANLINE) {
+                    status &= ~(STATUS_VBLANK | STATUS_SPRITE_ZERO_HIT | STATUS_SPRITE_OVERFLOW);
+                }
+                break;
+            case RENDER_DOT:
+                if (scanline < SCREEN_HEIGHT)
+                    renderScanline();
+                if (renderedScanline && isRendering()) {
+                    incrementY();
+                    vramAddress = (vramAddress & ~0x041F) | (tempAddress & 0x041F);
+                }
+                break;
+            case SCANLINE_CLOCK_DOT:
+                if (renderedScanline && isRendering() && scanlineClock != null)
+                    scanlineClock.run();
+                break;
+            case VERTICAL_COPY_DOT:
+                if (scanline == PRE_RENDER_SCANLINE && isRendering())
+                    vramAddress = (vramAddress & ~0x7BE0) | (tempAddress & 0x7BE0);
+                break;
+            default:
+                dot = 0;
+                if (scanline == PRE_RENDER_SCANLINE) {
+                    scanline = 0;
+                    frame++;
+                    drawingFrame = frameRequested || isFrameDrawn();
+                    frameRequested = false;
+                } else {
+                    scanline++;
+                }
+                break;
+        }
+    }
+
+    private boolean isRendering(){
+        return (mask & (MASK_BACKGROUND | MASK_SPRITES)) != 0;
+    }
+
+    private void incrementY(){
+        if ((vramAddress & 0x7000) != 0x7000) {
+            vramAddress += 0x1000;
+            return;
+        }
+
+        vramAddress &= ~0x7000;
+        int coarseY = (vramAddress & 0x03E0) >> 5;
+        if (coarseY == 29) {
+            coarseY = 0;
+            vramAddress ^= 0x0800;
+        } else if (coarseY == 31) {
+            coarseY = 0;
+        } else {
+            coarseY++;
+        }
+        vramAddress = (vramAddress & ~0x03E0) | (coarseY << 5);
+    }
+
+    private void renderScanline(){
+        final int lineStart = scanline * SCREEN_WIDTH;
+        if (!isRendering()) {
+            if (drawingFrame)
+                Arrays.fill(framebuffer, lineStart, lineStart + SCREEN_WIDTH, palette[0]);
+            return;
+        }
+
+        if (!spritesEvaluated)
+            evaluateSprites();
+        if (lineOverflows[scanline])
+            status |= STATUS_SPRITE_OVERFLOW;
+        if (!drawingFrame) {
+            if (canHitSpriteZero()) {
+                tiles.checkBanks();
+                findSpriteZeroHit();
+            }
+            return;
+        }
+
+        tiles.checkBanks();
+        if ((mask & MASK_BACKGROUND) != 0)
+            fetchBackground();
+        else
+            Arrays.fill(backgroundLine, 0);
+
+        Arrays.fill(spriteLine, 0);
+        if ((mask & MASK_SPRITES) != 0) {
+            //Lowest OAM index last, so it has priority
+            final int firstSprite = scanline * MAX_SPRITES_PER_LINE;
+            for (int sprite = firstSprite + lineSpriteCounts[scanline] - 1; sprite >= firstSprite; sprite--)
+                fetchSprite(lineSprites[sprite]);
+        }
+
+        final int greyscale = ((mask & MASK_GREYSCALE) != 0) ? 0x30 : 0x3F;
+        final int backgroundStart = ((mask & MASK_BACKGROUND_LEFT) != 0) ? 0 : TILE_SIZE;
+        final int spriteStart = ((mask & MASK_SPRITES_LEFT) != 0) ? 0 : TILE_SIZE;
+        for (int x = 0; x < SCREEN_WIDTH; x++) {
+            final int background = (x >= backgroundStart) ? backgroundLine[x + fineX] : 0;
+            final int sprite = (x >= spriteStart) ? spriteLine[x] : 0;
+
+            final int entry;
+            if (sprite == 0) {
+                entry = background;
+            } else if (background == 0) {
+                entry = sprite & PIXEL_PALETTE_MASK;
+            } else {
+                if ((sprite & PIXEL_SPRITE_ZERO) != 0 && x != SCREEN_WIDTH - 1)
+                    status |= STATUS_SPRITE_ZERO_HIT;
+                entry = ((sprite & PIXEL_BEHIND_BACKGROUND) != 0) ? background : sprite & PIXEL_PALETTE_MASK;
+            }
+
+            framebuffer[lineStart + x] = palette[entry] & greyscale;
+        }
+    }
+
+    /**
+     * @return <code>true</code> if sprite zero could hit the background on this scanline
+     */
+    private boolean canHitSpriteZero(){
+        return spriteZeroLines[scanline]
+               && (status & STATUS_SPRITE_ZERO_HIT) == 0
+               && (mask & (MASK_BACKGROUND | MASK_SPRITES)) == (MASK_BACKGROUND | MASK_SPRITES);
     }
 
-    public RoxByte getRegister(Ricoh2C02Registers.Register register){
-        return registers.getRegister(register);
+    /**
+     * Set the sprite zero hit flag if an opaque pixel of sprite zero is over an opaque background pixel on this
+     * scanline, as composing it would, without composing it
+     */
+    private void findSpriteZeroHit(){
+        final byte[] pixels = tiles.getPixels();
+        final int spriteRow = spriteRowOffset(0);
+        final int spriteX = oam.getRawByte(3);
+        final int start = ((mask & MASK_BACKGROUND_LEFT) != 0 && (mask & MASK_SPRITES_LEFT) != 0) ? 0 : TILE_SIZE;
+
+        //Never on the last pixel of the scanline
+        for (int column = 0; column < TILE_SIZE && spriteX + column < SCREEN_WIDTH - 1; column++) {
+            final int x = spriteX + column;
+            if (x >= start && pixels[spriteRow + column] != 0 && backgroundPixel(x + fineX) != 0) {
+                status |= STATUS_SPRITE_ZERO_HIT;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param lineX position in the 33 tiles of the scanline, as in the background line buffer
+     * @return the pattern value, <code>0-3</code>, of the background pixel there, <code>0</code> being transparent
+     */
+    private int backgroundPixel(final int lineX){
+        int address = vramAddress;
+        final int coarseX = (address & 0x001F) + (lineX >> 3);
+        if (coarseX > 31)
+            address ^= 0x0400;
+        address = (address & ~0x001F) | (coarseX & 0x001F);
+
+        final int patternTable = ((control & CTRL_BACKGROUND_TABLE) != 0) ? PATTERN_TABLE_TILES : 0;
+        final int tileIndex = vRam.getRawByte(NAMETABLE_ADDRESS | (address & 0x0FFF));
+        return tiles.getPixels()[tiles.rowOffset(patternTable + tileIndex, (vramAddress >> 12) & 0x07, false) + (lineX & 0x07)];
+    }
+
+    /**
+     * Decode the 33 tiles the scanline touches, at the current scroll position, into palette entries
+     */
+    private void fetchBackground(){
+        final int patternTable = ((control & CTRL_BACKGROUND_TABLE) != 0) ? PATTERN_TABLE_TILES : 0;
+        final int fineY = (vramAddress >> 12) & 0x07;
+        final byte[] pixels = tiles.getPixels();
+
+        int address = vramAddress;
+        for (int tile = 0; tile < TILES_PER_LINE; tile++) {
+            final int tileIndex = vRam.getRawByte(NAMETABLE_ADDRESS | (address & 0x0FFF));
+            final int attribute = vRam.getRawByte(ATTRIBUTE_ADDRESS | (address & 0x0C00) | ((address >> 4) & 0x38) | ((address >> 2) & 0x07));
+            final int attributeShift = ((address >> 4) & 0x04) | (address & 0x02);
+            final int paletteBits = ((attribute >> attributeShift) & 0x03) << 2;
+
+            final int row = tiles.rowOffset(patternTable + tileIndex, fineY, false);
+            final int pixelStart = tile * TILE_SIZE;
+            for (int column = 0; column < TILE_SIZE; column++) {
+                final int pixel = pixels[row + column];
+                backgroundLine[pixelStart + column] = (pixel == 0) ? 0 : (paletteBits | pixel);
+            }
+
+            //Increment coarse X, into the horizontally adjacent nametable after the 32nd tile
+            if ((address & 0x001F) == 31)
+                address = (address & ~0x001F) ^ 0x0400;
+            else
+                address++;
+        }
     }
 
-    public void setRegister(Ricoh2C02Registers.Register register, RoxByte value) {
-        this.registers.setRegister(register, value);
+    /**
+     * List the first 8 sprites in OAM on each scanline, noting the scanlines with more, and those with sprite zero on
+     * them
+     */
+    private void evaluateSprites(){
+        Arrays.fill(lineSpriteCounts, 0);
+        Arrays.fill(lineOverflows, false);
+        Arrays.fill(spriteZeroLines, false);
+
+        final int height = spriteHeight();
+        for (int sprite = 0; sprite < SPRITE_COUNT; sprite++) {
+            //Sprites are drawn from the scanline after their Y coordinate
+            final int top = oam.getRawByte(sprite << 2) + 1;
+            final int bottom = Math.min(top + height, SCREEN_HEIGHT);
+            for (int line = top; line < bottom; line++) {
+                final int count = lineSpriteCounts[line];
+                if (count == MAX_SPRITES_PER_LINE) {
+                    lineOverflows[line] = true;
+                    continue;
+                }
+
+                lineSprites[(line * MAX_SPRITES_PER_LINE) + count] = sprite;
+                lineSpriteCounts[line] = count + 1;
+            }
+            if (sprite == 0 && top < bottom)
+                Arrays.fill(spriteZeroLines, top, bottom, true);
+        }
+        spritesEvaluated = true;
+    }
+
+    /**
+     * @param line a visible scanline
+     * @return <code>true</code> if sprite zero is on <code>line</code>, so could set the sprite zero hit flag there
+     */
+    boolean isSpriteZeroLine(final int line){
+        if (!spritesEvaluated)
+            evaluateSprites();
+        return spriteZeroLines[line];
+    }
+
+    private int spriteHeight(){
+        return ((control & CTRL_SPRITE_8X16) != 0) ? 16 : 8;
+    }
+
+    private void fetchSprite(final int sprite){
+        final int entry = sprite << 2;
+        final int attributes = oam.getRawByte(entry + 2);
+        final int x = oam.getRawByte(entry + 3);
+
+        final byte[] pixels = tiles.getPixels();
+        final int rowOffset = spriteRowOffset(sprite);
+
+        final int flags = 0x10 | ((attributes & 0x03) << 2)
+                        | (((attributes & SPRITE_BEHIND_BACKGROUND) != 0) ? PIXEL_BEHIND_BACKGROUND : 0)
+                        | ((sprite == 0) ? PIXEL_SPRITE_ZERO : 0);
+        for (int column = 0; column < TILE_SIZE && x + column < SCREEN_WIDTH; column++) {
+            final int pixel = pixels[rowOffset + column];
+            if (pixel != 0)
+                spriteLine[x + column] = flags | pixel;
+        }
+    }
+
+    /**
+     * @param sprite on this scanline
+     * @return the index in the decoded tile pixels of the row of <code>sprite</code> on this scanline, flipped as it
+     *         should be
+     */
+    private int spriteRowOffset(final int sprite){
+        final int entry = sprite << 2;
+        final int height = spriteHeight();
+        int tile = oam.getRawByte(entry + 1);
+        final int attributes = oam.getRawByte(entry + 2);
+
+        int row = scanline - oam.getRawByte(entry) - 1;
+        if ((attributes & SPRITE_FLIP_VERTICAL) != 0)
+            row = height - 1 - row;
+
+        final int patternTable;
+        if (height == 16) {
+            patternTable = (tile & 0x01) * PATTERN_TABLE_TILES;
+            tile &= 0xFE;
+            if (row >= TILE_SIZE) {
+                tile++;
+                row -= TILE_SIZE;
+            }
+        } else {
+            patternTable = ((control & CTRL_SPRITE_TABLE) != 0) ? PATTERN_TABLE_TILES : 0;
+        }
+
+        return tiles.rowOffset(patternTable + tile, row, (attributes & SPRITE_FLIP_HORIZONTAL) != 0);
+    }
+
+    /**
+     * @return the picture, <code>256x240</code> NES colour indices by row, updated in place as scanlines are rendered
+     */
+    public int[] getFramebuffer(){
+        return framebuffer;
+    }
+
+    /**
+     * @return the number of frames started since creation
+     */
+    public long getFrame(){
+        return frame;
+    }
+
+    /**
+     * @return the number of CPU cycles since creation the PPU has {@link #runTo(long) run up to}
+     */
+    public long getCycles(){
+        return dots / DOTS_PER_CPU_CYCLE;
+    }
+
+    /**
+     * @return the scanline being run, <code>0-239</code> being visible
+     */
+    public int getScanline(){
+        return scanline;
+    }
+
+    /**
+     * @return the dot being run in the current scanline
+     */
+    public int getDot(){
+        return dot;
+    }
+
+    /**
+     * The registers as seen by the CPU, mirrored every 8 bytes
+     */
+    private final class RegisterMemory implements Memory {
+        @Override
+        public void setByteAt(RoxWord location, RoxByte byteValue) {
+            writeRegister(location.getRawValue(), byteValue.getRawValue());
+        }
+
+        @Override
+        public void setByteAt(int address, RoxByte byteValue) {
+            writeRegister(address, byteValue.getRawValue());
+        }
+
+        @Override
+        public void setBlock(RoxWord startLocation, RoxByte[] byteValues) {
+            int address = startLocation.getRawValue();
+            for (RoxByte byteValue : byteValues)
+                writeRegister(address++, byteValue.getRawValue());
+        }
+
+        @Override
+        public RoxByte getByte(RoxWord location) {
+            return ReadOnlyMemory.valueOf(readRegister(location.getRawValue()));
+        }
+
+        @Override
+        public int getRawByte(int address) {
+            return readRegister(address);
+        }
+
+        @Override
+        public RoxWord getWord(RoxWord location) {
+            return RoxWord.from(getByte(location), getByte(RoxWord.fromLiteral(location.getRawValue() + 1)));
+        }
+
+        @Override
+        public RoxByte[] getBlock(RoxWord from, RoxWord to) {
+            final RoxByte[] block = new RoxByte[to.getRawValue() - from.getRawValue()];
+            for (int i = 0; i < block.length; i++)
+                block[i] = getByte(RoxWord.fromLiteral(from.getRawValue() + i));
+            return block;
+        }
+
+        @Override
+        public void reset() {
+            Ricoh2C02.this.reset();
+        }
+
+        @Override
+        public int getSize() {
+            return REGISTER_COUNT;
+        }
     }
 }
@@ -4,10 +4,14 @@ import com.rox.emu.mem.ReadOnlyMemory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.Arrays;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 /**
  * A representation of an iNES ROM file.
@@ -35,15 +39,15 @@ public final class InesRom {
     private final byte[] footer;
 
     private InesRom(final InesRomHeader header,
-                    final byte[] trainerRom,
-                    final byte[] prgRom,
-                    final byte[] chrRom,
+                    final ReadOnlyMemory trainerRom,
+                    final ReadOnlyMemory prgRom,
+                    final ReadOnlyMemory chrRom,
                     final byte[] footer){
         this.header = header;
 
-        this.programRom = new ReadOnlyMemory(prgRom);
-        this.characterRom = new ReadOnlyMemory(chrRom);
-        this.trainerRom = new ReadOnlyMemory(trainerRom);
+        this.programRom = prgRom;
+        this.characterRom = chrRom;
+        this.trainerRom = trainerRom;
 
         this.footer = footer;
     }
@@ -52,46 +56,157 @@ public final class InesRom {
      * Generate an {@link InesRom} from the provided bytes
      */
     public static InesRom from(final byte[] bytes) {
-        final InesRomHeader newHeader = processHeader(bytes);
+        return fromImage(bytes.clone());
+    }
+
+    /**
+     * Generate an {@link InesRom} from the file at <code>path</code>, which is memory mapped rather than read, so its
+     * trainer, program and character ROM are views of the file and are only paged in as they are accessed.<br/>
+     * <br/>
+     * The file must not be changed while the {@link InesRom} is in use and, on some platforms, cannot be deleted until
+     * the {@link InesRom} has been garbage collected.
+     *
+     * @param path of an iNES ROM file
+     * @return the ROM in the file
+     * @throws IOException if the file cannot be read
+     * @throws UnknownRomException if the file is not an iNES ROM
+     */
+    public static InesRom from(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new UnknownRomException("Invalid iNES ROM: " + size + " bytes is too large.");
+
+            return fromImage(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Generate an {@link InesRom} from a stream, i.e. a decompressing one, without buffering the whole ROM.  The header
+     * is read first, then the trainer, program and character ROM are each read straight into an array of exactly their
+     * size.  <code>in</code> is read to its end but not closed.
+     *
+     * @param in positioned at the start of an iNES ROM
+     * @return the ROM read from <code>in</code>
+     * @throws IOException if <code>in</code> cannot be read
+     * @throws UnknownRomException if <code>in</code> is not an iNES ROM
+     */
+    public static InesRom from(final InputStream in) throws IOException {
+        final byte[] headerBytes = new byte[InesRomHeader.HEADER_SIZE];
+        final InesRomHeader newHeader = processHeader(ByteBuffer.wrap(headerBytes, 0, read(in, headerBytes)));
+
+        final ReadOnlyMemory trainer = readBinaryData(in, newHeader.getRomControlOptions().isTrainerPresent() ? TRAINER_SIZE : 0);
+        final ReadOnlyMemory program = readBinaryData(in, newHeader.getPrgBlocks() * PRG_ROM_BLOCK_SIZE);
+        final ReadOnlyMemory character = readBinaryData(in, characterRomSize(newHeader));
+
+        final ByteArrayOutputStream footer = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[512];
+        int bytesRead;
+        while ((bytesRead = in.read(buffer)) >= 0)
+            footer.write(buffer, 0, bytesRead);
+
+        return new InesRom(newHeader, trainer, program, character, footer.toByteArray());
+    }
+
+    /**
+     * Read <code>byteCount</code> bytes into an array of exactly that size, zero padding what's missing if the stream
+     * ends first
+     */
+    private static ReadOnlyMemory readBinaryData(final InputStream in, final int byteCount) throws IOException {
+        final byte[] data = new byte[byteCount];
+        read(in, data);
+        return ReadOnlyMemory.wrapping(data, 0, byteCount);
+    }
+
+    /**
+     * @return the number of bytes read into <code>bytes</code>, less than its length only if the stream ended
+     */
+    private static int read(final InputStream in, final byte[] bytes) throws IOException {
+        int offset = 0;
+        int bytesRead;
+        while (offset < bytes.length && (bytesRead = in.read(bytes, offset, bytes.length - offset)) >= 0)
+            offset += bytesRead;
+        return offset;
+    }
+
+    private static int characterRomSize(final InesRomHeader header){
+        if (header.getChrBlocks() > 0)
+            return header.getChrBlocks() * CHR_ROM_BLOCK_SIZE;
+
+        log.debug("No character ROM, CHR RAM is left to the mapper");
+        return 0;
+    }
+
+    /**
+     * Generate an {@link InesRom} whose trainer, program and character ROM are views of <code>image</code> rather than
+     * copies of it, so <code>image</code> must never be changed afterwards.
+     */
+    static InesRom fromImage(final byte[] image) {
+        return fromImage(ByteBuffer.wrap(image));
+    }
+
+    private static InesRom fromImage(final ByteBuffer image) {
+        final InesRomHeader newHeader = processHeader(image);
         int offset = InesRomHeader.HEADER_SIZE;
 
-        byte[] trainer = newHeader.getRomControlOptions().isTrainerPresent() ? extractBinaryData(bytes, TRAINER_SIZE, offset) : new byte[] {};
-        offset += trainer.length;
+        final int trainerSize = newHeader.getRomControlOptions().isTrainerPresent() ? TRAINER_SIZE : 0;
+        final ReadOnlyMemory trainer = extractBinaryData(image, trainerSize, offset);
+        offset += trainerSize;
 
-        final byte[] program = extractBinaryData(bytes, newHeader.getPrgBlocks() * PRG_ROM_BLOCK_SIZE, offset);
-        offset += program.length;
+        final int programSize = newHeader.getPrgBlocks() * PRG_ROM_BLOCK_SIZE;
+        final ReadOnlyMemory program = extractBinaryData(image, programSize, offset);
+        offset += programSize;
 
-        byte[] character = {};
-        if (newHeader.getChrBlocks() > 0) {
-            character = extractBinaryData(bytes, newHeader.getChrBlocks() * CHR_ROM_BLOCK_SIZE, offset);
-        } else {
-            //CHR RAM
-            log.error("CHR RAM Not implemented...");
-        }
-        offset += character.length;
+        final int characterSize = characterRomSize(newHeader);
+        final ReadOnlyMemory character = extractBinaryData(image, characterSize, offset);
+        offset += characterSize;
 
         byte[] footer = new byte[] {};
-        if (bytes.length > offset){
-            footer = extractBinaryData(bytes, bytes.length-offset, offset);
+        if (image.limit() > offset){
+            footer = new byte[image.limit() - offset];
+            region(image, offset, footer.length).get(footer);
         }
 
         return new InesRom(newHeader, trainer, program, character, footer);
     }
 
-    private static byte[] extractBinaryData(final byte[] bytes, final int byteCount, final int offset) {
-        return Arrays.copyOfRange(bytes, offset,offset+byteCount);
+    private static ReadOnlyMemory extractBinaryData(final ByteBuffer image, final int byteCount, final int offset) {
+        if (offset + byteCount <= image.limit())
+            return ReadOnlyMemory.wrapping(region(image, offset, byteCount));
+
+        //Truncated image, zero pad what's missing
+        final byte[] region = new byte[byteCount];
+        if (offset < image.limit())
+            region(image, offset, image.limit() - offset).get(region, 0, image.limit() - offset);
+        return ReadOnlyMemory.wrapping(region, 0, byteCount);
+    }
+
+    /**
+     * @return a buffer over <code>byteCount</code> bytes of <code>image</code> from <code>offset</code>, leaving
+     *         <code>image</code> itself untouched
+     */
+    private static ByteBuffer region(final ByteBuffer image, final int offset, final int byteCount){
+        final ByteBuffer region = image.duplicate();
+        region.limit(offset + byteCount);
+        region.position(offset);
+        return region;
     }
 
-    private static InesRomHeader processHeader(final byte[] bytes){
-        if (bytes.length < InesRomHeader.HEADER_SIZE)
-            throw new UnknownRomException("Invalid iNES header: Expected " + InesRomHeader.HEADER_SIZE + " byte header, rom is only " + bytes.length + " bytes.");
+    /**
+     * @param bytes starting with an iNES header, from index <code>0</code>
+     * @return the header
+     * @throws UnknownRomException if <code>bytes</code> do not start with an iNES header
+     */
+    static InesRomHeader processHeader(final ByteBuffer bytes){
+        if (bytes.limit() < InesRomHeader.HEADER_SIZE)
+            throw new UnknownRomException("Invalid iNES header: Expected " + InesRomHeader.HEADER_SIZE + " byte header, rom is only " + bytes.limit() + " bytes.");
 
         for (int i=0; i<PREFIX.length; i++)
-            if (bytes[i] != PREFIX[i]) throw new UnknownRomException("Invalid iNES header: iNES prefix missing.");
+            if (bytes.get(i) != PREFIX[i]) throw new UnknownRomException("Invalid iNES header: iNES prefix missing.");
 
-        int prgRomBlocks = bytes[4];
-        int chrRomBlocks = bytes[5];
-        RomControlOptions romControlOptions = new RomControlOptions(bytes[6], bytes[7]);
+        int prgRomBlocks = bytes.get(4) & 0xFF;
+        int chrRomBlocks = bytes.get(5) & 0xFF;
+        RomControlOptions romControlOptions = new RomControlOptions(bytes.get(6), bytes.get(7));
 
         return new InesRomHeader("NES ROM", prgRomBlocks, chrRomBlocks, romControlOptions);
     }
@@ -117,7 +232,7 @@ public final class InesRom {
     }
 
     public byte[] getFooter() {
-        return footer;
+        return footer.clone();
     }
 
     /**
@@ -126,25 +241,22 @@ public final class InesRom {
      * @param args <code>[0]</code> = Path to ROM file
      */
     public static void main(String[] args) throws IOException {
-//        final String romPath = args[0];
-//        System.out.println("Opening '" + romPath + "'");
-//
-//        final File romFile = new File(romPath);
-//        byte[] romBytes = Files.readAllBytes(romFile.toPath());
-//
-//        final InesRom rom = InesRom.from(romBytes);
-//
-//        System.out.println("Opened " + rom.getDescription() + " (" + rom.getHeader().getDescription() + ")");
-//        System.out.println("\tProgram Blocks: " + rom.getHeader().getPrgBlocks());
-//        System.out.println("\tCharacter Blocks: " + rom.getHeader().getChrBlocks());
-//        System.out.println("\tVersion: " + rom.getHeader().getRomControlOptions().getVersion());
-//        System.out.println("\tMirroring: " + rom.getHeader().getRomControlOptions().getMirroring().name());
-//        System.out.println("\tMapper Number: " + rom.getHeader().getRomControlOptions().getMapperNumber());
-//        System.out.println("\tFooter: " + rom.getFooter().length + " bytes");
-//        System.out.println("\t----------------");
-//        System.out.println("\tTrainer: " + (rom.getHeader().getRomControlOptions().isTrainerPresent() ? "YES" : "NO"));
-//        System.out.println("\tRAM: " + (rom.getHeader().getRomControlOptions().isRamPresent() ? "YES" : "NO"));
-//        System.out.println("\tPlaychoice 10: " + (rom.getHeader().getRomControlOptions().isPlayChoice10() ? "YES" : "NO"));
-//        System.out.println("\tVS Uni: " + (rom.getHeader().getRomControlOptions().isVsUnisystem() ? "YES" : "NO"));
+        final String romPath = args[0];
+        System.out.println("Opening '" + romPath + "'");
+
+        final InesRom rom = InesRom.from(Paths.get(romPath));
+
+        System.out.println("Opened " + rom.getDescription() + " (" + rom.getHeader().getDescription() + ")");
+        System.out.println("\tProgram Blocks: " + rom.getHeader().getPrgBlocks());
+        System.out.println("\tCharacter Blocks: " + rom.getHeader().getChrBlocks());
+        System.out.println("\tVersion: " + rom.getHeader().getRomControlOptions().getVersion());
+        System.out.println("\tMirroring: " + rom.getHeader().getRomControlOptions().getMirroring().name());
+        System.out.println("\tMapper Number: " + rom.getHeader().getRomControlOptions().getMapperNumber());
+        System.out.println("\tFooter: " + rom.getFooter().length + " bytes");
+        System.out.println("\t----------------");
+        System.out.println("\tTrainer: " + (rom.getHeader().getRomControlOptions().isTrainerPresent() ? "YES" : "NO"));
+        System.out.println("\tRAM: " + (rom.getHeader().getRomControlOptions().isRamPresent() ? "YES" : "NO"));
+        System.out.println("\tPlaychoice 10: " + (rom.getHeader().getRomControlOptions().isPlayChoice10() ? "YES" : "NO"));
+        System.out.println("\tVS Uni: " + (rom.getHeader().getRomControlOptions().isVsUnisystem() ? "YES" : "NO"));
     }
 }
@@ -0,0 +1,146 @@
+package com.rox.emu.rom;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Loads {@link InesRom}s straight out of ZIP and GZIP archives, streaming each through
+ * {@link InesRom#from(java.io.InputStream)} so that nothing is decompressed to disk or buffered whole.<br/>
+ * <br/>
+ * ZIP entries are decompressed independently, so {@link #loadAll(Path, ForkJoinPool)} decompresses every ROM in an
+ * archive in parallel.
+ *
+ * @author Ross Drew
+ */
+public final class RomArchives {
+    private static final String ROM_EXTENSION = ".nes";
+
+    private RomArchives(){}
+
+    /**
+     * Load the ROM in <code>file</code>, which may be GZIP compressed, a ZIP archive (in which case the first
+     * <code>.nes</code> entry is loaded) or an uncompressed iNES ROM (in which case it's memory mapped)
+     *
+     * @param file to load
+     * @return the ROM in <code>file</code>
+     * @throws IOException if <code>file</code> cannot be read, or is a ZIP archive with no <code>.nes</code> entries
+     * @throws UnknownRomException if the ROM is not an iNES ROM
+     */
+    public static InesRom load(final Path file) throws IOException {
+        final byte[] magic = new byte[4];
+        try (InputStream in = Files.newInputStream(file)) {
+            if (in.read(magic) < 2)
+                return InesRom.from(file);
+        }
+
+        if (magic[0] == 0x1F && magic[1] == (byte) 0x8B)
+            return loadGzip(file);
+
+        if (magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4) {
+            try (ZipFile zip = new ZipFile(file.toFile())) {
+                final List<ZipEntry> entries = romEntries(zip);
+                if (entries.isEmpty())
+                    throw new IOException(file + " contains no " + ROM_EXTENSION + " files");
+                return load(zip, entries.get(0));
+            }
+        }
+
+        return InesRom.from(file);
+    }
+
+    /**
+     * @param file a GZIP compressed iNES ROM
+     * @return the ROM in <code>file</code>
+     * @throws IOException if <code>file</code> cannot be read or is not GZIP compressed
+     * @throws UnknownRomException if the ROM is not an iNES ROM
+     */
+    public static InesRom loadGzip(final Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return InesRom.from(in);
+        }
+    }
+
+    /**
+     * Load every <code>.nes</code> entry in a ZIP archive, decompressing them in parallel on the common
+     * {@link ForkJoinPool}
+     *
+     * @param file a ZIP archive
+     * @return the ROMs loaded, by entry name, in name order
+     * @throws IOException if <code>file</code> cannot be read
+     * @throws UnknownRomException if any entry is not an iNES ROM
+     */
+    public static Map<String, InesRom> loadAll(final Path file) throws IOException {
+        return loadAll(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Load every <code>.nes</code> entry in a ZIP archive, decompressing them in parallel on <code>pool</code>
+     *
+     * @param file a ZIP archive
+     * @param pool to decompress on
+     * @return the ROMs loaded, by entry name, in name order
+     * @throws IOException if <code>file</code> cannot be read
+     * @throws UnknownRomException if any entry is not an iNES ROM
+     */
+    public static Map<String, InesRom> loadAll(final Path file, final ForkJoinPool pool) throws IOException {
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            final List<ZipEntry> entries = romEntries(zip);
+            return pool.submit(() -> entries.parallelStream()
+                                            .collect(Collectors.toMap(ZipEntry::getName,
+                                                                      entry -> loadUnchecked(zip, entry),
+                                                                      (a, b) -> a,
+                                                                      TreeMap::new)))
+                       .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted loading " + file, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IOException("Unable to load " + file, e.getCause());
+        }
+    }
+
+    private static List<ZipEntry> romEntries(final ZipFile zip){
+        final List<ZipEntry> entries = new ArrayList<>();
+        final Enumeration<? extends ZipEntry> allEntries = zip.entries();
+        while (allEntries.hasMoreElements()) {
+            final ZipEntry entry = allEntries.nextElement();
+            if (!entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(ROM_EXTENSION))
+                entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static InesRom load(final ZipFile zip, final ZipEntry entry) throws IOException {
+        try (InputStream in = zip.getInputStream(entry)) {
+            return InesRom.from(in);
+        }
+    }
+
+    private static InesRom loadUnchecked(final ZipFile zip, final ZipEntry entry){
+        try {
+            return load(zip, entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.rox.emu.rom;
+
+import com.rox.emu.rom.RomControlOptions.Mirroring;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * An index of a library of iNES ROM files, built by a {@link RomLibraryScanner}, holding each file's header details
+ * and the CRC32 and SHA-1 of its program and character ROM.<br/>
+ * <br/>
+ * Queries are answered from the index alone, without touching the files, and the index can be {@link #save(Path)
+ * saved} to, and {@link #load(Path) loaded} from, a compact binary file so that it survives between runs.  A catalogue
+ * is immutable, rescanning produces a new one, so entries are indexed by hash once when it's built.
+ *
+ * @author Ross Drew
+ */
+public final class RomCatalogue {
+    private static final int MAGIC = 0x524F5843; //"ROXC"
+    private static final int VERSION = 1;
+
+    private static final int CRC32_DIGITS = 8;
+    private static final int SHA1_LENGTH = 20;
+
+    private static final RomCatalogue EMPTY = new RomCatalogue(Collections.emptyMap());
+
+    private final Map<Path, Entry> entries;
+    private final Map<Integer, List<Entry>> byCrc32 = new HashMap<>();
+    private final Map<ByteBuffer, List<Entry>> bySha1 = new HashMap<>();
+
+    RomCatalogue(final Map<Path, Entry> entries){
+        this.entries = Collections.unmodifiableMap(new HashMap<>(entries));
+
+        for (Entry entry : this.entries.values()) {
+            index(byCrc32, entry.prgCrc32, entry.chrCrc32, entry);
+            index(bySha1, ByteBuffer.wrap(entry.prgSha1), ByteBuffer.wrap(entry.chrSha1), entry);
+        }
+    }
+
+    private static <K> void index(final Map<K, List<Entry>> index, final K prgHash, final K chrHash, final Entry entry){
+        index.computeIfAbsent(prgHash, hash -> new ArrayList<>(1)).add(entry);
+        if (!chrHash.equals(prgHash))
+            index.computeIfAbsent(chrHash, hash -> new ArrayList<>(1)).add(entry);
+    }
+
+    /**
+     * @return a catalogue with no entries
+     */
+    public static RomCatalogue empty(){
+        return EMPTY;
+    }
+
+    /**
+     * @param file a catalogue was {@link #save(Path) saved} to
+     * @return the catalogue in <code>file</code>, or an {@link #empty()} one if there is no such file
+     * @throws IOException if <code>file</code> cannot be read or is not a catalogue
+     */
+    public static RomCatalogue load(final Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException(file + " is not a ROM catalogue");
+            final int version = in.readInt();
+            if (version != VERSION)
+                throw new IOException(file + " is a version " + version + " ROM catalogue, expected version " + VERSION);
+
+            final int count = in.readInt();
+            final Map<Path, Entry> entries = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                final Entry entry = Entry.read(in);
+                entries.put(entry.getPath(), entry);
+            }
+            return new RomCatalogue(entries);
+        } catch (NoSuchFileException e) {
+            return EMPTY;
+        }
+    }
+
+    /**
+     * Write this catalogue to <code>file</code>, replacing whatever was there only once it has been completely written
+     *
+     * @param file to write to
+     * @throws IOException if <code>file</code> cannot be written
+     */
+    public void save(final Path file) throws IOException {
+        final Path absoluteFile = file.toAbsolutePath();
+        final Path temporaryFile = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entries.size());
+                for (Entry entry : entries.values())
+                    entry.write(out);
+            }
+            Files.move(temporaryFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * @return the number of ROMs catalogued
+     */
+    public int size(){
+        return entries.size();
+    }
+
+    /**
+     * @param path of a ROM file, as found by the {@link RomLibraryScanner}
+     * @return the entry for <code>path</code> or <code>null</code> if it isn't catalogued
+     */
+    public Entry get(final Path path){
+        return entries.get(path.toAbsolutePath().normalize());
+    }
+
+    /**
+     * @return every entry, in no particular order
+     */
+    public Collection<Entry> getEntries(){
+        return entries.values();
+    }
+
+    /**
+     * @param condition to match
+     * @return every entry matching <code>condition</code>, in no particular order
+     */
+    public List<Entry> find(final Predicate<Entry> condition){
+        final List<Entry> matches = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (condition.test(entry))
+                matches.add(entry);
+        }
+        return matches;
+    }
+
+    /**
+     * @param mapperNumber to match
+     * @return every ROM using the mapper numbered <code>mapperNumber</code>
+     */
+    public List<Entry> withMapper(final int mapperNumber){
+        return find(entry -> entry.getMapperNumber() == mapperNumber);
+    }
+
+    /**
+     * @param mirroring to match
+     * @return every ROM with <code>mirroring</code>
+     */
+    public List<Entry> withMirroring(final Mirroring mirroring){
+        return find(entry -> entry.getMirroring() == mirroring);
+    }
+
+    /**
+     * @param trainerPresent to match
+     * @return every ROM with, or without, a trainer
+     */
+    public List<Entry> withTrainer(final boolean trainerPresent){
+        return find(entry -> entry.isTrainerPresent() == trainerPresent);
+    }
+
+    /**
+     * @param hash a hexadecimal CRC32 or SHA-1, in either case
+     * @return every ROM whose program or character ROM has that hash
+     */
+    public List<Entry> withHash(final String hash){
+        final List<Entry> matches;
+        if (hash.length() == CRC32_DIGITS) {
+            final byte[] crc32 = fromHex(hash);
+            matches = (crc32 == null) ? null : byCrc32.get(ByteBuffer.wrap(crc32).getInt());
+        } else if (hash.length() == SHA1_LENGTH * 2) {
+            final byte[] sha1 = fromHex(hash);
+            matches = (sha1 == null) ? null : bySha1.get(ByteBuffer.wrap(sha1));
+        } else {
+            matches = null;
+        }
+        return (matches == null) ? new ArrayList<>() : new ArrayList<>(matches);
+    }
+
+    /**
+     * @return the bytes of an even number of hexadecimal digits, or <code>null</code> if <code>hex</code> isn't one
+     */
+    private static byte[] fromHex(final String hex){
+        final byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            final int high = Character.digit(hex.charAt(i * 2), 16);
+            final int low = Character.digit(hex.charAt((i * 2) + 1), 16);
+            if (high < 0 || low < 0)
+                return null;
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+
+    /**
+     * The catalogued details of a single ROM file
+     */
+    public static final class Entry {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        private final int prgBlocks;
+        private final int chrBlocks;
+        private final int mapperNumber;
+        private final Mirroring mirroring;
+        private final boolean trainerPresent;
+        private final boolean ramPresent;
+
+        private final int prgCrc32;
+        private final int chrCrc32;
+        private final byte[] prgSha1;
+        private final byte[] chrSha1;
+
+        Entry(Path path, long size, long lastModified, InesRomHeader header,
+              int prgCrc32, int chrCrc32, byte[] prgSha1, byte[] chrSha1) {
+            this(path, size, lastModified, header.getPrgBlocks(), header.getChrBlocks(),
+                 header.getRomControlOptions().getMapperNumber(), header.getRomControlOptions().getMirroring(),
+                 header.getRomControlOptions().isTrainerPresent(), header.getRomControlOptions().isRamPresent(),
+                 prgCrc32, chrCrc32, prgSha1, chrSha1);
+        }
+
+        private Entry(Path path, long size, long lastModified, int prgBlocks, int chrBlocks, int mapperNumber,
+                      Mirroring mirroring, boolean trainerPresent, boolean ramPresent,
+                      int prgCrc32, int chrCrc32, byte[] prgSha1, byte[] chrSha1) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.prgBlocks = prgBlocks;
+            this.chrBlocks = chrBlocks;
+            this.mapperNumber = mapperNumber;
+            this.mirroring = mirroring;
+            this.trainerPresent = trainerPresent;
+            this.ramPresent = ramPresent;
+            this.prgCrc32 = prgCrc32;
+            this.chrCrc32 = chrCrc32;
+            this.prgSha1 = prgSha1;
+            this.chrSha1 = chrSha1;
+        }
+
+        private static Entry read(final DataInputStream in) throws IOException {
+            final Path path = Paths.get(in.readUTF());
+            final long size = in.readLong();
+            final long lastModified = in.readLong();
+            final int prgBlocks = in.readUnsignedByte();
+            final int chrBlocks = in.readUnsignedByte();
+            final int mapperNumber = in.readUnsignedByte();
+            final Mirroring mirroring = Mirroring.values()[in.readUnsignedByte()];
+            final int flags = in.readUnsignedByte();
+            final int prgCrc32 = in.readInt();
+            final int chrCrc32 = in.readInt();
+            final byte[] prgSha1 = new byte[20];
+            in.readFully(prgSha1);
+            final byte[] chrSha1 = new byte[20];
+            in.readFully(chrSha1);
+
+            return new Entry(path, size, lastModified, prgBlocks, chrBlocks, mapperNumber, mirroring,
+                             (flags & 0b01) != 0, (flags & 0b10) != 0, prgCrc32, chrCrc32, prgSha1, chrSha1);
+        }
+
+        private void write(final DataOutputStream out) throws IOException {
+            out.writeUTF(path.toString());
+            out.writeLong(size);
+            out.writeLong(lastModified);
+            out.writeByte(prgBlocks);
+            out.writeByte(chrBlocks);
+            out.writeByte(mapperNumber);
+            out.writeByte(mirroring.ordinal());
+            out.writeByte((trainerPresent ? 0b01 : 0) | (ramPresent ? 0b10 : 0));
+            out.writeInt(prgCrc32);
+            out.writeInt(chrCrc32);
+            out.write(prgSha1);
+            out.write(chrSha1);
+        }
+
+        /**
+         * @return <code>true</code> if the file at {@link #getPath()} has the size and modification time catalogued,
+         *         and so is assumed not to have changed
+         */
+        boolean isCurrent(final long currentSize, final long currentLastModified){
+            return size == currentSize && lastModified == currentLastModified;
+        }
+
+        /** @return the absolute path of the ROM file */
+        public Path getPath() {
+            return path;
+        }
+
+        /** @return the size of the ROM file in bytes when catalogued */
+        public long getSize() {
+            return size;
+        }
+
+        /** @return the modification time of the ROM file, in milliseconds since the epoch, when catalogued */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /** @return the number of 16K program ROM blocks */
+        public int getPrgBlocks() {
+            return prgBlocks;
+        }
+
+        /** @return the number of 8K character ROM blocks */
+        public int getChrBlocks() {
+            return chrBlocks;
+        }
+
+        public int getMapperNumber() {
+            return mapperNumber;
+        }
+
+        public Mirroring getMirroring() {
+            return mirroring;
+        }
+
+        public boolean isTrainerPresent() {
+            return trainerPresent;
+        }
+
+        public boolean isRamPresent() {
+            return ramPresent;
+        }
+
+        /** @return the CRC32 of the program ROM as 8 lower case hexadecimal digits */
+        public String getPrgCrc32() {
+            return String.format("%08x", prgCrc32);
+        }
+
+        /** @return the CRC32 of the character ROM as 8 lower case hexadecimal digits */
+        public String getChrCrc32() {
+            return String.format("%08x", chrCrc32);
+        }
+
+        /** @return the SHA-1 of the program ROM as 40 lower case hexadecimal digits */
+        public String getPrgSha1() {
+            return toHex(prgSha1);
+        }
+
+        /** @return the SHA-1 of the character ROM as 40 lower case hexadecimal digits */
+        public String getChrSha1() {
+            return toHex(chrSha1);
+        }
+
+        private static String toHex(final byte[] bytes){
+            final StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte value : bytes)
+                hex.append(String.format("%02x", value & 0xFF));
+            return hex.toString();
+        }
+
+        @Override
+        public String toString() {
+            return "RomCatalogue.Entry{" +
+                    "path=" + path +
+                    ", prgBlocks=" + prgBlocks +
+                    ", chrBlocks=" + chrBlocks +
+                    ", mapperNumber=" + mapperNumber +
+                    ", mirroring=" + mirroring +
+                    ", trainerPresent=" + trainerPresent +
+                    ", prgCrc32=" + getPrgCrc32() +
+                    ", chrCrc32=" + getChrCrc32() +
+                    '}';
+        }
+    }
+}
@@ -157,16 +157,20 @@ package com.rox.emu.rom;
 
  </table>
  */
-class RomControlOptions {
+public class RomControlOptions {
     /**
      * <h3>Nametable mirroring</h3>
      * Defines the effect of accessing memory off the right or bottom edges of the current nametable.
      * When enabled on an axis, addresses wrap around.
      */
-    enum Mirroring {
+    public enum Mirroring {
         VERTICAL,
         HORIZONTAL,
-        FOUR_SCREEN
+        FOUR_SCREEN,
+        /** Every nametable is the first, only ever selected by a mapper */
+        SINGLE_SCREEN_LOWER,
+        /** Every nametable is the second, only ever selected by a mapper */
+        SINGLE_SCREEN_UPPER
     }
 
     private final Mirroring mirroring;
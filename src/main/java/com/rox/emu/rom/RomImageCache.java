@@ -0,0 +1,107 @@
+package com.rox.emu.rom;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A cache of parsed {@link InesRom}s keyed by a SHA-256 hash of their content, so that any number of emulators
+ * running the same ROM share a single copy of it.<br/>
+ * <br/>
+ * A cached {@link InesRom}, and the read only memory it hands out, is immutable and safe to share between threads.
+ * Anything which changes per emulator, i.e. bank selection or save RAM, belongs in a layer of its own mapped over the
+ * shared ROM rather than in the ROM itself.  ROMs stay cached until {@link #evict(byte[]) evicted} or
+ * {@link #clear() cleared}.
+ *
+ * @author Ross Drew
+ */
+public final class RomImageCache {
+    private static final RomImageCache SHARED = new RomImageCache();
+
+    private final ConcurrentMap<ContentHash, InesRom> roms = new ConcurrentHashMap<>();
+
+    /**
+     * @return the cache shared by everything in this JVM
+     */
+    public static RomImageCache shared(){
+        return SHARED;
+    }
+
+    /**
+     * Get the cached {@link InesRom} with the same content as <code>image</code>, parsing and caching a copy of
+     * <code>image</code> if there isn't one.
+     *
+     * @param image of an iNES ROM file
+     * @return the ROM shared by all images with the same content
+     * @throws UnknownRomException if <code>image</code> is not an iNES ROM, in which case nothing is cached
+     */
+    public InesRom get(final byte[] image){
+        return roms.computeIfAbsent(ContentHash.of(image), hash -> InesRom.fromImage(image.clone()));
+    }
+
+    /**
+     * @param image of an iNES ROM file
+     * @return <code>true</code> if a ROM with the same content as <code>image</code> is cached
+     */
+    public boolean contains(final byte[] image){
+        return roms.containsKey(ContentHash.of(image));
+    }
+
+    /**
+     * Remove the ROM with the same content as <code>image</code>, emulators already using it are unaffected
+     *
+     * @param image of an iNES ROM file
+     */
+    public void evict(final byte[] image){
+        roms.remove(ContentHash.of(image));
+    }
+
+    /**
+     * Remove all ROMs, emulators already using them are unaffected
+     */
+    public void clear(){
+        roms.clear();
+    }
+
+    /**
+     * @return the number of ROMs cached
+     */
+    public int size(){
+        return roms.size();
+    }
+
+    /**
+     * A SHA-256 hash of ROM content
+     */
+    private static final class ContentHash {
+        private final byte[] hash;
+        private final int hashCode;
+
+        private ContentHash(byte[] hash) {
+            this.hash = hash;
+            this.hashCode = Arrays.hashCode(hash);
+        }
+
+        private static ContentHash of(final byte[] content){
+            try {
+                return new ContentHash(MessageDigest.getInstance("SHA-256").digest(content));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is required of every Java platform", e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return Arrays.equals(hash, ((ContentHash) o).hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.rox.emu.rom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Builds a {@link RomCatalogue} of every iNES ROM file under a set of directories, walking directories in parallel on
+ * a work stealing {@link ForkJoinPool}.<br/>
+ * <br/>
+ * Only the header of each file is parsed, program and character ROM are streamed through a read buffer reused by
+ * each scanning thread and hashed as they're read.  When rescanning, a file with the same size and modification time
+ * as in the previous catalogue is assumed unchanged and its previous entry reused without reading the file at all.
+ * Files which aren't iNES ROMs are skipped, as are symbolically linked directories, to avoid cycles, and files which
+ * can't be read, i.e. through lack of permission or being deleted mid scan, are logged and skipped.
+ *
+ * @author Ross Drew
+ */
+public class RomLibraryScanner {
+    private static final Logger log = LoggerFactory.getLogger(RomLibraryScanner.class);
+
+    private static final int ZERO_PADDING_SIZE = 4096;
+    private static final byte[] ZERO_PADDING = new byte[ZERO_PADDING_SIZE];
+    private static final int READ_BUFFER_SIZE = 0x10000;
+    private static final ThreadLocal<ByteBuffer> READ_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(READ_BUFFER_SIZE));
+
+    private final ForkJoinPool pool;
+
+    private final LongAdder filesHashed = new LongAdder();
+
+    /**
+     * A scanner using the common {@link ForkJoinPool}
+     */
+    public RomLibraryScanner(){
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool to scan on
+     */
+    public RomLibraryScanner(final ForkJoinPool pool){
+        this.pool = pool;
+    }
+
+    /**
+     * Catalogue every iNES ROM file in and below <code>directories</code>
+     *
+     * @param directories to scan
+     * @return a catalogue of the ROMs found
+     * @throws IOException if a directory cannot be read
+     */
+    public RomCatalogue scan(final Path... directories) throws IOException {
+        return rescan(RomCatalogue.empty(), directories);
+    }
+
+    /**
+     * Catalogue every iNES ROM file in and below <code>directories</code>, rehashing only those which have changed
+     * since <code>previous</code>.  Entries in <code>previous</code> not found in the scan are dropped.
+     *
+     * @param previous catalogue of the same directories
+     * @param directories to scan
+     * @return a catalogue of the ROMs found
+     * @throws IOException if a directory cannot be read
+     */
+    public RomCatalogue rescan(final RomCatalogue previous, final Path... directories) throws IOException {
+        final Map<Path, RomCatalogue.Entry> entries = new ConcurrentHashMap<>();
+        final List<DirectoryTask> tasks = new ArrayList<>();
+        for (Path directory : directories)
+            tasks.add(new DirectoryTask(directory.toAbsolutePath().normalize(), previous, entries));
+
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return new RomCatalogue(entries);
+    }
+
+    /**
+     * @return the number of files read and hashed, rather than reused from a previous catalogue, since creation
+     */
+    public long getFilesHashed(){
+        return filesHashed.sum();
+    }
+
+    /**
+     * Catalogues the files in a directory, forking a task for each directory within it
+     */
+    private final class DirectoryTask extends RecursiveAction {
+        private final Path directory;
+        private final RomCatalogue previous;
+        private final Map<Path, RomCatalogue.Entry> entries;
+
+        private DirectoryTask(Path directory, RomCatalogue previous, Map<Path, RomCatalogue.Entry> entries) {
+            this.directory = directory;
+            this.previous = previous;
+            this.entries = entries;
+        }
+
+        @Override
+        protected void compute() {
+            final List<DirectoryTask> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> contents = Files.newDirectoryStream(directory)) {
+                for (Path path : contents) {
+                    final BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    } catch (IOException e) {
+                        log.warn("Skipping '{}': {}", path, e.toString());
+                        continue;
+                    }
+
+                    if (attributes.isDirectory() && !Files.isSymbolicLink(path)) {
+                        final DirectoryTask subdirectory = new DirectoryTask(path, previous, entries);
+                        subdirectory.fork();
+                        subdirectories.add(subdirectory);
+                    } else if (attributes.isRegularFile()) {
+                        catalogue(path, attributes);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            for (DirectoryTask subdirectory : subdirectories)
+                subdirectory.join();
+        }
+
+        private void catalogue(final Path path, final BasicFileAttributes attributes) {
+            final long size = attributes.size();
+            final long lastModified = attributes.lastModifiedTime().toMillis();
+
+            final RomCatalogue.Entry previousEntry = previous.get(path);
+            if (previousEntry != null && previousEntry.isCurrent(size, lastModified)) {
+                entries.put(path, previousEntry);
+                return;
+            }
+
+            try {
+                entries.put(path, hash(path, size, lastModified));
+                filesHashed.increment();
+            } catch (UnknownRomException e) {
+                log.debug("Skipping '{}': {}", path, e.getMessage());
+            } catch (IOException e) {
+                log.warn("Skipping '{}': {}", path, e.toString());
+            }
+        }
+    }
+
+    private static RomCatalogue.Entry hash(final Path path, final long size, final long lastModified) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer headerBytes = ByteBuffer.allocate(InesRomHeader.HEADER_SIZE);
+            while (headerBytes.hasRemaining() && channel.read(headerBytes) >= 0) {
+                //Keep reading until the header is complete or the file ends
+            }
+            headerBytes.flip();
+            final InesRomHeader header = InesRom.processHeader(headerBytes);
+
+            int offset = InesRomHeader.HEADER_SIZE;
+            if (header.getRomControlOptions().isTrainerPresent())
+                offset += InesRom.TRAINER_SIZE;
+
+            final int programSize = header.getPrgBlocks() * InesRom.PRG_ROM_BLOCK_SIZE;
+            final Digests program = new Digests();
+            program.update(channel, offset, programSize);
+            offset += programSize;
+
+            final Digests character = new Digests();
+            character.update(channel, offset, header.getChrBlocks() * InesRom.CHR_ROM_BLOCK_SIZE);
+
+            return new RomCatalogue.Entry(path, size, lastModified, header,
+                                          program.crc32(), character.crc32(), program.sha1(), character.sha1());
+        }
+    }
+
+    /**
+     * A CRC32 and SHA-1 of the same bytes
+     */
+    private static final class Digests {
+        private final CRC32 crc32 = new CRC32();
+        private final MessageDigest sha1;
+
+        private Digests(){
+            try {
+                sha1 = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-1 is required of every Java platform", e);
+            }
+        }
+
+        /**
+         * Digest <code>byteCount</code> bytes of <code>channel</code> from <code>offset</code>, zero padded if the file
+         * is truncated, as {@link InesRom} would load them
+         */
+        private void update(final FileChannel channel, final int offset, final int byteCount) throws IOException {
+            final ByteBuffer buffer = READ_BUFFER.get();
+            long position = offset;
+            int remaining = byteCount;
+            while (remaining > 0) {
+                buffer.clear().limit(Math.min(remaining, buffer.capacity()));
+                final int read = channel.read(buffer, position);
+                if (read < 0)
+                    break;
+
+                crc32.update(buffer.array(), 0, read);
+                sha1.update(buffer.array(), 0, read);
+                position += read;
+                remaining -= read;
+            }
+
+            for (int padding = remaining; padding > 0; padding -= ZERO_PADDING_SIZE) {
+                final int length = Math.min(padding, ZERO_PADDING_SIZE);
+                crc32.update(ZERO_PADDING, 0, length);
+                sha1.update(ZERO_PADDING, 0, length);
+            }
+        }
+
+        private int crc32(){
+            return (int) crc32.getValue();
+        }
+
+        private byte[] sha1(){
+            return sha1.digest();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.rox.emu;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the bytes allocated on the heap by the current thread while running an operation, for asserting
+ * allocation budgets on hot paths.<br/>
+ * <br/>
+ * The operation is warmed up first and the lowest of several measurements is used, so one off allocations (class
+ * loading, lazy initialisation, JIT compilation) are not counted against it.  Requires a JVM which supports
+ * thread allocation counting, see {@link #isSupported()}.<br/>
+ * <br/>
+ * What escape analysis eliminates depends on the JVM and its flags, so budgets are measured on the toolchain JVM with
+ * the flags pinned in the <code>allocationTest</code> task of <code>build.gradle</code>, which runs each
+ * <code>*AllocationTest</code> in a JVM of its own rather than after whatever the rest of the tests left compiled.
+ *
+ * @author Ross Drew
+ */
+public final class AllocationMeter {
+    private static final int WARMUP_RUNS = 50;
+    private static final int MEASURED_RUNS = 5;
+
+    private AllocationMeter(){}
+
+    /**
+     * @return <code>true</code> if this JVM can count the bytes allocated by a thread
+     */
+    public static boolean isSupported(){
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean))
+            return false;
+
+        final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!allocationBean.isThreadAllocatedMemorySupported())
+            return false;
+
+        if (!allocationBean.isThreadAllocatedMemoryEnabled())
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+        return true;
+    }
+
+    /**
+     * @param operationsPerRun the number of operations performed by each run of <code>run</code>
+     * @param run the operations to measure
+     * @return the average number of bytes allocated per operation
+     */
+    public static double bytesPerOperation(final int operationsPerRun, final Runnable run){
+        return bytesPerOperation(operationsPerRun, WARMUP_RUNS, run);
+    }
+
+    /**
+     * @param operationsPerRun the number of operations performed by each run of <code>run</code>
+     * @param warmupRuns of <code>run</code> before measuring, enough for the JIT to finish compiling it
+     * @param run the operations to measure
+     * @return the average number of bytes allocated per operation
+     */
+    public static double bytesPerOperation(final int operationsPerRun, final int warmupRuns, final Runnable run){
+        for (int i = 0; i < warmupRuns; i++)
+            run.run();
+
+        final Runnable nothing = () -> {};
+        long overhead = Long.MAX_VALUE;
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            overhead = Math.min(overhead, allocatedBy(nothing));
+            allocated = Math.min(allocated, allocatedBy(run));
+        }
+
+        return Math.max(0, allocated - overhead) / (double) operationsPerRun;
+    }
+
+    private static long allocatedBy(final Runnable run){
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long before = threadBean.getThreadAllocatedBytes(threadId);
+        run.run();
+        return threadBean.getThreadAllocatedBytes(threadId) - before;
+    }
+}
@@ -0,0 +1,124 @@
+package com.rox.emu.mem;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BankedMemoryTest {
+    private BankedMemory memory;
+    private Memory bank;
+
+    @Before
+    public void setUp(){
+        memory = new BankedMemory(0x1000, 0x400);
+        bank = new SimpleMemory(0x800);
+        bank.setBlock(RoxWord.fromLiteral(0x400), new RoxByte[] {RoxByte.fromLiteral(0x42)});
+    }
+
+    @Test
+    public void testMapping(){
+        memory.map(0x800, 0x800, bank, 0);
+
+        assertEquals(RoxByte.fromLiteral(0x42), memory.getByte(RoxWord.fromLiteral(0xC00)));
+        assertSame(bank, memory.getBankAt(0xC01));
+        assertEquals(0x401, memory.getBankOffsetAt(0xC01));
+
+        memory.setByteAt(RoxWord.fromLiteral(0x801), RoxByte.fromLiteral(0x43));
+        assertEquals(RoxByte.fromLiteral(0x43), bank.getByte(RoxWord.fromLiteral(0x1)));
+    }
+
+    @Test
+    public void testMirroring(){
+        memory.map(0x000, 0x400, bank, 0x400);
+        memory.map(0x400, 0x400, bank, 0x400);
+
+        memory.setByteAt(RoxWord.fromLiteral(0x001), RoxByte.fromLiteral(0x43));
+
+        assertEquals(RoxByte.fromLiteral(0x42), memory.getByte(RoxWord.fromLiteral(0x400)));
+        assertEquals(RoxByte.fromLiteral(0x43), memory.getByte(RoxWord.fromLiteral(0x401)));
+        assertEquals(RoxWord.fromLiteral(0x4243), memory.getWord(RoxWord.fromLiteral(0x400)));
+    }
+
+    @Test
+    public void testUnmappedPages(){
+        memory.map(0x000, 0x1000, new SimpleMemory(0x1000), 0);
+        memory.unmap(0x400, 0x400);
+
+        memory.setByteAt(RoxWord.fromLiteral(0x400), RoxByte.fromLiteral(0x43));
+
+        assertEquals(RoxByte.ZERO, memory.getByte(RoxWord.fromLiteral(0x400)));
+        assertNull(memory.getBankAt(0x400));
+    }
+
+    @Test
+    public void testIntercept(){
+        final List<Integer> writes = new ArrayList<>();
+        memory.map(0x000, 0x800, bank, 0);
+        memory.intercept(0x400, 0x400, (address, value) -> writes.add(address));
+
+        memory.setBlock(RoxWord.fromLiteral(0x3FF), new RoxByte[] {RoxByte.fromLiteral(0x1), RoxByte.fromLiteral(0x2)});
+
+        assertEquals(1, writes.size());
+        assertEquals(0x400, (int) writes.get(0));
+        assertEquals(RoxByte.fromLiteral(0x1), bank.getByte(RoxWord.fromLiteral(0x3FF)));
+        assertEquals(RoxByte.fromLiteral(0x42), bank.getByte(RoxWord.fromLiteral(0x400)));
+    }
+
+    @Test
+    public void testGetBlockAcrossPages(){
+        memory.map(0x000, 0x400, bank, 0x400);
+        memory.map(0x400, 0x400, bank, 0x400);
+
+        final RoxByte[] block = memory.getBlock(RoxWord.fromLiteral(0x3FF), RoxWord.fromLiteral(0x401));
+
+        assertEquals(2, block.length);
+        assertEquals(RoxByte.fromLiteral(0x42), block[1]);
+    }
+
+    @Test
+    public void testCopyToAcrossPages(){
+        memory.map(0x000, 0x400, bank, 0x400);
+        final Memory destination = new SimpleMemory(4);
+
+        memory.copyTo(0x3FE, destination, 0, 4);
+
+        assertArrayEquals(RoxByte.fromIntArray(new int[] {0, 0, 0, 0}), destination.getBlock(RoxWord.ZERO, RoxWord.fromLiteral(4)));
+
+        memory.map(0x400, 0x400, bank, 0x400);
+        memory.copyTo(0x3FF, destination, 0, 2);
+
+        assertEquals(RoxByte.fromLiteral(0x42), destination.getByte(RoxWord.fromLiteral(1)));
+    }
+
+    @Test
+    public void testReset(){
+        memory.map(0x000, 0x800, bank, 0);
+        memory.map(0x800, 0x800, bank, 0);
+
+        memory.reset();
+
+        assertEquals(RoxByte.ZERO, memory.getByte(RoxWord.fromLiteral(0x400)));
+        assertEquals(0x1000, memory.getSize());
+    }
+
+    @Test(expected = MemoryMappingException.class)
+    public void testUnalignedMapping(){
+        memory.map(0x200, 0x400, bank, 0);
+    }
+
+    @Test(expected = MemoryMappingException.class)
+    public void testMappingOutsideAddressSpace(){
+        memory.map(0xC00, 0x800, bank, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPageSize(){
+        new BankedMemory(0x1000, 0x300);
+    }
+}
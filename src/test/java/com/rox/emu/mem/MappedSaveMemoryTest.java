@@ -0,0 +1,101 @@
+package com.rox.emu.mem;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MappedSaveMemoryTest {
+    private Path saveFile;
+
+    @Before
+    public void setUp() throws IOException {
+        saveFile = Files.createTempFile("MappedSaveMemoryTest", ".sav");
+        saveFile.toFile().deleteOnExit();
+        Files.delete(saveFile);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        System.gc();
+        try {
+            Files.deleteIfExists(saveFile);
+        } catch (IOException e) {
+            //Still mapped on some platforms, deleted on exit instead
+        }
+    }
+
+    @Test
+    public void testCreatesZeroedFile() throws IOException {
+        try (MappedSaveMemory memory = MappedSaveMemory.open(saveFile, 0x2000)) {
+            assertEquals(0x2000, memory.getSize());
+            assertEquals(RoxByte.ZERO, memory.getByte(RoxWord.fromLiteral(0x1FFF)));
+            assertFalse(memory.isDirty());
+        }
+        assertEquals(0x2000, Files.size(saveFile));
+    }
+
+    @Test
+    public void testWritesPersist() throws IOException {
+        try (MappedSaveMemory memory = MappedSaveMemory.open(saveFile, 0x2000)) {
+            memory.setByteAt(RoxWord.fromLiteral(0x10), RoxByte.fromLiteral(0xF2));
+            memory.setBlock(RoxWord.fromLiteral(0x1FFE), new RoxByte[] {RoxByte.fromLiteral(0x01), RoxByte.fromLiteral(0x02)});
+            assertTrue(memory.isDirty());
+        }
+
+        final byte[] contents = Files.readAllBytes(saveFile);
+        assertEquals((byte) 0xF2, contents[0x10]);
+        assertEquals(0x02, contents[0x1FFF]);
+
+        try (MappedSaveMemory memory = MappedSaveMemory.open(saveFile, 0x2000)) {
+            assertEquals(RoxByte.fromLiteral(0xF2), memory.getByte(RoxWord.fromLiteral(0x10)));
+            assertEquals(RoxWord.fromLiteral(0x0102), memory.getWord(RoxWord.fromLiteral(0x1FFE)));
+            assertEquals(2, memory.getBlock(RoxWord.fromLiteral(0x1FFE), RoxWord.fromLiteral(0x2000)).length);
+        }
+    }
+
+    @Test
+    public void testFlush() throws IOException {
+        try (MappedSaveMemory memory = MappedSaveMemory.open(saveFile, 0x100)) {
+            memory.setByteAt(RoxWord.ZERO, RoxByte.fromLiteral(0x42));
+            memory.flush();
+
+            assertFalse(memory.isDirty());
+            assertEquals(0x42, Files.readAllBytes(saveFile)[0]);
+        }
+    }
+
+    @Test
+    public void testPeriodicFlushing() throws IOException, InterruptedException {
+        try (MappedSaveMemory memory = MappedSaveMemory.open(saveFile, 0x100)) {
+            memory.startFlushing(10, TimeUnit.MILLISECONDS);
+            memory.setByteAt(RoxWord.ZERO, RoxByte.fromLiteral(0x42));
+
+            for (int wait = 0; wait < 500 && memory.isDirty(); wait++)
+                Thread.sleep(10);
+
+            assertFalse(memory.isDirty());
+            memory.stopFlushing();
+        }
+    }
+
+    @Test
+    public void testResetHasNoEffect() throws IOException {
+        try (MappedSaveMemory memory = MappedSaveMemory.open(saveFile, 0x100)) {
+            memory.setByteAt(RoxWord.ZERO, RoxByte.fromLiteral(0x42));
+            memory.reset();
+            assertEquals(RoxByte.fromLiteral(0x42), memory.getByte(RoxWord.ZERO));
+
+            memory.clear();
+            assertEquals(RoxByte.ZERO, memory.getByte(RoxWord.ZERO));
+        }
+    }
+}
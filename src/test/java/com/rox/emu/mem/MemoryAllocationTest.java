@@ -0,0 +1,107 @@
+package com.rox.emu.mem;
+
+import com.rox.emu.AllocationMeter;
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Allocation budgets, in bytes per access, for {@link Memory} implementations.  Budgets are ceilings on current
+ * behaviour which should only ever be lowered, each set just above what's measured on the toolchain JVM with the flags
+ * pinned in the <code>allocationTest</code> task of <code>build.gradle</code>, see {@link AllocationMeter}.
+ */
+public class MemoryAllocationTest {
+    private static final int ACCESSES = 1024;
+
+    /**
+     * A {@link RoxWord} is created to combine two stored bytes, measured at 16 bytes, or 32 when the JIT doesn't
+     * eliminate boxing its value for trace logging
+     */
+    private static final double WORD_BUDGET = 32;
+    /**
+     * Unmapped addresses create a default mapping and the address is boxed as a map key and re-created as a word,
+     * measured at 62 bytes
+     */
+    private static final double MULTI_SOURCE_BUDGET = 64;
+    /** Two multi source reads and the word combining them, measured at 156 bytes */
+    private static final double MULTI_SOURCE_WORD_BUDGET = 160;
+
+    private final RoxWord[] addresses = new RoxWord[ACCESSES];
+    private final RoxByte value = RoxByte.fromLiteral(0x42);
+
+    @Before
+    public void setUp(){
+        assumeTrue(AllocationMeter.isSupported());
+        for (int i = 0; i < ACCESSES; i++)
+            addresses[i] = RoxWord.fromLiteral((i * 7) & 0x3FF);
+    }
+
+    private double readByteAllocation(Memory memory){
+        return AllocationMeter.bytesPerOperation(ACCESSES, () -> {
+            for (RoxWord address : addresses)
+                memory.getByte(address);
+        });
+    }
+
+    private double readWordAllocation(Memory memory){
+        return AllocationMeter.bytesPerOperation(ACCESSES, () -> {
+            for (RoxWord address : addresses)
+                memory.getWord(address);
+        });
+    }
+
+    private double writeByteAllocation(Memory memory){
+        return AllocationMeter.bytesPerOperation(ACCESSES, () -> {
+            for (RoxWord address : addresses)
+                memory.setByteAt(address, value);
+        });
+    }
+
+    private static void assertWithinBudget(String access, double budget, double allocated){
+        assertTrue(access + " allocated " + allocated + " bytes per access, budget is " + budget, allocated <= budget);
+    }
+
+    @Test
+    public void testSimpleMemory(){
+        final Memory memory = new SimpleMemory();
+
+        assertWithinBudget("getByte", 0, readByteAllocation(memory));
+        assertWithinBudget("setByteAt", 0, writeByteAllocation(memory));
+        assertWithinBudget("getWord", WORD_BUDGET, readWordAllocation(memory));
+    }
+
+    @Test
+    public void testReadOnlyMemory(){
+        final Memory memory = new ReadOnlyMemory(new byte[0x800]);
+
+        assertWithinBudget("getByte", 0, readByteAllocation(memory));
+        assertWithinBudget("getWord", WORD_BUDGET, readWordAllocation(memory));
+    }
+
+    @Test
+    public void testBankedMemory(){
+        final BankedMemory memory = new BankedMemory(0x800, 0x100);
+        memory.map(0x000, 0x400, new SimpleMemory(0x400), 0);
+        final BankedMemory romMemory = new BankedMemory(0x800, 0x100);
+        romMemory.map(0x000, 0x400, new ReadOnlyMemory(new byte[0x400]), 0);
+
+        assertWithinBudget("getByte", 0, readByteAllocation(memory));
+        assertWithinBudget("getByte", 0, readByteAllocation(romMemory));
+        assertWithinBudget("setByteAt", 0, writeByteAllocation(memory));
+        assertWithinBudget("getWord", WORD_BUDGET, readWordAllocation(memory));
+    }
+
+    @Test
+    public void testMultiSourceMemory(){
+        final Memory memory = new MultiSourceMemory().maintaining(new SimpleMemory())
+                                                     .withMapping(0x000, 0x000, 0x400, new SimpleMemory(0x400));
+
+        assertWithinBudget("getByte", MULTI_SOURCE_BUDGET, readByteAllocation(memory));
+        assertWithinBudget("setByteAt", MULTI_SOURCE_BUDGET, writeByteAllocation(memory));
+        assertWithinBudget("getWord", MULTI_SOURCE_WORD_BUDGET, readWordAllocation(memory));
+    }
+}
@@ -0,0 +1,62 @@
+package com.rox.emu.mem;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.metrics.EmulationMetrics;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MeteredMemoryTest {
+    private EmulationMetrics metrics;
+    private MeteredMemory memory;
+
+    @Before
+    public void setUp(){
+        metrics = new EmulationMetrics();
+        memory = new MeteredMemory(new SimpleMemory(), metrics);
+    }
+
+    @Test
+    public void testAccessesArePublishedOnFlush(){
+        memory.setByteAt(RoxWord.fromLiteral(0x10), RoxByte.fromLiteral(1));
+        memory.getByte(RoxWord.fromLiteral(0x10));
+        memory.getWord(RoxWord.fromLiteral(0x10));
+
+        assertEquals(0, metrics.getMemoryReads());
+        assertEquals(0, metrics.getMemoryWrites());
+
+        memory.flush();
+
+        assertEquals(3, metrics.getMemoryReads());
+        assertEquals(1, metrics.getMemoryWrites());
+    }
+
+    @Test
+    public void testAccessesArePublishedInBatches(){
+        for (int i = 0; i < MeteredMemory.BATCH_SIZE; i++)
+            memory.getByte(RoxWord.fromLiteral(i));
+
+        assertEquals(MeteredMemory.BATCH_SIZE, metrics.getMemoryReads());
+        assertEquals(0, metrics.getMemoryWrites());
+    }
+
+    @Test
+    public void testBlockAccessesCountPerByte(){
+        memory.setBlock(RoxWord.ZERO, RoxByte.fromIntArray(new int[] {1, 2, 3}));
+        memory.getBlock(RoxWord.ZERO, RoxWord.fromLiteral(3));
+        memory.flush();
+
+        assertEquals(3, metrics.getMemoryReads());
+        assertEquals(3, metrics.getMemoryWrites());
+    }
+
+    @Test
+    public void testAccessesAreDelegated(){
+        memory.setByteAt(RoxWord.fromLiteral(0x20), RoxByte.fromLiteral(42));
+
+        assertEquals(RoxByte.fromLiteral(42), memory.getByte(RoxWord.fromLiteral(0x20)));
+        assertEquals(0x10000, memory.getSize());
+    }
+}
@@ -5,6 +5,7 @@ import com.rox.emu.env.RoxWord;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import static junit.framework.TestCase.assertEquals;
@@ -31,6 +32,66 @@ public class ReadOnlyMemoryTest {
         }catch(RuntimeException e){}
     }
 
+    @Test
+    public void testContentsAreCopied(){
+        final byte[] contents = new byte[] {0x10, 0x20};
+        final Memory byteMemory = new ReadOnlyMemory(contents);
+
+        contents[0] = 0x11;
+
+        assertEquals(RoxByte.fromLiteral(0x10), byteMemory.getByte(RoxWord.ZERO));
+    }
+
+    @Test
+    public void testWrapping(){
+        final byte[] contents = new byte[] {0x10, 0x20, 0x30, (byte)0xF0, 0x50};
+        final Memory view = ReadOnlyMemory.wrapping(contents, 1, 3);
+
+        assertEquals(3, view.getSize());
+        assertEquals(RoxByte.fromLiteral(0x20), view.getByte(RoxWord.ZERO));
+        assertEquals(RoxByte.fromLiteral(0xF0), view.getByte(RoxWord.fromLiteral(2)));
+        assertEquals(RoxWord.fromLiteral(0x2030), view.getWord(RoxWord.ZERO));
+
+        try {
+            view.getByte(RoxWord.fromLiteral(3));
+            fail("Should not be able to read outside of the wrapped region");
+        }catch(ArrayIndexOutOfBoundsException e){}
+    }
+
+    @Test
+    public void testWrappingBuffer(){
+        final ByteBuffer contents = ByteBuffer.wrap(new byte[] {0x10, 0x20, 0x30, (byte)0xF0, 0x50});
+        contents.position(1);
+        contents.limit(4);
+        final Memory view = ReadOnlyMemory.wrapping(contents);
+
+        assertEquals(3, view.getSize());
+        assertEquals(RoxByte.fromLiteral(0x20), view.getByte(RoxWord.ZERO));
+        assertEquals(RoxByte.fromLiteral(0xF0), view.getByte(RoxWord.fromLiteral(2)));
+        assertEquals(1, contents.position());
+        assertEquals(4, contents.limit());
+    }
+
+    @Test
+    public void testSlice(){
+        final ReadOnlyMemory view = ReadOnlyMemory.wrapping(new byte[] {0x10, 0x20, 0x30, (byte)0xF0, 0x50}, 1, 4);
+        final Memory slice = view.slice(2, 2);
+
+        assertEquals(2, slice.getSize());
+        assertEquals(RoxByte.fromLiteral(0xF0), slice.getByte(RoxWord.ZERO));
+        assertEquals(RoxByte.fromLiteral(0x50), slice.getByte(RoxWord.fromLiteral(1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSliceOutsideContents(){
+        new ReadOnlyMemory(new byte[4]).slice(3, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrappingOutsideContents(){
+        ReadOnlyMemory.wrapping(new byte[4], 2, 3);
+    }
+
     @Test
     public void testExplicitlySizedMemory(){
         assertEquals(20, memory.getSize());
@@ -8,6 +8,7 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.stream.IntStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertTrue;
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.fail;
@@ -94,4 +95,26 @@ public class SimpleMemoryTest {
         }
     }
 
+
+    @Test
+    public void testCopyTo(){
+        memory.setBlock(RoxWord.fromLiteral(0x200), RoxByte.fromIntArray(new int[] {1,2,3,4}));
+        final Memory destination = new SimpleMemory(4);
+
+        memory.copyTo(0x201, destination, 1, 3);
+
+        assertArrayEquals(RoxByte.fromIntArray(new int[] {0,2,3,4}), destination.getBlock(RoxWord.ZERO, RoxWord.fromLiteral(4)));
+    }
+
+    @Test
+    public void testCopyToOtherMemory(){
+        memory.setBlock(RoxWord.fromLiteral(0x200), RoxByte.fromIntArray(new int[] {1,2,3,4}));
+        final BankedMemory destination = new BankedMemory(0x800, 0x400);
+        final Memory bank = new SimpleMemory(0x400);
+        destination.map(0x400, 0x400, bank, 0);
+
+        memory.copyTo(0x200, destination, 0x3FE, 4);
+
+        assertArrayEquals(RoxByte.fromIntArray(new int[] {3,4}), bank.getBlock(RoxWord.ZERO, RoxWord.fromLiteral(2)));
+    }
 }
@@ -0,0 +1,86 @@
+package com.rox.emu.metrics;
+
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.util.Program;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.NOP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+public class EmulationEventsTest {
+    private Mos6502 processor;
+
+    @Before
+    public void setUp(){
+        assumeTrue(FlightRecorder.isAvailable());
+
+        final Memory memory = new SimpleMemory();
+        processor = new Mos6502(memory, new Registers());
+        processor.reset();
+        memory.setBlock(RoxWord.ZERO, new Program().with(NOP, NOP, NOP, NOP).getProgramAsByteArray());
+    }
+
+    @Test
+    public void testRunSliceEvent() throws IOException {
+        final List<RecordedEvent> events = record(RunSliceEvent.NAME, () -> processor.step(3));
+
+        assertEquals(1, events.size());
+        assertEquals(0, events.get(0).getLong("startCycle"));
+        assertEquals(3, events.get(0).getInt("instructions"));
+        assertEquals(3 * NOP.getCycles(), events.get(0).getLong("cycles"));
+    }
+
+    @Test
+    public void testInterruptEvents() throws IOException {
+        final List<RecordedEvent> events = record(InterruptEvent.NAME, () -> {
+            processor.step(1);
+            processor.irq();
+            processor.nmi();
+        });
+
+        assertEquals(2, events.size());
+        assertEquals(InterruptEvent.IRQ, events.get(0).getString("type"));
+        assertEquals(InterruptEvent.NMI, events.get(1).getString("type"));
+        assertEquals(NOP.getCycles(), events.get(1).getLong("cycle"));
+    }
+
+    @Test
+    public void testNoEventsWhenNotRecording() throws IOException {
+        processor.step(2);
+
+        assertEquals(0, record(RunSliceEvent.NAME, () -> {}).size());
+    }
+
+    private List<RecordedEvent> record(final String eventName, final Runnable emulation) throws IOException {
+        final Path recordingFile = Files.createTempFile("emulation-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withoutThreshold();
+            recording.start();
+            emulation.run();
+            recording.stop();
+            recording.dump(recordingFile);
+
+            return RecordingFile.readAllEvents(recordingFile).stream()
+                                .filter(event -> event.getEventType().getName().equals(eventName))
+                                .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.rox.emu.metrics;
+
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.util.Program;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.NOP;
+import static org.junit.Assert.*;
+
+public class EmulationMetricsTest {
+    private EmulationMetrics metrics;
+
+    @Before
+    public void setUp(){
+        metrics = new EmulationMetrics();
+    }
+
+    @After
+    public void tearDown(){
+        metrics.stopReporting();
+        metrics.unregister();
+    }
+
+    @Test
+    public void testTotals(){
+        metrics.recordSlice(10, 25);
+        metrics.recordSlice(5, 12);
+        metrics.recordFrame();
+        metrics.recordIrq();
+        metrics.recordNmi();
+        metrics.recordNmi();
+        metrics.recordMemoryAccesses(100, 40);
+
+        assertEquals(15, metrics.getInstructions());
+        assertEquals(37, metrics.getCycles());
+        assertEquals(1, metrics.getFrames());
+        assertEquals(1, metrics.getIrqs());
+        assertEquals(2, metrics.getNmis());
+        assertEquals(100, metrics.getMemoryReads());
+        assertEquals(40, metrics.getMemoryWrites());
+    }
+
+    @Test
+    public void testRatesResampledWhenRead() throws InterruptedException {
+        final EmulationMetrics resampledMetrics = new EmulationMetrics(EmulationMetrics.NTSC_CPU_CLOCK_RATE, 1, TimeUnit.MILLISECONDS);
+        resampledMetrics.recordSlice(1_000, 2_000);
+        Thread.sleep(5);
+
+        assertTrue(resampledMetrics.getMips() > 0);
+    }
+
+    @Test
+    public void testReset(){
+        metrics.recordSlice(10, 25);
+        metrics.recordFrame();
+        metrics.sample();
+
+        metrics.reset();
+
+        assertEquals(0, metrics.getInstructions());
+        assertEquals(0, metrics.getCycles());
+        assertEquals(0, metrics.getFrames());
+        assertEquals(0, metrics.getMips(), 0);
+    }
+
+    @Test
+    public void testSampleRates() throws InterruptedException {
+        final EmulationMetrics oneHertzMetrics = new EmulationMetrics(1);
+        oneHertzMetrics.recordSlice(1_000_000, 2_000_000);
+        oneHertzMetrics.recordFrame();
+        Thread.sleep(5);
+
+        final EmulationMetrics.Sample sample = oneHertzMetrics.sample();
+
+        assertEquals(1_000_000, sample.getInstructions());
+        assertEquals(2_000_000, sample.getCycles());
+        assertEquals(1, sample.getFrames());
+        assertTrue(sample.getMips() > 0);
+        assertTrue(sample.getFramesPerSecond() > 0);
+        assertEquals(sample.getCyclesPerSecond(), sample.getEmulatedToHostTimeRatio(), 0.001);
+        assertEquals(sample.getMips(), oneHertzMetrics.getMips(), 0);
+    }
+
+    @Test
+    public void testRatesAreOverTheSamplePeriod(){
+        metrics.recordSlice(1_000, 2_000);
+        metrics.sample();
+
+        final EmulationMetrics.Sample sample = metrics.sample();
+
+        assertEquals(1_000, sample.getInstructions());
+        assertEquals(0, sample.getMips(), 0);
+        assertEquals(0, sample.getCyclesPerSecond(), 0);
+    }
+
+    @Test
+    public void testReport(){
+        metrics.recordSlice(10, 25);
+        metrics.recordMemoryAccesses(3, 4);
+
+        final String report = metrics.report();
+
+        assertTrue(report, report.contains("MIPS"));
+        assertTrue(report, report.contains("[10 instructions, 25 cycles, 0 frames, 0 IRQs, 0 NMIs, 3 reads, 4 writes]"));
+    }
+
+    @Test
+    public void testPeriodicReporting() throws InterruptedException {
+        final BlockingQueue<String> reports = new ArrayBlockingQueue<>(100);
+
+        metrics.startReporting(10, TimeUnit.MILLISECONDS, reports::offer);
+
+        assertNotNull("Expected a report", reports.poll(5, TimeUnit.SECONDS));
+        metrics.stopReporting();
+    }
+
+    @Test
+    public void testRegisterWithJmx() throws Exception {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        metrics.recordSlice(10, 25);
+
+        final ObjectName name = metrics.register("EmulationMetricsTest");
+
+        assertTrue(server.isRegistered(name));
+        assertEquals(10L, server.getAttribute(name, "Instructions"));
+        assertEquals(25L, server.getAttribute(name, "Cycles"));
+
+        metrics.unregister();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRegisterTwice(){
+        metrics.register("EmulationMetricsTest-Duplicate");
+        final EmulationMetrics duplicate = new EmulationMetrics();
+        duplicate.register("EmulationMetricsTest-Duplicate");
+    }
+
+    @Test
+    public void testProcessorMetrics(){
+        final Memory memory = new SimpleMemory();
+        final Mos6502 processor = new Mos6502(memory, new Registers());
+        processor.reset();
+        memory.setBlock(RoxWord.ZERO, new Program().with(NOP, NOP, NOP, NOP).getProgramAsByteArray());
+
+        processor.setMetrics(metrics);
+        processor.step(3);
+        processor.irq();
+        processor.nmi();
+
+        assertEquals(3, metrics.getInstructions());
+        assertEquals(3 * NOP.getCycles(), metrics.getCycles());
+        assertEquals(1, metrics.getIrqs());
+        assertEquals(1, metrics.getNmis());
+    }
+}
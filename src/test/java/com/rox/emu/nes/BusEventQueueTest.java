@@ -0,0 +1,58 @@
+package com.rox.emu.nes;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BusEventQueueTest {
+    @Test
+    public void testEventsTakenInOrder(){
+        final BusEventQueue queue = new BusEventQueue(8);
+        queue.offer(10, 1);
+        queue.offer(20, 2);
+        queue.offer(30, 3);
+
+        final List<Long> taken = new ArrayList<>();
+        assertEquals(2, queue.drain((cycle, event) -> taken.add(cycle * event), 2));
+        assertFalse(queue.isEmpty());
+        assertEquals(1, queue.drain((cycle, event) -> taken.add(cycle * event), 8));
+
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.drain((cycle, event) -> fail("Nothing queued"), 8));
+        assertEquals(3, taken.size());
+        assertEquals(10L, (long) taken.get(0));
+        assertEquals(40L, (long) taken.get(1));
+        assertEquals(90L, (long) taken.get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityMustBePowerOfTwo(){
+        new BusEventQueue(12);
+    }
+
+    @Test
+    public void testAcrossThreads() throws InterruptedException {
+        final int count = 100_000;
+        final BusEventQueue queue = new BusEventQueue(16);
+        final Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++)
+                queue.offer(i, i * 3);
+        });
+        producer.start();
+
+        final long[] next = {0};
+        while (next[0] < count) {
+            queue.drain((cycle, event) -> {
+                assertEquals(next[0], cycle);
+                assertEquals((int) next[0] * 3, event);
+                next[0]++;
+            }, 5);
+        }
+
+        producer.join();
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,62 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.nes.Controller.Button;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ControllerTest {
+    private Controller controller;
+
+    @Before
+    public void setUp(){
+        controller = new Controller();
+    }
+
+    private void strobe(){
+        controller.write(1);
+        controller.write(0);
+    }
+
+    @Test
+    public void testButtonsReadInOrder(){
+        controller.setButtons(Button.A.getMask() | Button.SELECT.getMask() | Button.RIGHT.getMask());
+        strobe();
+
+        final int[] expected = {1, 0, 1, 0, 0, 0, 0, 1};
+        for (Button button : Button.values())
+            assertEquals(button.name(), expected[button.ordinal()], controller.read());
+    }
+
+    @Test
+    public void testReadsAfterEightButtonsAreOne(){
+        strobe();
+        for (int i = 0; i < Button.values().length; i++)
+            assertEquals(0, controller.read());
+
+        assertEquals(1, controller.read());
+        assertEquals(1, controller.read());
+    }
+
+    @Test
+    public void testStrobeHeldReadsA(){
+        controller.setButtons(Button.A.getMask());
+        controller.write(1);
+
+        assertEquals(1, controller.read());
+        assertEquals(1, controller.read());
+
+        controller.setButtons(Button.B.getMask());
+        assertEquals(0, controller.read());
+    }
+
+    @Test
+    public void testButtonsLatchedOnStrobe(){
+        controller.setButtons(Button.A.getMask());
+        strobe();
+        controller.setButtons(0);
+
+        assertEquals(1, controller.read());
+    }
+}
@@ -0,0 +1,130 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.nes.Controller.Button;
+import com.rox.emu.processor.ricoh2c02.Ricoh2C02;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class FrameHashRegressionTest {
+    private static final int FRAMES = 12;
+
+    private Path directory;
+    private Path golden;
+    private Path images;
+    private FrameHashRegression regression;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("FrameHashRegressionTest");
+        golden = directory.resolve("golden");
+        images = directory.resolve("images");
+        regression = new FrameHashRegression(golden, images, FRAMES);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private Path writeRom(final String name, final byte[] image) throws IOException {
+        return Files.write(directory.resolve(name), image);
+    }
+
+    private long imagesWritten() throws IOException {
+        if (!Files.exists(images))
+            return 0;
+        try (Stream<Path> files = Files.list(images)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    public void testHash(){
+        final int[] picture = new int[Ricoh2C02.SCREEN_WIDTH * Ricoh2C02.SCREEN_HEIGHT];
+        final long blank = FrameHashRegression.hash(picture);
+        assertEquals(blank, FrameHashRegression.hash(picture.clone()));
+
+        picture[picture.length - 1] = 1;
+        final long lastPixel = FrameHashRegression.hash(picture);
+        assertNotEquals(blank, lastPixel);
+
+        picture[picture.length - 1] = 0;
+        picture[0] = 1;
+        assertNotEquals(blank, FrameHashRegression.hash(picture));
+        assertNotEquals(lastPixel, FrameHashRegression.hash(picture));
+    }
+
+    @Test
+    public void testHashOddLength(){
+        assertNotEquals(FrameHashRegression.hash(new int[] {1, 2, 3}), FrameHashRegression.hash(new int[] {1, 2, 4}));
+    }
+
+    @Test
+    public void testRecordsThenPasses() throws IOException {
+        final Path rom = writeRom("nrom.nes", FrameTestRoms.nromImage());
+
+        final FrameHashRegression.Result recorded = regression.run(rom, InputJournal.EMPTY);
+        assertTrue(recorded.isRecorded());
+        assertTrue(recorded.passed());
+        assertEquals(FRAMES, recorded.getHashes().length);
+        assertTrue(Files.exists(golden.resolve("nrom.nes.hashes")));
+
+        final FrameHashRegression.Result rerun = regression.run(rom, InputJournal.EMPTY);
+        assertFalse(rerun.isRecorded());
+        assertTrue(rerun.passed());
+        assertArrayEquals(recorded.getHashes(), rerun.getHashes());
+        assertEquals(0, imagesWritten());
+    }
+
+    @Test
+    public void testPicturesChanged() throws IOException {
+        final Path rom = writeRom("nrom.nes", FrameTestRoms.nromImage());
+        regression.run(rom, InputJournal.EMPTY);
+
+        final FrameHashRegression.Result result = regression.run(rom, InputJournal.EMPTY.with(6, Button.A));
+
+        assertFalse(result.passed());
+        final int[] differingFrames = result.getDifferingFrames();
+        assertTrue(differingFrames.length > 0);
+        assertTrue(Arrays.stream(differingFrames).allMatch(frame -> frame >= 6));
+        assertEquals(differingFrames.length, imagesWritten());
+        assertTrue(Files.exists(images.resolve(String.format("nrom.nes.%05d.png", differingFrames[0]))));
+    }
+
+    @Test
+    public void testRunAll() throws IOException {
+        final Path nrom = writeRom("nrom.nes", FrameTestRoms.nromImage());
+        final Path mmc3 = writeRom("mmc3.nes", FrameTestRoms.mmc3Image());
+        regression.runAll(Arrays.asList(nrom, mmc3));
+
+        Files.write(directory.resolve("mmc3.nes.journal"), Collections.singletonList("4 A"));
+        final Map<Path, FrameHashRegression.Result> results = regression.runAll(Arrays.asList(nrom, mmc3));
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(nrom).passed());
+        assertFalse(results.get(nrom).isRecorded());
+        assertFalse(results.get(mmc3).passed());
+        assertEquals(results.get(mmc3).getDifferingFrames().length, imagesWritten());
+    }
+}
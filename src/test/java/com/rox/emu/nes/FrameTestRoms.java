@@ -0,0 +1,105 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.processor.mos6502.util.Program;
+import com.rox.emu.rom.InesRom;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.*;
+
+/**
+ * iNES ROMs which keep the PPU busy, for comparing whole frames.  Each sets a palette and enables rendering and NMIs,
+ * then every NMI writes the frame count into the nametable, sprite zero (by OAM DMA from <code>$0200</code>) and the
+ * scroll position, and shows the first controller's A button as sprite zero's tile.  The MMC3 ROM also has the mapper raise an IRQ every 32 scanlines, which changes the scroll position
+ * and switches a character ROM bank mid frame.
+ */
+final class FrameTestRoms {
+    private static final int NMI_ADDRESS = 0x8100;
+    private static final int IRQ_ADDRESS = 0x8180;
+    private static final int CHR_BLOCKS = 2;
+
+    private FrameTestRoms(){}
+
+    static InesRom nrom(){
+        return InesRom.from(nromImage());
+    }
+
+    static InesRom mmc3(){
+        return InesRom.from(mmc3Image());
+    }
+
+    static byte[] nromImage(){
+        return image(0, new Program());
+    }
+
+    static byte[] mmc3Image(){
+        return image(4, new Program().with(LDA_I, 0x20, STA_ABS, 0xC0, 0x00,
+                                           STA_ABS, 0xC0, 0x01,
+                                           STA_ABS, 0xE0, 0x01,
+                                           CLI));
+    }
+
+    private static byte[] image(final int mapperNumber, final Program mapperSetUp){
+        final Program setUp = new Program().with(LDA_I, 0x3F, STA_ABS, 0x20, 0x06,
+                                                 LDA_I, 0x00, STA_ABS, 0x20, 0x06,
+                                                 LDA_I, 0x0F, STA_ABS, 0x20, 0x07,
+                                                 LDA_I, 0x21, STA_ABS, 0x20, 0x07,
+                                                 LDA_I, 0x16, STA_ABS, 0x20, 0x07,
+                                                 LDA_I, 0x30, STA_ABS, 0x20, 0x07,
+                                                 LDA_I, 0x80, STA_ABS, 0x20, 0x00,
+                                                 LDA_I, 0x1E, STA_ABS, 0x20, 0x01);
+        final RoxByte[] setUpBytes = setUp.getProgramAsByteArray();
+        final RoxByte[] mapperSetUpBytes = mapperSetUp.getProgramAsByteArray();
+        final int loop = 0x8000 + setUpBytes.length + mapperSetUpBytes.length;
+        final RoxByte[] loopBytes = new Program().with(JMP_ABS, loop >> 8, loop & 0xFF).getProgramAsByteArray();
+
+        final RoxByte[] nmi = new Program().with(INC_ABS, 0x00, 0x10,
+                                                 LDA_I, 0x20, STA_ABS, 0x20, 0x06,
+                                                 LDA_ABS, 0x00, 0x10, STA_ABS, 0x20, 0x06,
+                                                 STA_ABS, 0x20, 0x07,
+                                                 STA_ABS, 0x02, 0x00,
+                                                 STA_ABS, 0x02, 0x03,
+                                                 LDA_I, 0x01, STA_ABS, 0x40, 0x16,
+                                                 LDA_I, 0x00, STA_ABS, 0x40, 0x16,
+                                                 LDA_ABS, 0x40, 0x16, AND_I, 0x01, STA_ABS, 0x02, 0x01,
+                                                 LDA_I, 0x02, STA_ABS, 0x40, 0x14,
+                                                 LDA_ABS, 0x20, 0x02,
+                                                 LDA_ABS, 0x00, 0x10, STA_ABS, 0x20, 0x05,
+                                                 STA_ABS, 0x20, 0x05,
+                                                 CLI,
+                                                 JMP_ABS, loop >> 8, loop & 0xFF).getProgramAsByteArray();
+
+        final RoxByte[] irq = new Program().with(STA_ABS, 0xE0, 0x00,
+                                                 STA_ABS, 0xE0, 0x01,
+                                                 INC_ABS, 0x00, 0x11,
+                                                 LDA_ABS, 0x00, 0x11, STA_ABS, 0x20, 0x05,
+                                                 STA_ABS, 0x20, 0x05,
+                                                 LDA_I, 0x02, STA_ABS, 0x80, 0x00,
+                                                 LDA_ABS, 0x00, 0x11, STA_ABS, 0x80, 0x01,
+                                                 CLI,
+                                                 JMP_ABS, loop >> 8, loop & 0xFF).getProgramAsByteArray();
+
+        final int prgSize = 2 * InesRom.PRG_ROM_BLOCK_SIZE;
+        final byte[] image = new byte[16 + prgSize + (CHR_BLOCKS * InesRom.CHR_ROM_BLOCK_SIZE)];
+        System.arraycopy(new byte[] {'N', 'E', 'S', 0x1A, 0x2, CHR_BLOCKS, (byte) (mapperNumber << 4)}, 0, image, 0, 7);
+
+        int address = 16;
+        for (RoxByte[] part : new RoxByte[][] {setUpBytes, mapperSetUpBytes, loopBytes})
+            for (RoxByte value : part)
+                image[address++] = (byte) value.getRawValue();
+        for (int i = 0; i < nmi.length; i++)
+            image[16 + (NMI_ADDRESS - 0x8000) + i] = (byte) nmi[i].getRawValue();
+        for (int i = 0; i < irq.length; i++)
+            image[16 + (IRQ_ADDRESS - 0x8000) + i] = (byte) irq[i].getRawValue();
+        for (int i = 0; i < CHR_BLOCKS * InesRom.CHR_ROM_BLOCK_SIZE; i++)
+            image[16 + prgSize + i] = (byte) ((i * 7) + (i >> 10));
+
+        final int vectors = 16 + prgSize - 6;
+        image[vectors] = (byte) (NMI_ADDRESS >> 8);
+        image[vectors + 1] = (byte) NMI_ADDRESS;
+        image[vectors + 2] = (byte) 0x80;
+        image[vectors + 4] = (byte) (IRQ_ADDRESS >> 8);
+        image[vectors + 5] = (byte) IRQ_ADDRESS;
+
+        return image;
+    }
+}
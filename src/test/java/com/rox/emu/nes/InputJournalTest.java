@@ -0,0 +1,58 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.nes.Controller.Button;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class InputJournalTest {
+    @Test
+    public void testEmpty(){
+        assertEquals(0, InputJournal.EMPTY.buttonsAt(0));
+        assertEquals(0, InputJournal.EMPTY.buttonsAt(1000));
+    }
+
+    @Test
+    public void testParse(){
+        final InputJournal journal = InputJournal.parse(Arrays.asList("# Start then jump",
+                                                                      "",
+                                                                      "10  START",
+                                                                      "12  -      # Released",
+                                                                      "20  RIGHT+A"));
+
+        assertEquals(0, journal.buttonsAt(9));
+        assertEquals(Button.START.getMask(), journal.buttonsAt(10));
+        assertEquals(Button.START.getMask(), journal.buttonsAt(11));
+        assertEquals(0, journal.buttonsAt(12));
+        assertEquals(Button.RIGHT.getMask() | Button.A.getMask(), journal.buttonsAt(20));
+        assertEquals(Button.RIGHT.getMask() | Button.A.getMask(), journal.buttonsAt(500));
+    }
+
+    @Test
+    public void testWith(){
+        final InputJournal journal = InputJournal.EMPTY.with(5, Button.A, Button.B).with(8);
+
+        assertEquals(0, InputJournal.EMPTY.buttonsAt(5));
+        assertEquals(0, journal.buttonsAt(4));
+        assertEquals(Button.A.getMask() | Button.B.getMask(), journal.buttonsAt(7));
+        assertEquals(0, journal.buttonsAt(8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownButton(){
+        InputJournal.parse(Collections.singletonList("10 TURBO"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFrame(){
+        InputJournal.parse(Collections.singletonList("ten A"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingButtons(){
+        InputJournal.parse(Collections.singletonList("10"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.rom.InesRom;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class NESCatchUpTest {
+    private static final int FRAMES = 20;
+
+    @Test
+    public void testCatchUpMatchesEagerStepping(){
+        assertEquals(0, assertCatchUpMatchesEagerStepping(FrameTestRoms.nrom()));
+    }
+
+    @Test
+    public void testCatchUpMatchesEagerSteppingWithMidFrameIrqs(){
+        assertTrue(assertCatchUpMatchesEagerStepping(FrameTestRoms.mmc3()) > FRAMES);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCatchUpNeedsPpu(){
+        final SimpleMemory memory = new SimpleMemory();
+        new NES(new Mos6502(memory, new Registers()), null, memory).setPpuCatchUp(true);
+    }
+
+    /**
+     * @return the number of IRQs handled
+     */
+    private static int assertCatchUpMatchesEagerStepping(final InesRom rom){
+        final TestConsole eager = new TestConsole(rom);
+        eager.nes.setPpuCatchUp(false);
+        final TestConsole catchingUp = new TestConsole(rom);
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            eager.nes.runFrame();
+            catchingUp.nes.runFrame();
+
+            assertArrayEquals(eager.ppu.getFramebuffer(), catchingUp.ppu.getFramebuffer());
+            assertEquals(eager.processor.getCycles(), catchingUp.processor.getCycles());
+            assertEquals(eager.ppu.getCycles(), catchingUp.ppu.getCycles());
+            assertEquals(eager.processor.getRegisters().getPC(), catchingUp.processor.getRegisters().getPC());
+        }
+
+        assertTrue(Arrays.stream(eager.ppu.getFramebuffer()).distinct().count() > 1);
+        assertEquals(FRAMES, eager.ram().getRawByte(0x10));
+        assertEquals(eager.ram().getRawByte(0x11), catchingUp.ram().getRawByte(0x11));
+        return catchingUp.ram().getRawByte(0x11);
+    }
+}
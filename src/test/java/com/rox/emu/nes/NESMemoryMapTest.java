@@ -0,0 +1,246 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.MappedSaveMemory;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.metrics.EmulationMetrics;
+import com.rox.emu.nes.mapper.Mapper;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.dbg.InstructionProfiler;
+import com.rox.emu.processor.mos6502.util.Program;
+import com.rox.emu.processor.ricoh2c02.Ricoh2C02;
+import com.rox.emu.rom.InesRom;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.*;
+import static org.junit.Assert.*;
+
+public class NESMemoryMapTest {
+    private Path saveFile;
+
+    @Before
+    public void setUp() throws IOException {
+        saveFile = Files.createTempFile("NESMemoryMapTest", ".sav");
+        saveFile.toFile().deleteOnExit();
+        Files.delete(saveFile);
+    }
+
+    @After
+    public void tearDown() {
+        System.gc();
+        try {
+            Files.deleteIfExists(saveFile);
+        } catch (IOException e) {
+            //Still mapped on some platforms, deleted on exit instead
+        }
+    }
+
+    /**
+     * A single 16K block NROM image which stores <code>0x42</code> at <code>$6000</code> then loops forever
+     */
+    private static InesRom rom(final boolean battery){
+        return rom(battery, new Program().with(LDA_I, 0x42,
+                                               STA_ABS, 0x60, 0x00,
+                                               JMP_ABS, 0x80, 0x05).getProgramAsByteArray());
+    }
+
+    /**
+     * A single 16K block NROM image running <code>program</code> from <code>$8000</code>, with interrupts handled
+     * from <code>$8000</code>
+     */
+    private static InesRom rom(final boolean battery, final RoxByte[] program){
+        final byte[] image = new byte[16 + InesRom.PRG_ROM_BLOCK_SIZE + InesRom.CHR_ROM_BLOCK_SIZE];
+        System.arraycopy(new byte[] {'N', 'E', 'S', 0x1A, 0x1, 0x1, (byte) (battery ? 0b0010 : 0)}, 0, image, 0, 7);
+
+        for (int i = 0; i < program.length; i++)
+            image[16 + i] = (byte) program[i].getRawValue();
+        image[16 + 0x3FFA] = (byte) 0x80;
+        image[16 + 0x3FFB] = 0x00;
+        image[16 + 0x3FFC] = (byte) 0x80;
+        image[16 + 0x3FFD] = 0x00;
+
+        return InesRom.from(image);
+    }
+
+    @Test
+    public void testInternalRamIsMirrored(){
+        final Memory cpu = new NESMemoryMap(rom(false)).getCpuMemory();
+
+        cpu.setByteAt(RoxWord.fromLiteral(0x0801), RoxByte.fromLiteral(0x42));
+
+        assertEquals(RoxByte.fromLiteral(0x42), cpu.getByte(RoxWord.fromLiteral(0x0001)));
+        assertEquals(RoxByte.fromLiteral(0x42), cpu.getByte(RoxWord.fromLiteral(0x1801)));
+        assertEquals(RoxWord.fromLiteral(0x8000), cpu.getWord(RoxWord.fromLiteral(0xFFFC)));
+    }
+
+    @Test
+    public void testSaveMemoryMountedForBatteryBackedRom() throws IOException {
+        try (NESMemoryMap memoryMap = new NESMemoryMap(rom(true), saveFile)) {
+            assertTrue(memoryMap.getSaveMemory().isPresent());
+            assertSame(memoryMap.getSaveMemory().get(), memoryMap.getMapper().getPrgRam());
+
+            memoryMap.getCpuMemory().setByteAt(RoxWord.fromLiteral(0x7FFF), RoxByte.fromLiteral(0x42));
+        }
+
+        assertEquals(Mapper.PRG_RAM_SIZE, Files.size(saveFile));
+        assertEquals(0x42, Files.readAllBytes(saveFile)[0x1FFF]);
+
+        try (NESMemoryMap memoryMap = new NESMemoryMap(rom(true), saveFile)) {
+            memoryMap.reset();
+            assertEquals(RoxByte.fromLiteral(0x42), memoryMap.getCpuMemory().getByte(RoxWord.fromLiteral(0x7FFF)));
+        }
+    }
+
+    @Test
+    public void testNoSaveMemoryWithoutBattery() throws IOException {
+        try (NESMemoryMap memoryMap = new NESMemoryMap(rom(false), saveFile)) {
+            assertFalse(memoryMap.getSaveMemory().isPresent());
+        }
+        assertFalse(Files.exists(saveFile));
+    }
+
+    @Test
+    public void testSaveMemoryFlushedEachFrame() throws IOException {
+        try (NESMemoryMap memoryMap = new NESMemoryMap(rom(true), saveFile)) {
+            final Mos6502 processor = new Mos6502(memoryMap.getCpuMemory(), new Registers());
+            final NES nes = new NES(processor, null, memoryMap);
+            nes.reset();
+            processor.reset();
+
+            nes.runFrame();
+
+            final MappedSaveMemory saveMemory = memoryMap.getSaveMemory().get();
+            assertEquals(RoxByte.fromLiteral(0x42), saveMemory.getByte(RoxWord.ZERO));
+            assertFalse(saveMemory.isDirty());
+        }
+    }
+
+    @Test
+    public void testPpuRegistersMapped(){
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(false));
+        final Ricoh2C02 ppu = new Ricoh2C02(memoryMap.getPpuMemory(), new SimpleMemory(0x100));
+        memoryMap.connect(ppu);
+        final Memory cpu = memoryMap.getCpuMemory();
+
+        cpu.setByteAt(RoxWord.fromLiteral(0x2006), RoxByte.fromLiteral(0x20));
+        cpu.setByteAt(RoxWord.fromLiteral(0x3FFE), RoxByte.fromLiteral(0x05));
+        cpu.setByteAt(RoxWord.fromLiteral(0x2007), RoxByte.fromLiteral(0x42));
+
+        assertEquals(0x42, memoryMap.getPpuMemory().getRawByte(0x2005));
+    }
+
+    @Test
+    public void testPpuRaisesNmi(){
+        //Enable NMI then loop; the NMI handler, from $8000, counts NMIs at $0010
+        final RoxByte[] program = new Program().with(INC_ABS, 0x00, 0x10,
+                                                     LDA_I, 0x80,
+                                                     STA_ABS, 0x20, 0x00,
+                                                     JMP_ABS, 0x80, 0x08).getProgramAsByteArray();
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(false, program));
+        final Mos6502 processor = new Mos6502(memoryMap.getCpuMemory(), new Registers());
+        final NES nes = new NES(processor, new Ricoh2C02(memoryMap.getPpuMemory(), new SimpleMemory(0x100)), memoryMap);
+        nes.reset();
+        processor.reset();
+
+        nes.runFrame();
+        nes.runFrame();
+
+        assertEquals(RoxByte.fromLiteral(3), memoryMap.getCpuMemory().getByte(RoxWord.fromLiteral(0x0010)));
+    }
+
+    @Test
+    public void testOamDmaLatched(){
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(false));
+        assertEquals(-1, memoryMap.pollOamDma());
+
+        memoryMap.getCpuMemory().setByteAt(RoxWord.fromLiteral(0x4014), RoxByte.fromLiteral(0x02));
+
+        assertEquals(0x02, memoryMap.pollOamDma());
+        assertEquals(-1, memoryMap.pollOamDma());
+    }
+
+    @Test
+    public void testOamDma(){
+        final RoxByte[] program = new Program().with(LDA_I, 0x02,
+                                                     STA_ABS, 0x40, 0x14,
+                                                     JMP_ABS, 0x80, 0x05).getProgramAsByteArray();
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(false, program));
+        final Memory oam = new SimpleMemory(Ricoh2C02.OAM_SIZE);
+        final Mos6502 processor = new Mos6502(memoryMap.getCpuMemory(), new Registers());
+        final NES nes = new NES(processor, new Ricoh2C02(memoryMap.getPpuMemory(), oam), memoryMap);
+        nes.reset();
+        processor.reset();
+        for (int i = 0; i < Ricoh2C02.OAM_SIZE; i++)
+            memoryMap.getCpuMemory().setByteAt(RoxWord.fromLiteral(0x0200 + i), RoxByte.fromLiteral(i));
+
+        nes.runFrame();
+
+        for (int i = 0; i < Ricoh2C02.OAM_SIZE; i++)
+            assertEquals(i, oam.getRawByte(i));
+    }
+
+    @Test
+    public void testMetricsRecordedOncePerFrame(){
+        final TestConsole console = new TestConsole(FrameTestRoms.nrom());
+        final EmulationMetrics metrics = new EmulationMetrics();
+        final InstructionProfiler profiler = new InstructionProfiler();
+        console.nes.setMetrics(metrics);
+        console.processor.setProfiler(profiler);
+
+        for (int frame = 0; frame < 3; frame++)
+            console.nes.runFrame();
+
+        assertEquals(3, metrics.getFrames());
+        assertEquals(profiler.getTotalExecutions(), metrics.getInstructions());
+        assertEquals(console.processor.getCycles(), metrics.getCycles());
+        assertTrue(metrics.getMemoryReads() >= metrics.getInstructions());
+        assertTrue(metrics.getMemoryWrites() > 0);
+    }
+
+    @Test
+    public void testMemoryAccessesNotMeteredOnceMetricsDetached(){
+        final TestConsole console = new TestConsole(FrameTestRoms.nrom());
+        final EmulationMetrics metrics = new EmulationMetrics();
+        console.nes.setMetrics(metrics);
+        console.nes.runFrame();
+        console.nes.setMetrics(null);
+
+        final long reads = metrics.getMemoryReads();
+        final long writes = metrics.getMemoryWrites();
+        console.nes.runFrame();
+
+        assertEquals(reads, metrics.getMemoryReads());
+        assertEquals(writes, metrics.getMemoryWrites());
+    }
+
+    @Test
+    public void testControllersRead(){
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(false));
+        final Memory cpuMemory = memoryMap.getCpuMemory();
+        memoryMap.getController(0).setButtons(Controller.Button.A.getMask() | Controller.Button.START.getMask());
+        memoryMap.getController(1).setButtons(Controller.Button.B.getMask());
+
+        cpuMemory.setByteAt(RoxWord.fromLiteral(0x4016), RoxByte.fromLiteral(1));
+        cpuMemory.setByteAt(RoxWord.fromLiteral(0x4016), RoxByte.fromLiteral(0));
+
+        final int[] first = new int[8];
+        final int[] second = new int[8];
+        for (int i = 0; i < 8; i++) {
+            first[i] = cpuMemory.getRawByte(0x4016);
+            second[i] = cpuMemory.getRawByte(0x4017);
+        }
+
+        assertArrayEquals(new int[] {1, 0, 0, 1, 0, 0, 0, 0}, first);
+        assertArrayEquals(new int[] {0, 1, 0, 0, 0, 0, 0, 0}, second);
+        assertEquals(0, cpuMemory.getRawByte(0x4015));
+    }
+}
@@ -3,12 +3,20 @@ package com.rox.emu.nes;
 import com.rox.emu.env.RoxByte;
 import com.rox.emu.env.RoxWord;
 import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.metrics.EmulationMetrics;
 import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.util.Program;
 import com.rox.emu.processor.ricoh2c02.Ricoh2C02;
 import org.junit.Before;
 import org.junit.Test;
 
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.JMP_ABS;
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.NOP;
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -40,4 +48,28 @@ public class NESTest {
 
         verify(mem, times(1)).setBlock(RoxWord.fromLiteral(0xFFFC), new RoxByte[] {RoxByte.fromLiteral(0x80), RoxByte.ZERO});
     }
+
+    @Test
+    public void testRunFrame(){
+        final Memory memory = new SimpleMemory();
+        final Mos6502 processor = new Mos6502(memory, new Registers());
+        processor.reset();
+        memory.setBlock(RoxWord.ZERO, new Program().with(NOP, JMP_ABS, 0x00, 0x00).getProgramAsByteArray());
+
+        final EmulationMetrics metrics = new EmulationMetrics();
+        final NES realNes = new NES(processor, ppu, memory);
+        realNes.setMetrics(metrics);
+
+        realNes.runFrame();
+        final long firstFrameCycles = processor.getCycles();
+        realNes.runFrame();
+
+        assertTrue(firstFrameCycles >= NES.CPU_CYCLES_PER_FRAME);
+        assertTrue(firstFrameCycles < NES.CPU_CYCLES_PER_FRAME + JMP_ABS.getCycles());
+        assertTrue(processor.getCycles() >= 2 * NES.CPU_CYCLES_PER_FRAME);
+        assertTrue(processor.getCycles() < 2 * NES.CPU_CYCLES_PER_FRAME + JMP_ABS.getCycles());
+        assertEquals(2, realNes.getFrames());
+        assertEquals(2, metrics.getFrames());
+        assertEquals(processor.getCycles(), metrics.getCycles());
+    }
 }
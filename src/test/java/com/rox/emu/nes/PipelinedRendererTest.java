@@ -0,0 +1,79 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.ricoh2c02.Ricoh2C02;
+import com.rox.emu.rom.InesRom;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PipelinedRendererTest {
+    private static final int FRAMES = 20;
+    @Test
+    public void testPipelinedPictureMatchesLockstep(){
+        assertPipelinedPictureMatchesLockstep(FrameTestRoms.nrom());
+    }
+
+    @Test
+    public void testPipelinedPictureMatchesLockstepWithMidFrameIrqs(){
+        assertPipelinedPictureMatchesLockstep(FrameTestRoms.mmc3());
+    }
+
+    private static void assertPipelinedPictureMatchesLockstep(final InesRom rom){
+        final TestConsole lockstep = new TestConsole(rom);
+        final int[] lockstepPicture = new int[Ricoh2C02.SCREEN_WIDTH * Ricoh2C02.SCREEN_HEIGHT];
+        final int[] pictures = {0};
+        lockstep.ppu.setFrameListener(() -> {
+            System.arraycopy(lockstep.ppu.getFramebuffer(), 0, lockstepPicture, 0, lockstepPicture.length);
+            pictures[0]++;
+        });
+        for (int frame = 0; frame < FRAMES; frame++)
+            lockstep.nes.runFrame();
+
+        final TestConsole pipelined = new TestConsole(rom);
+        pipelined.nes.setPipelined(true);
+        for (int frame = 0; frame < FRAMES; frame++)
+            pipelined.nes.runFrame();
+        pipelined.nes.setPipelined(false);
+
+        assertTrue(pictures[0] >= FRAMES - 1);
+        assertTrue(Arrays.stream(lockstepPicture).distinct().count() > 1);
+        assertArrayEquals(lockstepPicture, pipelined.nes.getFramebuffer());
+        assertEquals(lockstep.ram().getRawByte(0x10), pipelined.ram().getRawByte(0x10));
+        assertEquals(lockstep.ram().getRawByte(0x11), pipelined.ram().getRawByte(0x11));
+        assertEquals(lockstep.processor.getCycles(), pipelined.processor.getCycles());
+    }
+
+    @Test
+    public void testPipelinedPictureChanges(){
+        final TestConsole pipelined = new TestConsole(FrameTestRoms.nrom());
+        pipelined.nes.setPipelined(true);
+
+        for (int frame = 0; frame < FRAMES; frame++)
+            pipelined.nes.runFrame();
+        final int[] picture = pipelined.nes.getFramebuffer().clone();
+        for (int frame = 0; frame < FRAMES; frame++)
+            pipelined.nes.runFrame();
+
+        assertFalse(Arrays.equals(picture, pipelined.nes.getFramebuffer()));
+        pipelined.nes.setPipelined(false);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMustStartBeforePpuRuns(){
+        final TestConsole console = new TestConsole(FrameTestRoms.nrom());
+        console.nes.runFrame();
+        console.nes.setPipelined(true);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNeedsCartridge(){
+        final Memory memory = new SimpleMemory();
+        new NES(new Mos6502(memory, new Registers()), null, memory).setPipelined(true);
+    }
+}
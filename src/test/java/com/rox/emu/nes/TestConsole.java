@@ -0,0 +1,31 @@
+package com.rox.emu.nes;
+
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.ricoh2c02.Ricoh2C02;
+import com.rox.emu.rom.InesRom;
+
+/**
+ * A {@link NES} with a CPU and PPU running a cartridge, reset and ready to run frames
+ */
+final class TestConsole {
+    final NESMemoryMap memoryMap;
+    final Ricoh2C02 ppu;
+    final Mos6502 processor;
+    final NES nes;
+
+    TestConsole(final InesRom rom){
+        memoryMap = new NESMemoryMap(rom);
+        ppu = new Ricoh2C02(memoryMap.getPpuMemory(), new SimpleMemory(Ricoh2C02.OAM_SIZE));
+        processor = new Mos6502(memoryMap.getCpuMemory(), new Registers());
+        nes = new NES(processor, ppu, memoryMap);
+        nes.reset();
+        processor.reset();
+    }
+
+    Memory ram(){
+        return memoryMap.getCpuMemory();
+    }
+}
@@ -0,0 +1,175 @@
+package com.rox.emu.nes.mapper;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.metrics.BankSwitchEvent;
+import com.rox.emu.nes.NESMemoryMap;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.rox.emu.nes.mapper.MapperTestRoms.rom;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class MapperTest {
+    private static int read(final Memory memory, final int address){
+        return memory.getByte(RoxWord.fromLiteral(address)).getRawValue();
+    }
+
+    private static void write(final Memory memory, final int address, final int value){
+        memory.setByteAt(RoxWord.fromLiteral(address), RoxByte.fromLiteral(value));
+    }
+
+    @Test
+    public void testForRom(){
+        assertTrue(Mapper.forRom(rom(0, 1, 1, 0)) instanceof NromMapper);
+        assertTrue(Mapper.forRom(rom(1, 1, 1, 0)) instanceof Mmc1Mapper);
+        assertTrue(Mapper.forRom(rom(2, 1, 1, 0)) instanceof UxromMapper);
+        assertTrue(Mapper.forRom(rom(3, 1, 1, 0)) instanceof CnromMapper);
+        assertTrue(Mapper.forRom(rom(4, 1, 1, 0)) instanceof Mmc3Mapper);
+    }
+
+    @Test
+    public void testUnknownMapper(){
+        try {
+            Mapper.forRom(rom(0x42, 1, 1, 0));
+            fail("Mapper 0x42 is not supported, should throw an exception");
+        }catch(UnknownMapperException e){
+            assertEquals(0x42, e.getMapperNumber());
+        }
+    }
+
+    @Test
+    public void testNromMirrorsSingleProgramBlock(){
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(0, 1, 1, 0));
+        final Memory cpu = memoryMap.getCpuMemory();
+
+        assertEquals(0, read(cpu, 0x8000));
+        assertEquals(1, read(cpu, 0xA000));
+        assertEquals(0, read(cpu, 0xC000));
+        assertEquals(1, read(cpu, 0xE000));
+
+        write(cpu, 0x8000, 0x42);
+        assertEquals(0, read(cpu, 0x8000));
+    }
+
+    @Test
+    public void testNromCharacterRomIsReadOnly(){
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(0, 2, 1, 0));
+        final Memory ppu = memoryMap.getPpuMemory();
+
+        write(ppu, 0x0400, 0x42);
+
+        assertEquals(1, read(ppu, 0x0400));
+        assertEquals(2, read(memoryMap.getCpuMemory(), 0xC000));
+    }
+
+    @Test
+    public void testUxromSwitchesLowerProgramBank(){
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(2, 4, 0, 0));
+        final Memory cpu = memoryMap.getCpuMemory();
+
+        assertEquals(0, read(cpu, 0x8000));
+        assertEquals(6, read(cpu, 0xC000));
+
+        write(cpu, 0xFFF0, 2);
+
+        assertEquals(4, read(cpu, 0x8000));
+        assertEquals(5, read(cpu, 0xA000));
+        assertEquals(6, read(cpu, 0xC000));
+    }
+
+    @Test
+    public void testUxromCharacterRam(){
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(2, 2, 0, 0));
+        final Memory ppu = memoryMap.getPpuMemory();
+
+        write(ppu, 0x1FFF, 0x42);
+
+        assertEquals(0x42, read(ppu, 0x1FFF));
+    }
+
+    @Test
+    public void testCnromSwitchesCharacterBank(){
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(3, 2, 4, 0));
+        final Memory ppu = memoryMap.getPpuMemory();
+
+        write(memoryMap.getCpuMemory(), 0x8000, 3);
+
+        assertEquals(24, read(ppu, 0x0000));
+        assertEquals(31, read(ppu, 0x1C00));
+    }
+
+    @Test
+    public void testBankNumbersWrap(){
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(2, 4, 0, 0));
+
+        write(memoryMap.getCpuMemory(), 0x8000, 5);
+
+        assertEquals(2, read(memoryMap.getCpuMemory(), 0x8000));
+    }
+
+    @Test
+    public void testHeaderMirroring(){
+        final NESMemoryMap vertical = new NESMemoryMap(rom(0, 1, 1, 0b0001));
+        write(vertical.getPpuMemory(), 0x2000, 0x42);
+        assertEquals(0x42, read(vertical.getPpuMemory(), 0x2800));
+        assertEquals(0x42, read(vertical.getPpuMemory(), 0x3000));
+        assertEquals(0, read(vertical.getPpuMemory(), 0x2400));
+
+        final NESMemoryMap horizontal = new NESMemoryMap(rom(0, 1, 1, 0b0000));
+        write(horizontal.getPpuMemory(), 0x2000, 0x42);
+        assertEquals(0x42, read(horizontal.getPpuMemory(), 0x2400));
+        assertEquals(0, read(horizontal.getPpuMemory(), 0x2800));
+
+        final NESMemoryMap fourScreen = new NESMemoryMap(rom(0, 1, 1, 0b1000));
+        write(fourScreen.getPpuMemory(), 0x2C00, 0x42);
+        assertEquals(0x42, read(fourScreen.getPpuMemory(), 0x3C00));
+        assertEquals(0, read(fourScreen.getPpuMemory(), 0x2000));
+    }
+
+    @Test
+    public void testBankSwitchEvents() throws IOException {
+        assumeTrue(FlightRecorder.isAvailable());
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(2, 4, 1, 0));
+
+        final List<RecordedEvent> events = recordBankSwitches(() -> {
+            write(memoryMap.getCpuMemory(), 0x8000, 2);
+            write(memoryMap.getCpuMemory(), 0x8000, 5);
+        });
+
+        assertEquals(2, events.size());
+        assertEquals(BankSwitchEvent.PRG, events.get(0).getString("memory"));
+        assertEquals(0x8000, events.get(0).getInt("address"));
+        assertEquals(0x4000, events.get(0).getInt("bankSize"));
+        assertEquals(2, events.get(0).getInt("bank"));
+        assertEquals(1, events.get(1).getInt("bank"));
+    }
+
+    private static List<RecordedEvent> recordBankSwitches(final Runnable switches) throws IOException {
+        final Path recordingFile = Files.createTempFile("bank-switches", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(BankSwitchEvent.NAME).withoutThreshold();
+            recording.start();
+            switches.run();
+            recording.stop();
+            recording.dump(recordingFile);
+
+            return RecordingFile.readAllEvents(recordingFile).stream()
+                                .filter(event -> event.getEventType().getName().equals(BankSwitchEvent.NAME))
+                                .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.rox.emu.nes.mapper;
+
+import com.rox.emu.rom.InesRom;
+
+/**
+ * iNES ROMs for mapper tests, in which the first byte of each 8K program ROM bank and each 1K character ROM bank is
+ * its bank number
+ */
+final class MapperTestRoms {
+    private MapperTestRoms(){}
+
+    static InesRom rom(final int mapperNumber, final int prgBlocks, final int chrBlocks, final int flags6){
+        final int prgSize = prgBlocks * InesRom.PRG_ROM_BLOCK_SIZE;
+        final int chrSize = chrBlocks * InesRom.CHR_ROM_BLOCK_SIZE;
+        final byte[] image = new byte[16 + prgSize + chrSize];
+        System.arraycopy(new byte[] {'N', 'E', 'S', 0x1A, (byte) prgBlocks, (byte) chrBlocks,
+                                     (byte) (((mapperNumber & 0x0F) << 4) | flags6), (byte) (mapperNumber & 0xF0)}, 0, image, 0, 8);
+
+        for (int bank = 0; bank < prgSize / 0x2000; bank++)
+            image[16 + (bank * 0x2000)] = (byte) bank;
+        for (int bank = 0; bank < chrSize / 0x400; bank++)
+            image[16 + prgSize + (bank * 0x400)] = (byte) bank;
+
+        return InesRom.from(image);
+    }
+}
@@ -0,0 +1,108 @@
+package com.rox.emu.nes.mapper;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.nes.NESMemoryMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.rox.emu.nes.mapper.MapperTestRoms.rom;
+import static org.junit.Assert.*;
+
+public class Mmc1MapperTest {
+    private NESMemoryMap memoryMap;
+    private Memory cpu;
+    private Memory ppu;
+
+    @Before
+    public void setUp(){
+        memoryMap = new NESMemoryMap(rom(Mmc1Mapper.NUMBER, 8, 4, 0));
+        cpu = memoryMap.getCpuMemory();
+        ppu = memoryMap.getPpuMemory();
+    }
+
+    private int read(final Memory memory, final int address){
+        return memory.getByte(RoxWord.fromLiteral(address)).getRawValue();
+    }
+
+    private void loadRegister(final int address, final int value){
+        for (int bit = 0; bit < 5; bit++)
+            cpu.setByteAt(RoxWord.fromLiteral(address), RoxByte.fromLiteral((value >> bit) & 1));
+    }
+
+    @Test
+    public void testPowerUpState(){
+        assertEquals(0, read(cpu, 0x8000));
+        assertEquals(14, read(cpu, 0xC000));
+    }
+
+    @Test
+    public void testSwitchLowerProgramBank(){
+        loadRegister(0xE000, 3);
+
+        assertEquals(6, read(cpu, 0x8000));
+        assertEquals(14, read(cpu, 0xC000));
+    }
+
+    @Test
+    public void testSwitchUpperProgramBank(){
+        loadRegister(0x8000, 0b01000);
+        loadRegister(0xE000, 3);
+
+        assertEquals(0, read(cpu, 0x8000));
+        assertEquals(6, read(cpu, 0xC000));
+    }
+
+    @Test
+    public void testSwitch32KProgramBank(){
+        loadRegister(0x8000, 0b00000);
+        loadRegister(0xE000, 3);
+
+        assertEquals(4, read(cpu, 0x8000));
+        assertEquals(6, read(cpu, 0xC000));
+    }
+
+    @Test
+    public void testSwitchCharacterBanks(){
+        loadRegister(0xA000, 3);
+        assertEquals(8, read(ppu, 0x0000));
+        assertEquals(12, read(ppu, 0x1000));
+
+        loadRegister(0x8000, 0b11100);
+        loadRegister(0xC000, 5);
+        assertEquals(12, read(ppu, 0x0000));
+        assertEquals(20, read(ppu, 0x1000));
+    }
+
+    @Test
+    public void testMirroring(){
+        loadRegister(0x8000, 0b01100);
+        ppu.setByteAt(RoxWord.fromLiteral(0x2C00), RoxByte.fromLiteral(0x42));
+        assertEquals(0x42, read(ppu, 0x2000));
+
+        loadRegister(0x8000, 0b01101);
+        assertEquals(0, read(ppu, 0x2000));
+
+        loadRegister(0x8000, 0b01110);
+        assertEquals(0x42, read(ppu, 0x2000));
+        assertEquals(0, read(ppu, 0x2400));
+    }
+
+    @Test
+    public void testResetClearsShiftRegister(){
+        cpu.setByteAt(RoxWord.fromLiteral(0xE000), RoxByte.fromLiteral(1));
+        cpu.setByteAt(RoxWord.fromLiteral(0xE000), RoxByte.fromLiteral(0x80));
+        loadRegister(0xE000, 2);
+
+        assertEquals(4, read(cpu, 0x8000));
+    }
+
+    @Test
+    public void testProgramRam(){
+        cpu.setByteAt(RoxWord.fromLiteral(0x7FFF), RoxByte.fromLiteral(0x42));
+
+        assertEquals(0x42, read(cpu, 0x7FFF));
+        assertEquals(0x42, read(memoryMap.getMapper().getPrgRam(), 0x1FFF));
+    }
+}
@@ -0,0 +1,102 @@
+package com.rox.emu.nes.mapper;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.nes.NESMemoryMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.rox.emu.nes.mapper.MapperTestRoms.rom;
+import static org.junit.Assert.*;
+
+public class Mmc3MapperTest {
+    private Mapper mapper;
+    private Memory cpu;
+    private Memory ppu;
+
+    @Before
+    public void setUp(){
+        final NESMemoryMap memoryMap = new NESMemoryMap(rom(Mmc3Mapper.NUMBER, 8, 8, 0));
+        mapper = memoryMap.getMapper();
+        cpu = memoryMap.getCpuMemory();
+        ppu = memoryMap.getPpuMemory();
+    }
+
+    private int read(final Memory memory, final int address){
+        return memory.getByte(RoxWord.fromLiteral(address)).getRawValue();
+    }
+
+    private void write(final int address, final int value){
+        cpu.setByteAt(RoxWord.fromLiteral(address), RoxByte.fromLiteral(value));
+    }
+
+    @Test
+    public void testProgramBanks(){
+        write(0x8000, 6);
+        write(0x8001, 3);
+        write(0x8000, 7);
+        write(0x8001, 5);
+
+        assertEquals(3, read(cpu, 0x8000));
+        assertEquals(5, read(cpu, 0xA000));
+        assertEquals(14, read(cpu, 0xC000));
+        assertEquals(15, read(cpu, 0xE000));
+
+        write(0x8000, 0x40);
+
+        assertEquals(14, read(cpu, 0x8000));
+        assertEquals(3, read(cpu, 0xC000));
+        assertEquals(15, read(cpu, 0xE000));
+    }
+
+    @Test
+    public void testCharacterBanks(){
+        write(0x8000, 0);
+        write(0x8001, 4);
+        write(0x8000, 5);
+        write(0x8001, 9);
+
+        assertEquals(4, read(ppu, 0x0000));
+        assertEquals(5, read(ppu, 0x0400));
+        assertEquals(9, read(ppu, 0x1C00));
+
+        write(0x8000, 0x80);
+
+        assertEquals(9, read(ppu, 0x0C00));
+        assertEquals(4, read(ppu, 0x1000));
+        assertEquals(5, read(ppu, 0x1400));
+    }
+
+    @Test
+    public void testMirroring(){
+        write(0xA000, 1);
+        ppu.setByteAt(RoxWord.fromLiteral(0x2000), RoxByte.fromLiteral(0x42));
+        assertEquals(0x42, read(ppu, 0x2400));
+
+        write(0xA000, 0);
+        assertEquals(0x42, read(ppu, 0x2800));
+        assertEquals(0, read(ppu, 0x2400));
+    }
+
+    @Test
+    public void testScanlineIrq(){
+        write(0xC000, 2);
+        write(0xC001, 0);
+        write(0xE001, 0);
+
+        mapper.clockScanline();
+        assertFalse(mapper.isIrqAsserted());
+        mapper.clockScanline();
+        assertFalse(mapper.isIrqAsserted());
+        mapper.clockScanline();
+        assertTrue(mapper.isIrqAsserted());
+
+        write(0xE000, 0);
+        assertFalse(mapper.isIrqAsserted());
+        mapper.clockScanline();
+        mapper.clockScanline();
+        mapper.clockScanline();
+        assertFalse(mapper.isIrqAsserted());
+    }
+}
@@ -0,0 +1,118 @@
+package com.rox.emu.processor.mos6502;
+
+import com.rox.emu.AllocationMeter;
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.util.Program;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.*;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Allocation budgets for {@link Mos6502} instruction execution and {@link Mos6502Alu} operations.  Budgets are
+ * ceilings on current behaviour which should only ever be lowered, towards zero, so that allocations sneaking into
+ * the hot path, i.e. a new {@link RoxByte} in an addressing mode, fail the build.  Each is set just above what's
+ * measured on the toolchain JVM with the flags pinned in the <code>allocationTest</code> task of
+ * <code>build.gradle</code>, see {@link AllocationMeter}.
+ */
+public class Mos6502AllocationTest {
+    private static final int INSTRUCTIONS = 10_000;
+    private static final int INSTRUCTION_WARMUP_RUNS = 200;
+    private static final int ALU_OPERATIONS = 256;
+
+    /**
+     * Opcode lookup by stream, debug logging arguments and value objects for every register and memory access,
+     * measured at 1127-1178 bytes depending on how the JIT compiles <code>step</code> and up to 1277 bytes after
+     * other tests have run in the same JVM
+     */
+    private static final double INSTRUCTION_BUDGET = 1400;
+
+    /** Measured at 216 bytes */
+    private static final double ADC_BUDGET = 224;
+    /** Measured at 240 bytes */
+    private static final double SBC_BUDGET = 248;
+    /** Measured at 24 bytes */
+    private static final double AND_BUDGET = 24;
+    /** Measured at 88 bytes */
+    private static final double SHIFT_BUDGET = 88;
+
+    private final RoxByte[] values = new RoxByte[ALU_OPERATIONS];
+    private final RoxByte operand = RoxByte.fromLiteral(0x5A);
+    private Mos6502Alu alu;
+
+    @Before
+    public void setUp(){
+        assumeTrue(AllocationMeter.isSupported());
+
+        alu = new Mos6502Alu(new Registers());
+        for (int i = 0; i < values.length; i++)
+            values[i] = RoxByte.fromLiteral(i);
+    }
+
+    private static void assertWithinBudget(String operation, double budget, double allocated){
+        assertTrue(operation + " allocated " + allocated + " bytes per operation, budget is " + budget, allocated <= budget);
+    }
+
+    @Test
+    public void testStep(){
+        final Memory memory = new SimpleMemory();
+        final Mos6502 processor = new Mos6502(memory, new Registers());
+        processor.reset();
+
+        //A loop of loads, stores, arithmetic, stack and transfer instructions
+        final Program program = new Program().with(LDA_I, 0x10,          //0x00
+                                                   CLC,
+                                                   ADC_Z, 0x80,
+                                                   STA_ABS, 0x02, 0x00,
+                                                   INX,
+                                                   STX_Z, 0x81,
+                                                   PHA,
+                                                   PLA,
+                                                   TAY,
+                                                   JMP_ABS, 0x00, 0x00);
+        memory.setBlock(RoxWord.ZERO, program.getProgramAsByteArray());
+
+        assertWithinBudget("step", INSTRUCTION_BUDGET, AllocationMeter.bytesPerOperation(INSTRUCTIONS, INSTRUCTION_WARMUP_RUNS, () -> processor.step(INSTRUCTIONS)));
+    }
+
+    @Test
+    public void testAdc(){
+        assertWithinBudget("adc", ADC_BUDGET, AllocationMeter.bytesPerOperation(ALU_OPERATIONS, () -> {
+            for (RoxByte value : values)
+                alu.adc(value, operand);
+        }));
+    }
+
+    @Test
+    public void testSbc(){
+        assertWithinBudget("sbc", SBC_BUDGET, AllocationMeter.bytesPerOperation(ALU_OPERATIONS, () -> {
+            for (RoxByte value : values)
+                alu.sbc(value, operand);
+        }));
+    }
+
+    @Test
+    public void testAnd(){
+        assertWithinBudget("and", AND_BUDGET, AllocationMeter.bytesPerOperation(ALU_OPERATIONS, () -> {
+            for (RoxByte value : values)
+                alu.and(value, operand);
+        }));
+    }
+
+    @Test
+    public void testShifts(){
+        assertWithinBudget("asl", SHIFT_BUDGET, AllocationMeter.bytesPerOperation(ALU_OPERATIONS, () -> {
+            for (RoxByte value : values)
+                alu.asl(value);
+        }));
+        assertWithinBudget("rol", SHIFT_BUDGET, AllocationMeter.bytesPerOperation(ALU_OPERATIONS, () -> {
+            for (RoxByte value : values)
+                alu.rol(value);
+        }));
+    }
+}
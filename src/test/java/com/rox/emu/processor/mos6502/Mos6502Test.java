@@ -991,6 +991,28 @@ public class Mos6502Test {
         assertEquals(memory.getByte(RoxWord.fromLiteral(0xFFFF)), registers.getRegister(Registers.Register.PROGRAM_COUNTER_LOW));
     }
 
+    @Test
+    public void testCycleCounting(){
+        Program program = new Program().with(LDA_I, 1,
+                                             STA_ABS, 0x01, 0x00,
+                                             JMP_ABS, 0x00, 0x00);
+        memory.setBlock(RoxWord.ZERO, program.getProgramAsByteArray());
+
+        assertEquals(0, processor.getCycles());
+        processor.step(3);
+        assertEquals(LDA_I.getCycles() + STA_ABS.getCycles() + JMP_ABS.getCycles(), processor.getCycles());
+    }
+
+    @Test
+    public void testStall(){
+        memory.setBlock(RoxWord.ZERO, new Program().with(LDA_I, 1).getProgramAsByteArray());
+
+        processor.step(1);
+        processor.stall(513);
+
+        assertEquals(LDA_I.getCycles() + 513, processor.getCycles());
+    }
+
     @Test
     public void testMultiplicationLoop(){
             int data_offset = 0x32;
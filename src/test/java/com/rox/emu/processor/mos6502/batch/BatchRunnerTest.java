@@ -0,0 +1,157 @@
+package com.rox.emu.processor.mos6502.batch;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.processor.mos6502.Registers.Register;
+import com.rox.emu.processor.mos6502.batch.BatchResult.Outcome;
+import com.rox.emu.processor.mos6502.util.Program;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.*;
+import static org.junit.Assert.*;
+
+public class BatchRunnerTest {
+    private ForkJoinPool pool;
+    private BatchRunner runner;
+
+    @Before
+    public void setUp(){
+        pool = new ForkJoinPool(4);
+        runner = new BatchRunner(pool);
+    }
+
+    @After
+    public void tearDown(){
+        pool.shutdownNow();
+    }
+
+    private static BatchJob storeJob(String name, int value){
+        return BatchJob.of(name, new Program().with(LDA_I, value,
+                                                    STA_Z, 0x80,
+                                                    BRK))
+                       .until(StopCondition.nextOpCodeIs(BRK));
+    }
+
+    @Test
+    public void testRunUntilStopCondition(){
+        final BatchResult result = runner.run(storeJob("store", 0x05));
+
+        assertEquals("store", result.getName());
+        assertEquals(Outcome.STOPPED, result.getOutcome());
+        assertEquals(RoxByte.fromLiteral(0x05), result.getRegister(Register.ACCUMULATOR));
+        assertEquals(RoxByte.fromLiteral(0x04), result.getRegister(Register.PROGRAM_COUNTER_LOW));
+        assertEquals(2, result.getInstructions());
+        assertEquals(LDA_I.getCycles() + STA_Z.getCycles(), result.getCycles());
+        assertNull(result.getFailure());
+    }
+
+    @Test
+    public void testRunUntilBudgetExhausted(){
+        final BatchJob job = BatchJob.of("loop", new Program().with(JMP_ABS, 0x00, 0x00))
+                                     .withCycleBudget(30);
+
+        final BatchResult result = runner.run(job);
+
+        assertEquals(Outcome.BUDGET_EXHAUSTED, result.getOutcome());
+        assertEquals(30 / JMP_ABS.getCycles(), result.getInstructions());
+        assertEquals(30, result.getCycles());
+    }
+
+    @Test
+    public void testInitialState(){
+        final BatchJob job = BatchJob.named("initial state")
+                                     .withMemory(RoxWord.fromLiteral(0x0200), new Program().with(INX, BRK).getProgramAsByteArray())
+                                     .withRegister(Register.X_INDEX, RoxByte.fromLiteral(0x41))
+                                     .startingAt(RoxWord.fromLiteral(0x0200))
+                                     .until(StopCondition.nextOpCodeIs(BRK));
+
+        final BatchResult result = runner.run(job);
+
+        assertEquals(Outcome.STOPPED, result.getOutcome());
+        assertEquals(RoxByte.fromLiteral(0x42), result.getRegister(Register.X_INDEX));
+    }
+
+    @Test
+    public void testStopAtProgramCounter(){
+        final BatchJob job = BatchJob.of("pc", new Program().with(NOP, NOP, NOP, NOP))
+                                     .until(StopCondition.programCounterAt(0x02));
+
+        final BatchResult result = runner.run(job);
+
+        assertEquals(Outcome.STOPPED, result.getOutcome());
+        assertEquals(2, result.getInstructions());
+    }
+
+    @Test
+    public void testMemoryDigest(){
+        final BatchResult first = runner.run(storeJob("first", 0x05));
+        final BatchResult same = runner.run(storeJob("same", 0x05));
+        final BatchResult different = runner.run(storeJob("different", 0x06));
+
+        assertEquals(first.getMemoryDigest(), same.getMemoryDigest());
+        assertNotEquals(first.getMemoryDigest(), different.getMemoryDigest());
+    }
+
+    @Test
+    public void testMachinesAreResetBetweenJobs(){
+        final BatchJob empty = BatchJob.named("empty").withCycleBudget(1);
+        final BatchResult before = runner.run(empty);
+
+        runner.run(storeJob("dirty", 0x07));
+        final BatchResult after = runner.run(empty);
+
+        assertEquals(before.getMemoryDigest(), after.getMemoryDigest());
+        assertEquals(RoxByte.ZERO, after.getRegister(Register.ACCUMULATOR));
+    }
+
+    @Test
+    public void testFailure(){
+        final BatchJob job = BatchJob.named("unknown opcode")
+                                     .withMemory(RoxWord.ZERO, new RoxByte[] {RoxByte.fromLiteral(0xFF)});
+
+        final BatchResult result = runner.run(job);
+
+        assertEquals(Outcome.FAILED, result.getOutcome());
+        assertNotNull(result.getFailure());
+    }
+
+    @Test
+    public void testRunInParallelKeepsOrder(){
+        final List<BatchJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            jobs.add(storeJob("job " + i, i));
+
+        final List<BatchResult> results = runner.run(jobs);
+
+        assertEquals(jobs.size(), results.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            assertEquals("job " + i, results.get(i).getName());
+            assertEquals(RoxByte.fromLiteral(i), results.get(i).getRegister(Register.ACCUMULATOR));
+        }
+    }
+
+    @Test
+    public void testResultsAreStreamed(){
+        final List<BatchJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            jobs.add(storeJob("job " + i, i));
+
+        final Set<String> names = ConcurrentHashMap.newKeySet();
+        runner.run(jobs, result -> names.add(result.getName()));
+
+        assertEquals(jobs.size(), names.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCycleBudget(){
+        BatchJob.named("invalid").withCycleBudget(0);
+    }
+}
@@ -0,0 +1,65 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.UnknownTokenException;
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.processor.mos6502.Registers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class BreakpointConditionTest {
+    private Registers registers;
+
+    @Before
+    public void setUp() {
+        registers = new Registers();
+        registers.setRegister(Registers.Register.ACCUMULATOR, RoxByte.fromLiteral(0x10));
+        registers.setRegister(Registers.Register.X_INDEX, RoxByte.fromLiteral(3));
+        registers.setPC(RoxWord.fromLiteral(0x8000));
+        registers.setFlag(Registers.Flag.CARRY);
+    }
+
+    @Test
+    public void testComparisons(){
+        assertTrue(BreakpointCondition.compile("A == $10").test(registers));
+        assertTrue(BreakpointCondition.compile("A == 16").test(registers));
+        assertFalse(BreakpointCondition.compile("A != 16").test(registers));
+        assertTrue(BreakpointCondition.compile("X < 4").test(registers));
+        assertTrue(BreakpointCondition.compile("X <= 3").test(registers));
+        assertFalse(BreakpointCondition.compile("X > 3").test(registers));
+        assertTrue(BreakpointCondition.compile("X >= 3").test(registers));
+    }
+
+    @Test
+    public void testOperands(){
+        assertTrue(BreakpointCondition.compile("PC == $8000").test(registers));
+        assertTrue(BreakpointCondition.compile("SP == $FF").test(registers));
+        assertTrue(BreakpointCondition.compile("Y == 0").test(registers));
+        assertTrue(BreakpointCondition.compile("C == 1").test(registers));
+        assertTrue(BreakpointCondition.compile("Z == 0").test(registers));
+        assertTrue(BreakpointCondition.compile("P == 1").test(registers));
+    }
+
+    @Test
+    public void testCompoundCondition(){
+        final Predicate<Registers> condition = BreakpointCondition.compile("a==$10 && x>2 && C == 1");
+        assertTrue(condition.test(registers));
+
+        registers.clearFlag(Registers.Flag.CARRY);
+        assertFalse(condition.test(registers));
+    }
+
+    @Test(expected = UnknownTokenException.class)
+    public void testUnknownOperand(){
+        BreakpointCondition.compile("Q == 1");
+    }
+
+    @Test(expected = UnknownTokenException.class)
+    public void testInvalidClause(){
+        BreakpointCondition.compile("A == ");
+    }
+}
@@ -0,0 +1,182 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.util.Program;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.*;
+import static org.junit.Assert.*;
+
+public class BreakpointsTest {
+    private Memory memory;
+    private Registers registers;
+    private Breakpoints breakpoints;
+    private Mos6502 processor;
+
+    @Before
+    public void setUp() {
+        breakpoints = new Breakpoints();
+        registers = new Registers();
+        memory = breakpoints.watching(new SimpleMemory());
+        processor = new Mos6502(memory, registers);
+        processor.reset();
+        processor.setBreakpoints(breakpoints);
+
+        final Program program = new Program().with(LDX_I, 5,     //0x00
+                                                   DEX,          //0x02
+                                                   STX_Z, 0x40,  //0x03
+                                                   BNE, 0xFA,    //0x05 -> 0x02
+                                                   LDA_Z, 0x41,  //0x07
+                                                   NOP);         //0x09
+        memory.setBlock(RoxWord.ZERO, program.getProgramAsByteArray());
+    }
+
+    @Test
+    public void testUnarmedByDefault(){
+        assertFalse(breakpoints.isArmed());
+        assertEquals(100, processor.step(100));
+    }
+
+    @Test
+    public void testAddAndRemove(){
+        breakpoints.add(0x1234);
+        assertTrue(breakpoints.isSet(0x1234));
+        assertFalse(breakpoints.isSet(0x1235));
+        assertTrue(breakpoints.isArmed());
+
+        breakpoints.remove(0x1234);
+        assertFalse(breakpoints.isSet(0x1234));
+        assertFalse(breakpoints.isArmed());
+    }
+
+    @Test
+    public void testAddingTwiceIsIdempotent(){
+        breakpoints.add(0xFFFF);
+        breakpoints.add(0xFFFF);
+        breakpoints.remove(0xFFFF);
+
+        assertFalse(breakpoints.isArmed());
+    }
+
+    @Test
+    public void testStopsAtBreakpoint(){
+        breakpoints.add(0x07);
+
+        final int executed = processor.step(100);
+
+        assertEquals(0x07, registers.getPC().getRawValue());
+        assertEquals(1 + (5 * 3), executed);
+    }
+
+    @Test
+    public void testResumesFromBreakpoint(){
+        breakpoints.add(0x02);
+
+        assertEquals(1, processor.step(100));
+        assertEquals(0x02, registers.getPC().getRawValue());
+        assertEquals(0, processor.step(100));
+
+        breakpoints.resume();
+        assertEquals(3, processor.step(100));
+        assertEquals(0x02, registers.getPC().getRawValue());
+    }
+
+    @Test
+    public void testBreakpointAtEndOfSteps(){
+        final Memory nops = breakpoints.watching(new SimpleMemory());
+        final Registers nopRegisters = new Registers();
+        final Mos6502 nopProcessor = new Mos6502(nops, nopRegisters);
+        nopProcessor.reset();
+        nopProcessor.setBreakpoints(breakpoints);
+        final RoxByte[] program = new RoxByte[0x1000];
+        Arrays.fill(program, RoxByte.fromLiteral(NOP.getByteValue()));
+        nops.setBlock(RoxWord.ZERO, program);
+        breakpoints.add(1000);
+
+        assertEquals(1000, nopProcessor.step(1000));
+        assertTrue(breakpoints.isHit());
+        assertEquals(0, nopProcessor.step(1000));
+        assertEquals(1000, nopRegisters.getPC().getRawValue());
+    }
+
+    @Test
+    public void testConditionalBreakpoint(){
+        breakpoints.add(0x02, "X == 2");
+
+        processor.step(100);
+
+        assertEquals(0x02, registers.getPC().getRawValue());
+        assertEquals(RoxByte.fromLiteral(2), registers.getRegister(Registers.Register.X_INDEX));
+    }
+
+    @Test
+    public void testWriteWatchpoint(){
+        breakpoints.watchWrite(0x40);
+
+        final int executed = processor.step(100);
+
+        assertEquals(3, executed);
+        assertEquals(0x40, breakpoints.getTriggeredWatchpoint());
+        assertEquals(0, processor.step(100));
+        assertEquals(0x40, breakpoints.getTriggeredWatchpoint());
+        assertEquals(RoxByte.fromLiteral(4), memory.getByte(RoxWord.fromLiteral(0x40)));
+    }
+
+    @Test
+    public void testReadWatchpoint(){
+        breakpoints.watchRead(0x41);
+
+        processor.step(100);
+
+        assertEquals(0x09, registers.getPC().getRawValue());
+        assertEquals(0x41, breakpoints.getTriggeredWatchpoint());
+    }
+
+    @Test
+    public void testSnapshotDoesNotTriggerWatchpoints(){
+        breakpoints.watchRead(0xFFFF);
+        breakpoints.watchRead(0x41);
+
+        ExecutionSnapshot.of(processor, memory, false);
+
+        assertEquals(Breakpoints.NONE, breakpoints.getTriggeredWatchpoint());
+    }
+
+    @Test
+    public void testUnwatchedAddressOnWatchedPage(){
+        breakpoints.watchRead(0x42);
+
+        processor.step(17);
+
+        assertEquals(Breakpoints.NONE, breakpoints.getTriggeredWatchpoint());
+    }
+
+    @Test
+    public void testUnwatch(){
+        breakpoints.watchRead(0x41);
+        breakpoints.watchWrite(0x41);
+        breakpoints.unwatch(0x41);
+
+        assertFalse(breakpoints.isArmed());
+    }
+
+    @Test
+    public void testClear(){
+        breakpoints.add(0x10, "A != 0");
+        breakpoints.watchRead(0x20);
+        breakpoints.watchWrite(0x30);
+
+        breakpoints.clear();
+
+        assertFalse(breakpoints.isArmed());
+        assertFalse(breakpoints.isSet(0x10));
+    }
+}
@@ -0,0 +1,146 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.util.Program;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.*;
+import static org.junit.Assert.*;
+
+public class ExecutionControllerTest {
+    private final BlockingQueue<ExecutionSnapshot> snapshots = new LinkedBlockingQueue<>();
+
+    private Memory memory;
+    private Breakpoints breakpoints;
+    private Mos6502 processor;
+    private ExecutionController controller;
+
+    @Before
+    public void setUp() {
+        memory = new SimpleMemory();
+        processor = new Mos6502(memory, new Registers());
+        processor.reset();
+        breakpoints = new Breakpoints();
+
+        //Count forever in memory location 0x40
+        final Program program = new Program().with(INC_Z, 0x40,   //0x00
+                                                   JMP_ABS, 0x00, 0x00);
+        memory.setBlock(RoxWord.ZERO, program.getProgramAsByteArray());
+
+        controller = new ExecutionController(processor, memory, breakpoints, 100, snapshots::add);
+    }
+
+    @After
+    public void tearDown() {
+        controller.shutdown();
+    }
+
+    @Test
+    public void testStep() throws InterruptedException {
+        controller.step();
+
+        final ExecutionSnapshot snapshot = nextSnapshot();
+        assertFalse(snapshot.isRunning());
+        assertEquals(RoxWord.fromLiteral(0x02), snapshot.getRegisters().getPC());
+        assertEquals(RoxByte.fromLiteral(1), snapshot.getByte(0x40));
+        assertEquals(INC_Z.getCycles(), snapshot.getCycles());
+    }
+
+    @Test
+    public void testRunToBreakpoint() throws InterruptedException {
+        breakpoints.add(0x02);
+
+        controller.run();
+
+        final ExecutionSnapshot snapshot = lastSnapshot();
+        assertFalse(controller.isRunning());
+        assertEquals(RoxWord.fromLiteral(0x02), snapshot.getRegisters().getPC());
+        assertEquals(RoxByte.fromLiteral(1), snapshot.getByte(0x40));
+    }
+
+    @Test
+    public void testRunToBreakpointBetweenSlices() throws InterruptedException {
+        final RoxByte[] nops = new RoxByte[0x1000];
+        Arrays.fill(nops, RoxByte.fromLiteral(NOP.getByteValue()));
+        controller.execute(() -> {
+            memory.setBlock(RoxWord.ZERO, nops);
+            breakpoints.add(1000);
+            breakpoints.add(2000);
+        });
+        nextSnapshot();
+
+        controller.run();
+        assertEquals(RoxWord.fromLiteral(1000), lastSnapshot().getRegisters().getPC());
+
+        controller.run();
+        assertEquals(RoxWord.fromLiteral(2000), lastSnapshot().getRegisters().getPC());
+    }
+
+    @Test
+    public void testRunAndPause() throws InterruptedException {
+        controller.run();
+        assertTrue(nextSnapshot().isRunning());
+
+        controller.pause();
+
+        final ExecutionSnapshot snapshot = lastSnapshot();
+        assertFalse(snapshot.isRunning());
+        assertTrue(snapshot.getCycles() > 0);
+    }
+
+    @Test
+    public void testStepIgnoredWhileRunning() throws InterruptedException {
+        controller.run();
+        nextSnapshot();
+        controller.step();
+        controller.pause();
+
+        assertFalse(lastSnapshot().isRunning());
+    }
+
+    @Test
+    public void testExecute() throws InterruptedException {
+        controller.execute(() -> memory.setByteAt(RoxWord.fromLiteral(0x50), RoxByte.fromLiteral(0x99)));
+
+        assertEquals(RoxByte.fromLiteral(0x99), nextSnapshot().getByte(0x50));
+    }
+
+    @Test
+    public void testSnapshotsAreIsolated() throws InterruptedException {
+        controller.step();
+        final ExecutionSnapshot snapshot = nextSnapshot();
+        controller.step();
+        nextSnapshot();
+
+        assertEquals(RoxByte.fromLiteral(1), snapshot.getByte(0x40));
+        assertEquals(RoxWord.fromLiteral(0x02), snapshot.getRegisters().getPC());
+    }
+
+    private ExecutionSnapshot nextSnapshot() throws InterruptedException {
+        final ExecutionSnapshot snapshot = snapshots.poll(5, TimeUnit.SECONDS);
+        assertNotNull("Timed out waiting for a snapshot", snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Wait for execution to stop and return the snapshot published when it did
+     */
+    private ExecutionSnapshot lastSnapshot() throws InterruptedException {
+        ExecutionSnapshot snapshot = nextSnapshot();
+        while (snapshot.isRunning())
+            snapshot = nextSnapshot();
+        return snapshot;
+    }
+}
@@ -0,0 +1,147 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.op.Mos6502AddressingMode;
+import com.rox.emu.processor.mos6502.util.Mos6502Compiler;
+import com.rox.emu.processor.mos6502.util.Program;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.*;
+import static org.junit.Assert.*;
+
+public class InstructionProfilerTest {
+    private Memory memory;
+    private Mos6502 processor;
+    private InstructionProfiler profiler;
+
+    @Before
+    public void setUp() {
+        memory = new SimpleMemory();
+        processor = new Mos6502(memory, new Registers());
+        processor.reset();
+
+        profiler = new InstructionProfiler();
+        processor.setProfiler(profiler);
+    }
+
+    @Test
+    public void testRecordsPerAddress(){
+        final Program program = new Program().with(LDA_I, 1,
+                                                   LDX_I, 2,
+                                                   STA_Z, 0x20);
+        memory.setBlock(RoxWord.ZERO, program.getProgramAsByteArray());
+
+        processor.step(3);
+
+        assertEquals(1, profiler.getExecutions(0));
+        assertEquals(LDA_I.getCycles(), profiler.getCycles(0));
+        assertEquals(1, profiler.getExecutions(2));
+        assertEquals(1, profiler.getExecutions(4));
+        assertEquals(STA_Z.getCycles(), profiler.getCycles(4));
+        assertEquals(0, profiler.getExecutions(1));
+        assertEquals(3, profiler.getTotalExecutions());
+        assertEquals(processor.getCycles(), profiler.getTotalCycles());
+    }
+
+    @Test
+    public void testAggregatesPerOpCodeAndAddressingMode(){
+        final Program program = new Program().with(LDA_I, 1,
+                                                   LDA_I, 2,
+                                                   LDA_Z, 0x20,
+                                                   NOP);
+        memory.setBlock(RoxWord.ZERO, program.getProgramAsByteArray());
+
+        processor.step(4);
+
+        assertEquals(2, profiler.getExecutions(LDA_I));
+        assertEquals(2 * LDA_I.getCycles(), profiler.getCycles(LDA_I));
+        assertEquals(1, profiler.getExecutions(LDA_Z));
+        assertEquals(2, profiler.getExecutions(Mos6502AddressingMode.IMMEDIATE));
+        assertEquals(1, profiler.getExecutions(Mos6502AddressingMode.ZERO_PAGE));
+        assertEquals(1, profiler.getExecutions(Mos6502AddressingMode.IMPLIED));
+    }
+
+    @Test
+    public void testHotSpotsAreOrderedByCycles(){
+        final Program program = new Program().with(LDX_I, 10,
+                                                   DEX,
+                                                   BNE, 0xFC);
+        memory.setBlock(RoxWord.ZERO, program.getProgramAsByteArray());
+
+        processor.step(21);
+
+        final List<InstructionProfiler.HotSpot> hotSpots = profiler.getHotSpots(2);
+        assertEquals(2, hotSpots.size());
+        assertEquals(10, hotSpots.get(0).getExecutions());
+        assertTrue(hotSpots.get(0).getCycles() >= hotSpots.get(1).getCycles());
+    }
+
+    @Test
+    public void testHotSpotsAreLabelled(){
+        final Program program = new Mos6502Compiler("LDX #$0A LOOP: DEX BNE LOOP").compileProgram();
+        memory.setBlock(RoxWord.ZERO, program.getProgramAsByteArray());
+
+        processor.step(21);
+
+        for (InstructionProfiler.HotSpot hotSpot : profiler.getHotSpots(10, program, 0)) {
+            if (hotSpot.getAddress() == 0)
+                assertEquals("", hotSpot.getLabel());
+            else
+                assertEquals("LOOP", hotSpot.getLabel());
+        }
+        assertTrue(profiler.getReport(10, program, 0).contains("LOOP"));
+    }
+
+    @Test
+    public void testDetachedProfilerRecordsNothing(){
+        memory.setBlock(RoxWord.ZERO, new Program().with(NOP, NOP).getProgramAsByteArray());
+
+        processor.setProfiler(null);
+        processor.step(2);
+
+        assertEquals(0, profiler.getTotalExecutions());
+    }
+
+    @Test
+    public void testReset(){
+        profiler.record(0x1234, LDA_I, 2);
+        profiler.reset();
+
+        assertEquals(0, profiler.getExecutions(0x1234));
+        assertEquals(0, profiler.getTotalCycles());
+        assertEquals(0, profiler.getExecutions(Mos6502AddressingMode.IMMEDIATE));
+    }
+
+    @Test
+    public void testDumpRoundTrip() throws IOException {
+        profiler.record(0x0000, LDA_I, 2);
+        profiler.record(0xFFFF, STA_ABS, 4);
+        profiler.record(0xFFFF, STA_ABS, 4);
+
+        final ByteArrayOutputStream dump = new ByteArrayOutputStream();
+        profiler.dump(dump);
+        final InstructionProfiler loaded = InstructionProfiler.from(new ByteArrayInputStream(dump.toByteArray()));
+
+        assertEquals(1, loaded.getExecutions(0x0000));
+        assertEquals(2, loaded.getExecutions(0xFFFF));
+        assertEquals(8, loaded.getCycles(0xFFFF));
+        assertEquals(2, loaded.getExecutions(STA_ABS));
+        assertEquals(2, loaded.getExecutions(Mos6502AddressingMode.ABSOLUTE));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidDump() throws IOException {
+        InstructionProfiler.from(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+}
@@ -0,0 +1,110 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.MeteredMemory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.metrics.EmulationMetrics;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.util.Program;
+import org.junit.Test;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.*;
+import static org.junit.Assert.*;
+
+public class InstructionTraceTest {
+    @Test
+    public void testDescribe() {
+        final InstructionTrace trace = new InstructionTrace(10);
+        trace.record(0x0010, LDA_I, 0x07);
+        trace.record(0x0012, STA_ABS, 0x3412);
+        trace.record(0x0015, NOP, 0);
+
+        assertEquals(3, trace.getRecorded());
+        assertEquals(3, trace.getSize());
+        assertEquals("[0x10] (0xA9 0x07) :" + LDA_I, trace.describe(0));
+        assertEquals("[0x12] (0x8D 0x12 0x34) :" + STA_ABS, trace.describe(1));
+        assertEquals("[0x15] (0xEA) :" + NOP, trace.describe(2));
+    }
+
+    @Test
+    public void testNotHeld() {
+        final InstructionTrace trace = new InstructionTrace(10);
+        trace.record(0x0010, NOP, 0);
+
+        assertNull(trace.describe(-1));
+        assertNull(trace.describe(1));
+    }
+
+    @Test
+    public void testOldestOverwritten() {
+        final InstructionTrace trace = new InstructionTrace(3);
+        for (int i=0; i<1000; i++)
+            trace.record(i, NOP, 0);
+
+        assertEquals(1000, trace.getRecorded());
+        assertEquals(3, trace.getSize());
+        assertNull(trace.describe(996));
+        assertEquals("[0x03E5] (0xEA) :" + NOP, trace.describe(997));
+        assertEquals("[0x03E7] (0xEA) :" + NOP, trace.describe(999));
+    }
+
+    @Test
+    public void testClear() {
+        final InstructionTrace trace = new InstructionTrace(3);
+        trace.record(0x0010, NOP, 0);
+        trace.clear();
+
+        assertEquals(0, trace.getRecorded());
+        assertEquals(0, trace.getSize());
+        assertNull(trace.describe(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new InstructionTrace(0);
+    }
+
+    @Test
+    public void testTracedProcessor() {
+        final Memory memory = new SimpleMemory();
+        final Mos6502 processor = new Mos6502(memory, new Registers());
+        processor.reset();
+
+        final Program program = new Program().with(LDX_I, 0x05,
+                                                   STX_ABS, 0x12, 0x34,
+                                                   NOP);
+        memory.setBlock(RoxWord.ZERO, program.getProgramAsByteArray());
+
+        final InstructionTrace trace = new InstructionTrace(2);
+        processor.setTrace(trace);
+        processor.step(3);
+
+        assertEquals(3, trace.getRecorded());
+        assertNull(trace.describe(0));
+        assertEquals("[0x02] (0x8E 0x12 0x34) :" + STX_ABS, trace.describe(1));
+        assertEquals("[0x05] (0xEA) :" + NOP, trace.describe(2));
+    }
+
+    @Test
+    public void testTracingIsNotMetered() {
+        assertEquals(meteredReads(null), meteredReads(new InstructionTrace(2)));
+    }
+
+    private static long meteredReads(final InstructionTrace trace) {
+        final Memory memory = new SimpleMemory();
+        final Mos6502 processor = new Mos6502(memory, new Registers());
+        processor.reset();
+        memory.setBlock(RoxWord.ZERO, new Program().with(LDX_I, 0x05,
+                                                         STX_ABS, 0x12, 0x34).getProgramAsByteArray());
+
+        final EmulationMetrics metrics = new EmulationMetrics();
+        final MeteredMemory meteredMemory = new MeteredMemory(memory, metrics);
+        processor.setMemory(meteredMemory);
+        processor.setTrace(trace);
+        processor.step(2);
+        meteredMemory.flush();
+        return metrics.getMemoryReads();
+    }
+}
@@ -0,0 +1,105 @@
+package com.rox.emu.processor.mos6502.dbg;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MemoryViewTest {
+    private Memory memory;
+    private Mos6502 processor;
+    private MemoryView view;
+
+    private final List<Integer> changedPages = new ArrayList<>();
+    private final List<Integer> changedCells = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        memory = new SimpleMemory();
+        processor = new Mos6502(memory, new Registers());
+        view = new MemoryView();
+    }
+
+    private void watch(int page){
+        view.addWatcher(page, (changedPage, cells) -> {
+            changedPages.add(changedPage);
+            for (int cell = 0; cell < MemoryView.PAGE_SIZE; cell++)
+                if ((cells[cell >> 6] & (1L << cell)) != 0)
+                    changedCells.add((changedPage << 8) | cell);
+        });
+    }
+
+    private void update(){
+        view.update(ExecutionSnapshot.of(processor, memory, false));
+    }
+
+    @Test
+    public void testValues() {
+        memory.setByteAt(RoxWord.fromLiteral(0x1234), RoxByte.fromLiteral(0xAB));
+        update();
+
+        assertEquals(0xAB, view.getValue(0x1234));
+        assertEquals(0, view.getValue(0x1235));
+    }
+
+    @Test
+    public void testOnlyChangedPagesNotified() {
+        watch(0x01);
+        watch(0x02);
+        memory.setByteAt(RoxWord.fromLiteral(0x0210), RoxByte.fromLiteral(1));
+        memory.setByteAt(RoxWord.fromLiteral(0x02FF), RoxByte.fromLiteral(2));
+
+        update();
+
+        assertEquals(1, changedPages.size());
+        assertEquals(0x02, (int)changedPages.get(0));
+        assertEquals(2, changedCells.size());
+        assertTrue(changedCells.contains(0x0210));
+        assertTrue(changedCells.contains(0x02FF));
+    }
+
+    @Test
+    public void testUnchangedMemoryNotNotified() {
+        watch(0x02);
+        memory.setByteAt(RoxWord.fromLiteral(0x0210), RoxByte.fromLiteral(1));
+        update();
+        changedPages.clear();
+
+        update();
+
+        assertTrue(changedPages.isEmpty());
+    }
+
+    @Test
+    public void testProgramCounterChangeNotified() {
+        watch(0x00);
+        watch(0x03);
+        processor.getRegisters().setPC(RoxWord.fromLiteral(0x0310));
+
+        update();
+
+        assertEquals(0x0310, view.getProgramCounter());
+        assertEquals(2, changedPages.size());
+        assertTrue(changedCells.contains(0x0000));
+        assertTrue(changedCells.contains(0x0310));
+    }
+
+    @Test
+    public void testRemoveWatcher() {
+        final MemoryView.PageWatcher watcher = (page, cells) -> fail("Should not be notified");
+        view.addWatcher(0x02, watcher);
+        view.removeWatcher(0x02, watcher);
+        memory.setByteAt(RoxWord.fromLiteral(0x0210), RoxByte.fromLiteral(1));
+
+        update();
+    }
+}
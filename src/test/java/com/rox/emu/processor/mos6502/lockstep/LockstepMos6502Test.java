@@ -0,0 +1,252 @@
+package com.rox.emu.processor.mos6502.lockstep;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import com.rox.emu.processor.mos6502.Mos6502;
+import com.rox.emu.processor.mos6502.Registers;
+import com.rox.emu.processor.mos6502.Registers.Register;
+import com.rox.emu.processor.mos6502.op.Mos6502AddressingMode;
+import com.rox.emu.processor.mos6502.op.Mos6502OpCode;
+import com.rox.emu.processor.mos6502.op.Mos6502Operation;
+import com.rox.emu.processor.mos6502.util.Program;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import static com.rox.emu.processor.mos6502.op.Mos6502OpCode.*;
+import static org.junit.Assert.*;
+
+public class LockstepMos6502Test {
+    private static final int LANES = 16;
+
+    /**
+     * A {@link Mos6502} per lane, given the same memory and registers, to compare against
+     */
+    private static final class Reference {
+        private final Memory[] memory = new Memory[LANES];
+        private final Mos6502[] processors = new Mos6502[LANES];
+
+        private Reference(){
+            for (int lane = 0; lane < LANES; lane++) {
+                memory[lane] = new SimpleMemory();
+                processors[lane] = new Mos6502(memory[lane], new Registers());
+            }
+        }
+    }
+
+    private static void load(LockstepMos6502 lockstep, Reference reference, int lane, RoxWord address, RoxByte[] contents){
+        lockstep.getMemory(lane).setBlock(address, contents);
+        reference.memory[lane].setBlock(address, contents);
+    }
+
+    private static void setRegister(LockstepMos6502 lockstep, Reference reference, int lane, Register register, int value){
+        lockstep.setRegister(lane, register, RoxByte.fromLiteral(value));
+        reference.processors[lane].getRegisters().setRegister(register, RoxByte.fromLiteral(value));
+    }
+
+    private static void reset(LockstepMos6502 lockstep, Reference reference){
+        lockstep.reset();
+        for (Mos6502 processor : reference.processors)
+            processor.reset();
+    }
+
+    private static void assertLanesMatch(LockstepMos6502 lockstep, Reference reference){
+        for (int lane = 0; lane < LANES; lane++) {
+            for (Register register : Register.values())
+                assertEquals("Lane " + lane + " " + register,
+                             reference.processors[lane].getRegisters().getRegister(register).getRawValue(),
+                             lockstep.getRegister(lane, register).getRawValue());
+
+            assertEquals("Lane " + lane + " cycles", reference.processors[lane].getCycles(), lockstep.getCycles(lane));
+
+            final Memory expected = reference.memory[lane];
+            final Memory actual = lockstep.getMemory(lane);
+            for (int address = 0; address < expected.getSize(); address++)
+                assertEquals("Lane " + lane + " mem[" + Integer.toHexString(address) + "]",
+                             expected.getByte(RoxWord.fromLiteral(address)).getRawValue(),
+                             actual.getByte(RoxWord.fromLiteral(address)).getRawValue());
+        }
+    }
+
+    private static void step(LockstepMos6502 lockstep, Reference reference, int steps){
+        lockstep.step(steps);
+        for (Mos6502 processor : reference.processors)
+            processor.step(steps);
+    }
+
+    @Test
+    public void testSameInputsStayInLockstep(){
+        final LockstepMos6502 lockstep = new LockstepMos6502(LANES);
+        final Reference reference = new Reference();
+        final RoxByte[] program = new Program().with(LDA_I, 0x05,
+                                                     ADC_I, 0x07,
+                                                     STA_Z, 0x80,
+                                                     INX,
+                                                     JMP_ABS, 0x00, 0x00).getProgramAsByteArray();
+        for (int lane = 0; lane < LANES; lane++)
+            load(lockstep, reference, lane, RoxWord.ZERO, program);
+        reset(lockstep, reference);
+
+        step(lockstep, reference, 50);
+
+        assertEquals(LANES, lockstep.getLockstepLanes());
+        assertLanesMatch(lockstep, reference);
+    }
+
+    @Test
+    public void testDivergingLanesAreSplitOff(){
+        final LockstepMos6502 lockstep = new LockstepMos6502(LANES);
+        final Reference reference = new Reference();
+        final RoxByte[] program = new Program().with(LDA_Z, 0x80,      //0x00
+                                                     BEQ, 0x04,        //0x02 -> 0x08
+                                                     LDX_I, 0x01,      //0x04
+                                                     STX_Z, 0x81,      //0x06
+                                                     INY,              //0x08
+                                                     JMP_ABS, 0x00, 0x00).getProgramAsByteArray();
+        for (int lane = 0; lane < LANES; lane++) {
+            load(lockstep, reference, lane, RoxWord.ZERO, program);
+            load(lockstep, reference, lane, RoxWord.fromLiteral(0x80), new RoxByte[] {RoxByte.fromLiteral(lane % 4)});
+        }
+        reset(lockstep, reference);
+
+        step(lockstep, reference, 2);
+
+        assertEquals(LANES - LANES / 4, lockstep.getLockstepLanes());
+        for (int lane = 0; lane < LANES; lane++)
+            assertEquals(lane % 4 != 0, lockstep.isLockstep(lane));
+
+        step(lockstep, reference, 40);
+        assertLanesMatch(lockstep, reference);
+    }
+
+    @Test
+    public void testDifferentInstructionsAreSplitOff(){
+        final LockstepMos6502 lockstep = new LockstepMos6502(LANES);
+        final Reference reference = new Reference();
+        for (int lane = 0; lane < LANES; lane++) {
+            final Mos6502OpCode increment = (lane == 3) ? INY : INX;
+            load(lockstep, reference, lane, RoxWord.ZERO, new Program().with(NOP, increment, JMP_ABS, 0x00, 0x00).getProgramAsByteArray());
+        }
+        reset(lockstep, reference);
+
+        step(lockstep, reference, 2);
+
+        assertFalse(lockstep.isLockstep(3));
+        assertEquals(LANES - 1, lockstep.getLockstepLanes());
+
+        step(lockstep, reference, 20);
+        assertLanesMatch(lockstep, reference);
+    }
+
+    @Test
+    public void testSubroutinesAndIndirection(){
+        final LockstepMos6502 lockstep = new LockstepMos6502(LANES);
+        final Reference reference = new Reference();
+        final RoxByte[] program = new Program().with(LDX_I, 0x02,           //0x00
+                                                     JSR, 0x00, 0x20,       //0x02
+                                                     LDA_IND_IY, 0x90,      //0x05
+                                                     STA_IND_IX, 0x8E,      //0x07
+                                                     PHA,                   //0x09
+                                                     PLP,                   //0x0A
+                                                     JMP_IND, 0x00, 0x92)   //0x0B
+                                               .getProgramAsByteArray();
+        final RoxByte[] subroutine = new Program().with(INY, ROL_A, RTS).getProgramAsByteArray();
+        for (int lane = 0; lane < LANES; lane++) {
+            load(lockstep, reference, lane, RoxWord.ZERO, program);
+            load(lockstep, reference, lane, RoxWord.fromLiteral(0x20), subroutine);
+            load(lockstep, reference, lane, RoxWord.fromLiteral(0x90), RoxByte.fromIntArray(new int[] {0x03, 0x40, 0x00, 0x00}));
+            load(lockstep, reference, lane, RoxWord.fromLiteral(0x0340), RoxByte.fromIntArray(new int[] {lane, lane * 3}));
+        }
+        reset(lockstep, reference);
+
+        step(lockstep, reference, 100);
+
+        assertLanesMatch(lockstep, reference);
+    }
+
+    @Test
+    public void testRandomProgramsMatchMos6502(){
+        final Random random = new Random(6502);
+        final List<Mos6502OpCode> opCodes = new ArrayList<>();
+        for (Mos6502OpCode opCode : Mos6502OpCode.values()) {
+            if (!EnumSet.of(Mos6502AddressingMode.RELATIVE, Mos6502AddressingMode.INDIRECT,
+                            Mos6502AddressingMode.INDIRECT_X, Mos6502AddressingMode.INDIRECT_Y).contains(opCode.getAddressingMode()) &&
+                !EnumSet.of(Mos6502Operation.BRK, Mos6502Operation.JMP, Mos6502Operation.RTS, Mos6502Operation.RTI).contains(opCode.getOperation()))
+                opCodes.add(opCode);
+        }
+
+        for (int run = 0; run < 20; run++) {
+            final Program program = new Program();
+            for (int i = 0; i < 60; i++) {
+                final Mos6502OpCode opCode = opCodes.get(random.nextInt(opCodes.size()));
+                program.with(opCode);
+                switch (opCode.getAddressingMode()) {
+                    case IMMEDIATE:
+                        program.with(random.nextInt(256));
+                        break;
+                    case ZERO_PAGE: case ZERO_PAGE_X: case ZERO_PAGE_Y:
+                        program.with(0x80 + random.nextInt(0x70));
+                        break;
+                    case ABSOLUTE: case ABSOLUTE_X: case ABSOLUTE_Y:
+                        program.with(0x03, random.nextInt(256));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            program.with(JMP_ABS, 0x02, 0x00);
+
+            final LockstepMos6502 lockstep = new LockstepMos6502(LANES);
+            final Reference reference = new Reference();
+            final BiConsumer<Integer, Integer> randomBytes = (lane, from) -> {
+                final RoxByte[] values = new RoxByte[0x80];
+                for (int i = 0; i < values.length; i++)
+                    values[i] = RoxByte.fromLiteral(random.nextInt(256));
+                load(lockstep, reference, lane, RoxWord.fromLiteral(from), values);
+            };
+
+            for (int lane = 0; lane < LANES; lane++) {
+                load(lockstep, reference, lane, RoxWord.fromLiteral(0x0200), program.getProgramAsByteArray());
+                load(lockstep, reference, lane, RoxWord.fromLiteral(0xFFFC), RoxByte.fromIntArray(new int[] {0x02, 0x00}));
+                randomBytes.accept(lane, 0x80);
+                randomBytes.accept(lane, 0x0300);
+            }
+            reset(lockstep, reference);
+            for (int lane = 0; lane < LANES; lane++) {
+                setRegister(lockstep, reference, lane, Register.ACCUMULATOR, random.nextInt(256));
+                setRegister(lockstep, reference, lane, Register.X_INDEX, random.nextInt(256));
+                setRegister(lockstep, reference, lane, Register.Y_INDEX, random.nextInt(256));
+                setRegister(lockstep, reference, lane, Register.STATUS_FLAGS, random.nextInt(256));
+            }
+
+            step(lockstep, reference, 300);
+
+            assertEquals(LANES, lockstep.getLockstepLanes());
+            assertLanesMatch(lockstep, reference);
+        }
+    }
+
+    @Test
+    public void testSettingProgramCounterSplitsLane(){
+        final LockstepMos6502 lockstep = new LockstepMos6502(2);
+        lockstep.setRegister(1, Register.PROGRAM_COUNTER_LOW, RoxByte.fromLiteral(0x10));
+
+        assertTrue(lockstep.isLockstep(0));
+        assertFalse(lockstep.isLockstep(1));
+        assertEquals(RoxByte.fromLiteral(0x10), lockstep.getRegister(1, Register.PROGRAM_COUNTER_LOW));
+
+        lockstep.reset();
+        assertEquals(2, lockstep.getLockstepLanes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoLanes(){
+        new LockstepMos6502(0);
+    }
+}
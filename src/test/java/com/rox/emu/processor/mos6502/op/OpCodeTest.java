@@ -14,6 +14,13 @@ public class OpCodeTest {
         }
     }
 
+    @Test
+    public void testOpcodeCycles(){
+        for (Mos6502OpCode o : Mos6502OpCode.values()){
+            assertTrue(o + " takes " + o.getCycles() + " cycles, expected (2-7)", o.getCycles() >= 2 && o.getCycles() <= 7);
+        }
+    }
+
     @Test
     public void testOpcodeDescriptions(){
         //XXX Make it match "XXX _ ( .* [x|y] )"
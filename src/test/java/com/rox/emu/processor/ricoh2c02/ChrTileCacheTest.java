@@ -0,0 +1,118 @@
+package com.rox.emu.processor.ricoh2c02;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.BankedMemory;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ChrTileCacheTest {
+    private static void set(final Memory memory, final int address, final int value){
+        memory.setByteAt(RoxWord.fromLiteral(address), RoxByte.fromLiteral(value));
+    }
+
+    private static byte[] row(final ChrTileCache cache, final int tile, final int row, final boolean flipped){
+        final byte[] pixels = new byte[8];
+        System.arraycopy(cache.getPixels(), cache.rowOffset(tile, row, flipped), pixels, 0, 8);
+        return pixels;
+    }
+
+    @Test
+    public void testDecode(){
+        final Memory patterns = new SimpleMemory(0x2000);
+        set(patterns, 0x1013, 0b11000001);
+        set(patterns, 0x101B, 0b10000011);
+        final ChrTileCache cache = new ChrTileCache(patterns);
+
+        assertArrayEquals(new byte[] {3, 1, 0, 0, 0, 0, 2, 3}, row(cache, 0x101, 3, false));
+        assertArrayEquals(new byte[] {3, 2, 0, 0, 0, 0, 1, 3}, row(cache, 0x101, 3, true));
+        assertArrayEquals(new byte[8], row(cache, 0x101, 2, false));
+    }
+
+    @Test
+    public void testDecodedOnce(){
+        final Memory patterns = new SimpleMemory(0x2000);
+        set(patterns, 0x0010, 0xFF);
+        final ChrTileCache cache = new ChrTileCache(patterns);
+        assertEquals(1, row(cache, 1, 0, false)[0]);
+
+        set(patterns, 0x0010, 0x00);
+
+        assertEquals("Until invalidated", 1, row(cache, 1, 0, false)[0]);
+    }
+
+    @Test
+    public void testInvalidateTile(){
+        final Memory patterns = new SimpleMemory(0x2000);
+        final ChrTileCache cache = new ChrTileCache(patterns);
+        row(cache, 1, 0, false);
+        row(cache, 2, 0, false);
+
+        set(patterns, 0x0010, 0xFF);
+        set(patterns, 0x0020, 0xFF);
+        cache.invalidate(0x001F);
+
+        assertEquals(1, row(cache, 1, 0, false)[0]);
+        assertEquals("Neighbouring tile untouched", 0, row(cache, 2, 0, false)[0]);
+    }
+
+    @Test
+    public void testBankSwitchInvalidatesPage(){
+        final Memory firstBank = new SimpleMemory(0x2000);
+        final Memory secondBank = new SimpleMemory(0x2000);
+        set(secondBank, 0x0010, 0xFF);
+        set(secondBank, 0x0410, 0xFF);
+        final BankedMemory patterns = new BankedMemory(0x2000, 0x400);
+        patterns.map(0, 0x2000, firstBank, 0);
+        final ChrTileCache cache = new ChrTileCache(patterns);
+        cache.checkBanks();
+        row(cache, 1, 0, false);
+        row(cache, 0x41, 0, false);
+
+        patterns.map(0, 0x400, secondBank, 0);
+        cache.checkBanks();
+
+        assertEquals(1, row(cache, 1, 0, false)[0]);
+        assertEquals("Other pages untouched", 0, row(cache, 0x41, 0, false)[0]);
+
+        patterns.map(0x400, 0x400, secondBank, 0x400);
+        cache.checkBanks();
+
+        assertEquals(1, row(cache, 0x41, 0, false)[0]);
+    }
+
+    @Test
+    public void testPpuWritesInvalidate(){
+        final Memory vRam = new SimpleMemory(0x4000);
+        final Ricoh2C02 ppu = new Ricoh2C02(vRam, new SimpleMemory(0x100));
+        for (int row = 0; row < 8; row++)
+            set(vRam, 0x0010 + row, 0xFF);
+        set(vRam, 0x2000, 1);
+        ppu.writeRegister(0x2006, 0x3F);
+        ppu.writeRegister(0x2006, 0x01);
+        ppu.writeRegister(0x2007, 0x21);
+        ppu.writeRegister(0x2006, 0x00);
+        ppu.writeRegister(0x2006, 0x00);
+        ppu.writeRegister(0x2001, 0x0A);
+
+        long cycles = 0;
+        ppu.runTo(cycles += 30000);
+        assertEquals(0x21, ppu.getFramebuffer()[0]);
+
+        //Clear the tile's first row, as a game writing CHR RAM would
+        ppu.readRegister(0x2002);
+        ppu.writeRegister(0x2006, 0x00);
+        ppu.writeRegister(0x2006, 0x10);
+        ppu.writeRegister(0x2007, 0x00);
+        ppu.writeRegister(0x2006, 0x00);
+        ppu.writeRegister(0x2006, 0x00);
+        ppu.runTo(cycles + 30000);
+
+        assertEquals(0x00, ppu.getFramebuffer()[0]);
+        assertEquals(0x21, ppu.getFramebuffer()[256]);
+    }
+}
@@ -3,8 +3,6 @@ package com.rox.emu.processor.ricoh2c02;
 import com.pholser.junit.quickcheck.Property;
 import com.pholser.junit.quickcheck.generator.InRange;
 import com.pholser.junit.quickcheck.runner.JUnitQuickcheck;
-import com.rox.emu.env.RoxByte;
-import com.rox.emu.env.RoxWord;
 import com.rox.emu.mem.Memory;
 import com.rox.emu.mem.SimpleMemory;
 import org.junit.Test;
@@ -12,43 +10,29 @@ import org.junit.runner.RunWith;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
-import static org.mockito.Mockito.*;
 
 @RunWith(JUnitQuickcheck.class)
 public class Ricoh2C02Properties {
+    private static final int OAMADDR = 0x2003;
+    private static final int OAMDATA = 0x2004;
+
     @Test
     public void testCreation(){
-        final Ricoh2C02 ppu = new Ricoh2C02(new SimpleMemory(), new SimpleMemory(), new Ricoh2C02Registers(new SimpleMemory()));
+        final Ricoh2C02 ppu = new Ricoh2C02(new SimpleMemory(), new SimpleMemory(Ricoh2C02.OAM_SIZE));
         assertNotNull(ppu);
     }
 
     @Property(trials = 10)
-    public void testGetControlRegister(@InRange(min = "0", max = "255") int byteValue){
-        final Memory vRam = new SimpleMemory();
-        final Memory sprRam = mock(Memory.class);
-        final Ricoh2C02Registers registers = mock(Ricoh2C02Registers.class);
-        final Ricoh2C02 ppu = new Ricoh2C02(vRam, sprRam, registers);
-
-        for (Ricoh2C02Registers.Register register : Ricoh2C02Registers.Register.values()) {
-            when(registers.getRegister(register)).thenReturn(RoxByte.fromLiteral(byteValue));
-            assertEquals(RoxByte.fromLiteral(byteValue), ppu.getRegister(register));
-        }
-    }
+    public void testOamDataReadsBackWhatWasWritten(@InRange(min = "0", max = "255") int oamAddress,
+                                                   @InRange(min = "0", max = "255") int byteValue){
+        final Memory oam = new SimpleMemory(Ricoh2C02.OAM_SIZE);
+        final Ricoh2C02 ppu = new Ricoh2C02(new SimpleMemory(), oam);
 
-    @Property(trials = 10)
-    public void testSetControlRegister(@InRange(min = "0", max = "255") int byteValue){
-        final Memory vRam = new SimpleMemory();
-        final Memory sprRam = mock(Memory.class);
-        final Ricoh2C02Registers registers = mock(Ricoh2C02Registers.class);
-        final Ricoh2C02 ppu = new Ricoh2C02(vRam, sprRam, registers);
+        ppu.writeRegister(OAMADDR, oamAddress);
+        ppu.writeRegister(OAMDATA, byteValue);
+        ppu.writeRegister(OAMADDR, oamAddress);
 
-        for (Ricoh2C02Registers.Register register : Ricoh2C02Registers.Register.values()) {
-            final RoxByte val = RoxByte.fromLiteral(byteValue);
-
-            ppu.setRegister(register, val);
-            verify(registers, times(1)).setRegister(register, val);
-        }
+        assertEquals(byteValue, ppu.readRegister(OAMDATA));
+        assertEquals(byteValue, oam.getRawByte(oamAddress));
     }
-
-
 }
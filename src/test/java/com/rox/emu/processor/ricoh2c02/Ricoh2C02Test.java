@@ -0,0 +1,541 @@
+package com.rox.emu.processor.ricoh2c02;
+
+import com.rox.emu.AllocationMeter;
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import com.rox.emu.mem.Memory;
+import com.rox.emu.mem.SimpleMemory;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class Ricoh2C02Test {
+    private static final int CTRL = 0x2000;
+    private static final int MASK = 0x2001;
+    private static final int STATUS = 0x2002;
+    private static final int SCROLL = 0x2005;
+    private static final int ADDRESS = 0x2006;
+    private static final int DATA = 0x2007;
+
+    private static final int SHOW_ALL = 0x1E;
+    private static final int BACKDROP = 0x0F;
+    private static final int BACKGROUND_COLOUR = 0x21;
+    private static final int SPRITE_COLOUR = 0x30;
+
+    /** CPU cycles in a frame, rounded up */
+    private static final int FRAME_CYCLES = (Ricoh2C02.DOTS_PER_SCANLINE * Ricoh2C02.SCANLINES_PER_FRAME / Ricoh2C02.DOTS_PER_CPU_CYCLE) + 1;
+
+    private Memory vRam;
+    private Memory oam;
+    private Ricoh2C02 ppu;
+    private long cycles;
+
+    @Before
+    public void setUp(){
+        vRam = new SimpleMemory(0x4000);
+        oam = new SimpleMemory(0x100);
+        ppu = new Ricoh2C02(vRam, oam);
+
+        //Tile 1 is solid colour 1, tile 2 is colour 1 in its leftmost column only
+        for (int row = 0; row < 8; row++) {
+            set(vRam, 0x0010 + row, 0xFF);
+            set(vRam, 0x0020 + row, 0x80);
+        }
+        //Hide sprites off screen
+        for (int sprite = 0; sprite < 64; sprite++)
+            set(oam, sprite * 4, 0xFF);
+
+        writePalette(0x00, BACKDROP);
+        writePalette(0x01, BACKGROUND_COLOUR);
+        writePalette(0x11, SPRITE_COLOUR);
+    }
+
+    private static void set(final Memory memory, final int address, final int value){
+        memory.setByteAt(RoxWord.fromLiteral(address), RoxByte.fromLiteral(value));
+    }
+
+    private void writeAddress(final int address){
+        ppu.writeRegister(ADDRESS, address >> 8);
+        ppu.writeRegister(ADDRESS, address & 0xFF);
+    }
+
+    private void writePalette(final int entry, final int colour){
+        writeAddress(0x3F00 + entry);
+        ppu.writeRegister(DATA, colour);
+    }
+
+    private void setSprite(final int sprite, final int y, final int tile, final int attributes, final int x){
+        set(oam, sprite * 4, y);
+        set(oam, sprite * 4 + 1, tile);
+        set(oam, sprite * 4 + 2, attributes);
+        set(oam, sprite * 4 + 3, x);
+    }
+
+    /**
+     * Reset the scroll and render a whole frame from the start of vertical blank
+     */
+    private void renderFrame(final int scrollX){
+        runToScanline(Ricoh2C02.VBLANK_SCANLINE);
+        ppu.readRegister(STATUS);
+        writeAddress(0);
+        ppu.writeRegister(SCROLL, scrollX);
+        ppu.writeRegister(SCROLL, 0);
+        runToScanline(Ricoh2C02.VBLANK_SCANLINE);
+    }
+
+    /**
+     * Run to the start of the next occurrence of <code>scanline</code>
+     */
+    private void runToScanline(final int scanline){
+        while (ppu.getScanline() == scanline)
+            ppu.runTo(++cycles);
+        while (ppu.getScanline() != scanline)
+            ppu.runTo(++cycles);
+    }
+
+    private int pixel(final int x, final int y){
+        return ppu.getFramebuffer()[y * Ricoh2C02.SCREEN_WIDTH + x];
+    }
+
+    @Test
+    public void testVerticalBlankAndNmi(){
+        ppu.writeRegister(CTRL, 0x80);
+
+        runToScanline(Ricoh2C02.VBLANK_SCANLINE);
+        ppu.runTo(++cycles);
+
+        assertTrue(ppu.pollNmi());
+        assertFalse(ppu.pollNmi());
+        assertEquals(0x80, ppu.readRegister(STATUS) & 0x80);
+        assertEquals(0x00, ppu.readRegister(STATUS) & 0x80);
+    }
+
+    @Test
+    public void testTiming(){
+        ppu.runTo(FRAME_CYCLES * 10L);
+
+        assertEquals(10, ppu.getFrame());
+        assertEquals(FRAME_CYCLES * 10L * Ricoh2C02.DOTS_PER_CPU_CYCLE,
+                     (ppu.getFrame() * Ricoh2C02.SCANLINES_PER_FRAME + ppu.getScanline()) * Ricoh2C02.DOTS_PER_SCANLINE + ppu.getDot());
+    }
+
+    @Test
+    public void testRenderingDisabledShowsBackdrop(){
+        renderFrame(0);
+
+        assertEquals(BACKDROP, pixel(0, 0));
+        assertEquals(BACKDROP, pixel(255, 239));
+    }
+
+    @Test
+    public void testBackground(){
+        set(vRam, 0x2000, 1);
+        set(vRam, 0x2000 + 32 * 29 + 31, 1);
+        ppu.writeRegister(MASK, SHOW_ALL);
+
+        renderFrame(0);
+
+        assertEquals(BACKGROUND_COLOUR, pixel(0, 0));
+        assertEquals(BACKGROUND_COLOUR, pixel(7, 7));
+        assertEquals(BACKDROP, pixel(8, 0));
+        assertEquals(BACKDROP, pixel(0, 8));
+        assertEquals(BACKGROUND_COLOUR, pixel(255, 239));
+    }
+
+    @Test
+    public void testBackgroundLeftColumnHidden(){
+        set(vRam, 0x2000, 1);
+        ppu.writeRegister(MASK, SHOW_ALL & ~0x02);
+
+        renderFrame(0);
+
+        assertEquals(BACKDROP, pixel(0, 0));
+    }
+
+    @Test
+    public void testFineAndCoarseScroll(){
+        set(vRam, 0x2002, 1);
+        set(vRam, 0x2400, 1);
+        ppu.writeRegister(MASK, SHOW_ALL);
+
+        renderFrame(11);
+
+        assertEquals(BACKDROP, pixel(4, 0));
+        assertEquals(BACKGROUND_COLOUR, pixel(5, 0));
+        assertEquals(BACKGROUND_COLOUR, pixel(12, 0));
+        assertEquals(BACKDROP, pixel(13, 0));
+        assertEquals("Scrolled into the next nametable", BACKGROUND_COLOUR, pixel(245, 0));
+    }
+
+    @Test
+    public void testAttributes(){
+        set(vRam, 0x2002, 1);
+        set(vRam, 0x2000 + 32 * 2, 1);
+        set(vRam, 0x23C0, 0b00_11_01_00);
+        writePalette(0x05, 0x16);
+        writePalette(0x0D, 0x2A);
+        ppu.writeRegister(MASK, SHOW_ALL);
+
+        renderFrame(0);
+
+        assertEquals(0x16, pixel(16, 0));
+        assertEquals(0x2A, pixel(0, 16));
+    }
+
+    @Test
+    public void testSprite(){
+        setSprite(0, 9, 1, 0, 20);
+        ppu.writeRegister(MASK, SHOW_ALL);
+
+        renderFrame(0);
+
+        assertEquals(BACKDROP, pixel(20, 9));
+        assertEquals(SPRITE_COLOUR, pixel(20, 10));
+        assertEquals(SPRITE_COLOUR, pixel(27, 17));
+        assertEquals(BACKDROP, pixel(28, 10));
+        assertEquals(BACKDROP, pixel(20, 18));
+    }
+
+    @Test
+    public void testSpritePriority(){
+        writePalette(0x15, 0x16);
+        setSprite(0, 9, 1, 0x01, 20);
+        setSprite(1, 9, 1, 0x00, 24);
+        setSprite(2, 49, 1, 0x20, 0);
+        set(vRam, 0x2000 + 32 * 6, 1);
+        ppu.writeRegister(MASK, SHOW_ALL);
+
+        renderFrame(0);
+
+        assertEquals("Lower OAM index in front", 0x16, pixel(24, 10));
+        assertEquals("Behind background", BACKGROUND_COLOUR, pixel(0, 50));
+    }
+
+    @Test
+    public void testFlippedSprites(){
+        setSprite(0, 9, 2, 0x00, 20);
+        setSprite(1, 19, 2, 0x40, 20);
+        ppu.writeRegister(MASK, SHOW_ALL);
+
+        renderFrame(0);
+
+        assertEquals(SPRITE_COLOUR, pixel(20, 10));
+        assertEquals(BACKDROP, pixel(27, 10));
+        assertEquals(BACKDROP, pixel(20, 20));
+        assertEquals(SPRITE_COLOUR, pixel(27, 20));
+    }
+
+    @Test
+    public void testTallSprites(){
+        //Tile 3 (bottom half of the 8x16 sprite using tiles 2 and 3) is solid
+        for (int row = 0; row < 8; row++)
+            set(vRam, 0x0030 + row, 0xFF);
+        setSprite(0, 9, 2, 0x00, 100);
+        setSprite(1, 9, 2, 0x80, 120);
+        ppu.writeRegister(CTRL, 0x20);
+        ppu.writeRegister(MASK, SHOW_ALL);
+
+        runToScanline(Ricoh2C02.VBLANK_SCANLINE);
+        runToScanline(Ricoh2C02.VBLANK_SCANLINE);
+
+        assertEquals(BACKDROP, pixel(107, 10));
+        assertEquals(SPRITE_COLOUR, pixel(107, 18));
+        assertEquals(SPRITE_COLOUR, pixel(127, 10));
+        assertEquals(BACKDROP, pixel(127, 18));
+    }
+
+    @Test
+    public void testSpriteZeroHit(){
+        set(vRam, 0x2000 + 32 * 2 + 4, 1);
+        setSprite(0, 19, 1, 0x20, 36);
+        ppu.writeRegister(MASK, SHOW_ALL);
+
+        renderFrame(0);
+        assertEquals(0x40, ppu.readRegister(STATUS) & 0x40);
+
+        runToScanline(0);
+        assertEquals("Cleared on the pre-render scanline", 0x00, ppu.readRegister(STATUS) & 0x40);
+    }
+
+    @Test
+    public void testSkippedFramesAreNotDrawn(){
+        set(vRam, 0x2000, 1);
+        set(vRam, 0x2000 + 32 * 2 + 4, 1);
+        setSprite(0, 19, 1, 0x20, 36);
+        ppu.writeRegister(MASK, SHOW_ALL);
+        ppu.setRenderInterval(0);
+
+        renderFrame(0);
+
+        assertFalse(ppu.isDrawingFrame());
+        assertEquals(0, pixel(0, 0));
+        assertEquals("Flags kept", 0x40, ppu.readRegister(STATUS) & 0x40);
+    }
+
+    @Test
+    public void testRenderInterval(){
+        ppu.setRenderInterval(3);
+
+        for (int frame = 0; frame < 7; frame++) {
+            runToScanline(0);
+            assertEquals(ppu.getFrame() % 3 == 0, ppu.isDrawingFrame());
+        }
+    }
+
+    @Test
+    public void testRequestFrame(){
+        set(vRam, 0x2000, 1);
+        ppu.writeRegister(MASK, SHOW_ALL);
+        ppu.setRenderInterval(0);
+        renderFrame(0);
+
+        ppu.requestFrame();
+        renderFrame(0);
+        assertEquals(BACKGROUND_COLOUR, pixel(0, 0));
+
+        set(vRam, 0x2000, 0);
+        renderFrame(0);
+        assertEquals("Only the frame requested", BACKGROUND_COLOUR, pixel(0, 0));
+    }
+
+    @Test
+    public void testSpriteZeroHitsInSkippedFramesMatchDrawnFrames(){
+        //Tile 2 is opaque in its leftmost column only, tile 1 entirely
+        for (int column = 0; column < 32; column++) {
+            set(vRam, 0x2000 + 32 * 2 + column, (column % 3 == 0) ? 2 : 0);
+            set(vRam, 0x2000 + 32 * 3 + column, (column % 5 == 0) ? 1 : 0);
+        }
+
+        int hits = 0;
+        int misses = 0;
+        for (int x : new int[] {0, 3, 7, 12, 100, 247, 250, 254, 255}) {
+            for (int attributes : new int[] {0x00, 0x40, 0xC0, 0x20}) {
+                for (int mask : new int[] {SHOW_ALL, SHOW_ALL & ~0x02, SHOW_ALL & ~0x04}) {
+                    for (int scrollX : new int[] {0, 5}) {
+                        setSprite(0, 20, 2, attributes, x);
+                        ppu.invalidateSprites();
+                        ppu.writeRegister(MASK, mask);
+
+                        final int drawn = spriteZeroHitScanline(1, scrollX);
+                        assertEquals(drawn, spriteZeroHitScanline(0, scrollX));
+                        if (drawn < 0)
+                            misses++;
+                        else
+                            hits++;
+                    }
+                }
+            }
+        }
+        assertTrue(hits > 0);
+        assertTrue(misses > 0);
+    }
+
+    /**
+     * @return the scanline on which sprite zero hits the background in the next frame, or -1 if it doesn't
+     */
+    private int spriteZeroHitScanline(final int renderInterval, final int scrollX){
+        runToScanline(Ricoh2C02.VBLANK_SCANLINE);
+        ppu.setRenderInterval(renderInterval);
+        ppu.readRegister(STATUS);
+        writeAddress(0);
+        ppu.writeRegister(SCROLL, scrollX);
+        ppu.writeRegister(SCROLL, 0);
+
+        runToScanline(0);
+        while (ppu.getScanline() < Ricoh2C02.SCREEN_HEIGHT) {
+            final int scanline = ppu.getScanline();
+            if ((ppu.readRegister(STATUS) & 0x40) != 0)
+                return scanline;
+            runToScanline(scanline + 1);
+        }
+        return -1;
+    }
+
+    @Test
+    public void testSpriteOverflow(){
+        for (int sprite = 0; sprite < 9; sprite++)
+            setSprite(sprite, 99, 1, 0, sprite * 8);
+        ppu.writeRegister(MASK, SHOW_ALL);
+
+        renderFrame(0);
+
+        assertEquals(0x20, ppu.readRegister(STATUS) & 0x20);
+        assertEquals(SPRITE_COLOUR, pixel(63, 100));
+        assertEquals("Ninth sprite dropped", BACKDROP, pixel(64, 100));
+    }
+
+    @Test
+    public void testSpritesEvaluatedAgainAfterOamWrite(){
+        setSprite(0, 9, 1, 0, 20);
+        ppu.writeRegister(MASK, SHOW_ALL);
+        renderFrame(0);
+
+        ppu.writeRegister(0x2003, 0x00);
+        ppu.writeRegister(0x2004, 99);
+        renderFrame(0);
+
+        assertEquals(BACKDROP, pixel(20, 10));
+        assertEquals(SPRITE_COLOUR, pixel(20, 100));
+    }
+
+    @Test
+    public void testSpritesEvaluatedAgainAfterSizeChange(){
+        //Tiles 0 and 1 when 8x16, so solid in its lower half
+        setSprite(0, 9, 0, 0, 20);
+        ppu.writeRegister(MASK, SHOW_ALL);
+        renderFrame(0);
+        assertEquals(BACKDROP, pixel(20, 20));
+
+        ppu.writeRegister(CTRL, 0x20);
+        renderFrame(0);
+
+        assertEquals(SPRITE_COLOUR, pixel(20, 20));
+    }
+
+    @Test
+    public void testOamDma(){
+        final Memory cpuMemory = new SimpleMemory();
+        for (int i = 0; i < Ricoh2C02.OAM_SIZE; i++)
+            set(cpuMemory, 0x0200 + i, i);
+        ppu.writeRegister(0x2003, 0x04);
+
+        ppu.oamDma(cpuMemory, 0x02);
+
+        assertEquals("Written from OAMADDR", 0x00, oam.getRawByte(0x04));
+        assertEquals(0xFB, oam.getRawByte(0xFF));
+        assertEquals("Wrapping around", 0xFC, oam.getRawByte(0x00));
+        assertEquals(0xFF, oam.getRawByte(0x03));
+    }
+
+    @Test
+    public void testOamDmaEvaluatesSprites(){
+        final Memory cpuMemory = new SimpleMemory();
+        set(cpuMemory, 0x0300, 9);
+        set(cpuMemory, 0x0301, 1);
+        set(cpuMemory, 0x0303, 20);
+        for (int sprite = 1; sprite < 64; sprite++)
+            set(cpuMemory, 0x0300 + (sprite * 4), 0xFF);
+        ppu.writeRegister(MASK, SHOW_ALL);
+        renderFrame(0);
+
+        ppu.oamDma(cpuMemory, 0x03);
+        renderFrame(0);
+
+        assertEquals(SPRITE_COLOUR, pixel(20, 10));
+    }
+
+    @Test
+    public void testSpriteZeroLines(){
+        setSprite(0, 9, 1, 0, 20);
+        setSprite(1, 99, 1, 0, 20);
+        ppu.invalidateSprites();
+
+        assertFalse(ppu.isSpriteZeroLine(9));
+        assertTrue(ppu.isSpriteZeroLine(10));
+        assertTrue(ppu.isSpriteZeroLine(17));
+        assertFalse(ppu.isSpriteZeroLine(18));
+        assertFalse(ppu.isSpriteZeroLine(100));
+    }
+
+    @Test
+    public void testDataReadsAreBuffered(){
+        set(vRam, 0x2100, 0x42);
+        set(vRam, 0x2120, 0x43);
+        ppu.writeRegister(CTRL, 0x04);
+        writeAddress(0x2100);
+
+        ppu.readRegister(DATA);
+        assertEquals(0x42, ppu.readRegister(DATA));
+        assertEquals(0x43, ppu.readRegister(DATA));
+
+        writeAddress(0x3F01);
+        assertEquals("Palette reads are immediate", BACKGROUND_COLOUR, ppu.readRegister(DATA));
+    }
+
+    @Test
+    public void testDataWritesIncrement(){
+        writeAddress(0x2400);
+        ppu.writeRegister(DATA, 0x42);
+        ppu.writeRegister(DATA, 0x43);
+
+        assertEquals(0x42, vRam.getRawByte(0x2400));
+        assertEquals(0x43, vRam.getRawByte(0x2401));
+    }
+
+    @Test
+    public void testScanlineClock(){
+        final int[] scanlines = new int[1];
+        ppu.setScanlineClock(() -> scanlines[0]++);
+        ppu.writeRegister(MASK, SHOW_ALL);
+
+        runToScanline(Ricoh2C02.VBLANK_SCANLINE);
+
+        assertEquals(Ricoh2C02.SCREEN_HEIGHT, scanlines[0]);
+    }
+
+    @Test
+    public void testNextEventIsVblankWithNmiEnabled(){
+        assertEquals(Long.MAX_VALUE, ppu.getNextEventCycle());
+
+        ppu.writeRegister(CTRL, 0x80);
+        ppu.writeRegister(MASK, SHOW_ALL);
+        assertEquals(((Ricoh2C02.VBLANK_SCANLINE * Ricoh2C02.DOTS_PER_SCANLINE) + 1 + 2) / Ricoh2C02.DOTS_PER_CPU_CYCLE, ppu.getNextEventCycle());
+
+        //Including across the odd frames a dot short
+        for (int frame = 0; frame < 4; frame++) {
+            final long nmi = ppu.getNextEventCycle();
+            ppu.runTo(nmi - 1);
+            assertFalse(ppu.pollNmi());
+            ppu.runTo(nmi);
+            assertTrue(ppu.pollNmi());
+        }
+    }
+
+    @Test
+    public void testNextEventIsScanlineClockWhenRendering(){
+        final int[] scanlines = new int[1];
+        ppu.setScanlineClock(() -> scanlines[0]++);
+        assertEquals(Long.MAX_VALUE, ppu.getNextEventCycle());
+
+        ppu.writeRegister(MASK, SHOW_ALL);
+        final long clock = ppu.getNextEventCycle();
+        ppu.runTo(clock - 1);
+        assertEquals(0, scanlines[0]);
+        ppu.runTo(clock);
+        assertEquals(1, scanlines[0]);
+
+        assertEquals((Ricoh2C02.DOTS_PER_SCANLINE + 260 + 2) / Ricoh2C02.DOTS_PER_CPU_CYCLE, ppu.getNextEventCycle());
+    }
+
+    @Test
+    public void testCatchUpBeforeRegisterAccess(){
+        final long[] cpuCycle = {0};
+        ppu.setCatchUpClock(() -> cpuCycle[0]);
+
+        cpuCycle[0] = FRAME_CYCLES / 2;
+        ppu.writeRegister(MASK, SHOW_ALL);
+        assertEquals(FRAME_CYCLES / 2, ppu.getCycles());
+
+        //Mid vertical blank
+        cpuCycle[0] = ((Ricoh2C02.VBLANK_SCANLINE + 10) * Ricoh2C02.DOTS_PER_SCANLINE) / Ricoh2C02.DOTS_PER_CPU_CYCLE;
+        assertEquals(0x80, ppu.readRegister(STATUS) & 0x80);
+        assertEquals(cpuCycle[0], ppu.getCycles());
+    }
+
+    @Test
+    public void testFramesDoNotAllocate(){
+        assumeTrue(AllocationMeter.isSupported());
+        set(vRam, 0x2000, 1);
+        setSprite(0, 9, 1, 0, 20);
+        ppu.writeRegister(MASK, SHOW_ALL);
+
+        final double bytesPerFrame = AllocationMeter.bytesPerOperation(1, () -> {
+            cycles += FRAME_CYCLES;
+            ppu.runTo(cycles);
+        });
+
+        assertEquals(0, bytesPerFrame, 0);
+    }
+}
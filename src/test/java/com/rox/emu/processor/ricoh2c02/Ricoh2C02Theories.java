@@ -1,8 +1,5 @@
 package com.rox.emu.processor.ricoh2c02;
 
-import com.rox.emu.env.RoxByte;
-import com.rox.emu.env.RoxWord;
-import com.rox.emu.mem.Memory;
 import com.rox.emu.mem.SimpleMemory;
 import org.junit.experimental.theories.DataPoint;
 import org.junit.experimental.theories.Theories;
@@ -12,29 +9,27 @@ import org.junit.runner.RunWith;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assume.assumeThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 @RunWith(Theories.class)
 public class Ricoh2C02Theories {
+    private static final int OAMADDR = 0x2003;
+    private static final int OAMDATA = 0x2004;
+
     @DataPoint
     public static int LOWEST_VALID_REGISTER_VALUE = 0;
     @DataPoint
     public static int HIGHEST_VALID_REGISTER_VALUE = 255;
 
     @Theory
-    public void testGetControlRegister(int byteValue){
+    public void testOamDataReadsBackWhatWasWritten(int byteValue){
         assumeThat(byteValue, is(both(greaterThanOrEqualTo(LOWEST_VALID_REGISTER_VALUE)).and(lessThanOrEqualTo(HIGHEST_VALID_REGISTER_VALUE))));
 
-        final Memory vRam = new SimpleMemory();
-        final Memory sprRam = mock(Memory.class);
-        final Ricoh2C02Registers registers = mock(Ricoh2C02Registers.class);
+        final Ricoh2C02 ppu = new Ricoh2C02(new SimpleMemory(), new SimpleMemory(Ricoh2C02.OAM_SIZE));
 
-        final Ricoh2C02 ppu = new Ricoh2C02(vRam, sprRam, registers);
+        ppu.writeRegister(OAMADDR, byteValue);
+        ppu.writeRegister(OAMDATA, byteValue);
+        ppu.writeRegister(OAMADDR, byteValue);
 
-        for (Ricoh2C02Registers.Register register : Ricoh2C02Registers.Register.values()) {
-            when(registers.getRegister(register)).thenReturn(RoxByte.fromLiteral(byteValue));
-            assertThat(RoxByte.fromLiteral(byteValue), equalTo(ppu.getRegister(register)));
-        }
+        assertThat(ppu.readRegister(OAMDATA), equalTo(byteValue));
     }
 }
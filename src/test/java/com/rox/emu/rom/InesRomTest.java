@@ -1,7 +1,14 @@
 package com.rox.emu.rom;
 
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertNotNull;
 import static junit.framework.TestCase.fail;
@@ -42,6 +49,97 @@ public class InesRomTest {
         assertFalse(rom.getHeader().getRomControlOptions().isTrainerPresent());
     }
 
+    @Test
+    public void testProgramAndCharacterRom(){
+        final byte[] image = asZeroPadded(new byte[] {0x4E, 0x45, 0x53, 0x1A, 0x1, 0x1}, ROM_SIZE + InesRom.CHR_ROM_BLOCK_SIZE + 2);
+        image[InesRomHeader.HEADER_SIZE] = 0x42;
+        image[ROM_SIZE] = (byte)0x84;
+        image[ROM_SIZE + InesRom.CHR_ROM_BLOCK_SIZE] = 0x7F;
+
+        final InesRom rom = InesRom.from(image);
+        image[InesRomHeader.HEADER_SIZE] = 0x0;
+
+        assertEquals(InesRom.PRG_ROM_BLOCK_SIZE, rom.getProgramRom().getSize());
+        assertEquals(RoxByte.fromLiteral(0x42), rom.getProgramRom().getByte(RoxWord.ZERO));
+        assertEquals(InesRom.CHR_ROM_BLOCK_SIZE, rom.getCharacterRom().getSize());
+        assertEquals(RoxByte.fromLiteral(0x84), rom.getCharacterRom().getByte(RoxWord.ZERO));
+        assertEquals(2, rom.getFooter().length);
+        assertEquals(0x7F, rom.getFooter()[0]);
+    }
+
+    @Test
+    public void testFromPath() throws IOException {
+        final byte[] image = asZeroPadded(new byte[] {0x4E, 0x45, 0x53, 0x1A, 0x1, 0x1, 0b00000100},
+                                          ROM_SIZE + InesRom.TRAINER_SIZE + InesRom.CHR_ROM_BLOCK_SIZE + 1);
+        image[InesRomHeader.HEADER_SIZE] = 0x12;
+        image[InesRomHeader.HEADER_SIZE + InesRom.TRAINER_SIZE] = 0x42;
+        image[ROM_SIZE + InesRom.TRAINER_SIZE] = (byte)0x84;
+        image[image.length - 1] = 0x7F;
+
+        final Path file = Files.createTempFile("InesRomTest", ".nes");
+        file.toFile().deleteOnExit();
+        Files.write(file, image);
+
+        final InesRom rom = InesRom.from(file);
+
+        assertTrue(rom.getHeader().getRomControlOptions().isTrainerPresent());
+        assertEquals(InesRom.TRAINER_SIZE, rom.getTrainerRom().getSize());
+        assertEquals(RoxByte.fromLiteral(0x12), rom.getTrainerRom().getByte(RoxWord.ZERO));
+        assertEquals(InesRom.PRG_ROM_BLOCK_SIZE, rom.getProgramRom().getSize());
+        assertEquals(RoxByte.fromLiteral(0x42), rom.getProgramRom().getByte(RoxWord.ZERO));
+        assertEquals(InesRom.CHR_ROM_BLOCK_SIZE, rom.getCharacterRom().getSize());
+        assertEquals(RoxByte.fromLiteral(0x84), rom.getCharacterRom().getByte(RoxWord.ZERO));
+        assertEquals(1, rom.getFooter().length);
+        assertEquals(0x7F, rom.getFooter()[0]);
+    }
+
+    @Test
+    public void testLargeBlockCounts(){
+        final InesRom rom = InesRom.from(asZeroPadded(new byte[] {0x4E, 0x45, 0x53, 0x1A, (byte)0x80, (byte)0xFF}, ROM_SIZE));
+
+        assertEquals(0x80, rom.getHeader().getPrgBlocks());
+        assertEquals(0xFF, rom.getHeader().getChrBlocks());
+        assertEquals(0x80 * InesRom.PRG_ROM_BLOCK_SIZE, rom.getProgramRom().getSize());
+    }
+
+    @Test
+    public void testFromStream() throws IOException {
+        final byte[] image = asZeroPadded(new byte[] {0x4E, 0x45, 0x53, 0x1A, 0x1, 0x1}, ROM_SIZE + InesRom.CHR_ROM_BLOCK_SIZE);
+        image[InesRomHeader.HEADER_SIZE] = 0x42;
+        image[ROM_SIZE] = (byte)0x84;
+
+        final InesRom rom = InesRom.from(new ByteArrayInputStream(image));
+
+        assertEquals(1, rom.getHeader().getPrgBlocks());
+        assertEquals(InesRom.PRG_ROM_BLOCK_SIZE, rom.getProgramRom().getSize());
+        assertEquals(InesRom.CHR_ROM_BLOCK_SIZE, rom.getCharacterRom().getSize());
+        assertEquals(RoxByte.fromLiteral(0x42), rom.getProgramRom().getByte(RoxWord.ZERO));
+        assertEquals(RoxByte.fromLiteral(0x84), rom.getCharacterRom().getByte(RoxWord.ZERO));
+    }
+
+    @Test
+    public void testTruncatedStreamIsZeroPadded() throws IOException {
+        final byte[] image = asZeroPadded(new byte[] {0x4E, 0x45, 0x53, 0x1A, 0x1, 0x0}, ROM_SIZE - 1);
+
+        final InesRom rom = InesRom.from(new ByteArrayInputStream(image));
+
+        assertEquals(InesRom.PRG_ROM_BLOCK_SIZE, rom.getProgramRom().getSize());
+        assertEquals(RoxByte.ZERO, rom.getProgramRom().getByte(RoxWord.fromLiteral(InesRom.PRG_ROM_BLOCK_SIZE - 1)));
+    }
+
+    @Test(expected = UnknownRomException.class)
+    public void testInvalidStream() throws IOException {
+        InesRom.from(new ByteArrayInputStream(new byte[] {0x4E, 0x45, 0x53}));
+    }
+
+    @Test
+    public void testTruncatedRomIsZeroPadded(){
+        final InesRom rom = InesRom.from(asZeroPadded(new byte[] {0x4E, 0x45, 0x53, 0x1A, 0x1, 0x0}, ROM_SIZE - 1));
+
+        assertEquals(InesRom.PRG_ROM_BLOCK_SIZE, rom.getProgramRom().getSize());
+        assertEquals(RoxByte.ZERO, rom.getProgramRom().getByte(RoxWord.fromLiteral(InesRom.PRG_ROM_BLOCK_SIZE - 1)));
+    }
+
     @Test
     public void testInvalidFromWithBytes(){
         try {
@@ -0,0 +1,120 @@
+package com.rox.emu.rom;
+
+import com.rox.emu.env.RoxWord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class RomArchivesTest {
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("RomArchivesTest");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+                Files.delete(path);
+        }
+    }
+
+    private static byte[] rom(final int firstProgramByte){
+        final byte[] image = new byte[InesRomHeader.HEADER_SIZE + InesRom.PRG_ROM_BLOCK_SIZE + InesRom.CHR_ROM_BLOCK_SIZE];
+        System.arraycopy(new byte[] {'N', 'E', 'S', 0x1A, 0x1, 0x1}, 0, image, 0, 6);
+        image[InesRomHeader.HEADER_SIZE] = (byte) firstProgramByte;
+        return image;
+    }
+
+    private Path zip(final String... names) throws IOException {
+        final Path file = directory.resolve("roms.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(file))) {
+            for (int i = 0; i < names.length; i++) {
+                out.putNextEntry(new ZipEntry(names[i]));
+                if (!names[i].endsWith("/"))
+                    out.write(names[i].endsWith(".txt") ? "Not a ROM".getBytes("UTF-8") : rom(i));
+                out.closeEntry();
+            }
+        }
+        return file;
+    }
+
+    private static int firstProgramByte(final InesRom rom){
+        return rom.getProgramRom().getByte(RoxWord.ZERO).getRawValue();
+    }
+
+    @Test
+    public void testLoadGzip() throws IOException {
+        final Path file = directory.resolve("rom.nes.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(rom(0x42));
+        }
+
+        final InesRom rom = RomArchives.load(file);
+
+        assertEquals(0x42, firstProgramByte(rom));
+        assertEquals(InesRom.CHR_ROM_BLOCK_SIZE, rom.getCharacterRom().getSize());
+    }
+
+    @Test
+    public void testLoadZipLoadsFirstRom() throws IOException {
+        final InesRom rom = RomArchives.load(zip("readme.txt", "first.nes", "second.nes"));
+
+        assertEquals(1, firstProgramByte(rom));
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadZipWithoutRoms() throws IOException {
+        RomArchives.load(zip("readme.txt"));
+    }
+
+    @Test
+    public void testLoadUncompressed() throws IOException {
+        final Path file = directory.resolve("rom.nes");
+        Files.write(file, rom(0x43));
+
+        assertEquals(0x43, firstProgramByte(RomArchives.load(file)));
+    }
+
+    @Test
+    public void testLoadAll() throws IOException {
+        final Map<String, InesRom> roms = RomArchives.loadAll(zip("b.nes", "readme.txt", "dir/", "dir/a.NES", "c.nes"),
+                                                              new ForkJoinPool(2));
+
+        assertEquals(Arrays.asList("b.nes", "c.nes", "dir/a.NES"), new ArrayList<>(roms.keySet()));
+        assertEquals(0, firstProgramByte(roms.get("b.nes")));
+        assertEquals(3, firstProgramByte(roms.get("dir/a.NES")));
+        assertEquals(4, firstProgramByte(roms.get("c.nes")));
+    }
+
+    @Test(expected = UnknownRomException.class)
+    public void testLoadAllWithInvalidRom() throws IOException {
+        final Path file = directory.resolve("invalid.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(file))) {
+            out.putNextEntry(new ZipEntry("invalid.nes"));
+            out.write(new byte[] {0x1, 0x2, 0x3, 0x4});
+            out.closeEntry();
+        }
+
+        RomArchives.loadAll(file);
+    }
+}
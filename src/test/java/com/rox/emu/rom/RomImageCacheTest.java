@@ -0,0 +1,102 @@
+package com.rox.emu.rom;
+
+import com.rox.emu.env.RoxByte;
+import com.rox.emu.env.RoxWord;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class RomImageCacheTest {
+    private static final int ROM_SIZE = InesRomHeader.HEADER_SIZE + InesRom.PRG_ROM_BLOCK_SIZE;
+
+    private RomImageCache cache;
+
+    @Before
+    public void setUp(){
+        cache = new RomImageCache();
+    }
+
+    private static byte[] romImage(int firstProgramByte){
+        final byte[] image = new byte[ROM_SIZE];
+        System.arraycopy(new byte[] {'N', 'E', 'S', 0x1A, 0x1, 0x0}, 0, image, 0, 6);
+        image[InesRomHeader.HEADER_SIZE] = (byte) firstProgramByte;
+        return image;
+    }
+
+    @Test
+    public void testSameContentIsShared(){
+        final InesRom rom = cache.get(romImage(0x42));
+
+        assertSame(rom, cache.get(romImage(0x42)));
+        assertSame(rom.getProgramRom(), cache.get(romImage(0x42)).getProgramRom());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testDifferentContentIsNotShared(){
+        final InesRom rom = cache.get(romImage(0x42));
+        final InesRom otherRom = cache.get(romImage(0x43));
+
+        assertNotSame(rom, otherRom);
+        assertEquals(RoxByte.fromLiteral(0x42), rom.getProgramRom().getByte(RoxWord.ZERO));
+        assertEquals(RoxByte.fromLiteral(0x43), otherRom.getProgramRom().getByte(RoxWord.ZERO));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testCachedRomIsUnaffectedByChangesToTheImage(){
+        final byte[] image = romImage(0x42);
+        final InesRom rom = cache.get(image);
+
+        image[InesRomHeader.HEADER_SIZE] = 0x01;
+
+        assertEquals(RoxByte.fromLiteral(0x42), rom.getProgramRom().getByte(RoxWord.ZERO));
+    }
+
+    @Test
+    public void testEvictAndClear(){
+        cache.get(romImage(0x42));
+        cache.get(romImage(0x43));
+
+        cache.evict(romImage(0x42));
+        assertFalse(cache.contains(romImage(0x42)));
+        assertTrue(cache.contains(romImage(0x43)));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidRomIsNotCached(){
+        try {
+            cache.get(new byte[] {'N', 'E', 'S'});
+            fail("An invalid ROM should throw an exception");
+        }catch(UnknownRomException e){
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    public void testConcurrentGetsShareOneRom() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Callable<InesRom>> gets = new ArrayList<>();
+            for (int i = 0; i < 64; i++)
+                gets.add(() -> cache.get(romImage(0x42)));
+
+            final InesRom rom = cache.get(romImage(0x42));
+            for (Future<InesRom> result : executor.invokeAll(gets))
+                assertSame(rom, result.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
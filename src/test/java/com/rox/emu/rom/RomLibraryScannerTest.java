@@ -0,0 +1,172 @@
+package com.rox.emu.rom;
+
+import com.rox.emu.rom.RomControlOptions.Mirroring;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class RomLibraryScannerTest {
+    private Path library;
+    private RomLibraryScanner scanner;
+
+    @Before
+    public void setUp() throws IOException {
+        library = Files.createTempDirectory("RomLibraryScannerTest");
+        scanner = new RomLibraryScanner();
+
+        writeRom(library.resolve("horizontal.nes"), 0b00000000, 0x0, 0x42);
+        writeRom(library.resolve("vertical.nes"), 0b00010001, 0x0, 0x43);
+        Files.createDirectories(library.resolve("sub/dir"));
+        writeRom(library.resolve("sub/trainer.nes"), 0b00000100, 0x10, 0x44);
+        writeRom(library.resolve("sub/dir/mapper.nes"), 0b00010000, 0x40, 0x42);
+        Files.write(library.resolve("sub/readme.txt"), "Not a ROM".getBytes("UTF-8"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(library)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+                Files.delete(path);
+        }
+    }
+
+    private static void writeRom(final Path file, final int flags6, final int flags7, final int firstProgramByte) throws IOException {
+        final boolean trainer = (flags6 & 0b00000100) != 0;
+        final int programOffset = InesRomHeader.HEADER_SIZE + (trainer ? InesRom.TRAINER_SIZE : 0);
+        final byte[] image = new byte[programOffset + InesRom.PRG_ROM_BLOCK_SIZE + InesRom.CHR_ROM_BLOCK_SIZE];
+        System.arraycopy(new byte[] {'N', 'E', 'S', 0x1A, 0x1, 0x1, (byte) flags6, (byte) flags7}, 0, image, 0, 8);
+        image[programOffset] = (byte) firstProgramByte;
+        Files.write(file, image);
+    }
+
+    private static String crc32Of(final int firstByte, final int size){
+        final byte[] contents = new byte[size];
+        contents[0] = (byte) firstByte;
+        final CRC32 crc32 = new CRC32();
+        crc32.update(contents);
+        return String.format("%08x", crc32.getValue());
+    }
+
+    @Test
+    public void testScan() throws IOException {
+        final RomCatalogue catalogue = scanner.scan(library);
+
+        assertEquals(4, catalogue.size());
+        assertEquals(4, scanner.getFilesHashed());
+        assertNull(catalogue.get(library.resolve("sub/readme.txt")));
+
+        final RomCatalogue.Entry entry = catalogue.get(library.resolve("sub/trainer.nes"));
+        assertNotNull(entry);
+        assertEquals(1, entry.getPrgBlocks());
+        assertEquals(1, entry.getChrBlocks());
+        assertEquals(0x10, entry.getMapperNumber());
+        assertTrue(entry.isTrainerPresent());
+        assertEquals(crc32Of(0x44, InesRom.PRG_ROM_BLOCK_SIZE), entry.getPrgCrc32());
+        assertEquals(crc32Of(0x00, InesRom.CHR_ROM_BLOCK_SIZE), entry.getChrCrc32());
+        assertEquals(40, entry.getPrgSha1().length());
+    }
+
+    @Test
+    public void testUnreadableFilesSkipped() throws IOException {
+        Files.createSymbolicLink(library.resolve("sub/deleted.nes"), library.resolve("sub/missing.nes"));
+
+        final RomCatalogue catalogue = scanner.scan(library);
+
+        assertEquals(4, catalogue.size());
+        assertNull(catalogue.get(library.resolve("sub/deleted.nes")));
+    }
+
+    @Test
+    public void testTruncatedRomZeroPadded() throws IOException {
+        final Path truncated = library.resolve("truncated.nes");
+        final byte[] image = Files.readAllBytes(library.resolve("horizontal.nes"));
+        Files.write(truncated, Arrays.copyOf(image, InesRomHeader.HEADER_SIZE + 1));
+
+        final RomCatalogue.Entry entry = scanner.scan(library).get(truncated);
+
+        assertNotNull(entry);
+        assertEquals(crc32Of(0x42, InesRom.PRG_ROM_BLOCK_SIZE), entry.getPrgCrc32());
+        assertEquals(crc32Of(0x00, InesRom.CHR_ROM_BLOCK_SIZE), entry.getChrCrc32());
+    }
+
+    @Test
+    public void testQueries() throws IOException {
+        final RomCatalogue catalogue = scanner.scan(library);
+
+        assertEquals(1, catalogue.withMapper(0x41).size());
+        assertEquals(1, catalogue.withMapper(0x1).size());
+        assertEquals(0, catalogue.withMapper(0x2).size());
+        assertEquals(1, catalogue.withMirroring(Mirroring.VERTICAL).size());
+        assertEquals(3, catalogue.withMirroring(Mirroring.HORIZONTAL).size());
+        assertEquals(1, catalogue.withTrainer(true).size());
+
+        final List<RomCatalogue.Entry> sameProgram = catalogue.withHash(crc32Of(0x42, InesRom.PRG_ROM_BLOCK_SIZE).toUpperCase());
+        assertEquals(2, sameProgram.size());
+
+        final String sha1 = catalogue.get(library.resolve("vertical.nes")).getPrgSha1();
+        assertEquals(1, catalogue.withHash(sha1).size());
+        assertEquals(4, catalogue.withHash(crc32Of(0x00, InesRom.CHR_ROM_BLOCK_SIZE)).size());
+        assertEquals(1, catalogue.withHash(sha1.toUpperCase()).size());
+        assertEquals(0, catalogue.withHash("not a hash").size());
+        assertEquals(0, catalogue.withHash("xyz12345").size());
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        final RomCatalogue catalogue = scanner.scan(library);
+        final Path index = library.resolve("catalogue.idx");
+
+        catalogue.save(index);
+        final RomCatalogue loaded = RomCatalogue.load(index);
+
+        assertEquals(catalogue.size(), loaded.size());
+        for (RomCatalogue.Entry entry : catalogue.getEntries()) {
+            final RomCatalogue.Entry loadedEntry = loaded.get(entry.getPath());
+            assertEquals(entry.toString(), loadedEntry.toString());
+            assertEquals(entry.getPrgSha1(), loadedEntry.getPrgSha1());
+            assertEquals(entry.getChrSha1(), loadedEntry.getChrSha1());
+            assertEquals(entry.getSize(), loadedEntry.getSize());
+            assertEquals(entry.getLastModified(), loadedEntry.getLastModified());
+        }
+    }
+
+    @Test
+    public void testLoadMissingCatalogue() throws IOException {
+        assertEquals(0, RomCatalogue.load(library.resolve("missing.idx")).size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadInvalidCatalogue() throws IOException {
+        RomCatalogue.load(library.resolve("sub/readme.txt"));
+    }
+
+    @Test
+    public void testRescanOnlyHashesChangedFiles() throws IOException {
+        final RomCatalogue catalogue = scanner.scan(library);
+        final Path changed = library.resolve("vertical.nes");
+        writeRom(changed, 0b00000001, 0x0, 0x45);
+        Files.setLastModifiedTime(changed, FileTime.fromMillis(catalogue.get(changed).getLastModified() + 2000));
+        Files.delete(library.resolve("horizontal.nes"));
+
+        final RomCatalogue rescanned = scanner.rescan(catalogue, library);
+
+        assertEquals(5, scanner.getFilesHashed());
+        assertEquals(3, rescanned.size());
+        assertNull(rescanned.get(library.resolve("horizontal.nes")));
+        assertSame(catalogue.get(library.resolve("sub/trainer.nes")), rescanned.get(library.resolve("sub/trainer.nes")));
+        assertEquals(crc32Of(0x45, InesRom.PRG_ROM_BLOCK_SIZE), rescanned.get(changed).getPrgCrc32());
+    }
+}